@@ -0,0 +1,46 @@
+package com.smpp.client.benchmarks;
+
+// Reports the allocation rate and the garbage collections of each benchmark.
+import org.openjdk.jmh.profile.GCProfiler;
+// Runs the benchmarks with the given options.
+import org.openjdk.jmh.runner.Runner;
+// Thrown in case where the benchmarks cannot be run.
+import org.openjdk.jmh.runner.RunnerException;
+// The options parsed out of the command line, e.g. a regular expression selecting the benchmarks.
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+// Builds the options of the run.
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Run the benchmarks of the hot paths of the client, reporting the throughput and, through the "gc" profiler, the
+ * allocation rate of each benchmark ("gc.alloc.rate.norm" is the number of bytes allocated per operation).
+ *
+ * The command line options are the ones of "JMH", e.g. "java -jar target/benchmarks.jar DeliveryReceipt -f 1"
+ * runs the "DeliveryReceiptBenchmark" only, in a single fork.
+ *
+ * @author  Aristotelis Metsinis ( aristotelis.metsinis@gmail.com )
+ * @version 1.0
+ * @since   January 2022
+ */
+public class BenchmarkRunner {
+
+    /**
+     * Main method.
+     *
+     * @param args The "JMH" command line options.
+     * @throws RunnerException In case where the benchmarks cannot be run.
+     */
+    public static void main( String[] args ) throws RunnerException {
+        CommandLineOptions commandLine;
+        try {
+            commandLine = new CommandLineOptions( args );
+        } catch ( CommandLineOptionException e ) {
+            System.err.println( "Error parsing command line: " + e.getMessage() );
+            System.exit( 1 );
+            return;
+        }
+        // Always attach the "gc" profiler, so that allocation regressions show up next to the throughput.
+        new Runner( new OptionsBuilder().parent( commandLine ).addProfiler( GCProfiler.class ).build() ).run();
+    }
+}
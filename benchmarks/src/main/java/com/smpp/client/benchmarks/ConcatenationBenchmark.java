@@ -0,0 +1,144 @@
+package com.smpp.client.benchmarks;
+
+// Utility Java classes for working with GSM mobile technologies.
+import com.cloudhopper.commons.gsm.GsmUtil;
+// Encode the text of a "Text" or "Flash" SMS into the fewest parts.
+import com.smpp.client.GsmEncoder;
+// Allocate the reference numbers of the concatenated messages.
+import com.smpp.client.ConcatenationReferences;
+
+// The annotations of the "JMH" benchmarks.
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+// A standard set of "Charsets".
+import java.nio.charset.StandardCharsets;
+// This class contains various methods for manipulating arrays (such as sorting and searching).
+import java.util.Arrays;
+// An ordered collection (also known as a sequence).
+import java.util.List;
+// A "TimeUnit" represents time durations at a given unit of granularity.
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark the segmentation of a long text into concatenated short messages, as "submitMessage" does: the "GSM"
+ * 7-bit encoding (unpacked and packed), the national language tables and the "UCS-2" fallback, against the former "Latin-1" split of "GsmUtil".
+ *
+ * @author  Aristotelis Metsinis ( aristotelis.metsinis@gmail.com )
+ * @version 1.0
+ * @since   January 2022
+ */
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.SECONDS )
+@Warmup( iterations = 3, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+@State( Scope.Thread )
+public class ConcatenationBenchmark {
+    // The length of the text; "200" is the two-part message of "tcp_smpp_traces/sms_concatenated.txt".
+    @Param( { "200", "1000" } )
+    private int length;
+
+    // The "Latin-1" bytes of the text.
+    private byte[] text;
+    // The text of the message; fits the "GSM" 7-bit default alphabet.
+    private String gsmText;
+    // The text of the message, with a character out of the "GSM" 7-bit default alphabet, i.e. sent in "UCS-2".
+    private String ucs2Text;
+    // The text of the message, with a Turkish character, i.e. sent with the national language tables.
+    private String nationalText;
+
+    /**
+     * Prepare the inputs.
+     */
+    @Setup
+    public void setup() {
+        gsmText = Messages.text( length );
+        ucs2Text = "\u0410" + gsmText.substring( 1 );
+        nationalText = "\u015F" + gsmText.substring( 1 );
+        text = gsmText.getBytes( StandardCharsets.ISO_8859_1 );
+    }
+
+    /**
+     * Split the text into concatenated short messages.
+     *
+     * @return The short messages.
+     */
+    @Benchmark
+    public byte[][] createConcatenatedBinaryShortMessages() {
+        return GsmUtil.createConcatenatedBinaryShortMessages( text, ( byte ) 0x2E );
+    }
+
+    /**
+     * Encode the text in the "GSM" 7-bit default alphabet, one septet per octet.
+     *
+     * @return The short messages.
+     */
+    @Benchmark
+    public List<byte[]> encodeGsm() {
+        return GsmEncoder.encode( gsmText, () -> 0x2E, true, false, null ).getParts();
+    }
+
+    /**
+     * Encode the text in the "GSM" 7-bit default alphabet, packed.
+     *
+     * @return The short messages.
+     */
+    @Benchmark
+    public List<byte[]> encodeGsmPacked() {
+        return GsmEncoder.encode( gsmText, () -> 0x2E, true, true, null ).getParts();
+    }
+
+    /**
+     * Encode the text in "UCS-2".
+     *
+     * @return The short messages.
+     */
+    @Benchmark
+    public List<byte[]> encodeUcs2() {
+        return GsmEncoder.encode( ucs2Text, () -> 0x2E, true, false, null ).getParts();
+    }
+
+    /**
+     * Encode the text choosing among the national language tables.
+     *
+     * @return The short messages.
+     */
+    @Benchmark
+    public List<byte[]> encodeNational() {
+        return GsmEncoder.encode( nationalText, () -> 0x2E, true, false,
+                Arrays.asList( GsmEncoder.NationalLanguage.values() ) ).getParts();
+    }
+
+    /**
+     * The reference allocator shared by the benchmark threads.
+     */
+    @State( Scope.Benchmark )
+    public static class References {
+        // The 16-bit reference allocator.
+        private final ConcatenationReferences references = new ConcatenationReferences( 16 );
+    }
+
+    /**
+     * Allocate a reference number towards the same destination from concurrent threads, i.e. the worst case
+     * contention on a single striped counter.
+     *
+     * @param state The shared reference allocator.
+     * @return The reference number.
+     */
+    @Benchmark
+    @Threads( 4 )
+    public int nextReference( References state ) {
+        return state.references.next( Messages.DESTINATION_ADDRESS );
+    }
+}
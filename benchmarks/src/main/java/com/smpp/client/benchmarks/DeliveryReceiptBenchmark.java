@@ -0,0 +1,99 @@
+package com.smpp.client.benchmarks;
+
+// The "delivery receipt" of the client.
+import com.smpp.client.DeliveryReceipt;
+
+// Thrown in case where the short message of a "delivery receipt" cannot be parsed.
+import com.cloudhopper.smpp.util.DeliveryReceiptException;
+
+// The annotations of the "JMH" benchmarks.
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// A standard set of "Charsets".
+import java.nio.charset.StandardCharsets;
+// A time-zone offset from "Greenwich/UTC", such as "+02:00".
+import java.time.ZoneOffset;
+// A "TimeUnit" represents time durations at a given unit of granularity.
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark the parsing of the short message of a "delivery receipt", i.e. the "deliver_sm" hot path, and its
+ * formatting.
+ *
+ * @author  Aristotelis Metsinis ( aristotelis.metsinis@gmail.com )
+ * @version 1.0
+ * @since   January 2022
+ */
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.SECONDS )
+@Warmup( iterations = 3, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+@State( Scope.Thread )
+public class DeliveryReceiptBenchmark {
+    // The short message of a "delivery receipt" of the message submitted in "tcp_smpp_traces/sms_concatenated.txt";
+    // the message id is the one of the "submit_sm_resp".
+    private static final String SHORT_MESSAGE = "id:89f14a62-a4b2-42ab-a7ff-1038e617965a sub:001 dlvrd:001 "
+            + "submit date:2201251824 done date:2201251825 stat:DELIVRD err:000 text:SMS world hello world";
+
+    // The raw bytes of the short message, as received in the "deliver_sm" PDU.
+    private byte[] shortMessageBytes;
+    // The "delivery receipt" filled in place by the byte parser.
+    private DeliveryReceipt reusable;
+    // A parsed "delivery receipt", to be formatted.
+    private DeliveryReceipt receipt;
+
+    /**
+     * Prepare the inputs.
+     *
+     * @throws DeliveryReceiptException Never; the short message is valid.
+     */
+    @Setup
+    public void setup() throws DeliveryReceiptException {
+        shortMessageBytes = SHORT_MESSAGE.getBytes( StandardCharsets.ISO_8859_1 );
+        reusable = new DeliveryReceipt();
+        receipt = DeliveryReceipt.parseShortMessage( SHORT_MESSAGE, ZoneOffset.UTC );
+    }
+
+    /**
+     * Parse the short message as text.
+     *
+     * @return The "delivery receipt".
+     * @throws DeliveryReceiptException Never; the short message is valid.
+     */
+    @Benchmark
+    public DeliveryReceipt parseString() throws DeliveryReceiptException {
+        return DeliveryReceipt.parseShortMessage( SHORT_MESSAGE, ZoneOffset.UTC );
+    }
+
+    /**
+     * Parse the raw bytes of the short message in place, as the delivery workers do.
+     *
+     * @return The "delivery receipt".
+     * @throws DeliveryReceiptException Never; the short message is valid.
+     */
+    @Benchmark
+    public DeliveryReceipt parseBytes() throws DeliveryReceiptException {
+        DeliveryReceipt.parseShortMessage( shortMessageBytes, ZoneOffset.UTC, true, reusable );
+        return reusable;
+    }
+
+    /**
+     * Format the short message of a "delivery receipt".
+     *
+     * @return The short message.
+     */
+    @Benchmark
+    public String toShortMessage() {
+        return receipt.toShortMessage();
+    }
+}
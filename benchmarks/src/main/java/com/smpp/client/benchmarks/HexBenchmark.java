@@ -0,0 +1,95 @@
+package com.smpp.client.benchmarks;
+
+// The utilities of the client.
+import com.smpp.client.Utils;
+
+// The annotations of the "JMH" benchmarks.
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// A "TimeUnit" represents time durations at a given unit of granularity.
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark the hex encoding and decoding of the user data of the binary messages (e.g. "WAP Push").
+ *
+ * @author  Aristotelis Metsinis ( aristotelis.metsinis@gmail.com )
+ * @version 1.0
+ * @since   January 2022
+ */
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.SECONDS )
+@Warmup( iterations = 3, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+@State( Scope.Thread )
+public class HexBenchmark {
+    // The user data of the first part of "tcp_smpp_traces/sms_concatenated.txt", i.e. a full 140 bytes short message.
+    private byte[] userData;
+    // The hex string of the user data.
+    private String hex;
+    // The reusable buffers of the codec.
+    private char[] chars;
+    private byte[] bytes;
+
+    /**
+     * Prepare the inputs.
+     */
+    @Setup
+    public void setup() {
+        userData = Messages.concatenatedPart();
+        hex = Utils.encodeHexString( userData );
+        chars = new char[ hex.length() ];
+        bytes = new byte[ userData.length ];
+    }
+
+    /**
+     * Encode the user data as hex string.
+     *
+     * @return The hex string.
+     */
+    @Benchmark
+    public String encodeHexString() {
+        return Utils.encodeHexString( userData );
+    }
+
+    /**
+     * Decode the hex string back to the user data.
+     *
+     * @return The user data.
+     */
+    @Benchmark
+    public byte[] decodeHexString() {
+        return Utils.decodeHexString( hex );
+    }
+
+    /**
+     * Encode the user data into a reusable buffer, i.e. without allocating.
+     *
+     * @return The buffer.
+     */
+    @Benchmark
+    public char[] encodeHexIntoBuffer() {
+        Utils.encodeHex( userData, 0, userData.length, chars, 0 );
+        return chars;
+    }
+
+    /**
+     * Decode the hex string into a reusable buffer, i.e. without allocating.
+     *
+     * @return The buffer.
+     */
+    @Benchmark
+    public byte[] decodeHexIntoBuffer() {
+        Utils.decodeHex( hex, 0, hex.length(), bytes, 0 );
+        return bytes;
+    }
+}
@@ -0,0 +1,314 @@
+package com.smpp.client.benchmarks;
+
+// The "Spring Boot" application of the client.
+import com.smpp.client.SmppClient;
+
+// A histogram of "long" values.
+import org.HdrHistogram.Histogram;
+
+// Creates and manages the meters of an application.
+import io.micrometer.core.instrument.MeterRegistry;
+// A timer whose count and total time are read from functions of an object.
+import io.micrometer.core.instrument.FunctionTimer;
+// A gauge tracks a value that may go up or down.
+import io.micrometer.core.instrument.Gauge;
+
+// Parse the command line arguments.
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.DefaultParser;
+import org.apache.commons.cli.HelpFormatter;
+import org.apache.commons.cli.Option;
+import org.apache.commons.cli.Options;
+import org.apache.commons.cli.ParseException;
+
+// Main user entry point of "SLF4J" API; logging takes place through concrete implementations of this interface.
+import org.slf4j.Logger;
+// Utility class producing "Loggers" for various logging APIs, most notably for "log4j", "logback" and "JDK 1.4" logging.
+import org.slf4j.LoggerFactory;
+
+// Bootstrap and launch a "Spring" application from a Java main method.
+import org.springframework.boot.SpringApplication;
+// The "ApplicationContext" of a running application.
+import org.springframework.context.ConfigurableApplicationContext;
+
+// Writes text to a character-output stream, buffering characters so as to provide for the efficient writing of lines.
+import java.io.BufferedWriter;
+// Signals that an I/O exception of some sort has occurred.
+import java.io.IOException;
+// This class implements a server socket.
+import java.net.ServerSocket;
+// Constant definitions for the standard "Charsets".
+import java.nio.charset.StandardCharsets;
+// This class consists exclusively of static methods that operate on files, directories, or other types of files.
+import java.nio.file.Files;
+// An object that may be used to locate a file in a file system.
+import java.nio.file.Path;
+// Resizable-array implementation of the "List" interface.
+import java.util.ArrayList;
+// This class contains various methods for manipulating arrays.
+import java.util.Arrays;
+// This class provides an interface to compare objects.
+import java.util.Comparator;
+// An ordered collection (also known as a sequence).
+import java.util.List;
+// An object that maps keys to values.
+import java.util.Map;
+// A "TimeUnit" represents time durations at a given unit of granularity.
+import java.util.concurrent.TimeUnit;
+// A sequence of elements supporting sequential and parallel aggregate operations.
+import java.util.stream.Stream;
+
+/**
+ * End-to-end load test of the client against an in-process "SMSC" stub ("SmscStub"), running offline.
+ *
+ * The stub is started on a free local port; the client is then started as the "SmppClient" "Spring Boot"
+ * application bound to it, and a bulk campaign of "messages" recipients is sent through its real submission path,
+ * i.e. "CampaignRunner", the asynchronous "submit_sm" pipeline, the pool of binds, the journal and the delivery
+ * workers. Once the campaign has completed, and all the "delivery receipts" have been acknowledged, the following
+ * are reported:
+ *
+ * * the sustained throughput, i.e. the accepted "submit_sm" requests per second of the campaign;
+ * * the responses per "command status", as counted by the client;
+ * * the "submit_sm" latency percentiles, as measured by the client ("smpp.submit.latency");
+ * * the "delivery receipt" round-trip percentiles, i.e. from the receipt of a "submit_sm" by the stub to the receipt
+ *   of its "deliver_sm_resp", including the "dlr-delay" of the stub.
+ *
+ * The number of binds and the "window" size are passed to the client; any other property of the client may be set
+ * as a system property, e.g. "-Dsms.async.max-tps=500". By default the client starts with a "window" of 10 per bind
+ * and tunes it at runtime (its adaptive "window"); a "window" size given on the command line is kept fixed instead,
+ * unless "-Dsms.async.adaptive-window=true" is set, in which case it is only the initial size.
+ *
+ * @author  Aristotelis Metsinis ( aristotelis.metsinis@gmail.com )
+ * @version 1.0
+ * @since   January 2022
+ */
+public class LoadTest {
+    // Return a logger named corresponding to the class passed as parameter, using the statically bound "ILoggerFactory" instance.
+    private static final Logger log = LoggerFactory.getLogger( LoadTest.class );
+
+    // The first destination address of the campaign; one per recipient.
+    private static final long FIRST_DESTINATION = 306900000000L;
+    // The max time (in milliseconds) to wait for the "delivery receipts", on top of the "dlr-delay".
+    private static final long RECEIPTS_TIMEOUT = 60000;
+
+    /**
+     * The main method of the load test.
+     *
+     * @param args The array of Java "command line arguments".
+     * @throws Exception In case where the stub cannot be started, or the recipients file cannot be written.
+     */
+    public static void main( String[] args ) throws Exception {
+        CommandLine line = getCLI( args );
+        int messages = Integer.parseInt( line.getOptionValue( "n", "10000" ) );
+        int binds = Integer.parseInt( line.getOptionValue( "b", "2" ) );
+        int windowSize = Integer.parseInt( line.getOptionValue( "w", "10" ) );
+        long latency = Long.parseLong( line.getOptionValue( "l", "5" ) );
+        int throttle = Integer.parseInt( line.getOptionValue( "T", "0" ) );
+        boolean receipts = line.hasOption( "D" );
+        long dlrDelay = Long.parseLong( line.getOptionValue( "dlr-delay", "100" ) );
+        String text = line.getOptionValue( "m", "hello world" );
+
+        // Start the stub on a free local port.
+        int port = freePort();
+        SmscStub stub = new SmscStub( port, windowSize, latency, throttle, dlrDelay );
+        stub.start();
+
+        // The recipients file of the campaign, and the directory of the journal of the client.
+        Path directory = Files.createTempDirectory( "smpp-load-test" );
+        Path recipients = directory.resolve( "recipients.csv" );
+        try ( BufferedWriter writer = Files.newBufferedWriter( recipients, StandardCharsets.UTF_8 ) ) {
+            for ( int i = 0; i < messages; i++ ) {
+                writer.write( Long.toString( FIRST_DESTINATION + i ) );
+                writer.newLine();
+            }
+        }
+
+        // Bind the client to the stub.
+        System.setProperty( "sms.smpp.host", "127.0.0.1" );
+        System.setProperty( "sms.smpp.port", Integer.toString( port ) );
+        System.setProperty( "sms.async.smpp-session-size", Integer.toString( binds ) );
+        System.setProperty( "sms.async.window-size", Integer.toString( windowSize ) );
+        // A "window" size given on the command line is kept fixed, so that runs are comparable.
+        if ( line.hasOption( "w" ) ) {
+            setDefault( "sms.async.adaptive-window", "false" );
+        }
+        boolean adaptiveWindow = Boolean.parseBoolean( System.getProperty( "sms.async.adaptive-window", "true" ) );
+        System.setProperty( "sms.async.journal-directory", directory.resolve( "journal" ).toString() );
+        // Do not log each "PDU" and message, unless asked for; only the campaign summary and the binds.
+        setDefault( "logging.level.com.cloudhopper", "WARN" );
+        setDefault( "logging.level.com.smpp.client", "WARN" );
+        setDefault( "logging.level.com.smpp.client.CampaignRunner", "INFO" );
+        setDefault( "logging.level.com.smpp.client.SmppSessionPool", "INFO" );
+        setDefault( "logging.level.com.smpp.client.benchmarks", "INFO" );
+
+        // The "command line arguments" of the client, i.e. a bulk campaign of the recipients file.
+        List<String> clientArgs = new ArrayList<>( Arrays.asList( "-s", "560", "-t", "sms", "-m", text,
+                "-f", recipients.toString() ) );
+        if ( receipts ) {
+            clientArgs.add( "-D" );
+        }
+        String[] clientArray = clientArgs.toArray( new String[ 0 ] );
+        Map<String,String> arguments = SmppClient.getCLI( clientArray );
+
+        int status = 0;
+        ConfigurableApplicationContext ctx = SpringApplication.run( SmppClient.class, clientArray );
+        try {
+            log.info( "Load test: {} messages, {} binds x window {}, latency {} ms, throttle {} TPS, delivery receipts {}",
+                    messages, binds, adaptiveWindow ? "adaptive from " + windowSize : windowSize, latency, throttle > 0 ? throttle : "unlimited",
+                    receipts ? "after " + dlrDelay + " ms" : "off" );
+            long start = System.nanoTime();
+            SmppClient.campaign( ctx, arguments ).run( recipients );
+            long elapsed = System.nanoTime() - start;
+            if ( !stub.awaitReceipts( dlrDelay + RECEIPTS_TIMEOUT ) ) {
+                log.warn( "Timed out waiting for the delivery receipts" );
+                status = 1;
+            }
+            report( stub, ctx.getBean( MeterRegistry.class ), elapsed );
+        }
+        finally {
+            ctx.close();
+            stub.stop();
+            delete( directory );
+        }
+        // The threads of the "Cloudhopper" client are not daemons.
+        System.exit( status );
+    }
+
+    /**
+     * Log the results of the load test.
+     *
+     * @param stub The "SMSC" stub.
+     * @param registry The meter registry of the client.
+     * @param elapsedNanos The duration of the campaign in nanoseconds.
+     */
+    private static void report( SmscStub stub, MeterRegistry registry, long elapsedNanos ) {
+        double seconds = Math.max( elapsedNanos, 1 ) / 1e9;
+        log.info( "Sustained throughput: {} TPS ({} accepted, {} throttled in {} s)",
+                String.format( "%.1f", stub.getAccepted() / seconds ), stub.getAccepted(), stub.getThrottled(),
+                String.format( "%.3f", seconds ) );
+
+        StringBuilder statuses = new StringBuilder();
+        registry.find( "smpp.submit.responses" ).functionCounters().stream()
+                .sorted( Comparator.comparing( counter -> counter.getId().getTag( "status" ) ) )
+                .forEach( counter -> statuses.append( statuses.length() == 0 ? "" : ", " )
+                        .append( counter.getId().getTag( "status" ) ).append( ' ' )
+                        .append( ( long ) counter.count() ) );
+        log.info( "submit_sm responses per command status: {}", statuses );
+
+        FunctionTimer latency = registry.find( "smpp.submit.latency" ).functionTimer();
+        if ( latency != null ) {
+            // The first read of the percentiles snapshots every latency recorded so far, i.e. the whole campaign.
+            StringBuilder percentiles = new StringBuilder();
+            registry.find( "smpp.submit.latency.percentile" ).gauges().stream()
+                    .sorted( Comparator.comparing( gauge -> Double.valueOf( gauge.getId().getTag( "phi" ) ) ) )
+                    .forEach( gauge -> percentiles.append( String.format( "p%s %.2f, ",
+                            trim( Double.parseDouble( gauge.getId().getTag( "phi" ) ) * 100 ), gauge.value() ) ) );
+            log.info( "submit_sm latency (ms): {}mean {}", percentiles,
+                    String.format( "%.2f", latency.mean( TimeUnit.MILLISECONDS ) ) );
+        }
+
+        if ( stub.getReceiptsRequested() > 0 ) {
+            Histogram roundTrips = stub.getReceiptRoundTrips();
+            log.info( "Delivery receipt round trip (ms): {} of {} acknowledged, p50 {}, p99 {}, p99.9 {}, max {}",
+                    stub.getReceiptsAcknowledged(), stub.getReceiptsRequested(),
+                    millis( roundTrips.getValueAtPercentile( 50 ) ), millis( roundTrips.getValueAtPercentile( 99 ) ),
+                    millis( roundTrips.getValueAtPercentile( 99.9 ) ), millis( roundTrips.getMaxValue() ) );
+        }
+    }
+
+    /**
+     * Format microseconds as milliseconds.
+     *
+     * @param micros The value in microseconds.
+     * @return The value in milliseconds, with two decimals.
+     */
+    private static String millis( long micros ) {
+        return String.format( "%.2f", micros / 1000.0 );
+    }
+
+    /**
+     * Format a percentile without trailing zeros, e.g. "99.9" or "50".
+     *
+     * @param percentile The percentile.
+     * @return The formatted percentile.
+     */
+    private static String trim( double percentile ) {
+        String value = String.format( "%.1f", percentile );
+        return value.endsWith( ".0" ) ? value.substring( 0, value.length() - 2 ) : value;
+    }
+
+    /**
+     * Set a system property, unless already set (e.g. on the command line).
+     *
+     * @param key The name of the property.
+     * @param value The default value.
+     */
+    private static void setDefault( String key, String value ) {
+        if ( System.getProperty( key ) == null ) {
+            System.setProperty( key, value );
+        }
+    }
+
+    /**
+     * Find a free local port.
+     *
+     * @return The port number.
+     * @throws IOException In case where no port is available.
+     */
+    private static int freePort() throws IOException {
+        try ( ServerSocket socket = new ServerSocket( 0 ) ) {
+            return socket.getLocalPort();
+        }
+    }
+
+    /**
+     * Delete a directory along with its content; best effort.
+     *
+     * @param directory The directory.
+     */
+    private static void delete( Path directory ) {
+        try ( Stream<Path> paths = Files.walk( directory ) ) {
+            paths.sorted( Comparator.reverseOrder() ).forEach( path -> path.toFile().delete() );
+        }
+        catch ( IOException e ) {
+            log.warn( "Unable to delete {}: {}", directory, e.toString() );
+        }
+    }
+
+    /**
+     * Parse the "command line arguments"; exit with the usage in case where they are not valid.
+     *
+     * @param arguments The "command line arguments".
+     * @return The parsed "command line arguments".
+     */
+    private static CommandLine getCLI( String[] arguments ) {
+        Options options = new Options();
+        options.addOption( Option.builder( "n" ).longOpt( "messages" ).hasArg().argName( "count" )
+                .desc( "number of messages (recipients) of the campaign, default 10000" ).build() );
+        options.addOption( Option.builder( "b" ).longOpt( "binds" ).hasArg().argName( "count" )
+                .desc( "number of binds of the client, default 2" ).build() );
+        options.addOption( Option.builder( "w" ).longOpt( "window" ).hasArg().argName( "size" )
+                .desc( "fixed window size of the client (disabling its adaptive window) and window size of the "
+                        + "stub; default 10, with the adaptive window of the client growing from it" ).build() );
+        options.addOption( Option.builder( "l" ).longOpt( "latency" ).hasArg().argName( "ms" )
+                .desc( "submit_sm response latency of the stub, default 5" ).build() );
+        options.addOption( Option.builder( "T" ).longOpt( "throttle" ).hasArg().argName( "tps" )
+                .desc( "max submit_sm per second accepted by the stub, above which ESME_RTHROTTLED is returned; "
+                        + "default 0 (unlimited)" ).build() );
+        options.addOption( Option.builder( "D" ).longOpt( "delivery-receipt" )
+                .desc( "request a delivery receipt for each message" ).build() );
+        options.addOption( Option.builder().longOpt( "dlr-delay" ).hasArg().argName( "ms" )
+                .desc( "delay of the delivery receipts of the stub, default 100" ).build() );
+        options.addOption( Option.builder( "m" ).longOpt( "message-text" ).hasArg().argName( "text" )
+                .desc( "msg text, default \"hello world\"" ).build() );
+        try {
+            return new DefaultParser().parse( options, arguments );
+        }
+        catch ( ParseException e ) {
+            log.error( e.getMessage() );
+            new HelpFormatter().printHelp( "LoadTest", options, true );
+            System.exit( 1 );
+            return null;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.smpp.client.benchmarks;
+
+// A standard set of "Charsets".
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The realistic inputs of the benchmarks, taken from the "tcp_smpp_traces" samples.
+ *
+ * @author  Aristotelis Metsinis ( aristotelis.metsinis@gmail.com )
+ * @version 1.0
+ * @since   January 2022
+ */
+final class Messages {
+    // The source address of the samples.
+    static final String SOURCE_ADDRESS = "560";
+    // The destination address (MSISDN) of the samples.
+    static final String DESTINATION_ADDRESS = "230000000000";
+    // The "href" of the "WAP Push SI / SL" samples ("wap_si.txt", "wap_sl.txt").
+    static final String HREF = "http://aristotelis-metsinis.github.io/";
+    // The indication text of the "WAP Push SI" sample.
+    static final String SI_TEXT = "WAP_SI hello world";
+    // The source address of the "WAP Push MMS Notification" sample ("m-notification-ind.txt").
+    static final String MMS_SOURCE_ADDRESS = "made by Aristotelis";
+    // The content location of the "WAP Push MMS Notification" sample.
+    static final String MMS_CONTENT_LOCATION = "http://127.0.0.1:8080/sample.mms?seed=77";
+    // The subject of the "WAP Push MMS Notification" sample.
+    static final String MMS_SUBJECT = "hello world";
+    // The message size of the "WAP Push MMS Notification" sample.
+    static final long MMS_SIZE = 1038694L;
+
+    /**
+     * Private constructor; a class of "static" members.
+     */
+    private Messages() {
+    }
+
+    /**
+     * Get a text of the given length, repeating the text of the "sms_concatenated.txt" sample.
+     *
+     * @param length The length in characters.
+     * @return The text.
+     */
+    static String text( int length ) {
+        StringBuilder text = new StringBuilder( "SMS" );
+        while ( text.length() < length ) {
+            text.append( " world hello" );
+        }
+        return text.substring( 0, length );
+    }
+
+    /**
+     * Get the user data of the first part of the "sms_concatenated.txt" sample, i.e. the concatenation "UDH" and 134
+     * bytes of text.
+     *
+     * @return The 140 bytes of user data.
+     */
+    static byte[] concatenatedPart() {
+        byte[] text = text( 134 ).getBytes( StandardCharsets.ISO_8859_1 );
+        byte[] userData = new byte[ 6 + text.length ];
+        // "UDH" length, "IE" concatenated short messages (8-bit reference), "IE" length, reference, parts, part.
+        userData[ 0 ] = 0x05;
+        userData[ 1 ] = 0x00;
+        userData[ 2 ] = 0x03;
+        userData[ 3 ] = 0x2E;
+        userData[ 4 ] = 0x02;
+        userData[ 5 ] = 0x01;
+        System.arraycopy( text, 0, userData, 6, text.length );
+        return userData;
+    }
+}
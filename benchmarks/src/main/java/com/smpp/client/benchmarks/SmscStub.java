@@ -0,0 +1,424 @@
+package com.smpp.client.benchmarks;
+
+// The "delivery receipt" of the client.
+import com.smpp.client.DeliveryReceipt;
+
+// Enumeration of all "SMPP" session types.
+import com.cloudhopper.smpp.SmppBindType;
+// All constants defined for the "SMPP" protocol.
+import com.cloudhopper.smpp.SmppConstants;
+// Configuration of an "SMPP" server.
+import com.cloudhopper.smpp.SmppServerConfiguration;
+// The response of a request sent asynchronously.
+import com.cloudhopper.smpp.PduAsyncResponse;
+// Handle the bind requests and the lifecycle of the sessions of an "SMPP" server.
+import com.cloudhopper.smpp.SmppServerHandler;
+// An "SMPP" session of the server, i.e. bound by an "ESME".
+import com.cloudhopper.smpp.SmppServerSession;
+// Configuration of an "SMPP" session.
+import com.cloudhopper.smpp.SmppSessionConfiguration;
+// Default implementation of an "SMPP" server, listening for the binds of the "ESME".
+import com.cloudhopper.smpp.impl.DefaultSmppServer;
+// Default implementation of a session handler.
+import com.cloudhopper.smpp.impl.DefaultSmppSessionHandler;
+// The bind request and response PDUs.
+import com.cloudhopper.smpp.pdu.BaseBind;
+import com.cloudhopper.smpp.pdu.BaseBindResp;
+// "deliver_sm" SMPP PDU.
+import com.cloudhopper.smpp.pdu.DeliverSm;
+// The request and response PDUs.
+import com.cloudhopper.smpp.pdu.PduRequest;
+import com.cloudhopper.smpp.pdu.PduResponse;
+// "submit_sm" SMPP PDU.
+import com.cloudhopper.smpp.pdu.SubmitSm;
+// "submit_sm_resp" SMPP PDU.
+import com.cloudhopper.smpp.pdu.SubmitSmResp;
+
+// A histogram safe for concurrent recording, auto-resizing its range.
+import org.HdrHistogram.ConcurrentHistogram;
+// A histogram of "long" values.
+import org.HdrHistogram.Histogram;
+
+// Main user entry point of "SLF4J" API; logging takes place through concrete implementations of this interface.
+import org.slf4j.Logger;
+// Utility class producing "Loggers" for various logging APIs, most notably for "log4j", "logback" and "JDK 1.4" logging.
+import org.slf4j.LoggerFactory;
+
+// Constant definitions for the standard "Charsets".
+import java.nio.charset.StandardCharsets;
+// A date-time with a time-zone in the "ISO-8601" calendar system.
+import java.time.ZonedDateTime;
+// A time-zone offset from "Greenwich/UTC", such as "+02:00".
+import java.time.ZoneOffset;
+// An ordered collection (also known as a sequence).
+import java.util.List;
+// A thread-safe variant of "ArrayList", copying the underlying array on each change.
+import java.util.concurrent.CopyOnWriteArrayList;
+// Factory and utility methods for "Executor", "ExecutorService", "ScheduledExecutorService" and "ThreadFactory".
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+// An object that creates new threads on demand.
+import java.util.concurrent.ThreadFactory;
+// A "TimeUnit" represents time durations at a given unit of granularity.
+import java.util.concurrent.TimeUnit;
+// An "int" value that may be updated atomically.
+import java.util.concurrent.atomic.AtomicInteger;
+// A "long" value that may be updated atomically.
+import java.util.concurrent.atomic.AtomicLong;
+// One or more variables that together maintain an initially zero "long" sum.
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * An in-process "SMSC" stub, built on the "Cloudhopper" "DefaultSmppServer", to load test the client without the
+ * "SMSC" of the operator:
+ *
+ * * every "submit_sm" is answered after "latency" milliseconds, with a new message id;
+ * * the "submit_sm" requests above "throttle" per second (across all the binds) are answered at once with
+ *   "ESME_RTHROTTLED";
+ * * a "delivery receipt" is sent "dlrDelay" milliseconds after each accepted "submit_sm" requesting one, built by
+ *   "DeliveryReceipt.toShortMessage"; on the same bind in case of a "TRANSCEIVER", else on the "RECEIVER" binds in
+ *   turn. At most "windowSize" receipts per bind are waiting for their "deliver_sm_resp".
+ *
+ * The round trip of each receipt, i.e. from the receipt of its "submit_sm" to the receipt of its "deliver_sm_resp",
+ * is recorded in microseconds.
+ *
+ * @author  Aristotelis Metsinis ( aristotelis.metsinis@gmail.com )
+ * @version 1.0
+ * @since   January 2022
+ */
+public class SmscStub {
+    // Return a logger named corresponding to the class passed as parameter, using the statically bound "ILoggerFactory" instance.
+    private static final Logger log = LoggerFactory.getLogger( SmscStub.class );
+
+    // The response latency in milliseconds.
+    private final long latency;
+    // The max number of accepted "submit_sm" requests per second; "0" for unlimited.
+    private final int throttle;
+    // The delay in milliseconds between a "submit_sm" and its "delivery receipt".
+    private final long dlrDelay;
+    // The "SMPP" server.
+    private final DefaultSmppServer server;
+    // Answer the "submit_sm" requests after the latency.
+    private final ScheduledExecutorService responder;
+    // Send the "delivery receipts"; waiting for a free "window" slot does not delay the responses.
+    private final ScheduledExecutorService receipts;
+    // The I/O threads of the server.
+    private final ExecutorService io;
+    // The bound "RECEIVER" sessions.
+    private final List<SmppServerSession> receivers = new CopyOnWriteArrayList<>();
+    // The "RECEIVER" session the next "delivery receipt" goes to.
+    private final AtomicInteger nextReceiver = new AtomicInteger();
+    // The last assigned message id.
+    private final AtomicLong messageIds = new AtomicLong();
+    // The current second of the throttle, and the number of requests accepted within it.
+    private long throttleSecond;
+    private int throttleCount;
+    // Counters of the stub.
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder throttled = new LongAdder();
+    private final LongAdder receiptsRequested = new LongAdder();
+    private final LongAdder receiptsAcknowledged = new LongAdder();
+    // The round trip of the "delivery receipts" in microseconds.
+    private final Histogram receiptRoundTrips = new ConcurrentHistogram( 3 );
+
+    /**
+     * Constructor.
+     *
+     * @param port The port to listen to.
+     * @param windowSize The max number of "delivery receipts" per bind waiting for their response.
+     * @param latency The response latency in milliseconds.
+     * @param throttle The max number of accepted "submit_sm" requests per second; "0" for unlimited.
+     * @param dlrDelay The delay in milliseconds between a "submit_sm" and its "delivery receipt".
+     */
+    public SmscStub( int port, int windowSize, long latency, int throttle, long dlrDelay ) {
+        this.latency = latency;
+        this.throttle = throttle;
+        this.dlrDelay = dlrDelay;
+
+        SmppServerConfiguration configuration = new SmppServerConfiguration();
+        configuration.setName( "smsc.stub" );
+        configuration.setHost( "127.0.0.1" );
+        configuration.setPort( port );
+        configuration.setMaxConnectionSize( 256 );
+        configuration.setNonBlockingSocketsEnabled( true );
+        configuration.setDefaultWindowSize( windowSize );
+        configuration.setDefaultWindowWaitTimeout( 60000 );
+        configuration.setDefaultRequestExpiryTimeout( 30000 );
+        configuration.setDefaultWindowMonitorInterval( 15000 );
+        configuration.setJmxEnabled( false );
+
+        this.responder = Executors.newScheduledThreadPool( 2, daemon( "smsc.stub.responder" ) );
+        this.receipts = Executors.newScheduledThreadPool( 2, daemon( "smsc.stub.receipts" ) );
+        this.io = Executors.newCachedThreadPool( daemon( "smsc.stub.io" ) );
+        this.server = new DefaultSmppServer( configuration, new ServerHandler(), io, responder );
+    }
+
+    /**
+     * Start listening for the binds.
+     *
+     * @throws Exception In case where the server cannot be started, e.g. the port is in use.
+     */
+    public void start() throws Exception {
+        server.start();
+        log.info( "SMSC stub listening on port {}", server.getConfiguration().getPort() );
+    }
+
+    /**
+     * Stop the server and its threads.
+     */
+    public void stop() {
+        server.destroy();
+        receipts.shutdownNow();
+        responder.shutdownNow();
+        io.shutdownNow();
+    }
+
+    /**
+     * Wait until every requested "delivery receipt" has been acknowledged.
+     *
+     * @param timeout The max time to wait in milliseconds.
+     * @return "true" in case where all the receipts were acknowledged, else "false" in case of a timeout.
+     * @throws InterruptedException In case where the calling thread is interrupted.
+     */
+    public boolean awaitReceipts( long timeout ) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos( timeout );
+        while ( receiptsAcknowledged.sum() < receiptsRequested.sum() ) {
+            if ( System.nanoTime() - deadline >= 0 ) {
+                return false;
+            }
+            Thread.sleep( 10 );
+        }
+        return true;
+    }
+
+    /**
+     * Get the number of accepted "submit_sm" requests.
+     *
+     * @return The number of requests.
+     */
+    public long getAccepted() {
+        return accepted.sum();
+    }
+
+    /**
+     * Get the number of "submit_sm" requests answered with "ESME_RTHROTTLED".
+     *
+     * @return The number of requests.
+     */
+    public long getThrottled() {
+        return throttled.sum();
+    }
+
+    /**
+     * Get the number of "delivery receipts" requested by the accepted "submit_sm" requests.
+     *
+     * @return The number of receipts.
+     */
+    public long getReceiptsRequested() {
+        return receiptsRequested.sum();
+    }
+
+    /**
+     * Get the number of "delivery receipts" acknowledged by the client.
+     *
+     * @return The number of receipts.
+     */
+    public long getReceiptsAcknowledged() {
+        return receiptsAcknowledged.sum();
+    }
+
+    /**
+     * Get the round trip of the "delivery receipts", i.e. from the receipt of the "submit_sm" to the receipt of the
+     * "deliver_sm_resp".
+     *
+     * @return The histogram of the round trips in microseconds.
+     */
+    public Histogram getReceiptRoundTrips() {
+        return receiptRoundTrips;
+    }
+
+    /**
+     * Check if one more "submit_sm" request may be accepted within the current second.
+     *
+     * @return "true" in case where the request is accepted, else "false" in case where it is throttled.
+     */
+    private synchronized boolean tryAccept() {
+        if ( throttle <= 0 ) {
+            return true;
+        }
+        long second = TimeUnit.NANOSECONDS.toSeconds( System.nanoTime() );
+        if ( second != throttleSecond ) {
+            throttleSecond = second;
+            throttleCount = 0;
+        }
+        return ++throttleCount <= throttle;
+    }
+
+    /**
+     * Create a factory of daemon threads.
+     *
+     * @param name The name prefix of the threads.
+     * @return The thread factory.
+     */
+    private static ThreadFactory daemon( String name ) {
+        AtomicInteger index = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread( runnable, name + "." + index.getAndIncrement() );
+            thread.setDaemon( true );
+            return thread;
+        };
+    }
+
+    /**
+     * Accept every bind and register the session handler of the new sessions.
+     */
+    private final class ServerHandler implements SmppServerHandler {
+        /**
+         * Accept a bind request.
+         *
+         * @param sessionId The id of the session.
+         * @param sessionConfiguration The configuration of the session.
+         * @param bindRequest The bind request.
+         */
+        @Override
+        public void sessionBindRequested( Long sessionId, SmppSessionConfiguration sessionConfiguration,
+                                          BaseBind bindRequest ) {
+            sessionConfiguration.setName( "smsc.stub.session." + sessionId );
+        }
+
+        /**
+         * Register the session handler of a new session.
+         *
+         * @param sessionId The id of the session.
+         * @param session The session.
+         * @param preparedBindResponse The bind response about to be sent.
+         */
+        @Override
+        public void sessionCreated( Long sessionId, SmppServerSession session, BaseBindResp preparedBindResponse ) {
+            if ( session.getBindType() == SmppBindType.RECEIVER ) {
+                receivers.add( session );
+            }
+            session.serverReady( new SessionHandler( session ) );
+        }
+
+        /**
+         * Release a closed session.
+         *
+         * @param sessionId The id of the session.
+         * @param session The session.
+         */
+        @Override
+        public void sessionDestroyed( Long sessionId, SmppServerSession session ) {
+            receivers.remove( session );
+            session.destroy();
+        }
+    }
+
+    /**
+     * Answer the "submit_sm" requests of a session and schedule their "delivery receipts".
+     */
+    private final class SessionHandler extends DefaultSmppSessionHandler {
+        // The session.
+        private final SmppServerSession session;
+
+        /**
+         * Constructor.
+         *
+         * @param session The session.
+         */
+        private SessionHandler( SmppServerSession session ) {
+            this.session = session;
+        }
+
+        /**
+         * Answer a request; a "submit_sm" after the latency, any other request (e.g. "enquire_link") at once.
+         *
+         * @param request The request.
+         * @return The response to be sent at once, or "null" in case where it is sent later.
+         */
+        @Override
+        public PduResponse firePduRequestReceived( PduRequest request ) {
+            if ( !( request instanceof SubmitSm ) ) {
+                return request.createResponse();
+            }
+            long receivedAt = System.nanoTime();
+            SubmitSm submit = ( SubmitSm ) request;
+            SubmitSmResp response = submit.createResponse();
+            if ( !tryAccept() ) {
+                throttled.increment();
+                response.setCommandStatus( SmppConstants.STATUS_THROTTLED );
+                return response;
+            }
+            accepted.increment();
+            String messageId = DeliveryReceipt.toMessageIdAsHexString( messageIds.incrementAndGet() );
+            response.setMessageId( messageId );
+            if ( ( submit.getRegisteredDelivery() & SmppConstants.REGISTERED_DELIVERY_SMSC_RECEIPT_MASK ) != 0 ) {
+                receiptsRequested.increment();
+                receipts.schedule( () -> sendReceipt( submit, messageId, receivedAt ), dlrDelay, TimeUnit.MILLISECONDS );
+            }
+            if ( latency <= 0 ) {
+                return response;
+            }
+            responder.schedule( () -> {
+                try {
+                    session.sendResponsePdu( response );
+                }
+                // The session has been closed in the meantime.
+                catch ( Exception e ) {
+                    log.debug( "Unable to answer submit_sm {}: {}", submit.getSequenceNumber(), e.toString() );
+                }
+            }, latency, TimeUnit.MILLISECONDS );
+            return null;
+        }
+
+        /**
+         * Record the round trip of an acknowledged "delivery receipt".
+         *
+         * @param response The response along with its request.
+         */
+        @Override
+        public void fireExpectedPduResponseReceived( PduAsyncResponse response ) {
+            if ( response.getRequest() instanceof DeliverSm ) {
+                receiptsAcknowledged.increment();
+                long receivedAt = ( Long ) response.getRequest().getReferenceObject();
+                receiptRoundTrips.recordValue( TimeUnit.NANOSECONDS.toMicros( System.nanoTime() - receivedAt ) );
+            }
+        }
+
+        /**
+         * Send the "delivery receipt" of an accepted "submit_sm".
+         *
+         * @param submit The "submit_sm" request.
+         * @param messageId The message id assigned to the request.
+         * @param receivedAt The time ("System.nanoTime()") the request was received.
+         */
+        private void sendReceipt( SubmitSm submit, String messageId, long receivedAt ) {
+            SmppServerSession target = session;
+            if ( session.getBindType() != SmppBindType.TRANSCEIVER ) {
+                if ( receivers.isEmpty() ) {
+                    log.warn( "No receiver bound, delivery receipt of message id {} dropped", messageId );
+                    return;
+                }
+                target = receivers.get( Math.floorMod( nextReceiver.getAndIncrement(), receivers.size() ) );
+            }
+            ZonedDateTime now = ZonedDateTime.now( ZoneOffset.UTC );
+            DeliveryReceipt receipt = new DeliveryReceipt( messageId, 1, 1, now, now, SmppConstants.STATE_DELIVERED,
+                    0, null );
+            DeliverSm deliver = new DeliverSm();
+            deliver.setEsmClass( SmppConstants.ESM_CLASS_MT_SMSC_DELIVERY_RECEIPT );
+            deliver.setSourceAddress( submit.getDestAddress() );
+            deliver.setDestAddress( submit.getSourceAddress() );
+            deliver.setReferenceObject( receivedAt );
+            try {
+                deliver.setShortMessage( receipt.toShortMessage().getBytes( StandardCharsets.ISO_8859_1 ) );
+                // Wait for a free "window" slot, without waiting for the response.
+                target.sendRequestPdu( deliver, 60000, false );
+            }
+            // The session has been closed in the meantime.
+            catch ( Exception e ) {
+                log.warn( "Unable to send the delivery receipt of message id {}: {}", messageId, e.toString() );
+            }
+        }
+    }
+}
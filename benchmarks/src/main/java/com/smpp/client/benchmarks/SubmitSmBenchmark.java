@@ -0,0 +1,117 @@
+package com.smpp.client.benchmarks;
+
+// All constants defined for the "SMPP" protocol.
+import com.cloudhopper.smpp.SmppConstants;
+// "submit_sm" SMPP PDU.
+import com.cloudhopper.smpp.pdu.SubmitSm;
+// Encode and decode the "SMPP" PDUs.
+import com.cloudhopper.smpp.transcoder.DefaultPduTranscoder;
+import com.cloudhopper.smpp.transcoder.DefaultPduTranscoderContext;
+import com.cloudhopper.smpp.transcoder.PduTranscoder;
+// A simple representation of an "Address" in "SMPP".
+import com.cloudhopper.smpp.type.Address;
+// Thrown in case where an invalid argument is given, e.g. a short message longer than 255 bytes.
+import com.cloudhopper.smpp.type.SmppInvalidArgumentException;
+// Thrown in case where the "PDU" cannot be encoded.
+import com.cloudhopper.smpp.type.RecoverablePduException;
+import com.cloudhopper.smpp.type.UnrecoverablePduException;
+
+// A random-accessible sequence of bytes.
+import org.jboss.netty.buffer.ChannelBuffer;
+
+// The annotations of the "JMH" benchmarks.
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// A "TimeUnit" represents time durations at a given unit of granularity.
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark the construction and the encoding of a "submit_sm" PDU, i.e. the "submit_sm" hot path before the bytes
+ * are written to the socket.
+ *
+ * @author  Aristotelis Metsinis ( aristotelis.metsinis@gmail.com )
+ * @version 1.0
+ * @since   January 2022
+ */
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.SECONDS )
+@Warmup( iterations = 3, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+@State( Scope.Thread )
+public class SubmitSmBenchmark {
+    // The user data of the first part of "tcp_smpp_traces/sms_concatenated.txt".
+    private byte[] userData;
+    // The transcoder of the sessions.
+    private PduTranscoder transcoder;
+    // A "submit_sm" PDU, to be encoded.
+    private SubmitSm submit;
+
+    /**
+     * Prepare the inputs.
+     *
+     * @throws SmppInvalidArgumentException Never; the short message is 140 bytes long.
+     */
+    @Setup
+    public void setup() throws SmppInvalidArgumentException {
+        userData = Messages.concatenatedPart();
+        transcoder = new DefaultPduTranscoder( new DefaultPduTranscoderContext() );
+        submit = create();
+    }
+
+    /**
+     * Construct a "submit_sm" PDU, as "sendTextMessage" does.
+     *
+     * @return The "submit_sm" PDU.
+     * @throws SmppInvalidArgumentException Never; the short message is 140 bytes long.
+     */
+    @Benchmark
+    public SubmitSm create() throws SmppInvalidArgumentException {
+        SubmitSm pdu = new SubmitSm();
+        pdu.setDataCoding( SmppConstants.DATA_CODING_DEFAULT );
+        pdu.setEsmClass( ( byte ) 0x40 );
+        pdu.setRegisteredDelivery( SmppConstants.REGISTERED_DELIVERY_SMSC_RECEIPT_REQUESTED );
+        pdu.setShortMessage( userData );
+        pdu.setSourceAddress( new Address( SmppConstants.TON_UNKNOWN, SmppConstants.NPI_E164, Messages.SOURCE_ADDRESS ) );
+        pdu.setDestAddress( new Address( SmppConstants.TON_INTERNATIONAL, SmppConstants.NPI_E164,
+                Messages.DESTINATION_ADDRESS ) );
+        pdu.setValidityPeriod( "000000080000000R" );
+        pdu.setSequenceNumber( 2 );
+        return pdu;
+    }
+
+    /**
+     * Encode a "submit_sm" PDU.
+     *
+     * @return The encoded "PDU".
+     * @throws RecoverablePduException Never; the "PDU" is valid.
+     * @throws UnrecoverablePduException Never; the "PDU" is valid.
+     */
+    @Benchmark
+    public ChannelBuffer encode() throws RecoverablePduException, UnrecoverablePduException {
+        return transcoder.encode( submit );
+    }
+
+    /**
+     * Construct and encode a "submit_sm" PDU.
+     *
+     * @return The encoded "PDU".
+     * @throws SmppInvalidArgumentException Never; the short message is 140 bytes long.
+     * @throws RecoverablePduException Never; the "PDU" is valid.
+     * @throws UnrecoverablePduException Never; the "PDU" is valid.
+     */
+    @Benchmark
+    public ChannelBuffer createAndEncode() throws SmppInvalidArgumentException, RecoverablePduException,
+            UnrecoverablePduException {
+        return transcoder.encode( create() );
+    }
+}
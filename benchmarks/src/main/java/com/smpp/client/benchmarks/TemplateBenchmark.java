@@ -0,0 +1,77 @@
+package com.smpp.client.benchmarks;
+
+// Encode the text of a "Text" or "Flash" SMS into the fewest parts.
+import com.smpp.client.GsmEncoder;
+// A message template, whose static fragments are encoded once.
+import com.smpp.client.MessageTemplate;
+
+// The annotations of the "JMH" benchmarks.
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// An ordered collection (also known as a sequence).
+import java.util.List;
+// A "TimeUnit" represents time durations at a given unit of granularity.
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark the encoding of a templated message, i.e. a long static text with two short values: spliced with the
+ * static fragments encoded once, against filling the template and encoding the whole text per message.
+ *
+ * @author  Aristotelis Metsinis ( aristotelis.metsinis@gmail.com )
+ * @version 1.0
+ * @since   January 2022
+ */
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.SECONDS )
+@Warmup( iterations = 3, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+@State( Scope.Thread )
+public class TemplateBenchmark {
+    // The length of the static text of the template.
+    @Param( { "120", "400" } )
+    private int length;
+
+    // The template.
+    private MessageTemplate template;
+    // The values of the slots.
+    private final String[] values = { "customer", "483920" };
+
+    /**
+     * Prepare the inputs.
+     */
+    @Setup
+    public void setup() {
+        template = MessageTemplate.compile( "Dear {0}, " + Messages.text( length ) + " {1}" );
+    }
+
+    /**
+     * Splice the values with the encoded static fragments.
+     *
+     * @return The short messages.
+     */
+    @Benchmark
+    public List<byte[]> encodeTemplate() {
+        return template.encode( values, () -> 0x2E, true, false, null ).getParts();
+    }
+
+    /**
+     * Fill the template and encode the whole text.
+     *
+     * @return The short messages.
+     */
+    @Benchmark
+    public List<byte[]> encodeFilled() {
+        return GsmEncoder.encode( template.fill( values ), () -> 0x2E, true, false, null ).getParts();
+    }
+}
@@ -0,0 +1,147 @@
+package com.smpp.client.benchmarks;
+
+// A precompiled "MMS" notification "WAP Push" message.
+import com.smpp.client.MmsNotificationEncoder;
+// The "SMPP" client, generating the "WAP Push" messages.
+import com.smpp.client.SmppClient;
+
+// Gateway client functionality - represents a message, and all associated attributes.
+import eigroup.sms.gateway.Message;
+// Represents a "WapPush" message of content type "Service Indication".
+import eigroup.sms.wappush.ServiceIndication;
+// Represents a "WapPush" message of content type "Service Loading".
+import eigroup.sms.wappush.ServiceLoading;
+// Thrown in case where a "WAP Push" message cannot be generated.
+import eigroup.sms.wappush.WapPushException;
+
+// "SMS" User Data.
+import org.marre.sms.SmsUserData;
+// "MMS" Constants.
+import org.marre.wap.mms.MmsConstants;
+// Create an "MMS" notification "WAP push" message with "SMS" as bearer.
+import org.marre.wap.push.SmsMmsNotificationMessage;
+
+// The annotations of the "JMH" benchmarks.
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Thrown to indicate that a malformed "URL" has occurred.
+import java.net.MalformedURLException;
+// An ordered collection (also known as a sequence).
+import java.util.List;
+// A "TimeUnit" represents time durations at a given unit of granularity.
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark the generation of the "WAP Push" messages, i.e. "SI", "SL" and "MMS Notification" ("M-Notification.ind"),
+ * with the inputs of the "tcp_smpp_traces" samples; the "SI" and "SL" messages against the former "eigroup" messages,
+ * and the "MMS Notification" against the former "smsj" message.
+ *
+ * @author  Aristotelis Metsinis ( aristotelis.metsinis@gmail.com )
+ * @version 1.0
+ * @since   January 2022
+ */
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.SECONDS )
+@Warmup( iterations = 3, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class WapPushBenchmark {
+
+    /**
+     * Generate a "WAP Push SI" message.
+     *
+     * @return The user data of the messages.
+     * @throws MalformedURLException Never; the "href" is valid.
+     */
+    @Benchmark
+    public List<byte[]> generateWapPushSI() throws MalformedURLException {
+        return SmppClient.generateWapPushSI( Messages.HREF, Messages.SI_TEXT, () -> 0x2E );
+    }
+
+    /**
+     * Generate a "WAP Push SL" message.
+     *
+     * @return The user data of the messages.
+     * @throws MalformedURLException Never; the "href" is valid.
+     */
+    @Benchmark
+    public List<byte[]> generateWapPushSL() throws MalformedURLException {
+        return SmppClient.generateWapPushSL( Messages.HREF, () -> 0x2E );
+    }
+
+    /**
+     * Generate a "WAP Push SI" message with the former "eigroup" library.
+     *
+     * @return The messages.
+     * @throws MalformedURLException Never; the "href" is valid.
+     * @throws WapPushException Never; the inputs are valid.
+     */
+    @Benchmark
+    public Message[] eigroupServiceIndication() throws MalformedURLException, WapPushException {
+        ServiceIndication serviceIndication = new ServiceIndication( Messages.DESTINATION_ADDRESS );
+        serviceIndication.setAction( ServiceIndication.ACTION_SIGNAL_HIGH );
+        serviceIndication.setHref( Messages.HREF );
+        serviceIndication.setId( "9875" );
+        serviceIndication.setIndicationText( Messages.SI_TEXT );
+        return serviceIndication.generateMessages();
+    }
+
+    /**
+     * Generate a "WAP Push SL" message with the former "eigroup" library.
+     *
+     * @return The messages.
+     * @throws MalformedURLException Never; the "href" is valid.
+     * @throws WapPushException Never; the inputs are valid.
+     */
+    @Benchmark
+    public Message[] eigroupServiceLoading() throws MalformedURLException, WapPushException {
+        ServiceLoading serviceLoading = new ServiceLoading( Messages.DESTINATION_ADDRESS, Messages.HREF );
+        serviceLoading.setAction( ServiceLoading.ACTION_EXECUTE_HIGH );
+        return serviceLoading.generateMessages();
+    }
+
+    /**
+     * Generate a "WAP Push MMS Notification" message, cut into "WDP" segments (two, for the sample).
+     *
+     * @return The notification.
+     */
+    @Benchmark
+    public MmsNotificationEncoder.Notification generateWapPushMNotificationInd() {
+        return SmppClient.generateWapPush_M_NOTIFICATION_IND( Messages.MMS_SOURCE_ADDRESS,
+                Messages.MMS_CONTENT_LOCATION, Messages.MMS_SUBJECT, Messages.MMS_SIZE, () -> 0x2E, true );
+    }
+
+    /**
+     * Generate a "WAP Push MMS Notification" message in a single (long) message.
+     *
+     * @return The notification.
+     */
+    @Benchmark
+    public MmsNotificationEncoder.Notification generateWapPushMNotificationIndSingle() {
+        return SmppClient.generateWapPush_M_NOTIFICATION_IND( Messages.MMS_SOURCE_ADDRESS,
+                Messages.MMS_CONTENT_LOCATION, Messages.MMS_SUBJECT, Messages.MMS_SIZE, () -> 0x2E, false );
+    }
+
+    /**
+     * Generate a "WAP Push MMS Notification" message (single) with the former "smsj" library.
+     *
+     * @return The user data.
+     */
+    @Benchmark
+    public SmsUserData smsjNotification() {
+        SmsMmsNotificationMessage notification = new SmsMmsNotificationMessage( Messages.MMS_CONTENT_LOCATION,
+                Messages.MMS_SIZE );
+        notification.setExpiry( 3 * 24 * 60 * 60 );
+        notification.setFrom( Messages.MMS_SOURCE_ADDRESS );
+        notification.setMessageClass( MmsConstants.X_MMS_MESSAGE_CLASS_ID_PERSONAL );
+        notification.setSubject( Messages.MMS_SUBJECT );
+        notification.setTransactionId( "50288" );
+        return notification.getUserData();
+    }
+}
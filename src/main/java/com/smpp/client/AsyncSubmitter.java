@@ -0,0 +1,605 @@
+package com.smpp.client;
+
+// All constants defined for the "SMPP" protocol.
+import com.cloudhopper.smpp.SmppConstants;
+// Defines a common interface for either a Client (ESME) or Server (SMSC) "SMPP" session.
+import com.cloudhopper.smpp.SmppSession;
+// A response "PDU" received asynchronously, i.e. matched against a request sent with "sendRequestPdu".
+import com.cloudhopper.smpp.PduAsyncResponse;
+// Base class of the "submit_sm" and "submit_multi" SMPP PDUs.
+import com.cloudhopper.smpp.pdu.BaseSm;
+// Abstract class that extends "Pdu".
+import com.cloudhopper.smpp.pdu.PduRequest;
+// Abstract class that extends "Pdu".
+import com.cloudhopper.smpp.pdu.PduResponse;
+// "submit_sm" SMPP PDU.
+import com.cloudhopper.smpp.pdu.SubmitSm;
+// "submit_sm_resp" SMPP PDU.
+import com.cloudhopper.smpp.pdu.SubmitSmResp;
+// Several "SMPP PDU" related "exception" classes.
+import com.cloudhopper.smpp.type.*;
+
+// Main user entry point of "SLF4J" API; logging takes place through concrete implementations of this interface.
+import org.slf4j.Logger;
+// Utility class producing "Loggers" for various logging APIs, most notably for "log4j", "logback" and "JDK 1.4" logging.
+import org.slf4j.LoggerFactory;
+
+// Resizable-array implementation of the "List" interface.
+import java.util.ArrayList;
+// Hash table based implementation of the "Map" interface.
+import java.util.HashMap;
+// An object that maps keys to values.
+import java.util.Map;
+// A bounded blocking queue backed by an array.
+import java.util.concurrent.ArrayBlockingQueue;
+// A "Future" that may be explicitly completed (setting its value and status), and may be used as a "CompletionStage".
+import java.util.concurrent.CompletableFuture;
+// An unbounded thread-safe queue based on linked nodes.
+import java.util.concurrent.ConcurrentLinkedQueue;
+// An "Executor" that provides methods to manage termination.
+import java.util.concurrent.ExecutorService;
+// Factory and utility methods for "Executor", "ExecutorService" and "ScheduledExecutorService" classes.
+import java.util.concurrent.Executors;
+// Thrown by an "Executor" when a task cannot be accepted for execution.
+import java.util.concurrent.RejectedExecutionException;
+// An "ExecutorService" that executes each submitted task using one of possibly several pooled threads.
+import java.util.concurrent.ThreadPoolExecutor;
+// A "TimeUnit" represents time durations at a given unit of granularity.
+import java.util.concurrent.TimeUnit;
+// An ordered collection (also known as a sequence).
+import java.util.List;
+// A "long" value that may be updated atomically.
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Windowed, asynchronous "submit_sm" pipeline.
+ *
+ * Instead of calling "session.submit()", which blocks the caller until the "submit_sm_resp" arrives (and therefore
+ * caps the throughput to one "PDU" per round trip), the "submit_sm" PDUs are written with "sendRequestPdu" in
+ * asynchronous mode. Up to "window-size" requests are kept in flight per bind, or up to the current limit of its
+ * "WindowController" in case of an adaptive "window"; once the window is full, the caller waits (up to the configured
+ * "timeout") for a free slot. The "submit_sm_resp" PDUs are delivered by "Cloudhopper"
+ * to the session handler, which passes them back to this class; the completion handles are then completed on a
+ * dedicated "callback" thread pool, so that neither the caller nor the "Netty" I/O thread runs user code.
+ *
+ * Each request is sent through the bound session of the "SmppSessionPool" with the fewest outstanding requests.
+ * The submit rate is shaped by a global and a per bind "RateLimiter", in order to stay within the contracted "TPS".
+ * The requests failing with a transient error (e.g. "ESME_RTHROTTLED", or no response) are retried through the
+ * "RetryScheduler"; once due, the retries are sent ahead of the new traffic.
+ *
+ * The same message may be sent to many destinations with "submit_multi" PDUs of up to "submit-multi-size"
+ * destinations each; only the destinations the "SMSC" reports as failed with a transient error ("unsuccess_sme") are
+ * retried, in a new "submit_multi". In case where the "SMSC" does not support "submit_multi" ("ESME_RINVCMDID"), the
+ * destinations are sent as "submit_sm" requests from then on; those of the rejected request are queued along with
+ * the due retries.
+ *
+ * @author  Aristotelis Metsinis ( aristotelis.metsinis@gmail.com )
+ * @version 1.0
+ * @since   January 2022
+ */
+public class AsyncSubmitter {
+    // Return a logger named corresponding to the class passed as parameter, using the statically bound "ILoggerFactory" instance.
+    private static final Logger log = LoggerFactory.getLogger( AsyncSubmitter.class );
+
+    // All the external properties we need.
+    private final SmppClientProperties properties;
+    // The pool of "SMPP" sessions the requests are sent through.
+    private final SmppSessionPool sessionPool;
+    // The thread pool completing the "completion handles" off the "Netty" I/O thread.
+    private final ThreadPoolExecutor callbackExecutor;
+    // Shape the submit rate across all the binds; "null" in case where the rate is unlimited.
+    private final RateLimiter rateLimiter;
+    // The worker threads processing the "deliver_sm" PDUs received by the binds.
+    private final DeliveryDispatcher deliveryDispatcher;
+    // Correlate the "delivery receipts" with the requests.
+    private final CorrelationStore correlationStore;
+    // The write-ahead journal of the requests, replayed on startup.
+    private final OutboundJournal journal;
+    // The internal message reference of the next request.
+    private final AtomicLong nextReference = new AtomicLong( 1 );
+    // Schedule the retries of the requests failing with a transient error.
+    private final RetryScheduler retryScheduler;
+    // The retries that are due, sent ahead of the new traffic.
+    private final ConcurrentLinkedQueue<PendingSubmit> readyRetries = new ConcurrentLinkedQueue<>();
+    // Send the due retries in case where there is no new traffic; never on the thread of the timing wheel.
+    private final ExecutorService retryExecutor;
+    // The latency and throughput metrics of the requests.
+    private final SmppMetrics metrics;
+    // "true" once the "SMSC" answered a "submit_multi" with "ESME_RINVCMDID".
+    private volatile boolean submitMultiUnsupported;
+
+    /**
+     * Constructor.
+     *
+     * @param properties All the external properties we need.
+     * @param sessionPool The pool of "SMPP" sessions the requests are sent through.
+     * @param deliveryDispatcher The worker threads processing the "deliver_sm" PDUs received by the binds.
+     * @param correlationStore Correlate the "delivery receipts" with the requests.
+     * @param journal The write-ahead journal of the requests.
+     * @param metrics The latency and throughput metrics of the requests.
+     */
+    public AsyncSubmitter( SmppClientProperties properties, SmppSessionPool sessionPool,
+                           DeliveryDispatcher deliveryDispatcher, CorrelationStore correlationStore,
+                           OutboundJournal journal, SmppMetrics metrics ) {
+        this.properties = properties;
+        this.metrics = metrics;
+        this.sessionPool = sessionPool;
+        this.deliveryDispatcher = deliveryDispatcher;
+        this.correlationStore = correlationStore;
+        this.journal = journal;
+        // Create the "callback" thread pool by making use of the "core-pool-size", "max-pool-size" and "queue-capacity"
+        // settings. In case where the queue is full, the completion runs on the thread delivering the response, which
+        // in turn slows down the reading of further responses (back-pressure).
+        this.callbackExecutor = new ThreadPoolExecutor( properties.getAsync().getCorePoolSize(),
+                properties.getAsync().getMaxPoolSize(), 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>( properties.getAsync().getQueueCapacity() ),
+                new ThreadPoolExecutor.CallerRunsPolicy() );
+        // Shape the aggregate submit rate to the "max-tps" of the "SMSC".
+        this.rateLimiter = RateLimiter.create( properties.getAsync().getMaxTps(), properties.getAsync().getTpsBurst() );
+        this.retryScheduler = new RetryScheduler( properties );
+        this.retryExecutor = Executors.newSingleThreadExecutor( runnable -> new Thread( runnable, "smpp.retry" ) );
+    }
+
+    /**
+     * Recover the outbound journal, bind the sessions of the pool, registering a session handler per bind that passes
+     * the "submit_sm_resp" PDUs back to this class, and finally replay the journaled requests without a response.
+     */
+    public void start() {
+        List<OutboundJournal.Entry> recovered = journal.open();
+        // Never reuse the references of the recovered requests.
+        nextReference.set( journal.getLastReference() + 1 );
+        // Send again the requests left in the "window" of a session that dropped.
+        sessionPool.setInFlightHandler( this::onInFlight );
+        sessionPool.bind( slot -> new ClientSmppSessionHandler( this, deliveryDispatcher, slot ) );
+
+        for ( OutboundJournal.Entry entry : recovered ) {
+            PendingSubmit pending = entry.getSubmit() instanceof SubmitMulti
+                    ? new PendingMulti( ( SubmitMulti ) entry.getSubmit(), entry.getReference(), entry.getSegment() )
+                    : new PendingSubmit( entry.getSubmit(), entry.getReference(), entry.getSegment() );
+            send( pending ).whenComplete( ( submitResponse, error ) -> {
+                if ( error == null ) {
+                    log.info( "Replayed message reference {}, message id {}", entry.getReference(),
+                            submitResponse.getMessageId() );
+                } else {
+                    log.warn( "Replayed message reference {} failed: {}", entry.getReference(), error.getMessage() );
+                }
+            } );
+        }
+    }
+
+    /**
+     * Asynchronously send a "submit_sm" request to the remote endpoint.
+     *
+     * The method returns as soon as the "PDU" has been written to the session, i.e. it only blocks while waiting
+     * for a free "window" slot. The returned handle is completed with the "submit_sm_resp" in case of success, or
+     * exceptionally in case of a permanent error, or a transient error (e.g. a negative "command status" such as
+     * "ESME_RTHROTTLED", or when the request expires) once the retries are exhausted. In case where a
+     * "delivery receipt" is requested, the message id of the "submit_sm_resp" is registered in the correlation store
+     * under a new internal message reference.
+     *
+     * @param submit The "submit_sm" PDU.
+     * @return The completion handle of the request.
+     */
+    public CompletableFuture<SubmitSmResp> submit( SubmitSm submit ) {
+        // Send the retries that are due ahead of the new request.
+        drainRetries();
+        long reference = nextReference.getAndIncrement();
+        // Journal the request before it is sent, so that it is replayed in case where no response is received.
+        long journalSegment;
+        try {
+            journalSegment = journal.enqueue( reference, submit );
+        } catch ( IllegalStateException e ) {
+            CompletableFuture<SubmitSmResp> failed = new CompletableFuture<>();
+            failed.completeExceptionally( e );
+            return failed;
+        }
+        return send( new PendingSubmit( submit, reference, journalSegment ) );
+    }
+
+    /**
+     * Asynchronously send the same message to many destinations, in "submit_multi" requests of up to
+     * "submit-multi-size" destinations each, or in a "submit_sm" request per destination in case where "submit_multi"
+     * is disabled ("submit-multi-size" below 2) or not supported by the "SMSC".
+     *
+     * The handle of each destination is completed with a "submit_sm_resp" holding the message id of the request that
+     * was accepted for it, or exceptionally in case of a permanent error, or a transient error once the retries are
+     * exhausted.
+     *
+     * @param submit The "submit_sm" PDU, i.e. the source address, the message and its parameters; its destination
+     *               address is ignored and the PDU itself is never sent, so it can be reused as a template.
+     * @param destinations The destination addresses.
+     * @return The completion handle of each destination, in the order of the destination addresses.
+     */
+    public List<CompletableFuture<SubmitSmResp>> submit( SubmitSm submit, List<Address> destinations ) {
+        int limit = submitMultiUnsupported ? 1
+                : Math.max( Math.min( properties.getAsync().getSubmitMultiSize(), SubmitMulti.MAX_DESTINATIONS ), 1 );
+        List<CompletableFuture<SubmitSmResp>> futures = new ArrayList<>( destinations.size() );
+        for ( int from = 0; from < destinations.size(); from += limit ) {
+            List<Address> chunk = destinations.subList( from, Math.min( from + limit, destinations.size() ) );
+            if ( chunk.size() > 1 ) {
+                futures.addAll( submitMulti( SubmitMulti.of( submit, chunk ) ) );
+            }
+            // A single destination; a copy, so that the "submit_sm" of the caller is left untouched.
+            else {
+                futures.add( submit( SubmitMulti.toSubmitSm( submit, chunk.get( 0 ) ) ) );
+            }
+        }
+        return futures;
+    }
+
+    /**
+     * Journal and send a "submit_multi" request.
+     *
+     * @param multi The "submit_multi" PDU.
+     * @return The completion handle of each destination.
+     */
+    private List<CompletableFuture<SubmitSmResp>> submitMulti( SubmitMulti multi ) {
+        // Send the retries that are due ahead of the new request.
+        drainRetries();
+        long reference = nextReference.getAndIncrement();
+        List<CompletableFuture<SubmitSmResp>> futures = PendingMulti.newFutures( multi.getDestAddresses().size() );
+        // Journal the request before it is sent, so that it is replayed in case where no response is received.
+        long journalSegment;
+        try {
+            journalSegment = journal.enqueue( reference, multi );
+        } catch ( IllegalStateException e ) {
+            futures.forEach( future -> future.completeExceptionally( e ) );
+            return futures;
+        }
+        send( new PendingMulti( multi, reference, journalSegment, futures, 0 ) );
+        return futures;
+    }
+
+    /**
+     * Send a (journaled) request, or a retry, through the selected session.
+     *
+     * @param pending The pending request.
+     * @return The completion handle of the request.
+     */
+    private CompletableFuture<SubmitSmResp> send( PendingSubmit pending ) {
+        BaseSm<?> submit = pending.getSubmit();
+        // Attach the pending request to the "PDU" as "reference object", so that the response can be correlated back.
+        submit.setReferenceObject( pending );
+        // A retry gets a new sequence number.
+        if ( pending.getAttempts() > 0 ) {
+            submit.removeSequenceNumber();
+        }
+
+        try {
+            // Wait for a permit of the global rate limiter, so that the "SMSC" never answers with "ESME_RTHROTTLED".
+            if ( rateLimiter != null ) {
+                rateLimiter.acquire();
+            }
+            // Select the bound session with the fewest outstanding requests; wait for a session to be bound again in
+            // case where none of the sessions is currently in the "BOUND" state.
+            PooledSession slot = sessionPool.select();
+            // Wait for a permit of the rate limiter of the selected bind.
+            if ( slot.getRateLimiter() != null ) {
+                slot.getRateLimiter().acquire();
+            }
+            // Wait for a free slot of the adaptive "window" of the selected bind.
+            WindowController window = slot.getWindowController();
+            if ( window != null && !window.acquire( properties.getAsync().getTimeout() ) ) {
+                throw new SmppTimeoutException( "No free window slot of SMPP session " + slot.getIndex() );
+            }
+            pending.markSent( window );
+            // Read the session once; it is set to "null" while the slot is being bound again.
+            SmppSession session = slot.getSession();
+            if ( !PooledSession.isAlive( session ) ) {
+                throw new IllegalStateException( "SMPP session " + slot.getIndex() + " is not bound" );
+            }
+            // Asynchronously send the "submit_sm" request to the remote endpoint. The timeout value only includes
+            // waiting for a "window" slot; the response is delivered to the session handler, and the request expires
+            // after the "request expiry timeout" of the session configuration.
+            session.sendRequestPdu( submit, properties.getAsync().getTimeout(), false );
+        }
+        // In case of a permanent error complete the handle exceptionally, i.e. when a recoverable or unrecoverable
+        // "PDU" error occurs.
+        catch ( RecoverablePduException | UnrecoverablePduException e ) {
+            release( pending );
+            fail( pending, new IllegalStateException( e ) );
+        }
+        // In case of a transient error retry the request, i.e.
+        // * when a timeout occurs while waiting for a "window" slot.
+        // * when the underlying socket/channel was unable to write the request.
+        catch ( SmppTimeoutException | SmppChannelException e ) {
+            release( pending );
+            retryOrFail( pending, new IllegalStateException( e ) );
+        }
+        // In case where the calling thread was interrupted while waiting for a permit, to acquire a lock or write the
+        // bytes, i.e. the application shuts down; the request is left in the journal to be replayed.
+        catch ( InterruptedException e ) {
+            // Restore the interrupt status, so that the caller also notices the shutdown.
+            Thread.currentThread().interrupt();
+            release( pending );
+            pending.completeExceptionally( new IllegalStateException( e ) );
+        }
+        // In case where none of the sessions was bound in time, or the selected session was unbound in the meantime;
+        // retried once the sessions are bound again.
+        catch ( IllegalStateException e ) {
+            release( pending );
+            retryOrFail( pending, new IllegalStateException( "SMPP session is not connected", e ) );
+        }
+
+        // Return the completion handle of the request.
+        return pending.getFuture();
+    }
+
+    /**
+     * Handle a response "PDU" matched against a request previously sent by this class.
+     * Called by the session handler on the "Netty" I/O thread.
+     *
+     * @param asyncResponse The request and its matching response.
+     */
+    public void onResponse( PduAsyncResponse asyncResponse ) {
+        // Ignore responses of requests not sent by this class, e.g. "enquire_link_resp".
+        if ( !( asyncResponse.getRequest().getReferenceObject() instanceof PendingSubmit ) ) {
+            return;
+        }
+        PendingSubmit pending = ( PendingSubmit ) asyncResponse.getRequest().getReferenceObject();
+        // Measure the round-trip time on the I/O thread, before the completion is queued.
+        long latency = System.nanoTime() - pending.getSendTime();
+        metrics.recordSubmit( asyncResponse.getResponse().getCommandStatus(), latency );
+        // Free the slot of the adaptive "window", adapting its limit to the latency and the "command status".
+        WindowController window = pending.takeWindow();
+        if ( window != null ) {
+            window.complete( asyncResponse.getResponse().getCommandStatus(), latency );
+        }
+
+        // The response of a "submit_multi", completing each destination.
+        if ( pending instanceof PendingMulti ) {
+            callbackExecutor.execute( () -> onMultiResponse( ( PendingMulti ) pending, asyncResponse.getResponse() ) );
+            return;
+        }
+
+        // Complete the handle off the I/O thread.
+        callbackExecutor.execute( () -> {
+            int commandStatus = asyncResponse.getResponse().getCommandStatus();
+            // Check if the status of the submitted "SMPP" command is success; note that a "generic_nack" may be
+            // received instead of a "submit_sm_resp".
+            if ( commandStatus == SmppConstants.STATUS_OK && asyncResponse.getResponse() instanceof SubmitSmResp ) {
+                SubmitSmResp submitResponse = ( SubmitSmResp ) asyncResponse.getResponse();
+                // Resolve the journaled request, so that it is never replayed.
+                journal.resolve( pending.getReference(), pending.getJournalSegment(), true );
+                // Register the message id before completing the handle, so that the "delivery receipt" finds it.
+                if ( pending.getSubmit().getRegisteredDelivery() != SmppConstants.REGISTERED_DELIVERY_SMSC_RECEIPT_NOT_REQUESTED ) {
+                    correlationStore.register( submitResponse.getMessageId(), pending.getReference() );
+                }
+                pending.getFuture().complete( submitResponse );
+            }
+            // Else, retry a transient error, or complete exceptionally.
+            else {
+                IllegalStateException error = new IllegalStateException( asyncResponse.getResponse().getResultMessage() );
+                if ( RetryScheduler.isTransient( commandStatus ) ) {
+                    retryOrFail( pending, error );
+                } else {
+                    fail( pending, error );
+                }
+            }
+        } );
+    }
+
+    /**
+     * Handle the response of a "submit_multi" request: complete the destinations the "SMSC" accepted, fail the ones
+     * rejected with a permanent error, and retry the ones rejected with a transient error in a new "submit_multi".
+     *
+     * @param pending The request.
+     * @param response The "submit_multi_resp" PDU, or a "generic_nack".
+     */
+    private void onMultiResponse( PendingMulti pending, PduResponse response ) {
+        int commandStatus = response.getCommandStatus();
+        // "submit_multi" is not supported by the "SMSC"; send each destination as a "submit_sm" request instead.
+        if ( commandStatus == SmppConstants.STATUS_INVCMDID ) {
+            if ( !submitMultiUnsupported ) {
+                submitMultiUnsupported = true;
+                log.warn( "submit_multi is not supported by the SMSC, sending submit_sm requests instead" );
+            }
+            journal.resolve( pending.getReference(), pending.getJournalSegment(), false );
+            List<Address> addresses = pending.getMulti().getDestAddresses();
+            for ( int i = 0; i < addresses.size(); i++ ) {
+                CompletableFuture<SubmitSmResp> destination = pending.getDestinations().get( i );
+                SubmitSm submit = SubmitMulti.toSubmitSm( pending.getMulti(), addresses.get( i ) );
+                long reference = nextReference.getAndIncrement();
+                long journalSegment;
+                try {
+                    journalSegment = journal.enqueue( reference, submit );
+                } catch ( IllegalStateException e ) {
+                    destination.completeExceptionally( e );
+                    continue;
+                }
+                PendingSubmit single = new PendingSubmit( submit, reference, journalSegment );
+                single.getFuture().whenComplete( ( submitResponse, error ) -> {
+                    if ( error == null ) {
+                        destination.complete( submitResponse );
+                    } else {
+                        destination.completeExceptionally( error );
+                    }
+                } );
+                // Never sent on this thread, since sending waits for the rate limiters and a "window" slot, and this
+                // may be the "Netty" I/O thread (once the queue of the "callback" thread pool is full); queued along
+                // with the due retries instead.
+                onRetryDue( single );
+            }
+            pending.getFuture().completeExceptionally( new IllegalStateException( "submit_multi is not supported" ) );
+            return;
+        }
+        // The request failed as a whole; retry a transient error, or complete exceptionally.
+        if ( commandStatus != SmppConstants.STATUS_OK || !( response instanceof SubmitMultiResp ) ) {
+            IllegalStateException error = new IllegalStateException( response.getResultMessage() );
+            if ( RetryScheduler.isTransient( commandStatus ) ) {
+                retryOrFail( pending, error );
+            } else {
+                fail( pending, error );
+            }
+            return;
+        }
+
+        SubmitMultiResp multiResponse = ( SubmitMultiResp ) response;
+        // Resolve the journaled request, so that it is never replayed; the destinations to be retried are journaled
+        // again, in a new request.
+        journal.resolve( pending.getReference(), pending.getJournalSegment(), true );
+        // Register the message id before completing the handles, so that the "delivery receipts" find it.
+        if ( pending.getSubmit().getRegisteredDelivery() != SmppConstants.REGISTERED_DELIVERY_SMSC_RECEIPT_NOT_REQUESTED ) {
+            correlationStore.register( multiResponse.getMessageId(), pending.getReference() );
+        }
+        // The error status of each destination that was not accepted.
+        Map<String, Integer> unsuccessful = new HashMap<>();
+        for ( SubmitMultiResp.UnsuccessSme unsuccessSme : multiResponse.getUnsuccessSmes() ) {
+            unsuccessful.put( unsuccessSme.getAddress().getAddress(), unsuccessSme.getErrorStatusCode() );
+        }
+        // The response of the accepted destinations.
+        SubmitSmResp accepted = new SubmitSmResp();
+        accepted.setMessageId( multiResponse.getMessageId() );
+        accepted.setResultMessage( multiResponse.getResultMessage() );
+
+        List<Address> addresses = pending.getMulti().getDestAddresses();
+        List<Address> retryAddresses = new ArrayList<>();
+        List<CompletableFuture<SubmitSmResp>> retryDestinations = new ArrayList<>();
+        for ( int i = 0; i < addresses.size(); i++ ) {
+            CompletableFuture<SubmitSmResp> destination = pending.getDestinations().get( i );
+            Integer errorStatusCode = unsuccessful.get( addresses.get( i ).getAddress() );
+            if ( errorStatusCode == null ) {
+                destination.complete( accepted );
+            } else if ( RetryScheduler.isTransient( errorStatusCode ) ) {
+                retryAddresses.add( addresses.get( i ) );
+                retryDestinations.add( destination );
+            } else {
+                destination.completeExceptionally( new IllegalStateException( "Destination "
+                        + addresses.get( i ).getAddress() + " failed with command status 0x"
+                        + Integer.toHexString( errorStatusCode ) ) );
+            }
+        }
+        pending.getFuture().complete( accepted );
+        if ( retryAddresses.isEmpty() ) {
+            return;
+        }
+
+        // Only the destinations that failed with a transient error are sent again, in a new request taking their
+        // handles (and the attempts made so far) over.
+        SubmitMulti retry = SubmitMulti.of( pending.getMulti(), retryAddresses );
+        long reference = nextReference.getAndIncrement();
+        long journalSegment;
+        try {
+            journalSegment = journal.enqueue( reference, retry );
+        } catch ( IllegalStateException e ) {
+            retryDestinations.forEach( destination -> destination.completeExceptionally( e ) );
+            return;
+        }
+        retryOrFail( new PendingMulti( retry, reference, journalSegment, retryDestinations, pending.getAttempts() ),
+                new IllegalStateException( retryAddresses.size() + " destinations failed with a transient error" ) );
+    }
+
+    /**
+     * Handle a request that did not receive a response within the "request expiry timeout".
+     * Called by the "window" monitor of the session.
+     *
+     * @param request The expired request "PDU".
+     */
+    public void onExpired( PduRequest request ) {
+        if ( !( request.getReferenceObject() instanceof PendingSubmit ) ) {
+            return;
+        }
+        PendingSubmit pending = ( PendingSubmit ) request.getReferenceObject();
+        // Free the slot of the adaptive "window", cutting its limit.
+        WindowController window = pending.takeWindow();
+        if ( window != null ) {
+            window.expire();
+        }
+
+        log.warn( "submit_sm expired, sequence number {}", request.getSequenceNumber() );
+        callbackExecutor.execute( () -> retryOrFail( pending,
+                new SmppTimeoutException( "submit_sm expired without a response" ) ) );
+    }
+
+    /**
+     * Schedule the retry of a request that failed with a transient error, or complete its handle exceptionally in
+     * case where its attempts are exhausted.
+     *
+     * @param pending The failed request.
+     * @param error The error of the last attempt.
+     */
+    private void retryOrFail( PendingSubmit pending, Throwable error ) {
+        if ( retryScheduler.schedule( pending, this::onRetryDue ) ) {
+            log.debug( "Retrying message reference {} after attempt {}: {}", pending.getReference(),
+                    pending.getAttempts(), error.getMessage() );
+            return;
+        }
+        fail( pending, error );
+    }
+
+    /**
+     * Resolve the journaled request as failed, and complete its handle exceptionally.
+     *
+     * @param pending The failed request.
+     * @param error The error.
+     */
+    private void fail( PendingSubmit pending, Throwable error ) {
+        journal.resolve( pending.getReference(), pending.getJournalSegment(), false );
+        pending.completeExceptionally( error );
+    }
+
+    /**
+     * Queue a due retry ahead of the new traffic. Called on the thread of the timing wheel, or of the supervisor, or on
+     * a "callback" thread for the destinations of a "submit_multi" the "SMSC" does not support.
+     *
+     * @param pending The request to be sent (again).
+     */
+    private void onRetryDue( PendingSubmit pending ) {
+        readyRetries.offer( pending );
+        try {
+            retryExecutor.execute( this::drainRetries );
+        }
+        // The application shuts down; the request is left in the journal to be replayed.
+        catch ( RejectedExecutionException e ) {
+            pending.completeExceptionally( new IllegalStateException( "Shutting down", e ) );
+        }
+    }
+
+    /**
+     * Send again a request left in the "window" of a session that dropped, ahead of the new traffic and without a
+     * backoff. Called on the thread of the supervisor of the pool.
+     *
+     * @param request The request "PDU".
+     */
+    private void onInFlight( PduRequest request ) {
+        // Ignore requests not sent by this class, e.g. "enquire_link".
+        if ( request.getReferenceObject() instanceof PendingSubmit ) {
+            release( ( PendingSubmit ) request.getReferenceObject() );
+            onRetryDue( ( PendingSubmit ) request.getReferenceObject() );
+        }
+    }
+
+    /**
+     * Free the slot of the adaptive "window" a request took, if any, without adapting its limit.
+     *
+     * @param pending The request.
+     */
+    private void release( PendingSubmit pending ) {
+        WindowController window = pending.takeWindow();
+        if ( window != null ) {
+            window.release();
+        }
+    }
+
+    /**
+     * Send the retries that are due.
+     */
+    private void drainRetries() {
+        PendingSubmit pending;
+        while ( ( pending = readyRetries.poll() ) != null ) {
+            send( pending );
+        }
+    }
+
+    /**
+     * Shutdown the timing wheel of the retries and the "callback" thread pool. Previously submitted completions are
+     * executed, while the pending retries fail and are left in the journal, to be replayed on the next startup.
+     */
+    public void shutdown() {
+        for ( PendingSubmit pending : retryScheduler.stop() ) {
+            pending.completeExceptionally( new IllegalStateException( "Shutting down" ) );
+        }
+        retryExecutor.shutdownNow();
+        callbackExecutor.shutdown();
+    }
+}
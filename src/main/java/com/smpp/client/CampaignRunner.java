@@ -0,0 +1,447 @@
+package com.smpp.client;
+
+// "submit_sm_resp" SMPP PDU.
+import com.cloudhopper.smpp.pdu.SubmitSmResp;
+
+// Main user entry point of "SLF4J" API; logging takes place through concrete implementations of this interface.
+import org.slf4j.Logger;
+// Utility class producing "Loggers" for various logging APIs, most notably for "log4j", "logback" and "JDK 1.4" logging.
+import org.slf4j.LoggerFactory;
+
+// Reads text from a character-input stream, buffering characters so as to provide for the efficient reading of lines.
+import java.io.BufferedReader;
+// Signals that an I/O exception of some sort has occurred.
+import java.io.IOException;
+// Constant definitions for the standard "Charsets".
+import java.nio.charset.StandardCharsets;
+// This class consists exclusively of static methods that operate on files, directories, or other types of files.
+import java.nio.file.Files;
+// An object that may be used to locate a file in a file system.
+import java.nio.file.Path;
+// Resizable-array implementation of the "List" interface.
+import java.util.ArrayList;
+// An ordered collection (also known as a sequence).
+import java.util.List;
+// This class consists of "static" utility methods for operating on objects.
+import java.util.Objects;
+// A "Future" that may be explicitly completed (setting its value and status), and may be used as a "CompletionStage".
+import java.util.concurrent.CompletableFuture;
+// A counting semaphore.
+import java.util.concurrent.Semaphore;
+// A "TimeUnit" represents time durations at a given unit of granularity.
+import java.util.concurrent.TimeUnit;
+// A "long" array in which elements may be updated atomically.
+import java.util.concurrent.atomic.AtomicLongArray;
+// One or more variables that together maintain an initially zero "long" sum.
+import java.util.concurrent.atomic.LongAdder;
+// Represents a function that accepts two arguments and produces a result.
+import java.util.function.BiFunction;
+
+/**
+ * Bulk campaign mode: send a message to every destination of a recipients file, in a single "JVM" and over the
+ * already bound sessions.
+ *
+ * The recipients file is either "CSV" (one "destination[,text]" row per line; an optional header row is skipped) or
+ * "NDJSON" (one '{"destination": "...", "text": "..."}' object per line; selected by the ".ndjson" or ".jsonl" file
+ * extension). The text of a row is optional; rows without text are sent with the default text of the campaign.
+ *
+ * The file is streamed line by line and the number of rows in flight is bounded by "campaign-max-in-flight", so that
+ * the memory footprint does not depend on the size of the file. A throughput / latency summary is logged at the end.
+ *
+ * In case where "submit_multi" is enabled ("submit-multi-size"), consecutive rows with the same text are sent together,
+ * i.e. in a single "submit_multi" per part; each row is still accounted for on its own.
+ *
+ * @author  Aristotelis Metsinis ( aristotelis.metsinis@gmail.com )
+ * @version 1.0
+ * @since   January 2022
+ */
+public class CampaignRunner {
+    // Return a logger named corresponding to the class passed as parameter, using the statically bound "ILoggerFactory" instance.
+    private static final Logger log = LoggerFactory.getLogger( CampaignRunner.class );
+
+    // Send the message of a batch of rows, given their destination addresses and text; return the completion handle of
+    // each part, per row.
+    private final BiFunction<List<String>,String,List<List<CompletableFuture<SubmitSmResp>>>> sender;
+    // Bound the number of rows in flight.
+    private final Semaphore inFlight;
+    // The max number of rows in flight.
+    private final int maxInFlight;
+    // The max number of rows of a batch, i.e. of consecutive rows with the same text sent together.
+    private final int batchSize;
+    // The destination addresses and the text of the batch being collected.
+    private final List<String> batch = new ArrayList<>();
+    private String batchText;
+    // Counters of the campaign.
+    private final LongAdder rows = new LongAdder();
+    private final LongAdder parts = new LongAdder();
+    private final LongAdder succeeded = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    // Latency histogram of the rows, with a resolution of 1 millisecond; the last bucket holds the slower rows.
+    private final AtomicLongArray latencies;
+
+    /**
+     * Constructor.
+     *
+     * @param properties All the external properties we need.
+     * @param sender Send the message of a batch of rows, given their destination addresses and text (or "null" in case
+     *               where the rows have no text); return the completion handle of each part, per row.
+     */
+    public CampaignRunner( SmppClientProperties properties,
+                           BiFunction<List<String>,String,List<List<CompletableFuture<SubmitSmResp>>>> sender ) {
+        this.sender = sender;
+        this.maxInFlight = properties.getAsync().getCampaignMaxInFlight();
+        this.inFlight = new Semaphore( maxInFlight );
+        // The rows of a batch are in flight while it is collected, so a batch cannot exceed the rows in flight.
+        this.batchSize = Math.max( Math.min( Math.min( properties.getAsync().getSubmitMultiSize(),
+                SubmitMulti.MAX_DESTINATIONS ), maxInFlight ), 1 );
+        // A row cannot take longer than the window wait timeout plus the request expiry timeout.
+        this.latencies = new AtomicLongArray( 2 * properties.getAsync().getTimeout() + 2 );
+    }
+
+    /**
+     * Send a message to every destination of the recipients file and wait for all the responses.
+     *
+     * @param file The recipients file.
+     * @throws IOException In case where the file cannot be read.
+     * @throws InterruptedException In case where the calling thread is interrupted.
+     */
+    public void run( Path file ) throws IOException, InterruptedException {
+        // "NDJSON" is selected by the file extension, else "CSV".
+        String name = file.getFileName().toString().toLowerCase();
+        boolean json = name.endsWith( ".ndjson" ) || name.endsWith( ".jsonl" );
+
+        log.info( "Campaign started, file {}, max {} rows in flight", file, maxInFlight );
+        long start = System.nanoTime();
+
+        // Stream the file line by line; only the rows in flight are kept in memory.
+        try ( BufferedReader reader = Files.newBufferedReader( file, StandardCharsets.UTF_8 ) ) {
+            String line;
+            boolean first = true;
+            while ( ( line = reader.readLine() ) != null ) {
+                String[] row;
+                try {
+                    row = json ? parseJsonRow( line ) : parseCsvRow( line );
+                }
+                // In case of a malformed row.
+                catch ( IllegalStateException e ) {
+                    log.warn( "{}, row skipped", e.getMessage() );
+                    rejected.increment();
+                    first = false;
+                    continue;
+                }
+                // Skip blank lines and comments.
+                if ( row == null ) {
+                    continue;
+                }
+                // Skip the optional "CSV" header, i.e. a first row without a valid destination address.
+                if ( first && !json && !isAddress( row[ 0 ] ) ) {
+                    first = false;
+                    continue;
+                }
+                first = false;
+                if ( !isAddress( row[ 0 ] ) ) {
+                    log.warn( "Invalid destination address, row skipped: {}", line );
+                    rejected.increment();
+                    continue;
+                }
+                send( row[ 0 ], row[ 1 ] );
+            }
+        }
+        // Send the last batch.
+        flush();
+
+        // Wait for the rows still in flight.
+        inFlight.acquire( maxInFlight );
+        inFlight.release( maxInFlight );
+
+        logSummary( System.nanoTime() - start );
+    }
+
+    /**
+     * Add a single row to the batch, sending the batch in case where the text of the row differs or the batch is full;
+     * block while "campaign-max-in-flight" rows are waiting for their responses.
+     *
+     * @param destinationAddress The destination address (MSISDN) of the row.
+     * @param text The text of the row, or "null".
+     * @throws InterruptedException In case where the calling thread is interrupted.
+     */
+    private void send( String destinationAddress, String text ) throws InterruptedException {
+        if ( !batch.isEmpty() && !Objects.equals( text, batchText ) ) {
+            flush();
+        }
+        inFlight.acquire();
+        rows.increment();
+        batch.add( destinationAddress );
+        batchText = text;
+        if ( batch.size() >= batchSize ) {
+            flush();
+        }
+    }
+
+    /**
+     * Send the message of the rows of the batch, if any.
+     */
+    private void flush() {
+        if ( batch.isEmpty() ) {
+            return;
+        }
+        List<String> destinationAddresses = new ArrayList<>( batch );
+        batch.clear();
+        long sendTime = System.nanoTime();
+
+        List<List<CompletableFuture<SubmitSmResp>>> submissions;
+        try {
+            submissions = sender.apply( destinationAddresses, batchText );
+        }
+        // In case where the message of the rows cannot be created (e.g. missing text).
+        catch ( RuntimeException e ) {
+            log.warn( "Unable to send to {}: {}", destinationAddresses, e.getMessage() );
+            failed.add( destinationAddresses.size() );
+            inFlight.release( destinationAddresses.size() );
+            return;
+        }
+
+        for ( int i = 0; i < destinationAddresses.size(); i++ ) {
+            String destinationAddress = destinationAddresses.get( i );
+            List<CompletableFuture<SubmitSmResp>> rowSubmissions = submissions.get( i );
+            parts.add( rowSubmissions.size() );
+
+            // The row is complete once all of its parts have been acknowledged.
+            CompletableFuture.allOf( rowSubmissions.toArray( new CompletableFuture[ 0 ] ) ).whenComplete( ( ignored, error ) -> {
+                if ( error == null ) {
+                    succeeded.increment();
+                } else {
+                    log.warn( "Unable to send to {}: {}", destinationAddress, error.getMessage() );
+                    failed.increment();
+                }
+                long millis = TimeUnit.NANOSECONDS.toMillis( System.nanoTime() - sendTime );
+                latencies.incrementAndGet( ( int ) Math.min( millis, latencies.length() - 1 ) );
+                inFlight.release();
+            } );
+        }
+    }
+
+    /**
+     * Log the throughput / latency summary of the campaign.
+     *
+     * @param elapsedNanos The duration of the campaign in nanoseconds.
+     */
+    private void logSummary( long elapsedNanos ) {
+        double seconds = Math.max( elapsedNanos, 1 ) / 1e9;
+        log.info( "Campaign completed in {} s: {} rows ({} parts), {} succeeded, {} failed, {} rejected",
+                String.format( "%.3f", seconds ), rows.sum(), parts.sum(), succeeded.sum(), failed.sum(), rejected.sum() );
+        log.info( "Campaign throughput: {} rows/s, {} parts/s", String.format( "%.1f", rows.sum() / seconds ),
+                String.format( "%.1f", parts.sum() / seconds ) );
+        log.info( "Campaign latency (ms): p50 {}, p95 {}, p99 {}, max {}", percentile( 0.50 ), percentile( 0.95 ),
+                percentile( 0.99 ), percentile( 1.0 ) );
+    }
+
+    /**
+     * Get a percentile of the row latencies.
+     *
+     * @param quantile The quantile, e.g. "0.99".
+     * @return The latency in milliseconds, or "0" in case where no row completed.
+     */
+    private long percentile( double quantile ) {
+        long total = 0;
+        for ( int i = 0; i < latencies.length(); i++ ) {
+            total += latencies.get( i );
+        }
+        long rank = Math.max( 1, ( long ) Math.ceil( quantile * total ) );
+        long count = 0;
+        for ( int i = 0; i < latencies.length(); i++ ) {
+            count += latencies.get( i );
+            if ( count >= rank ) {
+                return i;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Check if a value is a valid address, i.e. digits with an optional leading "+".
+     *
+     * @param value The value.
+     * @return "true" in case of a valid address, else "false".
+     */
+    private static boolean isAddress( String value ) {
+        int start = value.startsWith( "+" ) ? 1 : 0;
+        if ( value.length() == start ) {
+            return false;
+        }
+        for ( int i = start; i < value.length(); i++ ) {
+            if ( value.charAt( i ) < '0' || value.charAt( i ) > '9' ) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Parse a "CSV" row of the form "destination[,text]". The text may be quoted, in which case embedded double
+     * quotes are escaped by doubling them; an unquoted text extends to the end of the line.
+     *
+     * @param line The line.
+     * @return The destination address and the text (or "null"), or "null" in case of a blank line or a comment.
+     */
+    static String[] parseCsvRow( String line ) {
+        String trimmed = line.trim();
+        if ( trimmed.isEmpty() || trimmed.startsWith( "#" ) ) {
+            return null;
+        }
+        int comma = trimmed.indexOf( ',' );
+        if ( comma < 0 ) {
+            return new String[] { unquote( trimmed ), null };
+        }
+        String text = trimmed.substring( comma + 1 ).trim();
+        return new String[] { unquote( trimmed.substring( 0, comma ).trim() ), text.isEmpty() ? null : unquote( text ) };
+    }
+
+    /**
+     * Remove the surrounding double quotes of a "CSV" field, if any, and unescape the embedded double quotes.
+     *
+     * @param field The field.
+     * @return The unquoted field.
+     */
+    private static String unquote( String field ) {
+        if ( field.length() >= 2 && field.charAt( 0 ) == '"' && field.charAt( field.length() - 1 ) == '"' ) {
+            return field.substring( 1, field.length() - 1 ).replace( "\"\"", "\"" );
+        }
+        return field;
+    }
+
+    /**
+     * Parse an "NDJSON" row, i.e. a flat "JSON" object with a "destination" and an optional "text" member. Members
+     * of other names are ignored; "destination" may also be given as a number.
+     *
+     * @param line The line.
+     * @return The destination address and the text (or "null"), or "null" in case of a blank line.
+     * @throws IllegalStateException In case of a malformed object.
+     */
+    static String[] parseJsonRow( String line ) {
+        String trimmed = line.trim();
+        if ( trimmed.isEmpty() ) {
+            return null;
+        }
+        String destination = "";
+        String text = null;
+        int[] position = { trimmed.indexOf( '{' ) + 1 };
+        if ( position[ 0 ] == 0 ) {
+            throw new IllegalStateException( "Malformed NDJSON row: " + line );
+        }
+        while ( true ) {
+            skipWhitespace( trimmed, position );
+            if ( position[ 0 ] >= trimmed.length() || trimmed.charAt( position[ 0 ] ) == '}' ) {
+                break;
+            }
+            String key = readJsonString( trimmed, position );
+            skipWhitespace( trimmed, position );
+            if ( position[ 0 ] >= trimmed.length() || trimmed.charAt( position[ 0 ] ++ ) != ':' ) {
+                throw new IllegalStateException( "Malformed NDJSON row: " + line );
+            }
+            skipWhitespace( trimmed, position );
+            String value;
+            if ( position[ 0 ] < trimmed.length() && trimmed.charAt( position[ 0 ] ) == '"' ) {
+                value = readJsonString( trimmed, position );
+            } else {
+                // A number, "true", "false" or "null".
+                int start = position[ 0 ];
+                while ( position[ 0 ] < trimmed.length() && ",}".indexOf( trimmed.charAt( position[ 0 ] ) ) < 0 ) {
+                    position[ 0 ] ++;
+                }
+                value = trimmed.substring( start, position[ 0 ] ).trim();
+                value = value.equals( "null" ) ? null : value;
+            }
+            if ( key.equals( "destination" ) && value != null ) {
+                destination = value;
+            } else if ( key.equals( "text" ) ) {
+                text = value;
+            }
+            skipWhitespace( trimmed, position );
+            if ( position[ 0 ] < trimmed.length() && trimmed.charAt( position[ 0 ] ) == ',' ) {
+                position[ 0 ] ++;
+            }
+        }
+        return new String[] { destination, text };
+    }
+
+    /**
+     * Advance the position past any whitespace.
+     *
+     * @param json The "JSON" text.
+     * @param position The current position (in/out).
+     */
+    private static void skipWhitespace( String json, int[] position ) {
+        while ( position[ 0 ] < json.length() && Character.isWhitespace( json.charAt( position[ 0 ] ) ) ) {
+            position[ 0 ] ++;
+        }
+    }
+
+    /**
+     * Read a "JSON" string starting at the given position (which must point to the opening double quote).
+     *
+     * @param json The "JSON" text.
+     * @param position The current position (in/out).
+     * @return The unescaped string.
+     * @throws IllegalStateException In case of a malformed string.
+     */
+    private static String readJsonString( String json, int[] position ) {
+        if ( position[ 0 ] >= json.length() || json.charAt( position[ 0 ] ) != '"' ) {
+            throw new IllegalStateException( "Malformed NDJSON row: " + json );
+        }
+        StringBuilder value = new StringBuilder();
+        int i = position[ 0 ] + 1;
+        while ( i < json.length() ) {
+            char c = json.charAt( i++ );
+            if ( c == '"' ) {
+                position[ 0 ] = i;
+                return value.toString();
+            }
+            if ( c != '\\' ) {
+                value.append( c );
+                continue;
+            }
+            if ( i >= json.length() ) {
+                break;
+            }
+            char escaped = json.charAt( i++ );
+            switch ( escaped ) {
+                case 'n':
+                    value.append( '\n' );
+                    break;
+                case 'r':
+                    value.append( '\r' );
+                    break;
+                case 't':
+                    value.append( '\t' );
+                    break;
+                case 'b':
+                    value.append( '\b' );
+                    break;
+                case 'f':
+                    value.append( '\f' );
+                    break;
+                case 'u':
+                    if ( i + 4 > json.length() ) {
+                        throw new IllegalStateException( "Malformed NDJSON row: " + json );
+                    }
+                    // Exactly 4 hex digits; no sign, no other characters.
+                    int code = 0;
+                    for ( int end = i + 4; i < end; i++ ) {
+                        int digit = Character.digit( json.charAt( i ), 16 );
+                        if ( digit < 0 ) {
+                            throw new IllegalStateException( "Malformed NDJSON row: " + json );
+                        }
+                        code = ( code << 4 ) | digit;
+                    }
+                    value.append( ( char ) code );
+                    break;
+                default:
+                    // '"', '\\' and '/'.
+                    value.append( escaped );
+            }
+        }
+        throw new IllegalStateException( "Malformed NDJSON row: " + json );
+    }
+}
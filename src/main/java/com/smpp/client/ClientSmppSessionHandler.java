@@ -1,17 +1,14 @@
 package com.smpp.client;
 
-// The main API for dates, times, instants, and durations.
-import java.time.ZoneOffset;
-
 // Main user entry point of "SLF4J" API; logging takes place through concrete implementations of this interface.
 import org.slf4j.Logger;
 // Utility class producing "Loggers" for various logging APIs, most notably for "log4j", "logback" and "JDK 1.4" logging.
 import org.slf4j.LoggerFactory;
 
-// Utility class for encoding and decoding between Strings and byte arrays.
-import com.cloudhopper.commons.charset.CharsetUtil;
 // All constants defined for the "SMPP" protocol.
 import com.cloudhopper.smpp.SmppConstants;
+// A response "PDU" received asynchronously, i.e. matched against a request sent with "sendRequestPdu".
+import com.cloudhopper.smpp.PduAsyncResponse;
 // Default implementation that provides empty implementations of all required methods.
 import com.cloudhopper.smpp.impl.DefaultSmppSessionHandler;
 // "deliver_sm" PDU request.
@@ -20,8 +17,6 @@ import com.cloudhopper.smpp.pdu.DeliverSm;
 import com.cloudhopper.smpp.pdu.PduRequest;
 // Abstract class that extends "Pdu".
 import com.cloudhopper.smpp.pdu.PduResponse;
-// Utility class for working with "SMPP" such as encoding/decoding a short message, "esm class", or "registered delivery" flags.
-import com.cloudhopper.smpp.util.SmppUtil;
 
 /**
  * The default implementation of "SmppSessionListener" is to discard received PDUs.
@@ -31,102 +26,99 @@ public class ClientSmppSessionHandler extends DefaultSmppSessionHandler {
     // Return a logger named corresponding to the class passed as parameter, using the statically bound "ILoggerFactory" instance.
     private static final Logger log = LoggerFactory.getLogger( ClientSmppSessionHandler.class );
     // private ApplicationEventPublisher publisher;
-    // Declare a variable that will hold all the external properties we need.
-    private final SmppClientProperties properties;
+    // The asynchronous "submit_sm" pipeline waiting for the "submit_sm_resp" PDUs.
+    private final AsyncSubmitter submitter;
+    // The slot of the session pool this handler belongs to.
+    private final PooledSession slot;
+    // The ring buffer the "deliver_sm" PDUs of this bind are handed over to the worker threads through.
+    private final DeliveryDispatcher.Lane deliveryLane;
 
     /**
      * Constructor.
      *
-     * @param properties All the external properties we need.
+     * @param submitter The asynchronous "submit_sm" pipeline waiting for the "submit_sm_resp" PDUs.
+     * @param dispatcher The worker threads processing the "deliver_sm" PDUs.
+     * @param slot The slot of the session pool this handler belongs to.
      */
-    public ClientSmppSessionHandler( SmppClientProperties properties ) {
-        this.properties = properties;
-    }
-
-    /**
-     * Map "data coding scheme" (DCS) to charset.
-     *
-     * @param dataCoding The "data coding scheme" (DCS) byte.
-     * @return The corresponding charset (name).
-     */
-    private String mapDataCodingToCharset( byte dataCoding ) {
-        switch ( dataCoding ) {
-            // In case of "DCS" = 3 return "ISO-8859-1".
-            case SmppConstants.DATA_CODING_LATIN1:
-                return CharsetUtil.NAME_ISO_8859_1;
-            // In case of "DCS" = 8 return "UCS-2".
-            case SmppConstants.DATA_CODING_UCS2:
-                return CharsetUtil.NAME_UCS_2;
-            default:
-                // Else return "GSM".
-                return CharsetUtil.NAME_GSM;
-        }
+    public ClientSmppSessionHandler( AsyncSubmitter submitter, DeliveryDispatcher dispatcher, PooledSession slot ) {
+        this.submitter = submitter;
+        this.slot = slot;
+        this.deliveryLane = dispatcher.register( slot.getPool().getName( slot ) );
     }
 
     /**
      * To receive "delivery reports", an implementation of "SmppSessionListener".
      *
+     * The "deliver_sm" PDU is handed over to the worker threads and acknowledged at once, so that the "Netty" I/O
+     * thread goes on reading the bind; in case where the ring buffer of the bind is full, the "PDU" is answered with
+     * "ESME_RX_T_APPN", so that the "SMSC" retries it later.
+     *
      * @param request The request "PDU".
      * @return The response "PDU".
      */
     @Override
     @SuppressWarnings("rawtypes")
     public PduResponse firePduRequestReceived( PduRequest request ) {
-        // Declare a variable that will hold the response "PDU".
-        PduResponse response = null;
-
-        try {
-            // In case of a "deliver_sm" PDU request.
-            if ( request instanceof DeliverSm ) {
-                // Get the source address of the "SMPP" PDU.
-                String sourceAddress = ( ( DeliverSm ) request ).getSourceAddress().getAddress();
-                // Retrieve the bytes array of the "short message" and map the byte of the "data coding scheme" (DCS)
-                // of the "SMPP" PDU to the corresponding charset (name). Then get the message of the "SMPP" PDU by
-                // decoding the "deliver_sm" PDU.
-                String message = CharsetUtil.decode( ( ( DeliverSm ) request ).getShortMessage(),
-                        mapDataCodingToCharset( ( ( DeliverSm ) request ).getDataCoding() ) );
-                log.info( "SMS Message Received: {}, Source Address: {}", message.trim(), sourceAddress );
+        // Any received "PDU" proves the link is alive (see "KeepaliveMonitor").
+        slot.touch();
+        // Create a "deliver_sm_resp" PDU.
+        PduResponse response = request.createResponse();
 
-                // Declare a boolean variable - flag in case where the "deliver_sm" PDU is a "delivery receipt" message.
-                boolean isDeliveryReceipt = false;
-                // Check defined "properties" and detect "DLR" by the "Optional Parameters" of the "SMPP" PDU.
-                if ( properties.getSmpp().isDetectDlrByOpts() ) {
-                    // Get the current list of "Optional Parameters". If no parameters have been added, this will return
-                    // null.
-                    isDeliveryReceipt = request.getOptionalParameters() != null;
-                }
-                // If not defined in "properties", check if the "esm_class" (byte) value have a message type set at all.
-                // This basically checks if the "esm_class" could either be SMSC "delivery receipt", ESME "delivery receipt",
-                // manual user acknowledgement, conversation abort, or an intermediate "delivery receipt". True if the
-                // option is set, otherwise false.
-                else {
-                    isDeliveryReceipt = SmppUtil.isMessageTypeAnyDeliveryReceipt( ( ( DeliverSm ) request ).getEsmClass() );
-                }
-
-                // "deliver_sm" PDU is a "delivery receipt" message.
-                if ( isDeliveryReceipt ) {
-                    // Parse the text of the short message and create a "DeliveryReceipt" from the fields.
-                    DeliveryReceipt dlr = DeliveryReceipt.parseShortMessage( message, ZoneOffset.UTC );
-                    log.info( "Received delivery from {} at {} with message-id {} and status {}", sourceAddress,
-                            dlr.getDoneDate(), dlr.getMessageId(), DeliveryReceipt.toStateText( dlr.getState() ) );
-                }
-            }
-
-            // Create a "deliver_sm_resp" PDU.
-            response = request.createResponse();
-        }
-        // In case of error.
-        catch ( Throwable error ) {
-            log.warn( "Error while handling delivery", error );
-            // Create a "deliver_sm_resp" PDU.
-            response = request.createResponse();
+        // In case of a "deliver_sm" PDU request, publish the raw "PDU" to be decoded and parsed off the I/O thread.
+        if ( request instanceof DeliverSm && !deliveryLane.publish( ( DeliverSm ) request ) ) {
             // Set result error message.
-            response.setResultMessage( error.getMessage() );
-            // Set "SMPP" command status to "Unknown Error" = "0x000000FF" = 255
-            response.setCommandStatus( SmppConstants.STATUS_UNKNOWNERR );
+            response.setResultMessage( "Delivery queue is full" );
+            // Set "SMPP" command status to "ESME_RX_T_APPN" = "0x00000064" = 100, i.e. temporary application error.
+            response.setCommandStatus( SmppConstants.STATUS_X_T_APPN );
+            log.debug( "Rejected deliver_sm, sequence number {}", request.getSequenceNumber() );
         }
 
         // Return response "deliver_sm_resp" PDU.
         return response;
     }
+
+    /**
+     * Pass the responses of the requests sent asynchronously (e.g. "submit_sm_resp") back to the "submit_sm" pipeline.
+     *
+     * @param pduAsyncResponse The request and its matching response.
+     */
+    @Override
+    public void fireExpectedPduResponseReceived( PduAsyncResponse pduAsyncResponse ) {
+        slot.touch();
+        submitter.onResponse( pduAsyncResponse );
+    }
+
+    /**
+     * Record the activity of a response that no longer matches a request, e.g. a late "enquire_link_resp", and
+     * discard it.
+     *
+     * @param pduResponse The response "PDU".
+     */
+    @Override
+    public void fireUnexpectedPduResponseReceived( PduResponse pduResponse ) {
+        slot.touch();
+        // Discard the "PDU", logging a warning.
+        super.fireUnexpectedPduResponseReceived( pduResponse );
+    }
+
+    /**
+     * Pass the requests that did not receive a response within the "request expiry timeout" back to the "submit_sm"
+     * pipeline.
+     *
+     * @param pduRequest The expired request "PDU".
+     */
+    @Override
+    @SuppressWarnings("rawtypes")
+    public void firePduRequestExpired( PduRequest pduRequest ) {
+        submitter.onExpired( pduRequest );
+    }
+
+    /**
+     * Take the session out of the rotation of the pool, and bind it again, in case where the underlying socket/channel
+     * was unexpectedly closed.
+     */
+    @Override
+    public void fireChannelUnexpectedlyClosed() {
+        slot.getPool().onSessionClosed( slot );
+    }
 }
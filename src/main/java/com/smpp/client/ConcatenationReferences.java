@@ -0,0 +1,74 @@
+package com.smpp.client;
+
+// An "int" array in which elements may be updated atomically.
+import java.util.concurrent.atomic.AtomicIntegerArray;
+// A random number generator isolated to the current thread.
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Allocate the reference numbers of the concatenated messages.
+ *
+ * The parts of a concatenated message are reassembled by the handset per originator and reference number; two long
+ * messages in flight towards the same handset with the same reference get mixed up. A random 8-bit reference collides
+ * with a chance of 1 in 256 per pair of messages, whereas consecutive references towards the same destination only
+ * repeat after a full cycle of the counter (256, or 65536 with the 16-bit references).
+ *
+ * Each destination is mapped to one of a fixed number of striped counters by the hash of its address, i.e. all the
+ * messages towards a destination draw from the same counter; the counters are incremented lock-free (one atomic
+ * "getAndIncrement"), padded against false sharing, and start at random values so that a restart does not reuse the
+ * references of the previous run.
+ *
+ * @author  Aristotelis Metsinis ( aristotelis.metsinis@gmail.com )
+ * @version 1.0
+ * @since   January 2022
+ */
+public class ConcatenationReferences {
+    // The number of striped counters; a power of 2.
+    private static final int STRIPES = 64;
+    // The distance (in "int" elements) between two counters, i.e. one cache line of 64 bytes.
+    private static final int PADDING = 16;
+
+    // The striped counters.
+    private final AtomicIntegerArray counters = new AtomicIntegerArray( STRIPES * PADDING );
+    // "true" in case of 16-bit reference numbers, else "false" in case of 8-bit ones.
+    private final boolean sixteenBit;
+
+    /**
+     * Constructor.
+     *
+     * @param bits The size of the reference numbers; either "8" or "16".
+     * @throws IllegalArgumentException In case of any other size.
+     */
+    public ConcatenationReferences( int bits ) {
+        if ( bits != 8 && bits != 16 ) {
+            throw new IllegalArgumentException( "Invalid concatenation reference size " + bits + ", either 8 or 16 bits" );
+        }
+        this.sixteenBit = bits == 16;
+        for ( int stripe = 0; stripe < STRIPES; stripe++ ) {
+            counters.set( stripe * PADDING, ThreadLocalRandom.current().nextInt() );
+        }
+    }
+
+    /**
+     * Check the size of the reference numbers.
+     *
+     * @return "true" in case of 16-bit reference numbers, else "false" in case of 8-bit ones.
+     */
+    public boolean isSixteenBit() {
+        return sixteenBit;
+    }
+
+    /**
+     * Allocate the reference number of a concatenated message.
+     *
+     * @param destinationAddress The destination address (MSISDN) of the message.
+     * @return The reference number; from "0" to "65535", or to "255" in case of 8-bit reference numbers.
+     */
+    public int next( String destinationAddress ) {
+        int hash = destinationAddress == null ? 0 : destinationAddress.hashCode();
+        // Spread the higher bits of the hash into the lower ones, which select the counter.
+        hash ^= hash >>> 16;
+        hash ^= hash >>> 8;
+        return counters.getAndIncrement( ( hash & ( STRIPES - 1 ) ) * PADDING ) & ( sixteenBit ? 0xFFFF : 0xFF );
+    }
+}
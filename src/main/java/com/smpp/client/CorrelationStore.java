@@ -0,0 +1,461 @@
+package com.smpp.client;
+
+// Main user entry point of "SLF4J" API; logging takes place through concrete implementations of this interface.
+import org.slf4j.Logger;
+// Utility class producing "Loggers" for various logging APIs, most notably for "log4j", "logback" and "JDK 1.4" logging.
+import org.slf4j.LoggerFactory;
+
+// Hash table based implementation of the "Map" interface.
+import java.util.HashMap;
+// An iterator over a collection.
+import java.util.Iterator;
+// An object that maps keys to values.
+import java.util.Map;
+// A "TimeUnit" represents time durations at a given unit of granularity.
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory index correlating the "delivery receipts" with the "submit_sm" requests they report on.
+ *
+ * Once a "submit_sm_resp" has been received, the message id assigned by the "SMSC" is registered together with our
+ * internal message reference; once the "delivery receipt" of that message id is received, the entry is removed and
+ * the listener is notified with the reference and the final state. The message ids are normalised to a "long", i.e.
+ * parsed as hexadecimal (the format of "DeliveryReceipt.toMessageIdAsLong") or decimal, according to the radix
+ * configured for the "submit_sm_resp" and the "delivery receipt" respectively, since some "SMSC" report the same id
+ * in different formats. The ids that cannot be parsed fall back to a map keyed by the "String" itself.
+ *
+ * The "long" keys are kept in striped, open-addressing hash tables of primitive arrays (linear probing, with
+ * backward-shift deletion, i.e. without tombstones), so that an entry takes about 20 bytes per slot instead of the
+ * several objects of a "HashMap" entry, and millions of outstanding receipts fit in a few hundred MB. Each stripe is
+ * guarded by its own lock. The entries expire after "correlation-ttl", since a receipt may never arrive.
+ *
+ * A "delivery receipt" may arrive before the "submit_sm_resp" of its message (e.g. on another bind). In such a case,
+ * its state is kept for the "timeout" of the requests; the "submit_sm_resp" completes the correlation once it
+ * arrives. Both sides are matched under the lock of the same stripe, so either of them finds the other.
+ *
+ * @author  Aristotelis Metsinis ( aristotelis.metsinis@gmail.com )
+ * @version 1.0
+ * @since   January 2022
+ */
+public class CorrelationStore {
+    // Return a logger named corresponding to the class passed as parameter, using the statically bound "ILoggerFactory" instance.
+    private static final Logger log = LoggerFactory.getLogger( CorrelationStore.class );
+
+    // Returned in case where a key is not found.
+    private static final long NO_VALUE = Long.MIN_VALUE;
+    // The number of stripes; a power of two.
+    private static final int STRIPES = 16;
+    // The initial number of slots of each stripe; a power of two.
+    private static final int INITIAL_CAPACITY = 1024;
+
+    /**
+     * Notified once a "delivery receipt" has been correlated with its "submit_sm" request.
+     */
+    public interface Listener {
+        /**
+         * Handle a correlated "delivery receipt".
+         *
+         * @param reference The internal message reference of the "submit_sm" request.
+         * @param messageId The message id assigned by the "SMSC".
+         * @param state The final state of the message.
+         */
+        void onDelivery( long reference, String messageId, byte state );
+    }
+
+    // The listener of the correlated "delivery receipts".
+    private final Listener listener;
+    // The radix of the message ids of the "submit_sm_resp" and "delivery receipt" PDUs.
+    private final int submitRadix;
+    private final int dlrRadix;
+    // The time (in seconds) a registered message id and an early "delivery receipt" are kept for.
+    private final int ttl;
+    private final int earlyTtl;
+    // The time ("System.nanoTime()") the store was created at; the expiry times are relative to it.
+    private final long origin = System.nanoTime();
+    // The internal message references of the submitted message ids.
+    private final Segment[] references = new Segment[ STRIPES ];
+    // The states of the "delivery receipts" received before the "submit_sm_resp" of their message.
+    private final Segment[] earlyReceipts = new Segment[ STRIPES ];
+    // The message ids that cannot be normalised to a "long"; "[ value, expiry ]" per id. Guarded by itself.
+    private final Map<String, long[]> stringReferences = new HashMap<>();
+    private final Map<String, long[]> stringEarlyReceipts = new HashMap<>();
+
+    /**
+     * Constructor.
+     *
+     * @param properties All the external properties we need.
+     * @param listener The listener of the correlated "delivery receipts".
+     */
+    public CorrelationStore( SmppClientProperties properties, Listener listener ) {
+        this.listener = listener;
+        this.submitRadix = properties.getAsync().getSubmitMessageIdRadix();
+        this.dlrRadix = properties.getAsync().getDlrMessageIdRadix();
+        this.ttl = toSeconds( properties.getAsync().getCorrelationTtl() );
+        this.earlyTtl = toSeconds( properties.getAsync().getTimeout() );
+        for ( int index = 0; index < STRIPES; index++ ) {
+            references[ index ] = new Segment();
+            earlyReceipts[ index ] = new Segment();
+        }
+    }
+
+    /**
+     * Register the message id of a "submit_sm_resp". In case where the "delivery receipt" of the message has already
+     * been received, the listener is notified at once.
+     *
+     * @param messageId The message id assigned by the "SMSC".
+     * @param reference The internal message reference of the "submit_sm" request.
+     */
+    public void register( String messageId, long reference ) {
+        if ( messageId == null ) {
+            return;
+        }
+        long state = NO_VALUE;
+        int now = now();
+        long key = normalise( messageId, submitRadix );
+        if ( key != NO_VALUE ) {
+            Segment early = earlyReceipts[ stripe( key ) ];
+            Segment submitted = references[ stripe( key ) ];
+            // Always lock the stripe of the references first.
+            synchronized ( submitted ) {
+                synchronized ( early ) {
+                    state = early.remove( key, now );
+                }
+                if ( state == NO_VALUE ) {
+                    submitted.put( key, reference, now + ttl );
+                }
+            }
+        } else {
+            synchronized ( stringReferences ) {
+                long[] entry = stringEarlyReceipts.remove( messageId );
+                if ( entry != null && entry[ 1 ] - now > 0 ) {
+                    state = entry[ 0 ];
+                } else {
+                    stringReferences.put( messageId, new long[] { reference, now + ttl } );
+                }
+            }
+        }
+        // The "delivery receipt" arrived first.
+        if ( state != NO_VALUE ) {
+            listener.onDelivery( reference, messageId, ( byte ) state );
+        }
+    }
+
+    /**
+     * Correlate a "delivery receipt" with its "submit_sm" request and notify the listener. In case where the message
+     * id has not been registered yet, the state is kept until the "submit_sm_resp" arrives.
+     *
+     * @param messageId The message id of the "delivery receipt".
+     * @param state The final state of the message.
+     * @return "true" in case where the receipt was correlated, else "false".
+     */
+    public boolean complete( String messageId, byte state ) {
+        if ( messageId == null ) {
+            return false;
+        }
+        long reference;
+        int now = now();
+        long key = normalise( messageId, dlrRadix );
+        if ( key != NO_VALUE ) {
+            Segment submitted = references[ stripe( key ) ];
+            synchronized ( submitted ) {
+                reference = submitted.remove( key, now );
+                if ( reference == NO_VALUE ) {
+                    Segment early = earlyReceipts[ stripe( key ) ];
+                    synchronized ( early ) {
+                        early.put( key, state, now + earlyTtl );
+                    }
+                }
+            }
+        } else {
+            synchronized ( stringReferences ) {
+                long[] entry = stringReferences.remove( messageId );
+                reference = entry != null && entry[ 1 ] - now > 0 ? entry[ 0 ] : NO_VALUE;
+                if ( reference == NO_VALUE ) {
+                    stringEarlyReceipts.put( messageId, new long[] { state, now + earlyTtl } );
+                }
+            }
+        }
+        if ( reference == NO_VALUE ) {
+            return false;
+        }
+        listener.onDelivery( reference, messageId, state );
+        return true;
+    }
+
+    /**
+     * Remove the expired entries, i.e. the messages whose "delivery receipt" never arrived and the "delivery
+     * receipts" whose message was never registered.
+     */
+    public void expire() {
+        int now = now();
+        int expired = 0;
+        int unmatched = 0;
+        for ( int index = 0; index < STRIPES; index++ ) {
+            synchronized ( references[ index ] ) {
+                expired += references[ index ].expire( now );
+            }
+            synchronized ( earlyReceipts[ index ] ) {
+                unmatched += earlyReceipts[ index ].expire( now );
+            }
+        }
+        synchronized ( stringReferences ) {
+            expired += expire( stringReferences, now );
+            unmatched += expire( stringEarlyReceipts, now );
+        }
+        if ( expired > 0 || unmatched > 0 ) {
+            log.info( "Expired {} messages without a delivery receipt and {} unmatched delivery receipts; {} outstanding",
+                    expired, unmatched, size() );
+        }
+    }
+
+    /**
+     * Get the number of registered message ids waiting for their "delivery receipt".
+     *
+     * @return The number of outstanding messages.
+     */
+    public int size() {
+        int size = 0;
+        for ( Segment segment : references ) {
+            synchronized ( segment ) {
+                size += segment.size;
+            }
+        }
+        synchronized ( stringReferences ) {
+            return size + stringReferences.size();
+        }
+    }
+
+    /**
+     * Normalise a message id to a "long".
+     *
+     * @param messageId The message id.
+     * @param radix "16" for a hexadecimal, or "10" for a decimal message id.
+     * @return The normalised id, or "NO_VALUE" in case where the id cannot be parsed.
+     */
+    static long normalise( String messageId, int radix ) {
+        // Up to 16 hexadecimal or 18 decimal digits, so that distinct ids never overflow into the same "long".
+        if ( messageId.isEmpty() || messageId.length() > ( radix == 16 ? 16 : 18 ) ) {
+            return NO_VALUE;
+        }
+        long value = 0;
+        for ( int index = 0; index < messageId.length(); index++ ) {
+            int digit = Character.digit( messageId.charAt( index ), radix );
+            if ( digit < 0 ) {
+                return NO_VALUE;
+            }
+            value = value * radix + digit;
+        }
+        // Note that the id "8000000000000000" equals "NO_VALUE", hence it is kept in the "String" map.
+        return value;
+    }
+
+    /**
+     * Select the stripe of a key.
+     *
+     * @param key The key.
+     * @return The index of the stripe.
+     */
+    private static int stripe( long key ) {
+        return ( int ) ( mix( key ) >>> 60 ) & ( STRIPES - 1 );
+    }
+
+    /**
+     * Scramble the bits of a key, since the message ids are often sequential.
+     *
+     * @param key The key.
+     * @return The hash of the key.
+     */
+    private static long mix( long key ) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return hash ^ ( hash >>> 29 );
+    }
+
+    /**
+     * Get the current time in seconds relative to the creation of the store.
+     *
+     * @return The current time.
+     */
+    private int now() {
+        return ( int ) TimeUnit.NANOSECONDS.toSeconds( System.nanoTime() - origin );
+    }
+
+    /**
+     * Convert a duration in milliseconds to seconds, rounding up.
+     *
+     * @param millis The duration in milliseconds.
+     * @return The duration in seconds.
+     */
+    private static int toSeconds( long millis ) {
+        return ( int ) Math.max( 1, ( millis + 999 ) / 1000 );
+    }
+
+    /**
+     * Remove the expired entries of a "String" map.
+     *
+     * @param map The map.
+     * @param now The current time.
+     * @return The number of removed entries.
+     */
+    private static int expire( Map<String, long[]> map, int now ) {
+        int removed = 0;
+        for ( Iterator<long[]> iterator = map.values().iterator(); iterator.hasNext(); ) {
+            if ( iterator.next()[ 1 ] - now <= 0 ) {
+                iterator.remove();
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * An open-addressing hash table of "long" keys to "long" values with an expiry time per entry. The key "0" marks
+     * an empty slot, so that an actual key "0" is kept in dedicated fields. Not thread-safe; guarded by its stripe.
+     */
+    private static final class Segment {
+        // The keys, values and expiry times of the slots.
+        private long[] keys = new long[ INITIAL_CAPACITY ];
+        private long[] values = new long[ INITIAL_CAPACITY ];
+        private int[] expiries = new int[ INITIAL_CAPACITY ];
+        // Map a hash to a slot.
+        private int mask = INITIAL_CAPACITY - 1;
+        // The number of entries.
+        private int size;
+        // The entry of the key "0".
+        private boolean hasZeroKey;
+        private long zeroValue;
+        private int zeroExpiry;
+
+        /**
+         * Add or replace an entry.
+         *
+         * @param key The key.
+         * @param value The value.
+         * @param expiry The time the entry expires at.
+         */
+        void put( long key, long value, int expiry ) {
+            if ( key == 0 ) {
+                if ( !hasZeroKey ) {
+                    size++;
+                }
+                hasZeroKey = true;
+                zeroValue = value;
+                zeroExpiry = expiry;
+                return;
+            }
+            // Keep the load factor under 0.75.
+            if ( ( size + 1 ) * 4L > keys.length * 3L ) {
+                resize( keys.length * 2 );
+            }
+            int slot = ( int ) mix( key ) & mask;
+            while ( keys[ slot ] != 0 && keys[ slot ] != key ) {
+                slot = ( slot + 1 ) & mask;
+            }
+            if ( keys[ slot ] == 0 ) {
+                size++;
+            }
+            keys[ slot ] = key;
+            values[ slot ] = value;
+            expiries[ slot ] = expiry;
+        }
+
+        /**
+         * Remove an entry.
+         *
+         * @param key The key.
+         * @param now The current time.
+         * @return The value, or "NO_VALUE" in case where the key is not found or the entry has expired.
+         */
+        long remove( long key, int now ) {
+            if ( key == 0 ) {
+                if ( !hasZeroKey ) {
+                    return NO_VALUE;
+                }
+                hasZeroKey = false;
+                size--;
+                return zeroExpiry - now > 0 ? zeroValue : NO_VALUE;
+            }
+            int slot = ( int ) mix( key ) & mask;
+            while ( keys[ slot ] != 0 ) {
+                if ( keys[ slot ] == key ) {
+                    long value = expiries[ slot ] - now > 0 ? values[ slot ] : NO_VALUE;
+                    removeAt( slot );
+                    return value;
+                }
+                slot = ( slot + 1 ) & mask;
+            }
+            return NO_VALUE;
+        }
+
+        /**
+         * Remove the expired entries.
+         *
+         * @param now The current time.
+         * @return The number of removed entries.
+         */
+        int expire( int now ) {
+            int removed = 0;
+            if ( hasZeroKey && zeroExpiry - now <= 0 ) {
+                hasZeroKey = false;
+                size--;
+                removed++;
+            }
+            for ( int slot = 0; slot < keys.length; slot++ ) {
+                // A following entry may be shifted into the emptied slot, so check the same slot again.
+                while ( keys[ slot ] != 0 && expiries[ slot ] - now <= 0 ) {
+                    removeAt( slot );
+                    removed++;
+                }
+            }
+            return removed;
+        }
+
+        /**
+         * Empty a slot and shift back the following entries of the probe sequence, so that no tombstone is needed.
+         *
+         * @param slot The slot.
+         */
+        private void removeAt( int slot ) {
+            int gap = slot;
+            int next = ( gap + 1 ) & mask;
+            while ( keys[ next ] != 0 ) {
+                int home = ( int ) mix( keys[ next ] ) & mask;
+                // Move the entry into the gap in case where the gap lies between its home slot and its current slot.
+                if ( ( ( next - home ) & mask ) >= ( ( next - gap ) & mask ) ) {
+                    keys[ gap ] = keys[ next ];
+                    values[ gap ] = values[ next ];
+                    expiries[ gap ] = expiries[ next ];
+                    gap = next;
+                }
+                next = ( next + 1 ) & mask;
+            }
+            keys[ gap ] = 0;
+            size--;
+        }
+
+        /**
+         * Rehash the entries into larger arrays.
+         *
+         * @param capacity The new number of slots; a power of two.
+         */
+        private void resize( int capacity ) {
+            long[] oldKeys = keys;
+            long[] oldValues = values;
+            int[] oldExpiries = expiries;
+            keys = new long[ capacity ];
+            values = new long[ capacity ];
+            expiries = new int[ capacity ];
+            mask = capacity - 1;
+            for ( int index = 0; index < oldKeys.length; index++ ) {
+                if ( oldKeys[ index ] != 0 ) {
+                    int slot = ( int ) mix( oldKeys[ index ] ) & mask;
+                    while ( keys[ slot ] != 0 ) {
+                        slot = ( slot + 1 ) & mask;
+                    }
+                    keys[ slot ] = oldKeys[ index ];
+                    values[ slot ] = oldValues[ index ];
+                    expiries[ slot ] = oldExpiries[ index ];
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,322 @@
+package com.smpp.client;
+
+// Main user entry point of "SLF4J" API; logging takes place through concrete implementations of this interface.
+import org.slf4j.Logger;
+// Utility class producing "Loggers" for various logging APIs, most notably for "log4j", "logback" and "JDK 1.4" logging.
+import org.slf4j.LoggerFactory;
+
+// Utility class for encoding and decoding between Strings and byte arrays.
+import com.cloudhopper.commons.charset.CharsetUtil;
+// All constants defined for the "SMPP" protocol.
+import com.cloudhopper.smpp.SmppConstants;
+// "deliver_sm" PDU request.
+import com.cloudhopper.smpp.pdu.DeliverSm;
+// Thrown in case where the short message of a "delivery receipt" cannot be parsed.
+import com.cloudhopper.smpp.util.DeliveryReceiptException;
+// Utility class for working with "SMPP" such as encoding/decoding a short message, "esm class", or "registered delivery" flags.
+import com.cloudhopper.smpp.util.SmppUtil;
+
+// The main API for dates, times, instants, and durations.
+import java.time.ZoneOffset;
+// Resizable-array implementation of the "List" interface.
+import java.util.ArrayList;
+// An ordered collection (also known as a sequence).
+import java.util.List;
+// A thread-safe variant of "ArrayList" in which all mutative operations are implemented by making a fresh copy.
+import java.util.concurrent.CopyOnWriteArrayList;
+// An "int" value that may be updated atomically.
+import java.util.concurrent.atomic.AtomicInteger;
+// Basic thread blocking primitives for creating locks and other synchronization classes.
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Hand the received "deliver_sm" PDUs over from the "Netty" I/O threads to a pool of worker threads.
+ *
+ * Decoding, parsing and logging a "deliver_sm" PDU on the I/O thread stalls the reading of the whole bind while the
+ * PDU is processed. Instead, the session handler of each bind registers a "Lane": a bounded, single-producer /
+ * single-consumer "RingBuffer" drained by one of the workers. The I/O thread publishes the raw "PDU" into its lane
+ * and acknowledges it at once; in case where the lane is full, the "PDU" is answered with "ESME_RX_T_APPN" (temporary
+ * application error), so that the "SMSC" delivers it again later, instead of blocking the I/O thread.
+ *
+ * The lanes are assigned to the workers round-robin, so that the PDUs of a bind are processed in order by a
+ * single thread; each worker reuses its own "DeliveryReceipt", filled in place by the byte parser. An idle worker
+ * parks and is woken up by the next "PDU" published into one of its lanes.
+ *
+ * @author  Aristotelis Metsinis ( aristotelis.metsinis@gmail.com )
+ * @version 1.0
+ * @since   January 2022
+ */
+public class DeliveryDispatcher {
+    // Return a logger named corresponding to the class passed as parameter, using the statically bound "ILoggerFactory" instance.
+    private static final Logger log = LoggerFactory.getLogger( DeliveryDispatcher.class );
+    // The max number of PDUs a worker takes from a lane before moving on to the next one.
+    private static final int DRAIN_BATCH_SIZE = 64;
+
+    // All the external properties we need.
+    private final SmppClientProperties properties;
+    // Correlate the "delivery receipts" with the "submit_sm" requests.
+    private final CorrelationStore correlationStore;
+    // The metrics of the processing time and of the "delivery receipt" lag.
+    private final SmppMetrics metrics;
+    // The worker threads.
+    private final List<Worker> workers = new ArrayList<>();
+    // The worker the next lane is assigned to.
+    private final AtomicInteger nextWorker = new AtomicInteger();
+    // Set to "false" once the dispatcher is shutting down.
+    private volatile boolean running = true;
+
+    /**
+     * Constructor; start the "delivery-worker-size" worker threads.
+     *
+     * @param properties All the external properties we need.
+     * @param correlationStore Correlate the "delivery receipts" with the "submit_sm" requests.
+     * @param metrics The metrics of the processing time and of the "delivery receipt" lag.
+     */
+    public DeliveryDispatcher( SmppClientProperties properties, CorrelationStore correlationStore,
+                               SmppMetrics metrics ) {
+        this.properties = properties;
+        this.correlationStore = correlationStore;
+        this.metrics = metrics;
+        for ( int index = 0; index < Math.max( properties.getAsync().getDeliveryWorkerSize(), 1 ); index++ ) {
+            Worker worker = new Worker();
+            worker.thread = new Thread( worker, "smpp.delivery." + index );
+            workers.add( worker );
+            worker.thread.start();
+        }
+    }
+
+    /**
+     * Register the lane of a bind. Called once per session handler.
+     *
+     * @param name The name of the bind, used for logging.
+     * @return The lane the "deliver_sm" PDUs of the bind are published into.
+     */
+    public Lane register( String name ) {
+        Worker worker = workers.get( Math.floorMod( nextWorker.getAndIncrement(), workers.size() ) );
+        Lane lane = new Lane( name, new RingBuffer<>( properties.getAsync().getDeliveryQueueCapacity() ), worker );
+        worker.lanes.add( lane );
+        return lane;
+    }
+
+    /**
+     * Stop the worker threads once the PDUs already published have been processed.
+     *
+     * @throws InterruptedException In case where the calling thread is interrupted while waiting for the workers.
+     */
+    public void shutdown() throws InterruptedException {
+        running = false;
+        for ( Worker worker : workers ) {
+            LockSupport.unpark( worker.thread );
+        }
+        for ( Worker worker : workers ) {
+            worker.thread.join( properties.getAsync().getTimeout() );
+        }
+    }
+
+    /**
+     * Decode, parse and log a "deliver_sm" PDU.
+     *
+     * @param deliver The "deliver_sm" PDU.
+     * @param dlr The "delivery receipt" filled in place by the byte parser.
+     * @throws DeliveryReceiptException In case where the "delivery receipt" cannot be parsed.
+     */
+    private void process( DeliverSm deliver, DeliveryReceipt dlr ) throws DeliveryReceiptException {
+        // Get the source address of the "SMPP" PDU.
+        String sourceAddress = deliver.getSourceAddress().getAddress();
+
+        // Declare a boolean variable - flag in case where the "deliver_sm" PDU is a "delivery receipt" message.
+        boolean isDeliveryReceipt = false;
+        // Check defined "properties" and detect "DLR" by the "Optional Parameters" of the "SMPP" PDU.
+        if ( properties.getSmpp().isDetectDlrByOpts() ) {
+            // Get the current list of "Optional Parameters". If no parameters have been added, this will return
+            // null.
+            isDeliveryReceipt = deliver.getOptionalParameters() != null;
+        }
+        // If not defined in "properties", check if the "esm_class" (byte) value have a message type set at all.
+        // This basically checks if the "esm_class" could either be SMSC "delivery receipt", ESME "delivery receipt",
+        // manual user acknowledgement, conversation abort, or an intermediate "delivery receipt". True if the
+        // option is set, otherwise false.
+        else {
+            isDeliveryReceipt = SmppUtil.isMessageTypeAnyDeliveryReceipt( deliver.getEsmClass() );
+        }
+
+        // "deliver_sm" PDU is a "delivery receipt" message.
+        if ( isDeliveryReceipt ) {
+            DeliveryReceipt receipt;
+            // A "UCS-2" short message is decoded and parsed as text.
+            if ( deliver.getDataCoding() == SmppConstants.DATA_CODING_UCS2 ) {
+                receipt = DeliveryReceipt.parseShortMessage( CharsetUtil.decode( deliver.getShortMessage(),
+                        CharsetUtil.NAME_UCS_2 ), ZoneOffset.UTC );
+            }
+            // Else, parse the raw bytes of the short message in a single pass and fill the reusable
+            // "DeliveryReceipt" in place.
+            else {
+                DeliveryReceipt.parseShortMessage( deliver.getShortMessage(), ZoneOffset.UTC, true, dlr );
+                receipt = dlr;
+            }
+            log.info( "Received delivery from {} at {} with message-id {} and status {}", sourceAddress,
+                    receipt.getDoneDate(), receipt.getMessageId(), DeliveryReceipt.toStateText( receipt.getState() ) );
+            if ( receipt.getDoneDateMillis() != DeliveryReceipt.NO_DATE ) {
+                metrics.recordDlrLag( receipt.getDoneDateMillis() );
+            }
+            // Correlate the receipt with its "submit_sm" request; kept until the "submit_sm_resp" in case where the
+            // receipt arrived first.
+            correlationStore.complete( receipt.getMessageId(), receipt.getState() );
+        }
+        // Else, a mobile originated "SMS".
+        else {
+            // Retrieve the bytes array of the "short message" and map the byte of the "data coding scheme" (DCS)
+            // of the "SMPP" PDU to the corresponding charset (name). Then get the message of the "SMPP" PDU by
+            // decoding the "deliver_sm" PDU.
+            String message = CharsetUtil.decode( deliver.getShortMessage(),
+                    mapDataCodingToCharset( deliver.getDataCoding() ) );
+            log.info( "SMS Message Received: {}, Source Address: {}", message.trim(), sourceAddress );
+        }
+    }
+
+    /**
+     * Map "data coding scheme" (DCS) to charset.
+     *
+     * @param dataCoding The "data coding scheme" (DCS) byte.
+     * @return The corresponding charset (name).
+     */
+    private String mapDataCodingToCharset( byte dataCoding ) {
+        switch ( dataCoding ) {
+            // In case of "DCS" = 3 return "ISO-8859-1".
+            case SmppConstants.DATA_CODING_LATIN1:
+                return CharsetUtil.NAME_ISO_8859_1;
+            // In case of "DCS" = 8 return "UCS-2".
+            case SmppConstants.DATA_CODING_UCS2:
+                return CharsetUtil.NAME_UCS_2;
+            default:
+                // Else return "GSM".
+                return CharsetUtil.NAME_GSM;
+        }
+    }
+
+    /**
+     * The ring buffer of a bind; the "Netty" I/O thread of the bind is its single producer and the assigned worker
+     * its single consumer.
+     */
+    public static final class Lane {
+        // The name of the bind.
+        private final String name;
+        // The "deliver_sm" PDUs waiting to be processed.
+        private final RingBuffer<DeliverSm> ring;
+        // The worker draining this lane.
+        private final Worker worker;
+        // Set while the lane is full, so that a burst of rejections is logged once; accessed by the producer only.
+        private boolean full;
+
+        /**
+         * Constructor.
+         *
+         * @param name The name of the bind.
+         * @param ring The "deliver_sm" PDUs waiting to be processed.
+         * @param worker The worker draining this lane.
+         */
+        private Lane( String name, RingBuffer<DeliverSm> ring, Worker worker ) {
+            this.name = name;
+            this.ring = ring;
+            this.worker = worker;
+        }
+
+        /**
+         * Publish a "deliver_sm" PDU and wake up the worker in case where it is idle; never blocks.
+         *
+         * @param deliver The "deliver_sm" PDU.
+         * @return "true" in case where the "PDU" was published, else "false" in case where the lane is full.
+         */
+        public boolean publish( DeliverSm deliver ) {
+            if ( !ring.offer( deliver ) ) {
+                if ( !full ) {
+                    full = true;
+                    log.warn( "Delivery queue of {} is full ({} PDUs), answering with ESME_RX_T_APPN", name,
+                            ring.capacity() );
+                }
+                return false;
+            }
+            full = false;
+            // Read after the "tail" of the ring has been written, so that the wake-up is never missed.
+            if ( worker.sleeping ) {
+                LockSupport.unpark( worker.thread );
+            }
+            return true;
+        }
+    }
+
+    /**
+     * A worker thread draining its lanes in turn.
+     */
+    private final class Worker implements Runnable {
+        // The lanes assigned to this worker.
+        private final List<Lane> lanes = new CopyOnWriteArrayList<>();
+        // The "delivery receipt" filled in place by the byte parser; reused for every "PDU" of this worker.
+        private final DeliveryReceipt dlr = new DeliveryReceipt();
+        // Set while the worker is (about to be) parked.
+        private volatile boolean sleeping;
+        // The thread running this worker.
+        private Thread thread;
+
+        /**
+         * Drain the lanes; park when all of them are empty. Exit once the dispatcher is shutting down and all the
+         * lanes are empty.
+         */
+        @Override
+        public void run() {
+            while ( true ) {
+                if ( drain() ) {
+                    continue;
+                }
+                if ( !running ) {
+                    return;
+                }
+                sleeping = true;
+                // Check again after announcing the sleep, since a "PDU" may have been published in the meantime.
+                if ( isEmpty() && running ) {
+                    LockSupport.park( this );
+                }
+                sleeping = false;
+            }
+        }
+
+        /**
+         * Process up to a batch of PDUs from each lane.
+         *
+         * @return "true" in case where at least one "PDU" was processed, else "false".
+         */
+        private boolean drain() {
+            boolean processed = false;
+            for ( Lane lane : lanes ) {
+                DeliverSm deliver;
+                for ( int count = 0; count < DRAIN_BATCH_SIZE && ( deliver = lane.ring.poll() ) != null; count++ ) {
+                    processed = true;
+                    long start = System.nanoTime();
+                    try {
+                        process( deliver, dlr );
+                    }
+                    // In case of error; the "PDU" has already been acknowledged.
+                    catch ( Throwable error ) {
+                        log.warn( "Error while handling delivery", error );
+                    }
+                    metrics.recordDeliverHandler( System.nanoTime() - start );
+                }
+            }
+            return processed;
+        }
+
+        /**
+         * Check if all the lanes are empty.
+         *
+         * @return "true" in case where there is nothing to process, else "false".
+         */
+        private boolean isEmpty() {
+            for ( Lane lane : lanes ) {
+                if ( !lane.ring.isEmpty() ) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
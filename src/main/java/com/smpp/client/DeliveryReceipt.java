@@ -4,8 +4,12 @@ package com.smpp.client;
 import java.time.ZoneId;
 // A date-time with a time-zone in the "ISO-8601" calendar system, such as "2007-12-03T10:15:30+01:00 Europe/Paris".
 import java.time.ZonedDateTime;
+// An instantaneous point on the time-line.
+import java.time.Instant;
 // Formatter for printing and parsing date-time objects.
 import java.time.format.DateTimeFormatter;
+// Constant definitions for the standard "Charsets".
+import java.nio.charset.StandardCharsets;
 // An object that maps keys to values.
 import java.util.Map;
 // A red-black tree based implementation. It provides an efficient means of storing key-value pairs in sorted order.
@@ -49,6 +53,9 @@ public class DeliveryReceipt {
     // The "err" field cannot be longer than 3 chars.
     public static final int FIELD_ERR_MAX_LEN = 3;
 
+    // The epoch milliseconds of a date that has not been set.
+    public static final long NO_DATE = Long.MIN_VALUE;
+
     // "SMPP" provides for return of an SMSC "delivery receipt" via the "deliver_sm" or "data_sm" PDU,
     // which indicates the delivery status of the message.
     // The informational content of an SMSC "delivery receipt" may be inserted into the
@@ -72,15 +79,63 @@ public class DeliveryReceipt {
     // Field "text": first 20 characters of original message.
     public static final String FIELD_TEXT = "text:";
 
+    // The field labels as (lowercase) bytes, used by the byte parser; indexed by the "LABEL_*" constants.
+    private static final byte[][] LABELS = {
+            FIELD_ID.getBytes( StandardCharsets.US_ASCII ),
+            FIELD_SUB.getBytes( StandardCharsets.US_ASCII ),
+            FIELD_DLVRD.getBytes( StandardCharsets.US_ASCII ),
+            FIELD_SUBMIT_DATE.getBytes( StandardCharsets.US_ASCII ),
+            FIELD_DONE_DATE.getBytes( StandardCharsets.US_ASCII ),
+            FIELD_STAT.getBytes( StandardCharsets.US_ASCII ),
+            FIELD_ERR.getBytes( StandardCharsets.US_ASCII ),
+            FIELD_TEXT.getBytes( StandardCharsets.US_ASCII ) };
+    private static final int LABEL_ID = 0;
+    private static final int LABEL_SUB = 1;
+    private static final int LABEL_DLVRD = 2;
+    private static final int LABEL_SUBMIT_DATE = 3;
+    private static final int LABEL_DONE_DATE = 4;
+    private static final int LABEL_STAT = 5;
+    private static final int LABEL_ERR = 6;
+    private static final int LABEL_TEXT = 7;
+    // The final states of message as (uppercase) bytes, used by the byte parser, and their byte values.
+    private static final byte[][] STATES = {
+            "DELIVRD".getBytes( StandardCharsets.US_ASCII ), "EXPIRED".getBytes( StandardCharsets.US_ASCII ),
+            "DELETED".getBytes( StandardCharsets.US_ASCII ), "UNDELIV".getBytes( StandardCharsets.US_ASCII ),
+            "ACCEPTD".getBytes( StandardCharsets.US_ASCII ), "UNKNOWN".getBytes( StandardCharsets.US_ASCII ),
+            "REJECTD".getBytes( StandardCharsets.US_ASCII ), "ENROUTE".getBytes( StandardCharsets.US_ASCII ) };
+    private static final byte[] STATE_VALUES = {
+            SmppConstants.STATE_DELIVERED, SmppConstants.STATE_EXPIRED, SmppConstants.STATE_DELETED,
+            SmppConstants.STATE_UNDELIVERABLE, SmppConstants.STATE_ACCEPTED, SmppConstants.STATE_UNKNOWN,
+            SmppConstants.STATE_REJECTED, SmppConstants.STATE_ENROUTE };
+    // The all-digit "err" values of 1 to 3 digits ("0" to "9", "00" to "99" and "000" to "999"), so that the byte
+    // parser does not create a new "String" for the usual error codes; indexed by "ERR_OFFSETS[ length ] + value".
+    private static final String[] ERR_VALUES = new String[ 10 + 100 + 1000 ];
+    private static final int[] ERR_OFFSETS = { 0, 0, 10, 110 };
+    static {
+        for ( int length = 1, count = 10; length <= FIELD_ERR_MAX_LEN; length++, count *= 10 ) {
+            for ( int value = 0; value < count; value++ ) {
+                ERR_VALUES[ ERR_OFFSETS[ length ] + value ] = String.format( "%0" + length + "d", value );
+            }
+        }
+    }
+    // The "rawErrorCode" of a "DLR" with fields set to "uninitialized" values, i.e. "String.format( "%03d", -1 )".
+    private static final String UNINITIALIZED_RAW_ERROR_CODE = String.format( "%03d", -1 );
+
     // ID of message originally submitted.
     private String messageId;
     // Number of messages originally submitted.
     private int submitCount;
     // Number of messages delivered.
     private int deliveredCount;
-    // Date message was originally submitted at.
+    // Date message was originally submitted at, as epoch milliseconds ("NO_DATE" if not set), and its time-zone.
+    private long submitDateMillis = NO_DATE;
+    private ZoneId submitDateZone;
+    // Date message was originally submitted at; created lazily from the epoch milliseconds.
     private ZonedDateTime submitDate;
-    // Date message reached a final "done" state.
+    // Date message reached a final "done" state, as epoch milliseconds ("NO_DATE" if not set), and its time-zone.
+    private long doneDateMillis = NO_DATE;
+    private ZoneId doneDateZone;
+    // Date message reached a final "done" state; created lazily from the epoch milliseconds.
     private ZonedDateTime doneDate;
     // Final state of message.
     private byte state;
@@ -116,8 +171,8 @@ public class DeliveryReceipt {
         this.messageId = messageId;
         this.submitCount = submitCount;
         this.deliveredCount = deliveredCount;
-        this.submitDate = submitDate;
-        this.doneDate = doneDate;
+        setSubmitDate( submitDate );
+        setDoneDate( doneDate );
         this.state = state;
         setErrorCode( errorCode );
         this.text = text;
@@ -140,13 +195,29 @@ public class DeliveryReceipt {
         this.messageId = messageId;
         this.submitCount = submitCount;
         this.deliveredCount = deliveredCount;
-        this.submitDate = submitDate;
-        this.doneDate = doneDate;
+        setSubmitDate( submitDate );
+        setDoneDate( doneDate );
         this.state = state;
         setRawErrorCode( errorCode );
         this.text = text;
     }
 
+    /**
+     * Set all the fields to "uninitialized" values, i.e. the values a "DLR" has before parsing, so that the instance
+     * can be reused by {@link #parseShortMessage(byte[], ZoneId, boolean, DeliveryReceipt)}.
+     */
+    public void reset() {
+        this.messageId = null;
+        this.submitCount = -1;
+        this.deliveredCount = -1;
+        setSubmitDate( NO_DATE, null );
+        setDoneDate( NO_DATE, null );
+        this.state = -1;
+        this.errorCode = -1;
+        this.rawErrorCode = UNINITIALIZED_RAW_ERROR_CODE;
+        this.text = null;
+    }
+
     /**
      * Get number of messages delivered.
      *
@@ -213,14 +284,26 @@ public class DeliveryReceipt {
     }
 
     /**
-     * Get date message reached a final "done" state.
+     * Get date message reached a final "done" state; created on first use from the epoch milliseconds.
      *
      * @return The date message reached a final "done" state.
      */
     public ZonedDateTime getDoneDate() {
+        if ( doneDate == null && doneDateMillis != NO_DATE ) {
+            doneDate = ZonedDateTime.ofInstant( Instant.ofEpochMilli( doneDateMillis ), doneDateZone );
+        }
         return doneDate;
     }
 
+    /**
+     * Get date message reached a final "done" state as epoch milliseconds.
+     *
+     * @return The epoch milliseconds, or "NO_DATE" in case where the date is not set.
+     */
+    public long getDoneDateMillis() {
+        return doneDateMillis;
+    }
+
     /**
      * Set date message reached a final "done" state.
      *
@@ -228,6 +311,20 @@ public class DeliveryReceipt {
      */
     public void setDoneDate( ZonedDateTime finalDate ) {
         this.doneDate = finalDate;
+        this.doneDateMillis = finalDate == null ? NO_DATE : finalDate.toInstant().toEpochMilli();
+        this.doneDateZone = finalDate == null ? null : finalDate.getZone();
+    }
+
+    /**
+     * Set date message reached a final "done" state as epoch milliseconds; the "ZonedDateTime" is created on first use.
+     *
+     * @param finalDateMillis The epoch milliseconds, or "NO_DATE".
+     * @param zone The time-zone "ID" of the date.
+     */
+    public void setDoneDate( long finalDateMillis, ZoneId zone ) {
+        this.doneDate = null;
+        this.doneDateMillis = finalDateMillis;
+        this.doneDateZone = zone;
     }
 
     /**
@@ -306,14 +403,26 @@ public class DeliveryReceipt {
     }
 
     /**
-     * Get date message was originally submitted at.
+     * Get date message was originally submitted at; created on first use from the epoch milliseconds.
      *
      * @return The date message was originally submitted at.
      */
     public ZonedDateTime getSubmitDate() {
+        if ( submitDate == null && submitDateMillis != NO_DATE ) {
+            submitDate = ZonedDateTime.ofInstant( Instant.ofEpochMilli( submitDateMillis ), submitDateZone );
+        }
         return submitDate;
     }
 
+    /**
+     * Get date message was originally submitted at as epoch milliseconds.
+     *
+     * @return The epoch milliseconds, or "NO_DATE" in case where the date is not set.
+     */
+    public long getSubmitDateMillis() {
+        return submitDateMillis;
+    }
+
     /**
      * Set date message was originally submitted at.
      *
@@ -321,6 +430,20 @@ public class DeliveryReceipt {
      */
     public void setSubmitDate( ZonedDateTime submitDate ) {
         this.submitDate = submitDate;
+        this.submitDateMillis = submitDate == null ? NO_DATE : submitDate.toInstant().toEpochMilli();
+        this.submitDateZone = submitDate == null ? null : submitDate.getZone();
+    }
+
+    /**
+     * Set date message was originally submitted at as epoch milliseconds; the "ZonedDateTime" is created on first use.
+     *
+     * @param submitDateMillis The epoch milliseconds, or "NO_DATE".
+     * @param zone The time-zone "ID" of the date.
+     */
+    public void setSubmitDate( long submitDateMillis, ZoneId zone ) {
+        this.submitDate = null;
+        this.submitDateMillis = submitDateMillis;
+        this.submitDateZone = zone;
     }
 
     /**
@@ -363,23 +486,23 @@ public class DeliveryReceipt {
         buf.append(" ");
         // Append date message was originally submitted at.
         buf.append( FIELD_SUBMIT_DATE );
-        if ( this.submitDate == null ) {
+        if ( getSubmitDate() == null ) {
             buf.append( "0000000000" );
         } else {
-            buf.append( dateFormatTemplate.format( this.submitDate ) );
+            buf.append( dateFormatTemplate.format( getSubmitDate() ) );
         }
         buf.append(" ");
         // Append date message reached a final "done" state.
         buf.append( FIELD_DONE_DATE );
-        if ( this.doneDate == null ) {
+        if ( getDoneDate() == null ) {
             buf.append( "0000000000" );
         } else {
-            buf.append( dateFormatTemplate.format( this.doneDate ) );
+            buf.append( dateFormatTemplate.format( getDoneDate() ) );
         }
         buf.append(" ");
         // Append final state of message.
         buf.append( FIELD_STAT );
-        buf.append( toStateText( this.state ) );
+        buf.append( toStateCode( this.state ) );
         buf.append(" ");
         // Append network/SMSC specific error code.
         buf.append( FIELD_ERR );
@@ -419,10 +542,10 @@ public class DeliveryReceipt {
         buf.append( this.deliveredCount );
         // Append date message was originally submitted at.
         buf.append( " submitDate=" );
-        buf.append( this.submitDate );
+        buf.append( getSubmitDate() );
         // Append date message reached a final "done" state.
         buf.append( " doneDate=" );
-        buf.append( this.doneDate );
+        buf.append( getDoneDate() );
         // Append final state of message.
         buf.append( " state=" );
         buf.append( toStateText( this.state ) );
@@ -598,7 +721,13 @@ public class DeliveryReceipt {
                 // Set date message was originally submitted at or throw exception in case of error.
                 else if ( fieldLabel.equalsIgnoreCase( FIELD_SUBMIT_DATE ) ) {
                     try {
-                        dlr.submitDate = parseDateTimeHelper( fieldValue, zone );
+                        // Decode the digits directly; fall back to the "DateTimeFormatter" for the other values.
+                        long millis = SmppDateDecoder.decode( fieldValue, zone );
+                        if ( millis != SmppDateDecoder.NOT_DECODED ) {
+                            dlr.setSubmitDate( millis, zone );
+                        } else {
+                            dlr.setSubmitDate( parseDateTimeHelper( fieldValue, zone ) );
+                        }
                     } catch ( IllegalArgumentException e ) {
                         throw new DeliveryReceiptException( "Unable to convert [submit date] field with value ["
                                 + fieldValue + "] into a datetime object" );
@@ -607,7 +736,13 @@ public class DeliveryReceipt {
                 // Set date message reached a final "done" state or throw exception in case of error.
                 else if ( fieldLabel.equalsIgnoreCase( FIELD_DONE_DATE ) ) {
                     try {
-                        dlr.doneDate = parseDateTimeHelper( fieldValue, zone );
+                        // Decode the digits directly; fall back to the "DateTimeFormatter" for the other values.
+                        long millis = SmppDateDecoder.decode( fieldValue, zone );
+                        if ( millis != SmppDateDecoder.NOT_DECODED ) {
+                            dlr.setDoneDate( millis, zone );
+                        } else {
+                            dlr.setDoneDate( parseDateTimeHelper( fieldValue, zone ) );
+                        }
                     } catch ( IllegalArgumentException e ) {
                         throw new DeliveryReceiptException( "Unable to convert [done date] field with value ["
                                 + fieldValue + "] into a datetime object" );
@@ -645,45 +780,341 @@ public class DeliveryReceipt {
 
         // Check for missing fields in the short message of the "delivery receipt" if necessary.
         if ( checkMissingFields ) {
-            // Check for id of message originally submitted and throw exception in case of error.
-            if ( StringUtil.isEmpty( dlr.messageId ) ) {
-                throw new DeliveryReceiptException(
-                        "Unable to find [id] field or empty value in delivery receipt message" );
+            checkMissingFields( dlr );
+        }
+
+        // Return a "DeliveryReceipt" from the fields.
+        return dlr;
+    }
+
+    /**
+     * Parse the raw bytes of the short message in a single pass and fill a reusable "DeliveryReceipt" in place.
+     *
+     * The result (or the exception) is the same as the one of {@link #parseShortMessage(String, ZoneId, boolean)} for
+     * the short message decoded as "ISO-8859-1", which also covers the "GSM" default alphabet (unpacked) for all the
+     * characters of the field labels, numbers and states. Unlike the "String" parser, the field labels are matched
+     * case-insensitively regardless of the default locale. The only new "String" objects are the values of the
+     * "id" and "text" fields and of a non-numeric "err" field; the "submit date" and "done date" values are decoded
+     * directly into epoch milliseconds.
+     *
+     * @param shortMessage The raw bytes of the short message of the "DeliveryReceipt".
+     * @param zone The time-zone "ID", such as "Europe/Paris".
+     * @param checkMissingFields A Boolean value.
+     * @param dlr The "DeliveryReceipt" to fill; all of its fields are overwritten.
+     * @throws DeliveryReceiptException with the specified detail message.
+     */
+    static public void parseShortMessage( byte[] shortMessage, ZoneId zone, boolean checkMissingFields,
+                                          DeliveryReceipt dlr ) throws DeliveryReceiptException {
+        // Set the fields to "uninitialized" values.
+        dlr.reset();
+
+        // Scan the text once. A field "value" only technically ends with the start of the next field "label", so the
+        // value of a field is parsed as soon as the first occurrence of another field label is found. Only the first
+        // occurrence of each label counts; later occurrences are part of a value.
+        int found = 0;
+        int field = -1;
+        int valueStart = 0;
+        for ( int i = 0; i < shortMessage.length; i++ ) {
+            int label = matchLabel( shortMessage, i, found );
+            if ( label < 0 ) {
+                continue;
             }
-            // Check for number of messages originally submitted and throw exception in case of error.
-            if ( dlr.submitCount < 0 ) {
-                throw new DeliveryReceiptException(
-                        "Unable to find [sub] field or empty value in delivery receipt message" );
+            if ( field >= 0 ) {
+                parseField( shortMessage, field, valueStart, i, zone, dlr );
             }
-            // Check for number of messages delivered and throw exception in case of error.
-            if ( dlr.deliveredCount < 0 ) {
-                throw new DeliveryReceiptException(
-                        "Unable to find [dlvrd] field or empty value in delivery receipt message" );
+            found |= 1 << label;
+            field = label;
+            valueStart = i + LABELS[ label ].length;
+            // Labels never overlap, so the scan can resume after the label.
+            i = valueStart - 1;
+        }
+        if ( field >= 0 ) {
+            parseField( shortMessage, field, valueStart, shortMessage.length, zone, dlr );
+        }
+
+        // Check for missing fields in the short message of the "delivery receipt" if necessary.
+        if ( checkMissingFields ) {
+            checkMissingFields( dlr );
+        }
+    }
+
+    /**
+     * Match the field labels not found so far at the given position, ignoring the case of the letters.
+     *
+     * @param text The raw bytes of the short message.
+     * @param position The position.
+     * @param found The bit mask of the labels found so far.
+     * @return The index of the label, or "-1" in case where none matches.
+     */
+    private static int matchLabel( byte[] text, int position, int found ) {
+        // Dispatch on the first letter; the labels sharing a first letter differ in their second letter.
+        switch ( text[ position ] | 0x20 ) {
+            case 'i':
+                return matchLabel( text, position, found, LABEL_ID );
+            case 's':
+                int label = matchLabel( text, position, found, LABEL_SUB );
+                if ( label < 0 ) {
+                    label = matchLabel( text, position, found, LABEL_SUBMIT_DATE );
+                }
+                return label < 0 ? matchLabel( text, position, found, LABEL_STAT ) : label;
+            case 'd':
+                label = matchLabel( text, position, found, LABEL_DLVRD );
+                return label < 0 ? matchLabel( text, position, found, LABEL_DONE_DATE ) : label;
+            case 'e':
+                return matchLabel( text, position, found, LABEL_ERR );
+            case 't':
+                return matchLabel( text, position, found, LABEL_TEXT );
+            default:
+                return -1;
+        }
+    }
+
+    /**
+     * Match a single field label at the given position, ignoring the case of the letters.
+     *
+     * @param text The raw bytes of the short message.
+     * @param position The position.
+     * @param found The bit mask of the labels found so far.
+     * @param label The index of the label.
+     * @return The index of the label in case where it was not found before and matches, else "-1".
+     */
+    private static int matchLabel( byte[] text, int position, int found, int label ) {
+        byte[] expected = LABELS[ label ];
+        if ( ( found & ( 1 << label ) ) != 0 || position + expected.length > text.length ) {
+            return -1;
+        }
+        for ( int i = 0; i < expected.length; i++ ) {
+            if ( toLowerCase( text[ position + i ] ) != expected[ i ] ) {
+                return -1;
             }
-            // Check for date message was originally submitted at and throw exception in case of error.
-            if ( dlr.submitDate == null ) {
-                throw new DeliveryReceiptException(
-                        "Unable to find [submit date] field or empty value in delivery receipt message" );
+        }
+        return label;
+    }
+
+    /**
+     * Convert an "ASCII" upper case letter to lower case; any other byte is returned as is.
+     *
+     * @param b The byte.
+     * @return The lower case byte.
+     */
+    private static int toLowerCase( byte b ) {
+        return b >= 'A' && b <= 'Z' ? b | 0x20 : b;
+    }
+
+    /**
+     * Parse the value of a field, i.e. the bytes between the end of its label and the start of the next label, and
+     * set the corresponding property of the "DeliveryReceipt".
+     *
+     * @param text The raw bytes of the short message.
+     * @param field The index of the field label.
+     * @param from The start of the value (inclusive).
+     * @param to The end of the value (exclusive).
+     * @param zone The time-zone "ID", such as "Europe/Paris".
+     * @param dlr The "DeliveryReceipt" to fill.
+     * @throws DeliveryReceiptException with the specified detail message.
+     */
+    private static void parseField( byte[] text, int field, int from, int to, ZoneId zone, DeliveryReceipt dlr )
+            throws DeliveryReceiptException {
+        // Trim the value, i.e. skip the leading and trailing white space and control characters.
+        while ( from < to && ( text[ from ] & 0xFF ) <= ' ' ) {
+            from++;
+        }
+        while ( to > from && ( text[ to - 1 ] & 0xFF ) <= ' ' ) {
+            to--;
+        }
+        // Ignore empty values.
+        if ( from == to ) {
+            return;
+        }
+
+        switch ( field ) {
+            case LABEL_ID:
+                // Set id of message originally submitted.
+                dlr.messageId = new String( text, from, to - from, StandardCharsets.ISO_8859_1 );
+                break;
+            case LABEL_SUB:
+                // Set number of messages originally submitted or throw exception in case of error.
+                long submitCount = parseInt( text, from, to );
+                if ( submitCount == Long.MIN_VALUE ) {
+                    throw new DeliveryReceiptException( "Unable to convert [sub] field with value ["
+                            + new String( text, from, to - from, StandardCharsets.ISO_8859_1 ) + "] into an integer" );
+                }
+                dlr.submitCount = ( int ) submitCount;
+                break;
+            case LABEL_DLVRD:
+                // Set number of messages delivered or throw exception in case of error.
+                long deliveredCount = parseInt( text, from, to );
+                if ( deliveredCount == Long.MIN_VALUE ) {
+                    throw new DeliveryReceiptException( "Unable to convert [dlvrd] field with value ["
+                            + new String( text, from, to - from, StandardCharsets.ISO_8859_1 ) + "] into an integer" );
+                }
+                dlr.deliveredCount = ( int ) deliveredCount;
+                break;
+            case LABEL_SUBMIT_DATE:
+                // Set date message was originally submitted at; decode the digits directly into epoch milliseconds.
+                long submitDateMillis = SmppDateDecoder.decode( text, from, to, zone );
+                if ( submitDateMillis != SmppDateDecoder.NOT_DECODED ) {
+                    dlr.setSubmitDate( submitDateMillis, zone );
+                    break;
+                }
+                // Else, fall back to the "DateTimeFormatter", or throw exception in case of error.
+                String submitDate = new String( text, from, to - from, StandardCharsets.ISO_8859_1 );
+                try {
+                    dlr.setSubmitDate( parseDateTimeHelper( submitDate, zone ) );
+                } catch ( IllegalArgumentException e ) {
+                    throw new DeliveryReceiptException( "Unable to convert [submit date] field with value ["
+                            + submitDate + "] into a datetime object" );
+                }
+                break;
+            case LABEL_DONE_DATE:
+                // Set date message reached a final "done" state; decode the digits directly into epoch milliseconds.
+                long doneDateMillis = SmppDateDecoder.decode( text, from, to, zone );
+                if ( doneDateMillis != SmppDateDecoder.NOT_DECODED ) {
+                    dlr.setDoneDate( doneDateMillis, zone );
+                    break;
+                }
+                // Else, fall back to the "DateTimeFormatter", or throw exception in case of error.
+                String doneDate = new String( text, from, to - from, StandardCharsets.ISO_8859_1 );
+                try {
+                    dlr.setDoneDate( parseDateTimeHelper( doneDate, zone ) );
+                } catch ( IllegalArgumentException e ) {
+                    throw new DeliveryReceiptException( "Unable to convert [done date] field with value ["
+                            + doneDate + "] into a datetime object" );
+                }
+                break;
+            case LABEL_STAT:
+                // Set final state of message or throw exception in case of error.
+                dlr.state = toState( text, from, to );
+                if ( dlr.state < 0 ) {
+                    throw new DeliveryReceiptException( "Unable to convert [stat] field with value ["
+                            + new String( text, from, to - from, StandardCharsets.ISO_8859_1 ) + "] into a valid state" );
+                }
+                break;
+            case LABEL_ERR:
+                // Set network/SMSC specific error code or throw exception in case of error.
+                if ( to - from > FIELD_ERR_MAX_LEN ) {
+                    throw new DeliveryReceiptException(
+                            "The [err] field was not of a valid lengh of <= " + FIELD_ERR_MAX_LEN );
+                }
+                long errorCode = parseInt( text, from, to );
+                // The usual, all-digit error codes come from the cache.
+                if ( errorCode != Long.MIN_VALUE && text[ from ] >= '0' && text[ from ] <= '9' ) {
+                    dlr.rawErrorCode = ERR_VALUES[ ERR_OFFSETS[ to - from ] + ( int ) errorCode ];
+                } else {
+                    dlr.rawErrorCode = new String( text, from, to - from, StandardCharsets.ISO_8859_1 );
+                }
+                // The error code remains "uninitialized" in case where the value is not an integer.
+                if ( errorCode != Long.MIN_VALUE ) {
+                    dlr.errorCode = ( int ) errorCode;
+                }
+                break;
+            default:
+                // Set first 20 characters of original message.
+                dlr.text = new String( text, from, to - from, StandardCharsets.ISO_8859_1 );
+        }
+    }
+
+    /**
+     * Parse the bytes as a signed decimal integer, with the same rules as {@link Integer#parseInt(String)}.
+     *
+     * @param text The raw bytes of the short message.
+     * @param from The start of the value (inclusive).
+     * @param to The end of the value (exclusive).
+     * @return The value, or "Long.MIN_VALUE" in case where the bytes are not a valid "int".
+     */
+    private static long parseInt( byte[] text, int from, int to ) {
+        boolean negative = text[ from ] == '-';
+        if ( negative || text[ from ] == '+' ) {
+            from++;
+        }
+        // A sign alone.
+        if ( from == to ) {
+            return Long.MIN_VALUE;
+        }
+        long value = 0;
+        for ( int i = from; i < to; i++ ) {
+            if ( text[ i ] < '0' || text[ i ] > '9' ) {
+                return Long.MIN_VALUE;
             }
-            // check for date message reached a final "done" state and throw exception in case of error.
-            if ( dlr.doneDate == null ) {
-                throw new DeliveryReceiptException(
-                        "Unable to find [done date] field or empty value in delivery receipt message" );
+            value = value * 10 + ( text[ i ] - '0' );
+            // Out of the range of an "int"; leading zeros are allowed.
+            if ( value > 1L + Integer.MAX_VALUE ) {
+                return Long.MIN_VALUE;
             }
-            // Check for final state of message and throw exception in case of error.
-            if ( dlr.state < 0 ) {
-                throw new DeliveryReceiptException(
-                        "Unable to find [stat] field or empty value in delivery receipt message" );
+        }
+        value = negative ? -value : value;
+        return value > Integer.MAX_VALUE ? Long.MIN_VALUE : value;
+    }
+
+    /**
+     * Check the final state of message and return the corresponding byte value; the byte version of
+     * {@link #toState(String)}.
+     *
+     * @param text The raw bytes of the short message.
+     * @param from The start of the value (inclusive).
+     * @param to The end of the value (exclusive).
+     * @return The corresponding byte value, or "-1" in case of an unknown state.
+     */
+    private static byte toState( byte[] text, int from, int to ) {
+        for ( int state = 0; state < STATES.length; state++ ) {
+            byte[] expected = STATES[ state ];
+            if ( to - from != expected.length ) {
+                continue;
+            }
+            int i = 0;
+            // Compare case-insensitively; the states only consist of "ASCII" letters.
+            while ( i < expected.length && ( toLowerCase( text[ from + i ] ) ^ 0x20 ) == expected[ i ] ) {
+                i++;
             }
-            // Check for network/SMSC specific error code and throw exception in case of error.
-            if ( StringUtil.isEmpty( dlr.rawErrorCode ) && dlr.errorCode < 0 ) {
-                throw new DeliveryReceiptException(
-                        "Unable to find [err] field or empty value in delivery receipt message" );
+            if ( i == expected.length ) {
+                return STATE_VALUES[ state ];
             }
         }
+        return -1;
+    }
 
-        // Return a "DeliveryReceipt" from the fields.
-        return dlr;
+    /**
+     * Check for missing fields in the short message of the "delivery receipt".
+     *
+     * @param dlr The parsed "DeliveryReceipt".
+     * @throws DeliveryReceiptException with the specified detail message.
+     */
+    private static void checkMissingFields( DeliveryReceipt dlr ) throws DeliveryReceiptException {
+        // Check for id of message originally submitted and throw exception in case of error.
+        if ( StringUtil.isEmpty( dlr.messageId ) ) {
+            throw new DeliveryReceiptException(
+                    "Unable to find [id] field or empty value in delivery receipt message" );
+        }
+        // Check for number of messages originally submitted and throw exception in case of error.
+        if ( dlr.submitCount < 0 ) {
+            throw new DeliveryReceiptException(
+                    "Unable to find [sub] field or empty value in delivery receipt message" );
+        }
+        // Check for number of messages delivered and throw exception in case of error.
+        if ( dlr.deliveredCount < 0 ) {
+            throw new DeliveryReceiptException(
+                    "Unable to find [dlvrd] field or empty value in delivery receipt message" );
+        }
+        // Check for date message was originally submitted at and throw exception in case of error.
+        if ( dlr.submitDateMillis == NO_DATE ) {
+            throw new DeliveryReceiptException(
+                    "Unable to find [submit date] field or empty value in delivery receipt message" );
+        }
+        // check for date message reached a final "done" state and throw exception in case of error.
+        if ( dlr.doneDateMillis == NO_DATE ) {
+            throw new DeliveryReceiptException(
+                    "Unable to find [done date] field or empty value in delivery receipt message" );
+        }
+        // Check for final state of message and throw exception in case of error.
+        if ( dlr.state < 0 ) {
+            throw new DeliveryReceiptException(
+                    "Unable to find [stat] field or empty value in delivery receipt message" );
+        }
+        // Check for network/SMSC specific error code and throw exception in case of error.
+        if ( StringUtil.isEmpty( dlr.rawErrorCode ) && dlr.errorCode < 0 ) {
+            throw new DeliveryReceiptException(
+                    "Unable to find [err] field or empty value in delivery receipt message" );
+        }
     }
 
     /**
@@ -763,6 +1194,36 @@ public class DeliveryReceipt {
         }
     }
 
+    /**
+     * Check the byte value of the final state of message and return the corresponding 7 characters code of the "stat"
+     * field, as expected by {@link #toState(String)}.
+     *
+     * @param state The byte value of the final state of message
+     * @return The corresponding code.
+     */
+    static public String toStateCode( byte state ) {
+        switch (state) {
+            case SmppConstants.STATE_DELIVERED:
+                return "DELIVRD";
+            case SmppConstants.STATE_EXPIRED:
+                return "EXPIRED";
+            case SmppConstants.STATE_DELETED:
+                return "DELETED";
+            case SmppConstants.STATE_UNDELIVERABLE:
+                return "UNDELIV";
+            case SmppConstants.STATE_ACCEPTED:
+                return "ACCEPTD";
+            case SmppConstants.STATE_UNKNOWN:
+                return "UNKNOWN";
+            case SmppConstants.STATE_REJECTED:
+                return "REJECTD";
+            case SmppConstants.STATE_ENROUTE:
+                return "ENROUTE";
+            default:
+                return "BADSTAT";
+        }
+    }
+
     /**
      * Convert a long value to a hex string. For example, 98765432101L to "16fee0e525".
      *
@@ -0,0 +1,799 @@
+package com.smpp.client;
+
+// Resizable-array implementation of the "List" interface.
+import java.util.ArrayList;
+// This class contains various methods for manipulating arrays (such as sorting and searching).
+import java.util.Arrays;
+// The root interface in the collection hierarchy.
+import java.util.Collection;
+// An ordered collection (also known as a sequence).
+import java.util.List;
+// Represents a supplier of "int"-valued results.
+import java.util.function.IntSupplier;
+
+/**
+ * Encode the text of a "Text" or "Flash" SMS into the fewest parts (segments).
+ *
+ * A text made only of characters of the "GSM 03.38" default alphabet and its extension table is encoded as 7-bit
+ * septets: 160 per single part, or 153 per part of a concatenated message with an 8-bit reference number, since the
+ * "User Data Header" takes 6 octets (7 septets, including the fill bit). An extension character (e.g. the Euro sign,
+ * '{' or '[') takes two septets, i.e. the escape and its code, which are never split across two parts.
+ *
+ * The "3GPP TS 23.038" national language tables keep the texts of some languages in 7-bit septets as well: a locking
+ * shift table replaces the default alphabet, and a single shift table replaces its extension table; they are
+ * signalled per part through the "National Language Locking Shift" (0x25) and "Single Shift" (0x24) information
+ * elements of the "User Data Header", 3 octets each. Among the enabled languages, the combination of tables giving the
+ * fewest parts is chosen; the default tables are preferred on a tie.
+ *
+ * The parts of a concatenated message share a reference number, drawn from a "ConcatenationReferences" allocator only
+ * in case where the text needs more than one part; either a 16-bit reference (information element 0x08, 7 octets of
+ * "User Data Header", i.e. 152 septets or 66 "UCS-2" code units per part) or an 8-bit one (information element 0x00).
+ *
+ * Any other text falls back to "UCS-2" ("UTF-16BE"): 70 code units per single part, or 67 per part of a concatenated
+ * message; a surrogate pair (e.g. an emoji) is never split across two parts. The national language tables are only
+ * used in case where they need fewer parts than "UCS-2".
+ *
+ * The septets are either written one per octet, as most "SMSC" expect the "SMSC Default" alphabet over "SMPP", or
+ * packed (8 septets per 7 octets) as on the air interface, in case where the "SMSC" expects so ("gsm-packed").
+ *
+ * @author  Aristotelis Metsinis ( aristotelis.metsinis@gmail.com )
+ * @version 1.0
+ * @since   January 2022
+ */
+public final class GsmEncoder {
+    // The max number of octets of the user data of a part.
+    private static final int MAX_USER_DATA = 140;
+    // The max number of parts of a concatenated message.
+    private static final int MAX_PARTS = 255;
+    // The escape to the (single shift) extension table.
+    private static final int ESCAPE = 0x1B;
+    // Flag of the septets of the single shift table, i.e. preceded by the escape.
+    private static final int EXTENDED = 0x100;
+    // The characters below this bound are looked up in an array; the few ones above it (e.g. the Euro sign) are
+    // searched for.
+    private static final int TABLE_SIZE = 0x0400;
+
+    // The "GSM 03.38" default alphabet, indexed by septet; the escape (0x1B) is a placeholder.
+    private static final Table DEFAULT_ALPHABET = Table.alphabet( 0,
+            "@\u00A3$\u00A5\u00E8\u00E9\u00F9\u00EC\u00F2\u00C7\n\u00D8\u00F8\r\u00C5\u00E5"
+            + "\u0394_\u03A6\u0393\u039B\u03A9\u03A0\u03A8\u03A3\u0398\u039E\u001B\u00C6\u00E6\u00DF\u00C9"
+            + " !\"#\u00A4%&'()*+,-./0123456789:;<=>?"
+            + "\u00A1ABCDEFGHIJKLMNOPQRSTUVWXYZ\u00C4\u00D6\u00D1\u00DC\u00A7"
+            + "\u00BFabcdefghijklmnopqrstuvwxyz\u00E4\u00F6\u00F1\u00FC\u00E0" );
+    // The extension table of the default alphabet.
+    private static final Table DEFAULT_EXTENSION = new Table( 0, "\f^{}\\[~]|\u20AC",
+            new byte[] { 0x0A, 0x14, 0x28, 0x29, 0x2F, 0x3C, 0x3D, 0x3E, 0x40, 0x65 } );
+
+    /**
+     * The national languages of "3GPP TS 23.038" (Annex A), whose tables keep their texts in 7-bit septets.
+     */
+    public enum NationalLanguage {
+        // Turkish; locking shift table (A.3.1) and single shift table (A.2.1).
+        TURKISH( 1,
+                "@\u00A3$\u00A5\u20AC\u00E9\u00F9\u0131\u00F2\u00C7\n\u011E\u011F\r\u00C5\u00E5"
+                + "\u0394_\u03A6\u0393\u039B\u03A9\u03A0\u03A8\u03A3\u0398\u039E\u001B\u015E\u015F\u00DF\u00C9"
+                + " !\"#\u00A4%&'()*+,-./0123456789:;<=>?"
+                + "\u0130ABCDEFGHIJKLMNOPQRSTUVWXYZ\u00C4\u00D6\u00D1\u00DC\u00A7"
+                + "\u00E7abcdefghijklmnopqrstuvwxyz\u00E4\u00F6\u00F1\u00FC\u00E0",
+                "\f^{}\\[~]|\u011E\u0130\u015E\u00E7\u20AC\u011F\u0131\u015F",
+                new byte[] { 0x0A, 0x14, 0x28, 0x29, 0x2F, 0x3C, 0x3D, 0x3E, 0x40, 0x47, 0x49, 0x53, 0x63, 0x65, 0x67,
+                        0x69, 0x73 } ),
+        // Spanish; single shift table (A.2.2) only, along with the default alphabet.
+        SPANISH( 2,
+                null,
+                "\u00E7\f^{}\\[~]|\u00C1\u00CD\u00D3\u00DA\u00E1\u20AC\u00ED\u00F3\u00FA",
+                new byte[] { 0x09, 0x0A, 0x14, 0x28, 0x29, 0x2F, 0x3C, 0x3D, 0x3E, 0x40, 0x41, 0x49, 0x4F, 0x55, 0x61,
+                        0x65, 0x69, 0x6F, 0x75 } ),
+        // Portuguese; locking shift table (A.3.3) and single shift table (A.2.3).
+        PORTUGUESE( 3,
+                "@\u00A3$\u00A5\u00EA\u00E9\u00FA\u00ED\u00F3\u00E7\n\u00D4\u00F4\r\u00C1\u00E1"
+                + "\u0394_\u00AA\u00C7\u00C0\u221E^\\\u20AC\u00D3|\u001B\u00C2\u00E2\u00CA\u00C9"
+                + " !\"#\u00BA%&'()*+,-./0123456789:;<=>?"
+                + "\u00CDABCDEFGHIJKLMNOPQRSTUVWXYZ\u00C3\u00D5\u00DA\u00DC\u00A7"
+                + "~abcdefghijklmnopqrstuvwxyz\u00E3\u00F5`\u00FC\u00E0",
+                "\u00EA\u00E7\f\u00D4\u00F4\u00C1\u00E1\u03A6\u0393^\u03A9\u03A0\u03A8\u03A3\u0398\u00CA{}\\[~]|\u00C0\u00CD\u00D3\u00DA\u00C3\u00D5\u00C2\u20AC\u00ED\u00F3\u00FA\u00E3\u00F5\u00E2",
+                new byte[] { 0x05, 0x09, 0x0A, 0x0B, 0x0C, 0x0E, 0x0F, 0x12, 0x13, 0x14, 0x15, 0x16, 0x17, 0x18, 0x19,
+                        0x1F, 0x28, 0x29, 0x2F, 0x3C, 0x3D, 0x3E, 0x40, 0x41, 0x49, 0x4F, 0x55, 0x5B, 0x5C, 0x61, 0x65,
+                        0x69, 0x6F, 0x75, 0x7B, 0x7C, 0x7D } );
+
+        // The locking shift table, or "null" in case where the language has none.
+        private final Table lockingShift;
+        // The single shift table.
+        private final Table singleShift;
+
+        /**
+         * Constructor.
+         *
+         * @param identifier The national language identifier of the information elements.
+         * @param lockingShift The locking shift table indexed by septet, or "null".
+         * @param singleShiftCharacters The characters of the single shift table.
+         * @param singleShiftCodes The codes of the characters of the single shift table.
+         */
+        NationalLanguage( int identifier, String lockingShift, String singleShiftCharacters, byte[] singleShiftCodes ) {
+            this.lockingShift = lockingShift == null ? null : Table.alphabet( identifier, lockingShift );
+            this.singleShift = new Table( identifier, singleShiftCharacters, singleShiftCodes );
+        }
+    }
+
+    /**
+     * Not to be instantiated.
+     */
+    private GsmEncoder() {
+    }
+
+    /**
+     * A table of characters, i.e. an alphabet (locking shift table) or an extension (single shift) table.
+     */
+    private static final class Table {
+        // The national language identifier of the table; "0" for the default alphabet and its extension table.
+        private final int language;
+        // The characters of the table, and their codes.
+        private final String characters;
+        private final byte[] codes;
+        // The code of each character below "TABLE_SIZE", or "-1" in case where the table has no such character.
+        private final byte[] lookup = new byte[ TABLE_SIZE ];
+
+        /**
+         * Constructor.
+         *
+         * @param language The national language identifier of the table.
+         * @param characters The characters of the table.
+         * @param codes The codes of the characters.
+         */
+        private Table( int language, String characters, byte[] codes ) {
+            this.language = language;
+            this.characters = characters;
+            this.codes = codes;
+            Arrays.fill( lookup, ( byte ) -1 );
+            for ( int i = 0; i < characters.length(); i++ ) {
+                char c = characters.charAt( i );
+                if ( c < TABLE_SIZE && codes[ i ] != ESCAPE ) {
+                    lookup[ c ] = codes[ i ];
+                }
+            }
+        }
+
+        /**
+         * Create an alphabet, i.e. a table of 128 characters indexed by septet.
+         *
+         * @param language The national language identifier of the table.
+         * @param characters The characters indexed by septet; the escape (0x1B) is a placeholder.
+         * @return The table.
+         */
+        private static Table alphabet( int language, String characters ) {
+            byte[] codes = new byte[ characters.length() ];
+            for ( int code = 0; code < codes.length; code++ ) {
+                codes[ code ] = ( byte ) code;
+            }
+            return new Table( language, characters, codes );
+        }
+
+        /**
+         * Look the code of a character up.
+         *
+         * @param c The character.
+         * @return The code, or "-1" in case where the table has no such character.
+         */
+        private int code( char c ) {
+            if ( c < TABLE_SIZE ) {
+                return lookup[ c ];
+            }
+            int index = characters.indexOf( c );
+            return index < 0 ? -1 : codes[ index ];
+        }
+    }
+
+    /**
+     * The locking shift and single shift tables a text is encoded with.
+     */
+    private static final class Alphabet {
+        // The locking shift table, i.e. the alphabet.
+        private final Table lockingShift;
+        // The single shift table, i.e. the extension table.
+        private final Table singleShift;
+        // The number of octets of the national language information elements.
+        private final int headerLength;
+
+        /**
+         * Constructor.
+         *
+         * @param lockingShift The locking shift table.
+         * @param singleShift The single shift table.
+         */
+        private Alphabet( Table lockingShift, Table singleShift ) {
+            this.lockingShift = lockingShift;
+            this.singleShift = singleShift;
+            this.headerLength = ( lockingShift.language != 0 ? 3 : 0 ) + ( singleShift.language != 0 ? 3 : 0 );
+        }
+
+        /**
+         * Look the septet of a character up.
+         *
+         * @param c The character.
+         * @return The code in the locking shift table, "EXTENDED | code" in the single shift table, or "-1".
+         */
+        private int septet( char c ) {
+            int code = lockingShift.code( c );
+            if ( code >= 0 ) {
+                return code;
+            }
+            code = singleShift.code( c );
+            return code >= 0 ? EXTENDED | code : -1;
+        }
+
+        /**
+         * Get the number of septets per single part.
+         *
+         * @return The number of septets.
+         */
+        private int singleCapacity() {
+            return ( MAX_USER_DATA - ( headerLength == 0 ? 0 : 1 + headerLength ) ) * 8 / 7;
+        }
+
+        /**
+         * Get the number of septets per part of a concatenated message.
+         *
+         * @param concatenationLength The number of octets of "UDHL" and the concatenation information element.
+         * @return The number of septets.
+         */
+        private int concatenatedCapacity( int concatenationLength ) {
+            return ( MAX_USER_DATA - concatenationLength - headerLength ) * 8 / 7;
+        }
+
+        /**
+         * Count the parts of a text.
+         *
+         * @param text The text.
+         * @param concatenationLength The number of octets of "UDHL" and the concatenation information element.
+         * @return The number of parts, or "-1" in case where the text does not fit the tables.
+         */
+        private int countParts( CharSequence text, int concatenationLength ) {
+            int capacity = concatenatedCapacity( concatenationLength );
+            int septets = 0;
+            int parts = 1;
+            int used = 0;
+            for ( int i = 0; i < text.length(); i++ ) {
+                int septet = septet( text.charAt( i ) );
+                if ( septet < 0 ) {
+                    return -1;
+                }
+                int width = width( septet );
+                septets += width;
+                if ( used + width > capacity ) {
+                    parts++;
+                    used = 0;
+                }
+                used += width;
+            }
+            return septets <= singleCapacity() ? 1 : parts;
+        }
+    }
+
+    /**
+     * The parts of an encoded text.
+     */
+    public static final class Encoded {
+        // "true" in case of "UCS-2", else "false" in case of 7-bit septets.
+        private final boolean ucs2;
+        // "true" in case where the parts start with a "User Data Header", else "false".
+        private final boolean userDataHeader;
+        // The user data of each part.
+        private final List<byte[]> parts;
+
+        /**
+         * Constructor.
+         *
+         * @param ucs2 "true" in case of "UCS-2", else "false" in case of 7-bit septets.
+         * @param userDataHeader "true" in case where the parts start with a "User Data Header", else "false".
+         * @param parts The user data of each part.
+         */
+        private Encoded( boolean ucs2, boolean userDataHeader, List<byte[]> parts ) {
+            this.ucs2 = ucs2;
+            this.userDataHeader = userDataHeader;
+            this.parts = parts;
+        }
+
+        /**
+         * Check if the text is encoded as "UCS-2".
+         *
+         * @return "true" in case of "UCS-2", else "false" in case of 7-bit septets.
+         */
+        public boolean isUcs2() {
+            return ucs2;
+        }
+
+        /**
+         * Check if the text is a concatenated message.
+         *
+         * @return "true" in case of a concatenated message, else "false".
+         */
+        public boolean isConcatenated() {
+            return parts.size() > 1;
+        }
+
+        /**
+         * Check if the parts start with a "User Data Header", i.e. in case of a concatenated message or of a national
+         * language table; the "UDHI" of the "esm_class" shall be set.
+         *
+         * @return "true" in case where the parts start with a "User Data Header", else "false".
+         */
+        public boolean hasUserDataHeader() {
+            return userDataHeader;
+        }
+
+        /**
+         * Get the user data of each part.
+         *
+         * @return The user data of each part.
+         */
+        public List<byte[]> getParts() {
+            return parts;
+        }
+    }
+
+    /**
+     * Encode a text into the fewest parts: 7-bit septets of the default alphabet or of the tables of an enabled
+     * national language, in case where the text fits them, else "UCS-2".
+     *
+     * @param text The text.
+     * @param referenceNumbers The allocator of the reference number shared by the parts of a concatenated message;
+     *                         called once, and only in case where the text needs more than one part.
+     * @param sixteenBitReference "true" in case of a 16-bit reference number, else "false" in case of an 8-bit one.
+     * @param packed "true" to pack the septets (8 per 7 octets), else "false" to write one septet per octet.
+     * @param languages The national languages whose tables may be used, or "null" for none.
+     * @return The encoded parts.
+     * @throws IllegalArgumentException In case where the text needs more than 255 parts.
+     */
+    public static Encoded encode( CharSequence text, IntSupplier referenceNumbers, boolean sixteenBitReference,
+                                  boolean packed, Collection<NationalLanguage> languages ) {
+        Header header = new Header( referenceNumbers, sixteenBitReference );
+        Alphabet best = new Alphabet( DEFAULT_ALPHABET, DEFAULT_EXTENSION );
+        int septets = countSeptets( text );
+        // The text fits the default alphabet without any extension character, i.e. no other table does better; or no
+        // national language is enabled.
+        if ( septets == text.length() || languages == null || languages.isEmpty() ) {
+            return septets >= 0 ? encodeGsm( text, best, header, packed ) : encodeUcs2( text, header );
+        }
+
+        // Try each combination of the locking shift and single shift tables of the enabled languages.
+        List<Table> lockingShifts = new ArrayList<>();
+        List<Table> singleShifts = new ArrayList<>();
+        lockingShifts.add( DEFAULT_ALPHABET );
+        singleShifts.add( DEFAULT_EXTENSION );
+        for ( NationalLanguage language : languages ) {
+            if ( language.lockingShift != null && !lockingShifts.contains( language.lockingShift ) ) {
+                lockingShifts.add( language.lockingShift );
+            }
+            if ( !singleShifts.contains( language.singleShift ) ) {
+                singleShifts.add( language.singleShift );
+            }
+        }
+        int bestParts = septets >= 0 ? best.countParts( text, header.concatenationLength ) : -1;
+        for ( Table lockingShift : lockingShifts ) {
+            for ( Table singleShift : singleShifts ) {
+                if ( lockingShift == DEFAULT_ALPHABET && singleShift == DEFAULT_EXTENSION ) {
+                    continue;
+                }
+                Alphabet alphabet = new Alphabet( lockingShift, singleShift );
+                int parts = alphabet.countParts( text, header.concatenationLength );
+                // Fewer parts, or as many parts with fewer information elements.
+                if ( parts >= 0 && ( bestParts < 0 || parts < bestParts
+                        || parts == bestParts && alphabet.headerLength < best.headerLength ) ) {
+                    best = alphabet;
+                    bestParts = parts;
+                }
+            }
+        }
+
+        // The default alphabet is preferred over "UCS-2" in any case, whereas the national language tables are used
+        // only in case where they need fewer parts.
+        if ( bestParts >= 0 && ( best.headerLength == 0 || bestParts < countUcs2Parts( text, header.concatenationLength ) ) ) {
+            return encodeGsm( text, best, header, packed );
+        }
+        return encodeUcs2( text, header );
+    }
+
+    /**
+     * Count the septets of a text in the "GSM" 7-bit default alphabet.
+     *
+     * @param text The text.
+     * @return The number of septets, or "-1" in case where the text does not fit the default alphabet.
+     */
+    public static int countSeptets( CharSequence text ) {
+        int count = 0;
+        for ( int i = 0; i < text.length(); i++ ) {
+            int septet = DEFAULT_ALPHABET.code( text.charAt( i ) );
+            if ( septet < 0 ) {
+                septet = DEFAULT_EXTENSION.code( text.charAt( i ) );
+                if ( septet < 0 ) {
+                    return -1;
+                }
+                count++;
+            }
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Write the septets of a text in the "GSM" 7-bit default alphabet, one per octet; an extension character is
+     * written as the escape followed by its code. The buffer holds at least two octets per character.
+     *
+     * @param text The text.
+     * @param septets The buffer of the septets.
+     * @param offset The index of the first septet in the buffer.
+     * @return The number of septets written, or "-1" in case where the text does not fit the default alphabet.
+     */
+    public static int toSeptets( CharSequence text, byte[] septets, int offset ) {
+        int position = offset;
+        for ( int i = 0; i < text.length(); i++ ) {
+            char c = text.charAt( i );
+            int code = DEFAULT_ALPHABET.code( c );
+            if ( code < 0 ) {
+                code = DEFAULT_EXTENSION.code( c );
+                if ( code < 0 ) {
+                    return -1;
+                }
+                septets[ position++ ] = ESCAPE;
+            }
+            septets[ position++ ] = ( byte ) code;
+        }
+        return position - offset;
+    }
+
+    /**
+     * Split the septets of a text in the "GSM" 7-bit default alphabet (see "toSeptets") into the parts of a message;
+     * an escape is never split from its code.
+     *
+     * @param septets The septets, one per octet.
+     * @param length The number of septets.
+     * @param referenceNumbers The allocator of the reference number of a concatenated message.
+     * @param sixteenBitReference "true" in case of a 16-bit reference number, else "false".
+     * @param packed "true" to pack the septets (8 per 7 octets), else "false" to write one septet per octet.
+     * @return The encoded parts.
+     * @throws IllegalArgumentException In case where the text needs more than 255 parts.
+     */
+    public static Encoded encodeSeptets( byte[] septets, int length, IntSupplier referenceNumbers,
+                                         boolean sixteenBitReference, boolean packed ) {
+        Header header = new Header( referenceNumbers, sixteenBitReference );
+        Alphabet alphabet = new Alphabet( DEFAULT_ALPHABET, DEFAULT_EXTENSION );
+        List<byte[]> parts = new ArrayList<>();
+        // A single part.
+        if ( length <= alphabet.singleCapacity() ) {
+            parts.add( encodeSeptetPart( septets, 0, length, null, packed ) );
+            return new Encoded( false, false, parts );
+        }
+
+        int capacity = alphabet.concatenatedCapacity( header.concatenationLength );
+        for ( int from = 0; from < length; ) {
+            int to = Math.min( from + capacity, length );
+            // The code of an extension character is never "0x1B", i.e. a part ending with "0x1B" ends with an escape.
+            if ( to < length && septets[ to - 1 ] == ESCAPE ) {
+                to--;
+            }
+            parts.add( encodeSeptetPart( septets, from, to, header.create( true, parts.size() + 1, alphabet ), packed ) );
+            from = to;
+        }
+        return new Encoded( false, true, header.complete( parts ) );
+    }
+
+    /**
+     * Encode a range of septets, following an optional "User Data Header".
+     *
+     * @param septets The septets, one per octet.
+     * @param from The index of the first septet.
+     * @param to The index following the last septet.
+     * @param udh The "User Data Header", or "null".
+     * @param packed "true" to pack the septets, else "false".
+     * @return The user data.
+     */
+    private static byte[] encodeSeptetPart( byte[] septets, int from, int to, byte[] udh, boolean packed ) {
+        int headerLength = udh == null ? 0 : udh.length;
+        int fillBits = packed ? ( 7 - headerLength * 8 % 7 ) % 7 : 0;
+        byte[] userData = new byte[ headerLength + ( packed ? ( fillBits + ( to - from ) * 7 + 7 ) / 8 : to - from ) ];
+        if ( udh != null ) {
+            System.arraycopy( udh, 0, userData, 0, headerLength );
+        }
+        // One septet per octet, i.e. a plain copy.
+        if ( !packed ) {
+            System.arraycopy( septets, from, userData, headerLength, to - from );
+            return userData;
+        }
+        int position = headerLength * 8 + fillBits;
+        for ( int i = from; i < to; i++ ) {
+            position = write( userData, position, septets[ i ], true );
+        }
+        return userData;
+    }
+
+    /**
+     * Get the number of septets a character takes.
+     *
+     * @param septet The septet of the character.
+     * @return "2" for a character of the single shift table, else "1".
+     */
+    private static int width( int septet ) {
+        return ( septet & EXTENDED ) != 0 ? 2 : 1;
+    }
+
+    /**
+     * Encode a text in 7-bit septets.
+     *
+     * @param text The text.
+     * @param alphabet The tables of the septets.
+     * @param header The "User Data Header" of the parts.
+     * @param packed "true" to pack the septets, else "false".
+     * @return The encoded parts.
+     */
+    private static Encoded encodeGsm( CharSequence text, Alphabet alphabet, Header header, boolean packed ) {
+        int septets = 0;
+        for ( int i = 0; i < text.length(); i++ ) {
+            septets += width( alphabet.septet( text.charAt( i ) ) );
+        }
+        List<byte[]> parts = new ArrayList<>();
+        // A single part.
+        if ( septets <= alphabet.singleCapacity() ) {
+            byte[] udh = header.create( false, 1, alphabet );
+            parts.add( encodeGsmPart( text, 0, text.length(), septets, alphabet, udh, packed ) );
+            return new Encoded( false, udh != null, parts );
+        }
+
+        // The septets left per part after the "User Data Header" (and its fill bits).
+        int capacity = alphabet.concatenatedCapacity( header.concatenationLength );
+        int from = 0;
+        int used = 0;
+        for ( int i = 0; i < text.length(); i++ ) {
+            int width = width( alphabet.septet( text.charAt( i ) ) );
+            // The part is full; an escape is never split from its code.
+            if ( used + width > capacity ) {
+                parts.add( encodeGsmPart( text, from, i, used, alphabet,
+                        header.create( true, parts.size() + 1, alphabet ), packed ) );
+                from = i;
+                used = 0;
+            }
+            used += width;
+        }
+        parts.add( encodeGsmPart( text, from, text.length(), used, alphabet,
+                header.create( true, parts.size() + 1, alphabet ), packed ) );
+        return new Encoded( false, true, header.complete( parts ) );
+    }
+
+    /**
+     * Encode a range of a text in 7-bit septets, following an optional "User Data Header".
+     *
+     * @param text The text.
+     * @param from The index of the first character.
+     * @param to The index following the last character.
+     * @param septets The number of septets of the range.
+     * @param alphabet The tables of the septets.
+     * @param udh The "User Data Header", or "null".
+     * @param packed "true" to pack the septets, else "false".
+     * @return The user data.
+     */
+    private static byte[] encodeGsmPart( CharSequence text, int from, int to, int septets, Alphabet alphabet,
+                                         byte[] udh, boolean packed ) {
+        int headerLength = udh == null ? 0 : udh.length;
+        // The fill bits aligning the first septet to a septet boundary, counted from the start of the header.
+        int fillBits = packed ? ( 7 - headerLength * 8 % 7 ) % 7 : 0;
+        byte[] userData = new byte[ headerLength + ( packed ? ( fillBits + septets * 7 + 7 ) / 8 : septets ) ];
+        if ( udh != null ) {
+            System.arraycopy( udh, 0, userData, 0, headerLength );
+        }
+
+        // The position of the next septet; in bits in case where the septets are packed, else in octets.
+        int position = packed ? headerLength * 8 + fillBits : headerLength;
+        for ( int i = from; i < to; i++ ) {
+            int septet = alphabet.septet( text.charAt( i ) );
+            if ( ( septet & EXTENDED ) != 0 ) {
+                position = write( userData, position, ESCAPE, packed );
+            }
+            position = write( userData, position, septet & 0x7F, packed );
+        }
+        return userData;
+    }
+
+    /**
+     * Write a septet.
+     *
+     * @param userData The user data.
+     * @param position The position of the septet; in bits in case where the septets are packed, else in octets.
+     * @param septet The septet.
+     * @param packed "true" to pack the septets, else "false".
+     * @return The position of the next septet.
+     */
+    private static int write( byte[] userData, int position, int septet, boolean packed ) {
+        if ( !packed ) {
+            userData[ position ] = ( byte ) septet;
+            return position + 1;
+        }
+        // The septets are packed least significant bit first; a septet spans two octets unless it starts at one of
+        // their two lowest bits.
+        int octet = position >> 3;
+        int shift = position & 7;
+        userData[ octet ] |= ( byte ) ( septet << shift );
+        if ( shift > 1 ) {
+            userData[ octet + 1 ] |= ( byte ) ( septet >> ( 8 - shift ) );
+        }
+        return position + 7;
+    }
+
+    /**
+     * Count the parts of a text in "UCS-2".
+     *
+     * @param text The text.
+     * @param concatenationLength The number of octets of "UDHL" and the concatenation information element.
+     * @return The number of parts.
+     */
+    private static int countUcs2Parts( CharSequence text, int concatenationLength ) {
+        if ( text.length() <= MAX_USER_DATA / 2 ) {
+            return 1;
+        }
+        int capacity = ( MAX_USER_DATA - concatenationLength ) / 2;
+        int parts = 0;
+        for ( int from = 0; from < text.length(); parts++ ) {
+            from = ucs2PartEnd( text, from, capacity );
+        }
+        return parts;
+    }
+
+    /**
+     * Get the end of a part in "UCS-2"; a surrogate pair is never split across two parts.
+     *
+     * @param text The text.
+     * @param from The index of the first code unit of the part.
+     * @param capacity The number of code units per part.
+     * @return The index following the last code unit of the part.
+     */
+    private static int ucs2PartEnd( CharSequence text, int from, int capacity ) {
+        int to = Math.min( from + capacity, text.length() );
+        if ( to < text.length() && Character.isHighSurrogate( text.charAt( to - 1 ) ) ) {
+            to--;
+        }
+        return to;
+    }
+
+    /**
+     * Encode a text in "UCS-2" ("UTF-16BE").
+     *
+     * @param text The text.
+     * @param header The "User Data Header" of the parts.
+     * @return The encoded parts.
+     */
+    private static Encoded encodeUcs2( CharSequence text, Header header ) {
+        List<byte[]> parts = new ArrayList<>();
+        // A single part.
+        if ( text.length() <= MAX_USER_DATA / 2 ) {
+            parts.add( encodeUcs2Part( text, 0, text.length(), null ) );
+            return new Encoded( true, false, parts );
+        }
+
+        // The code units left per part after the "User Data Header".
+        int capacity = ( MAX_USER_DATA - header.concatenationLength ) / 2;
+        for ( int from = 0; from < text.length(); ) {
+            int to = ucs2PartEnd( text, from, capacity );
+            parts.add( encodeUcs2Part( text, from, to, header.create( true, parts.size() + 1, null ) ) );
+            from = to;
+        }
+        return new Encoded( true, true, header.complete( parts ) );
+    }
+
+    /**
+     * Encode a range of a text in "UCS-2" ("UTF-16BE"), following an optional "User Data Header".
+     *
+     * @param text The text.
+     * @param from The index of the first character.
+     * @param to The index following the last character.
+     * @param udh The "User Data Header", or "null".
+     * @return The user data.
+     */
+    private static byte[] encodeUcs2Part( CharSequence text, int from, int to, byte[] udh ) {
+        int headerLength = udh == null ? 0 : udh.length;
+        byte[] userData = new byte[ headerLength + ( to - from ) * 2 ];
+        if ( udh != null ) {
+            System.arraycopy( udh, 0, userData, 0, headerLength );
+        }
+        int position = headerLength;
+        for ( int i = from; i < to; i++ ) {
+            char c = text.charAt( i );
+            userData[ position++ ] = ( byte ) ( c >> 8 );
+            userData[ position++ ] = ( byte ) c;
+        }
+        return userData;
+    }
+
+    /**
+     * The "User Data Header" of the parts of a text, i.e. "UDHL" followed by the information elements: "Concatenated
+     * short messages, 16-bit reference number" (08 04 reference total sequence) or "8-bit reference number" (00 03
+     * reference total sequence) in case of a concatenated message, "National Language Single Shift" (24 01 language)
+     * and "National Language Locking Shift" (25 01 language) in case of a national language table.
+     */
+    private static final class Header {
+        // The allocator of the reference number.
+        private final IntSupplier referenceNumbers;
+        // "true" in case of a 16-bit reference number, else "false".
+        private final boolean sixteenBitReference;
+        // The number of octets of "UDHL" and the concatenation information element.
+        private final int concatenationLength;
+        // The index of the total number of parts.
+        private final int total;
+        // The reference number of the concatenated message; "-1" until allocated by the first part.
+        private int referenceNumber = -1;
+
+        /**
+         * Constructor.
+         *
+         * @param referenceNumbers The allocator of the reference number.
+         * @param sixteenBitReference "true" in case of a 16-bit reference number, else "false".
+         */
+        private Header( IntSupplier referenceNumbers, boolean sixteenBitReference ) {
+            this.referenceNumbers = referenceNumbers;
+            this.sixteenBitReference = sixteenBitReference;
+            this.concatenationLength = sixteenBitReference ? 7 : 6;
+            this.total = concatenationLength - 2;
+        }
+
+        /**
+         * Create the header of a part; the total number of parts of a concatenated message is set once all the parts
+         * are encoded.
+         *
+         * @param concatenated "true" in case of a concatenated message, else "false".
+         * @param sequence The sequence number of the part, starting at "1".
+         * @param alphabet The tables of the septets, or "null" in case of "UCS-2".
+         * @return The header, or "null" in case where the part needs none.
+         * @throws IllegalArgumentException In case where the message needs more than 255 parts.
+         */
+        private byte[] create( boolean concatenated, int sequence, Alphabet alphabet ) {
+            if ( sequence > MAX_PARTS ) {
+                throw new IllegalArgumentException( "Message text too long, it needs more than " + MAX_PARTS + " parts" );
+            }
+            int length = ( concatenated ? concatenationLength : 1 ) + ( alphabet == null ? 0 : alphabet.headerLength );
+            if ( length == 1 ) {
+                return null;
+            }
+            byte[] udh = new byte[ length ];
+            udh[ 0 ] = ( byte ) ( length - 1 );
+            int position = 1;
+            if ( concatenated ) {
+                if ( referenceNumber < 0 ) {
+                    referenceNumber = referenceNumbers.getAsInt();
+                }
+                if ( sixteenBitReference ) {
+                    udh[ position++ ] = 0x08;
+                    udh[ position++ ] = 0x04;
+                    udh[ position++ ] = ( byte ) ( referenceNumber >> 8 );
+                }
+                else {
+                    udh[ position++ ] = 0x00;
+                    udh[ position++ ] = 0x03;
+                }
+                udh[ position++ ] = ( byte ) referenceNumber;
+                udh[ position++ ] = 0;
+                udh[ position++ ] = ( byte ) sequence;
+            }
+            if ( alphabet != null && alphabet.singleShift.language != 0 ) {
+                udh[ position++ ] = 0x24;
+                udh[ position++ ] = 0x01;
+                udh[ position++ ] = ( byte ) alphabet.singleShift.language;
+            }
+            if ( alphabet != null && alphabet.lockingShift.language != 0 ) {
+                udh[ position++ ] = 0x25;
+                udh[ position++ ] = 0x01;
+                udh[ position ] = ( byte ) alphabet.lockingShift.language;
+            }
+            return udh;
+        }
+
+        /**
+         * Set the total number of parts into the header of each part.
+         *
+         * @param parts The user data of each part.
+         * @return The user data of each part.
+         */
+        private List<byte[]> complete( List<byte[]> parts ) {
+            for ( byte[] part : parts ) {
+                part[ total ] = ( byte ) parts.size();
+            }
+            return parts;
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package com.smpp.client;
+
+// Defines a common interface for either a Client (ESME) or Server (SMSC) "SMPP" session.
+import com.cloudhopper.smpp.SmppSession;
+// "enquire_link" PDU request.
+import com.cloudhopper.smpp.pdu.EnquireLink;
+// Thrown when the underlying socket/channel was unable to write the request.
+import com.cloudhopper.smpp.type.SmppChannelException;
+// Thrown when a timeout occurred while waiting for a "window" slot.
+import com.cloudhopper.smpp.type.SmppTimeoutException;
+
+// A "Timer" optimized for approximated I/O timeout scheduling, i.e. a hashed timing wheel.
+import org.jboss.netty.util.HashedWheelTimer;
+// A handle associated with a "TimerTask" that is returned by a "Timer".
+import org.jboss.netty.util.Timeout;
+// A task which is executed after the delay specified with "Timer.newTimeout".
+import org.jboss.netty.util.TimerTask;
+
+// Main user entry point of "SLF4J" API; logging takes place through concrete implementations of this interface.
+import org.slf4j.Logger;
+// Utility class producing "Loggers" for various logging APIs, most notably for "log4j", "logback" and "JDK 1.4" logging.
+import org.slf4j.LoggerFactory;
+
+// Resizable-array implementation of the "List" interface.
+import java.util.ArrayList;
+// An ordered collection (also known as a sequence).
+import java.util.List;
+// A "TimeUnit" represents time durations at a given unit of granularity.
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keep the idle "SMPP" sessions alive, and detect the dead links.
+ *
+ * "SMPP" sessions are short-lived; given a scenario where a mobile device is switched off, the "SMS" will be delivered
+ * only when the device is switched back on. In this same scenario, the session may be closed by the "SMSC" (or by a
+ * firewall in between) when the delivery is received, leading to lost "delivery receipts". To overcome this
+ * limitation, a session that received nothing for "keepalive-idle-time" is probed with an "enquire_link"; a busy
+ * session, whose responses prove the link is alive, is never probed.
+ *
+ * The probe is sent asynchronously, i.e. without waiting for its response: any "PDU" received within
+ * "keepalive-timeout" after the probe proves the link is alive, else the session is handed over to the supervisor of
+ * its pool, which closes it and binds it again. A dead link is thus declared within "keepalive-idle-time" plus
+ * "keepalive-timeout" (plus one tick) of the last received "PDU".
+ *
+ * All the sessions share a single hashed timing wheel ("HashedWheelTimer"), where each session keeps a single task
+ * rescheduled at its next deadline; the cost is O(1) per session and per tick, so the monitor scales to hundreds of
+ * binds on one thread.
+ *
+ * @author  Aristotelis Metsinis ( aristotelis.metsinis@gmail.com )
+ * @version 1.0
+ * @since   January 2022
+ */
+public class KeepaliveMonitor {
+    // Return a logger named corresponding to the class passed as parameter, using the statically bound "ILoggerFactory" instance.
+    private static final Logger log = LoggerFactory.getLogger( KeepaliveMonitor.class );
+
+    // The number of buckets of the timing wheel.
+    private static final int TICKS_PER_WHEEL = 512;
+    // The duration (in milliseconds) of a tick of the timing wheel.
+    private static final long TICK_DURATION = 100;
+
+    // How long (in nanoseconds) a session may receive nothing before it is probed.
+    private final long idleTime;
+    // How long (in nanoseconds) to wait for any "PDU" after a probe.
+    private final long probeTimeout;
+    // The slots of the monitored pools.
+    private final List<PooledSession> slots = new ArrayList<>();
+    // The hashed timing wheel shared by all the sessions.
+    private final HashedWheelTimer timer;
+
+    /**
+     * Constructor.
+     *
+     * @param properties All the external properties we need.
+     * @param pools The pools of "SMPP" sessions to be monitored.
+     */
+    public KeepaliveMonitor( SmppClientProperties properties, SmppSessionPool... pools ) {
+        this.idleTime = TimeUnit.MILLISECONDS.toNanos( properties.getAsync().getKeepaliveIdleTime() );
+        this.probeTimeout = TimeUnit.MILLISECONDS.toNanos( properties.getAsync().getKeepaliveTimeout() );
+        for ( SmppSessionPool pool : pools ) {
+            slots.addAll( pool.getSlots() );
+        }
+        this.timer = new HashedWheelTimer( runnable -> {
+            Thread thread = new Thread( runnable, "smpp.keepalive" );
+            thread.setDaemon( true );
+            return thread;
+        }, TICK_DURATION, TimeUnit.MILLISECONDS, TICKS_PER_WHEEL );
+    }
+
+    /**
+     * Start monitoring each session.
+     */
+    public void start() {
+        for ( PooledSession slot : slots ) {
+            schedule( new KeepaliveTask( slot ), idleTime );
+        }
+    }
+
+    /**
+     * Stop the timing wheel.
+     */
+    public void stop() {
+        timer.stop();
+    }
+
+    /**
+     * Schedule the next run of a task.
+     *
+     * @param task The task of a session.
+     * @param delay The delay in nanoseconds.
+     */
+    private void schedule( KeepaliveTask task, long delay ) {
+        try {
+            timer.newTimeout( task, Math.max( delay, 0 ), TimeUnit.NANOSECONDS );
+        }
+        // The timer has been stopped, i.e. the application shuts down.
+        catch ( IllegalStateException e ) {
+            log.debug( "Keepalive of SMPP session {} stopped", task.slot.getIndex() );
+        }
+    }
+
+    /**
+     * The task of the timing wheel keeping a session alive.
+     */
+    private final class KeepaliveTask implements TimerTask {
+        // The slot of the session.
+        private final PooledSession slot;
+        // The session the outstanding probe was sent on; "null" in case where no probe is outstanding.
+        private SmppSession probed;
+        // The time (in "System.nanoTime" units) the outstanding probe was sent.
+        private long probeSentAt;
+
+        /**
+         * Constructor.
+         *
+         * @param slot The slot of the session.
+         */
+        private KeepaliveTask( PooledSession slot ) {
+            this.slot = slot;
+        }
+
+        /**
+         * Check the session: probe it in case where it is idle, or declare the link dead in case where a probe is
+         * left without an answer.
+         *
+         * @param timeout The handle of this task.
+         */
+        @Override
+        public void run( Timeout timeout ) {
+            long now = System.nanoTime();
+            SmppSession session = slot.getSession();
+            // The session is being bound (again); checked again after a full idle period.
+            if ( session == null || !slot.isAvailable() ) {
+                probed = null;
+                schedule( this, idleTime );
+                return;
+            }
+
+            // A probe is outstanding on the current session.
+            if ( probed == session ) {
+                // Answered, i.e. any "PDU" was received after the probe was sent.
+                if ( slot.getLastActivity() - probeSentAt >= 0 ) {
+                    probed = null;
+                }
+                // Not answered in time; the link is dead.
+                else if ( now - probeSentAt >= probeTimeout ) {
+                    log.warn( "SMPP session {} received nothing for {} ms after enquire_link, executing reconnect",
+                            slot.getIndex(), TimeUnit.NANOSECONDS.toMillis( probeTimeout ) );
+                    probed = null;
+                    slot.getPool().reconnect( slot );
+                    schedule( this, idleTime );
+                    return;
+                }
+                // Still waiting.
+                else {
+                    schedule( this, probeSentAt + probeTimeout - now );
+                    return;
+                }
+            }
+
+            // Busy, i.e. a "PDU" was received within the idle period; checked again once it would be idle.
+            long idle = now - slot.getLastActivity();
+            if ( idle < idleTime ) {
+                schedule( this, idleTime - idle );
+                return;
+            }
+
+            probed = session;
+            probeSentAt = now;
+            try {
+                log.debug( "sending enquire_link on SMPP session {}", slot.getIndex() );
+                // Asynchronously send an "enquire_link" request, without waiting for a free "window" slot; the
+                // response is delivered to the session handler, which records the activity.
+                session.sendRequestPdu( new EnquireLink(), 0, false );
+            }
+            // The "window" is full, yet nothing was received for the idle period; the probe is not needed to declare
+            // the link dead in case where nothing is received within the timeout either.
+            catch ( SmppTimeoutException e ) {
+                log.debug( "No window slot for enquire_link on SMPP session {}", slot.getIndex() );
+            }
+            // The underlying socket/channel was unable to write the request; the link is dead.
+            catch ( SmppChannelException e ) {
+                log.warn( "Enquire link failed on SMPP session {}, executing reconnect; {}", slot.getIndex(), e.toString() );
+                probed = null;
+                slot.getPool().reconnect( slot );
+                schedule( this, idleTime );
+                return;
+            }
+            // The thread of the timing wheel is interrupted, i.e. the application shuts down.
+            catch ( InterruptedException e ) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            // Throw exception in any other case, e.g. a recoverable or unrecoverable "PDU" error.
+            catch ( Exception e ) {
+                log.error( "Enquire link failed on SMPP session {}", slot.getIndex(), e );
+            }
+            schedule( this, probeTimeout );
+        }
+    }
+}
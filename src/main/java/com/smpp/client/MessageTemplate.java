@@ -0,0 +1,251 @@
+package com.smpp.client;
+
+// Resizable-array implementation of the "List" interface.
+import java.util.ArrayList;
+// This class contains various methods for manipulating arrays (such as sorting and searching).
+import java.util.Arrays;
+// The root interface in the collection hierarchy.
+import java.util.Collection;
+// An ordered collection (also known as a sequence).
+import java.util.List;
+// Represents a supplier of "int"-valued results.
+import java.util.function.IntSupplier;
+
+/**
+ * A precompiled message template, i.e. a text with numbered slots ("{0}", "{1}", ...) filled per message, e.g. "Your
+ * code is {0}" for an "OTP", or "Dear {0}, ..." for a campaign.
+ *
+ * The static fragments of the template are encoded once, at compile time, in the "GSM" 7-bit default alphabet, along
+ * with their number of septets. Per message, only the slot values are encoded, spliced with the static septets into a
+ * pooled (per thread) buffer, and the parts are cut out of the buffer at fixed septet boundaries; the text is neither
+ * built nor walked character by character again.
+ *
+ * A message whose template or values do not fit the default alphabet (or need an extension character while national
+ * language tables are enabled, i.e. might do better with them) is encoded from its full text through "GsmEncoder",
+ * i.e. the parts are the same either way.
+ *
+ * @author  Aristotelis Metsinis ( aristotelis.metsinis@gmail.com )
+ * @version 1.0
+ * @since   January 2022
+ */
+public class MessageTemplate {
+    // The initial size (in septets) of the pooled buffer of each thread.
+    private static final int BUFFER_SIZE = 1024;
+    // The pooled buffer of the septets of each thread; grown as needed.
+    private static final ThreadLocal<byte[]> BUFFER = ThreadLocal.withInitial( () -> new byte[ BUFFER_SIZE ] );
+
+    // The text of the template.
+    private final String pattern;
+    // The static fragments, i.e. one more than the slots.
+    private final String[] fragments;
+    // The index of the value filling each slot.
+    private final int[] slots;
+    // The number of values, i.e. the highest slot index plus one.
+    private final int valueCount;
+    // The septets of each static fragment, or "null" in case where the fragments do not fit the default alphabet.
+    private final byte[][] septets;
+    // The number of septets and of characters of all the static fragments.
+    private final int staticSeptets;
+    private final int staticLength;
+
+    /**
+     * Constructor.
+     *
+     * @param pattern The text of the template.
+     * @param fragments The static fragments.
+     * @param slots The index of the value filling each slot.
+     */
+    private MessageTemplate( String pattern, String[] fragments, int[] slots ) {
+        this.pattern = pattern;
+        this.fragments = fragments;
+        this.slots = slots;
+        int values = 0;
+        for ( int slot : slots ) {
+            values = Math.max( values, slot + 1 );
+        }
+        this.valueCount = values;
+
+        // Encode the static fragments once.
+        byte[][] encoded = new byte[ fragments.length ][];
+        int total = 0;
+        int length = 0;
+        for ( int i = 0; i < fragments.length && encoded != null; i++ ) {
+            byte[] buffer = new byte[ fragments[ i ].length() * 2 ];
+            int count = GsmEncoder.toSeptets( fragments[ i ], buffer, 0 );
+            if ( count < 0 ) {
+                encoded = null;
+            }
+            else {
+                encoded[ i ] = Arrays.copyOf( buffer, count );
+                total += count;
+                length += fragments[ i ].length();
+            }
+        }
+        this.septets = encoded;
+        this.staticSeptets = total;
+        this.staticLength = length;
+    }
+
+    /**
+     * Compile a template; a slot is a value index in braces, e.g. "{0}", and any other brace is a plain character.
+     *
+     * @param pattern The text of the template.
+     * @return The template.
+     */
+    public static MessageTemplate compile( String pattern ) {
+        List<String> fragments = new ArrayList<>();
+        List<Integer> slots = new ArrayList<>();
+        int start = 0;
+        for ( int i = 0; i < pattern.length(); i++ ) {
+            if ( pattern.charAt( i ) != '{' ) {
+                continue;
+            }
+            // The digits of the slot index, up to the closing brace.
+            int end = i + 1;
+            while ( end < pattern.length() && end - i <= 3 && Character.isDigit( pattern.charAt( end ) ) ) {
+                end++;
+            }
+            if ( end == i + 1 || end >= pattern.length() || pattern.charAt( end ) != '}' ) {
+                continue;
+            }
+            fragments.add( pattern.substring( start, i ) );
+            slots.add( Integer.parseInt( pattern.substring( i + 1, end ) ) );
+            start = end + 1;
+            i = end;
+        }
+        fragments.add( pattern.substring( start ) );
+        int[] indices = new int[ slots.size() ];
+        for ( int i = 0; i < indices.length; i++ ) {
+            indices[ i ] = slots.get( i );
+        }
+        return new MessageTemplate( pattern, fragments.toArray( new String[ 0 ] ), indices );
+    }
+
+    /**
+     * Get the text of the template.
+     *
+     * @return The text of the template.
+     */
+    public String getPattern() {
+        return pattern;
+    }
+
+    /**
+     * Get the number of values the template needs.
+     *
+     * @return The highest slot index plus one.
+     */
+    public int getValueCount() {
+        return valueCount;
+    }
+
+    /**
+     * Split a comma separated text into the values of the slots. A comma within a value is escaped as "\,", and a
+     * backslash as "\\"; any other backslash is kept as is. The value of the last slot takes the rest of the text,
+     * i.e. its commas need no escape.
+     *
+     * @param text The comma separated values, e.g. "Smith\, John,0000".
+     * @return The values, at most as many as the slots (or one, in case of a template without slots).
+     */
+    public String[] split( String text ) {
+        int count = Math.max( valueCount, 1 );
+        List<String> values = new ArrayList<>( count );
+        StringBuilder value = new StringBuilder();
+        for ( int i = 0; i < text.length(); i++ ) {
+            char c = text.charAt( i );
+            if ( c == '\\' && i + 1 < text.length() && ( text.charAt( i + 1 ) == ',' || text.charAt( i + 1 ) == '\\' ) ) {
+                value.append( text.charAt( ++i ) );
+            } else if ( c == ',' && values.size() < count - 1 ) {
+                values.add( value.toString() );
+                value.setLength( 0 );
+            } else {
+                value.append( c );
+            }
+        }
+        values.add( value.toString() );
+        return values.toArray( new String[ 0 ] );
+    }
+
+    /**
+     * Fill the slots with the values.
+     *
+     * @param values The values.
+     * @return The text of the message.
+     * @throws IllegalArgumentException In case of a missing value.
+     */
+    public String fill( String... values ) {
+        checkValues( values );
+        StringBuilder text = new StringBuilder( staticLength + 16 * slots.length );
+        for ( int i = 0; i < slots.length; i++ ) {
+            text.append( fragments[ i ] ).append( values[ slots[ i ] ] );
+        }
+        return text.append( fragments[ slots.length ] ).toString();
+    }
+
+    /**
+     * Encode a message into the fewest parts, splicing the values with the encoded static fragments.
+     *
+     * @param values The values.
+     * @param referenceNumbers The allocator of the reference number of a concatenated message.
+     * @param sixteenBitReference "true" in case of a 16-bit reference number, else "false".
+     * @param packed "true" to pack the septets (8 per 7 octets), else "false" to write one septet per octet.
+     * @param languages The national languages whose tables may be used, or "null" for none.
+     * @return The encoded parts.
+     * @throws IllegalArgumentException In case of a missing value, or in case where the message needs more than 255
+     * parts.
+     */
+    public GsmEncoder.Encoded encode( String[] values, IntSupplier referenceNumbers, boolean sixteenBitReference,
+                                      boolean packed, Collection<GsmEncoder.NationalLanguage> languages ) {
+        checkValues( values );
+        if ( septets != null ) {
+            // The pooled buffer, holding up to two septets per character of the values.
+            int capacity = staticSeptets;
+            int length = staticLength;
+            for ( int slot : slots ) {
+                capacity += values[ slot ].length() * 2;
+                length += values[ slot ].length();
+            }
+            byte[] buffer = BUFFER.get();
+            if ( buffer.length < capacity ) {
+                buffer = new byte[ Math.max( capacity, buffer.length * 2 ) ];
+                BUFFER.set( buffer );
+            }
+
+            // Splice the static septets with the septets of the values.
+            int position = 0;
+            for ( int i = 0; i <= slots.length && position >= 0; i++ ) {
+                System.arraycopy( septets[ i ], 0, buffer, position, septets[ i ].length );
+                position += septets[ i ].length;
+                if ( i < slots.length ) {
+                    int count = GsmEncoder.toSeptets( values[ slots[ i ] ], buffer, position );
+                    position = count < 0 ? -1 : position + count;
+                }
+            }
+            // The message fits the default alphabet, without any extension character in case where a national
+            // language table might do better.
+            if ( position >= 0 && ( position == length || languages == null || languages.isEmpty() ) ) {
+                return GsmEncoder.encodeSeptets( buffer, position, referenceNumbers, sixteenBitReference, packed );
+            }
+        }
+        return GsmEncoder.encode( fill( values ), referenceNumbers, sixteenBitReference, packed, languages );
+    }
+
+    /**
+     * Check that there is a value for each slot.
+     *
+     * @param values The values.
+     * @throws IllegalArgumentException In case of a missing value.
+     */
+    private void checkValues( String[] values ) {
+        if ( values.length < valueCount ) {
+            throw new IllegalArgumentException( "Missing value for slot {" + values.length + "} of template \"" + pattern
+                    + "\"" );
+        }
+        for ( int slot : slots ) {
+            if ( values[ slot ] == null ) {
+                throw new IllegalArgumentException( "Missing value for slot {" + slot + "} of template \"" + pattern
+                    + "\"" );
+            }
+        }
+    }
+}
@@ -0,0 +1,421 @@
+package com.smpp.client;
+
+// Constant definitions for the standard "Charsets".
+import java.nio.charset.StandardCharsets;
+// This class contains various methods for manipulating arrays (such as sorting and searching).
+import java.util.Arrays;
+// This class consists exclusively of static methods that operate on or return collections.
+import java.util.Collections;
+// An ordered collection (also known as a sequence).
+import java.util.List;
+// This class consists of static utility methods for operating on objects.
+import java.util.Objects;
+// Represents a supplier of "int"-valued results.
+import java.util.function.IntSupplier;
+
+/**
+ * A precompiled "MMS" notification ("m-notification.ind") "WAP Push" message, i.e. the "WSP" push header followed by
+ * the "MMS" encapsulation headers, carried over "WDP" in one or more short messages.
+ *
+ * The headers of the originator are encoded once, i.e. "From", "Subject", "X-Mms-Message-Class" ("Personal") and
+ * "X-Mms-Expiry"; per message, only the "X-Mms-Transaction-ID", the "X-Mms-Message-Size" and the
+ * "X-Mms-Content-Location" are written, between the encoded fragments, straight into the user data of a single short
+ * message, or into a pooled (per thread) buffer in case where the notification is segmented.
+ *
+ * The encoding is byte-identical to the former "smsj" ("SmsMmsNotificationMessage") notification of the
+ * "tcp_smpp_traces" samples ("m-notification-ind.txt"): text values in "ISO-8859-1" ("?" for a character out of it),
+ * quoted in case where their first octet is above "0x7F", and "From" and "Subject" left out in case where they are
+ * empty.
+ *
+ * @author  Aristotelis Metsinis ( aristotelis.metsinis@gmail.com )
+ * @version 1.0
+ * @since   January 2022
+ */
+public final class MmsNotificationEncoder {
+    // "WSP" : transaction id, "PDU" type "Push", headers length, content type "application/vnd.wap.mms-message" (general
+    // form, i.e. value length and text), "X-Wap-Application-Id" : "x-wap-application:mms.ua" (0x04).
+    private static final byte[] WSP_HEADER = wspHeader();
+    // "MMS" headers (well-known field names, i.e. short integers).
+    private static final int X_MMS_MESSAGE_TYPE = 0x8C;
+    private static final int M_NOTIFICATION_IND = 0x82;
+    private static final int X_MMS_TRANSACTION_ID = 0x98;
+    private static final int X_MMS_MMS_VERSION = 0x8D;
+    private static final int MMS_VERSION_1_0 = 0x90;
+    private static final int FROM = 0x89;
+    private static final int ADDRESS_PRESENT = 0x80;
+    private static final int SUBJECT = 0x96;
+    private static final int X_MMS_MESSAGE_CLASS = 0x8A;
+    private static final int MESSAGE_CLASS_PERSONAL = 0x80;
+    private static final int X_MMS_MESSAGE_SIZE = 0x8E;
+    private static final int X_MMS_EXPIRY = 0x88;
+    private static final int RELATIVE_TOKEN = 0x81;
+    private static final int X_MMS_CONTENT_LOCATION = 0x83;
+    // The quote of a text value whose first octet is above "0x7F".
+    private static final int QUOTE = 0x7F;
+    // The max value of a single octet value length; a longer one is quoted ("0x1F") and written as "uintvar".
+    private static final int SHORT_LENGTH_MAX = 30;
+    private static final int LENGTH_QUOTE = 0x1F;
+
+    // The originator of the notifications.
+    private final String from;
+    // The subject of the notifications.
+    private final String subject;
+    // The expiry of the "MMS", in seconds after its notification.
+    private final long expiry;
+    // The encoded headers up to the transaction id value, from the end of the transaction id value up to the message
+    // size value, and from the end of the message size value up to the content location value.
+    private final byte[] head;
+    private final byte[] originator;
+    private final byte[] tail;
+
+    /**
+     * A notification, i.e. the user data ("UDH" followed by the body) of its short messages; immutable, i.e. may be
+     * submitted again as is.
+     */
+    public static final class Notification {
+        // The transaction id.
+        private final int transactionId;
+        // The user data of each short message.
+        private final List<byte[]> parts;
+
+        /**
+         * Constructor.
+         *
+         * @param transactionId The transaction id.
+         * @param parts The user data of each short message.
+         */
+        private Notification( int transactionId, List<byte[]> parts ) {
+            this.transactionId = transactionId;
+            this.parts = Collections.unmodifiableList( parts );
+        }
+
+        /**
+         * Get the "X-Mms-Transaction-ID" of the notification.
+         *
+         * @return The transaction id.
+         */
+        public int getTransactionId() {
+            return transactionId;
+        }
+
+        /**
+         * Get the user data ("UDH" followed by the body) of each short message of the notification.
+         *
+         * @return The user data of each short message; more than one in case of a segmented notification.
+         */
+        public List<byte[]> getParts() {
+            return parts;
+        }
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param from The originator of the notifications.
+     * @param subject The subject of the notifications.
+     * @param expiry The expiry of the "MMS", in seconds after its notification.
+     * @param head The encoded headers up to the transaction id value.
+     * @param originator The encoded headers from the end of the transaction id value up to the message size value.
+     * @param tail The encoded headers from the end of the message size value up to the content location value.
+     */
+    private MmsNotificationEncoder( String from, String subject, long expiry, byte[] head, byte[] originator,
+                                    byte[] tail ) {
+        this.from = from;
+        this.subject = subject;
+        this.expiry = expiry;
+        this.head = head;
+        this.originator = originator;
+        this.tail = tail;
+    }
+
+    /**
+     * Compile the headers of the notifications of an originator.
+     *
+     * @param from The originator of the notifications; left out in case where it is empty.
+     * @param subject The subject of the notifications; left out in case where it is empty.
+     * @param expiry The expiry of the "MMS", in seconds after its notification.
+     * @return The precompiled notification.
+     */
+    public static MmsNotificationEncoder compile( String from, String subject, long expiry ) {
+        byte[] head = Arrays.copyOf( WSP_HEADER, WSP_HEADER.length + 3 );
+        head[ WSP_HEADER.length ] = ( byte ) X_MMS_MESSAGE_TYPE;
+        head[ WSP_HEADER.length + 1 ] = ( byte ) M_NOTIFICATION_IND;
+        head[ WSP_HEADER.length + 2 ] = ( byte ) X_MMS_TRANSACTION_ID;
+
+        byte[] fromValue = from == null || from.isEmpty() ? null : text( from );
+        byte[] subjectValue = subject == null || subject.isEmpty() ? null : text( subject );
+        int fromLength = fromValue == null ? 0 : 1 + fromValue.length;
+        byte[] originator = new byte[ 3 + ( fromValue == null ? 0 : 1 + valueLengthSize( fromLength ) + fromLength )
+                + ( subjectValue == null ? 0 : 1 + subjectValue.length ) + 3 ];
+        int position = 0;
+        // The end of the transaction id value.
+        originator[ position++ ] = 0x00;
+        originator[ position++ ] = ( byte ) X_MMS_MMS_VERSION;
+        originator[ position++ ] = ( byte ) MMS_VERSION_1_0;
+        if ( fromValue != null ) {
+            originator[ position++ ] = ( byte ) FROM;
+            position = writeValueLength( originator, position, fromLength );
+            originator[ position++ ] = ( byte ) ADDRESS_PRESENT;
+            System.arraycopy( fromValue, 0, originator, position, fromValue.length );
+            position += fromValue.length;
+        }
+        if ( subjectValue != null ) {
+            originator[ position++ ] = ( byte ) SUBJECT;
+            System.arraycopy( subjectValue, 0, originator, position, subjectValue.length );
+            position += subjectValue.length;
+        }
+        originator[ position++ ] = ( byte ) X_MMS_MESSAGE_CLASS;
+        originator[ position++ ] = ( byte ) MESSAGE_CLASS_PERSONAL;
+        originator[ position ] = ( byte ) X_MMS_MESSAGE_SIZE;
+
+        int expiryLength = 1 + 1 + longIntegerSize( expiry );
+        byte[] tail = new byte[ 1 + valueLengthSize( expiryLength ) + expiryLength + 1 ];
+        position = 0;
+        tail[ position++ ] = ( byte ) X_MMS_EXPIRY;
+        position = writeValueLength( tail, position, expiryLength );
+        tail[ position++ ] = ( byte ) RELATIVE_TOKEN;
+        position = writeLongInteger( tail, position, expiry );
+        tail[ position ] = ( byte ) X_MMS_CONTENT_LOCATION;
+        return new MmsNotificationEncoder( from, subject, expiry, head, originator, tail );
+    }
+
+    /**
+     * Check if the notification was compiled out of the given headers, i.e. may be reused for them.
+     *
+     * @param from The originator of the notifications.
+     * @param subject The subject of the notifications.
+     * @param expiry The expiry of the "MMS", in seconds after its notification.
+     * @return "true" in case where the notification may be reused, else "false".
+     */
+    public boolean isCompiledFrom( String from, String subject, long expiry ) {
+        return Objects.equals( this.from, from ) && Objects.equals( this.subject, subject ) && this.expiry == expiry;
+    }
+
+    /**
+     * Encode a notification.
+     *
+     * @param transactionId The "X-Mms-Transaction-ID", i.e. a non-negative number.
+     * @param contentLocation The "URL" of the "MMS" content location.
+     * @param size The size of the "MMS" content in bytes.
+     * @param referenceNumbers The allocator of the "SAR" reference number, in case of a segmented notification.
+     * @param segmented "true" to cut a notification longer than a single short message into "WDP" segments, else
+     *                  "false" to keep it in a single (long) message, e.g. to be sent in the "message_payload".
+     * @return The notification.
+     * @throws IllegalArgumentException In case of a negative transaction id, or in case where the notification needs
+     * more than 255 segments.
+     */
+    public Notification encode( int transactionId, String contentLocation, long size, IntSupplier referenceNumbers,
+                                boolean segmented ) {
+        if ( transactionId < 0 ) {
+            throw new IllegalArgumentException( "Invalid transaction id " + transactionId );
+        }
+        int digits = 1;
+        for ( int value = transactionId; value >= 10; value /= 10 ) {
+            digits++;
+        }
+        int length = head.length + digits + originator.length + 1 + longIntegerSize( size ) + tail.length
+                + textSize( contentLocation );
+
+        // A single short message; the body is written straight after the "UDH".
+        if ( length <= WapPushEncoder.SINGLE_CAPACITY || !segmented ) {
+            byte[] userData = WapPushEncoder.userData( length );
+            writeBody( userData, userData.length - length, transactionId, digits, contentLocation, size );
+            return new Notification( transactionId, Collections.singletonList( userData ) );
+        }
+
+        // The body is written into the pooled buffer, and cut into segments.
+        byte[] buffer = WapPushEncoder.buffer( length );
+        writeBody( buffer, 0, transactionId, digits, contentLocation, size );
+        return new Notification( transactionId, WapPushEncoder.segment( buffer, length, referenceNumbers ) );
+    }
+
+    /**
+     * Write the body of a notification.
+     *
+     * @param out The array to write to.
+     * @param position The offset to start writing at.
+     * @param transactionId The transaction id.
+     * @param digits The number of decimal digits of the transaction id.
+     * @param contentLocation The "URL" of the "MMS" content location.
+     * @param size The size of the "MMS" content in bytes.
+     */
+    private void writeBody( byte[] out, int position, int transactionId, int digits, String contentLocation,
+                            long size ) {
+        System.arraycopy( head, 0, out, position, head.length );
+        position += head.length;
+        // The decimal digits of the transaction id, from the last one.
+        for ( int i = position + digits - 1; i >= position; i-- ) {
+            out[ i ] = ( byte ) ( '0' + transactionId % 10 );
+            transactionId /= 10;
+        }
+        position += digits;
+        System.arraycopy( originator, 0, out, position, originator.length );
+        position = writeLongInteger( out, position + originator.length, size );
+        System.arraycopy( tail, 0, out, position, tail.length );
+        writeText( out, position + tail.length, contentLocation );
+    }
+
+    /**
+     * Create the "WSP" push header of the notifications.
+     *
+     * @return The header.
+     */
+    private static byte[] wspHeader() {
+        byte[] contentType = "application/vnd.wap.mms-message".getBytes( StandardCharsets.ISO_8859_1 );
+        byte[] header = new byte[ 3 + 2 + contentType.length + 1 + 2 ];
+        int position = 0;
+        // Transaction id, "PDU" type "Push", headers length.
+        header[ position++ ] = 0x00;
+        header[ position++ ] = 0x06;
+        header[ position++ ] = ( byte ) ( header.length - 3 );
+        // Content type, general form: value length, followed by the media type.
+        header[ position++ ] = ( byte ) LENGTH_QUOTE;
+        header[ position++ ] = ( byte ) ( contentType.length + 1 );
+        System.arraycopy( contentType, 0, header, position, contentType.length );
+        position += contentType.length + 1;
+        // "X-Wap-Application-Id" (0x2F), "x-wap-application:mms.ua" (0x04).
+        header[ position++ ] = ( byte ) 0xAF;
+        header[ position ] = ( byte ) 0x84;
+        return header;
+    }
+
+    /**
+     * Encode a text value, i.e. its "ISO-8859-1" octets (quoted in case where the first one is above "0x7F"), followed
+     * by the terminating "NUL".
+     *
+     * @param text The text.
+     * @return The encoded text value.
+     */
+    private static byte[] text( String text ) {
+        byte[] value = new byte[ textSize( text ) ];
+        writeText( value, 0, text );
+        return value;
+    }
+
+    /**
+     * Get the number of octets of an encoded text value.
+     *
+     * @param text The text.
+     * @return The number of octets, including the quote (if any) and the terminating "NUL".
+     */
+    private static int textSize( String text ) {
+        int size = 1;
+        for ( int i = 0; i < text.length(); i++ ) {
+            size++;
+            // A surrogate pair is a single unmappable character.
+            if ( Character.isHighSurrogate( text.charAt( i ) ) && i + 1 < text.length()
+                    && Character.isLowSurrogate( text.charAt( i + 1 ) ) ) {
+                i++;
+            }
+        }
+        return !text.isEmpty() && firstOctet( text ) > 0x7F ? size + 1 : size;
+    }
+
+    /**
+     * Write an encoded text value.
+     *
+     * @param out The array to write to.
+     * @param position The offset to start writing at.
+     * @param text The text.
+     * @return The offset after the terminating "NUL".
+     */
+    private static int writeText( byte[] out, int position, String text ) {
+        if ( !text.isEmpty() && firstOctet( text ) > 0x7F ) {
+            out[ position++ ] = ( byte ) QUOTE;
+        }
+        for ( int i = 0; i < text.length(); i++ ) {
+            char c = text.charAt( i );
+            if ( Character.isHighSurrogate( c ) && i + 1 < text.length()
+                    && Character.isLowSurrogate( text.charAt( i + 1 ) ) ) {
+                i++;
+            }
+            out[ position++ ] = ( byte ) ( c <= 0xFF ? c : '?' );
+        }
+        out[ position++ ] = 0x00;
+        return position;
+    }
+
+    /**
+     * Get the first "ISO-8859-1" octet of a non-empty text.
+     *
+     * @param text The text.
+     * @return The octet.
+     */
+    private static int firstOctet( String text ) {
+        char c = text.charAt( 0 );
+        return c <= 0xFF ? c : '?';
+    }
+
+    /**
+     * Get the number of octets of a value length.
+     *
+     * @param length The length.
+     * @return "1" in case of a short length, else the quote followed by the "uintvar" octets.
+     */
+    private static int valueLengthSize( int length ) {
+        if ( length <= SHORT_LENGTH_MAX ) {
+            return 1;
+        }
+        int size = 2;
+        for ( int value = length >>> 7; value > 0; value >>>= 7 ) {
+            size++;
+        }
+        return size;
+    }
+
+    /**
+     * Write a value length.
+     *
+     * @param out The array to write to.
+     * @param position The offset to start writing at.
+     * @param length The length.
+     * @return The offset after the value length.
+     */
+    private static int writeValueLength( byte[] out, int position, int length ) {
+        if ( length <= SHORT_LENGTH_MAX ) {
+            out[ position++ ] = ( byte ) length;
+            return position;
+        }
+        out[ position++ ] = ( byte ) LENGTH_QUOTE;
+        // The "uintvar" octets, 7 bits each from the most significant ones; the continuation bit is set on all but the
+        // last one.
+        int end = position + valueLengthSize( length ) - 1;
+        for ( int i = end - 1; i >= position; i-- ) {
+            out[ i ] = ( byte ) ( ( length & 0x7F ) | ( i == end - 1 ? 0x00 : 0x80 ) );
+            length >>>= 7;
+        }
+        return end;
+    }
+
+    /**
+     * Get the number of value octets of a long integer, i.e. the minimum number of octets holding it; none for zero
+     * (or a negative value).
+     *
+     * @param value The value.
+     * @return The number of octets, up to 8.
+     */
+    private static int longIntegerSize( long value ) {
+        int size = 0;
+        while ( size < 8 && ( value >> ( 8 * size ) ) > 0 ) {
+            size++;
+        }
+        return size;
+    }
+
+    /**
+     * Write a long integer, i.e. its number of octets followed by its octets from the most significant one.
+     *
+     * @param out The array to write to.
+     * @param position The offset to start writing at.
+     * @param value The value.
+     * @return The offset after the long integer.
+     */
+    private static int writeLongInteger( byte[] out, int position, long value ) {
+        int size = longIntegerSize( value );
+        out[ position++ ] = ( byte ) size;
+        for ( int i = size - 1; i >= 0; i-- ) {
+            out[ position++ ] = ( byte ) ( value >> ( 8 * i ) );
+        }
+        return position;
+    }
+}
@@ -0,0 +1,498 @@
+package com.smpp.client;
+
+// Defines a common interface for "SMPP" PDUs; used to encode and decode the journaled requests.
+import com.cloudhopper.smpp.pdu.Pdu;
+// Base class of the "submit_sm" and "submit_multi" SMPP PDUs.
+import com.cloudhopper.smpp.pdu.BaseSm;
+// Several "SMPP PDU" related "exception" classes.
+import com.cloudhopper.smpp.type.RecoverablePduException;
+import com.cloudhopper.smpp.type.UnrecoverablePduException;
+
+// A random-access sequence of zero or more bytes, used by "Netty".
+import org.jboss.netty.buffer.ChannelBuffer;
+// Creates new "ChannelBuffer"s, e.g. by wrapping an existing byte array.
+import org.jboss.netty.buffer.ChannelBuffers;
+
+// Main user entry point of "SLF4J" API; logging takes place through concrete implementations of this interface.
+import org.slf4j.Logger;
+// Utility class producing "Loggers" for various logging APIs, most notably for "log4j", "logback" and "JDK 1.4" logging.
+import org.slf4j.LoggerFactory;
+
+// Signals that an I/O exception of some sort has occurred.
+import java.io.IOException;
+// A direct byte buffer whose content is a memory-mapped region of a file.
+import java.nio.MappedByteBuffer;
+// A channel for reading, writing, mapping, and manipulating a file.
+import java.nio.channels.FileChannel;
+// Static methods that operate on files and directories.
+import java.nio.file.Files;
+// An object that may be used to locate a file in a file system.
+import java.nio.file.Path;
+// Methods that return a "Path" by converting a path string.
+import java.nio.file.Paths;
+// Defines the standard open options.
+import java.nio.file.StandardOpenOption;
+// Resizable-array implementation of the "List" interface.
+import java.util.ArrayList;
+// Resizable-array implementation of the "Deque" interface.
+import java.util.ArrayDeque;
+// Hash table and linked list implementation of the "Map" interface, with predictable iteration order.
+import java.util.LinkedHashMap;
+// An ordered collection (also known as a sequence).
+import java.util.List;
+// An object that maps keys to values.
+import java.util.Map;
+// An "ExecutorService" that can schedule commands to run after a given delay, or to execute periodically.
+import java.util.concurrent.ScheduledExecutorService;
+// Factory and utility methods for "Executor", "ExecutorService" and "ScheduledExecutorService" classes.
+import java.util.concurrent.Executors;
+// A "TimeUnit" represents time durations at a given unit of granularity.
+import java.util.concurrent.TimeUnit;
+// A class that can be used to compute the "CRC-32" of a data stream.
+import java.util.zip.CRC32;
+// A stream of elements; used to list the segment files.
+import java.util.stream.Stream;
+// Implementations of "Collector" that implement various useful reduction operations.
+import java.util.stream.Collectors;
+
+/**
+ * Append-only, memory-mapped write-ahead journal of the outbound "submit_sm" (and "submit_multi") requests.
+ *
+ * Each request is journaled ("ENQUEUE", with the encoded "PDU") before it is written to the session, and resolved
+ * ("SUCCESS" or "FAILURE") once its "submit_sm_resp" has been received. On startup the journal is recovered: every
+ * request without a response (e.g. still in flight, or waiting for a retry, when "tearDown()" ran or the JVM died)
+ * is replayed, i.e. sent again.
+ *
+ * The journal is a sequence of fixed-size segment files ("outbound-<number>.journal") mapped into memory; an append
+ * is a copy into the mapped region under a short lock, hence it survives a crash of the JVM at once, while the
+ * "force()" to the storage device (which protects against a crash of the OS) is batched by a background thread every
+ * "journal-flush-interval" milliseconds. A full segment is forced and sealed, and a new one is created; the oldest
+ * sealed segments are deleted once all the requests journaled in them have been resolved.
+ *
+ * A record is "[ length ][ type ][ reference ][ payload ][ CRC-32 ]"; a zero length marks the end of a segment, and
+ * a "CRC-32" mismatch a torn write of the last record before a crash.
+ *
+ * @author  Aristotelis Metsinis ( aristotelis.metsinis@gmail.com )
+ * @version 1.0
+ * @since   January 2022
+ */
+public class OutboundJournal {
+    // Return a logger named corresponding to the class passed as parameter, using the statically bound "ILoggerFactory" instance.
+    private static final Logger log = LoggerFactory.getLogger( OutboundJournal.class );
+
+    // The record types.
+    private static final byte ENQUEUE = 1;
+    private static final byte SUCCESS = 2;
+    private static final byte FAILURE = 3;
+    // The size of a record without its payload, i.e. "length" (4), "type" (1), "reference" (8) and "CRC-32" (4).
+    private static final int RECORD_OVERHEAD = 4 + 1 + 8 + 4;
+    // The name pattern of the segment files.
+    private static final String SEGMENT_PREFIX = "outbound-";
+    private static final String SEGMENT_SUFFIX = ".journal";
+
+    /**
+     * A journaled request without a response, recovered on startup.
+     */
+    public static final class Entry {
+        // The internal message reference of the request.
+        private final long reference;
+        // The segment the request is journaled in.
+        private final long segment;
+        // The "submit_sm" (or "submit_multi") PDU.
+        private final BaseSm<?> submit;
+
+        /**
+         * Constructor.
+         *
+         * @param reference The internal message reference of the request.
+         * @param segment The segment the request is journaled in.
+         * @param submit The "submit_sm" (or "submit_multi") PDU.
+         */
+        private Entry( long reference, long segment, BaseSm<?> submit ) {
+            this.reference = reference;
+            this.segment = segment;
+            this.submit = submit;
+        }
+
+        /**
+         * Get the internal message reference of the request.
+         *
+         * @return The message reference.
+         */
+        public long getReference() {
+            return reference;
+        }
+
+        /**
+         * Get the segment the request is journaled in.
+         *
+         * @return The segment number.
+         */
+        public long getSegment() {
+            return segment;
+        }
+
+        /**
+         * Get the "submit_sm" (or "submit_multi") PDU.
+         *
+         * @return The "submit_sm" (or "submit_multi") PDU.
+         */
+        public BaseSm<?> getSubmit() {
+            return submit;
+        }
+    }
+
+    /**
+     * A segment file of the journal.
+     */
+    private static final class Segment {
+        // The number of the segment.
+        private final long number;
+        // The path of the segment file.
+        private final Path path;
+        // The mapped region of the segment file.
+        private final MappedByteBuffer buffer;
+        // The number of requests journaled in this segment that have not been resolved yet.
+        private int unresolved;
+
+        /**
+         * Constructor.
+         *
+         * @param number The number of the segment.
+         * @param path The path of the segment file.
+         * @param buffer The mapped region of the segment file.
+         */
+        private Segment( long number, Path path, MappedByteBuffer buffer ) {
+            this.number = number;
+            this.path = path;
+            this.buffer = buffer;
+        }
+    }
+
+    // The directory of the segment files; "null" in case where the journal is disabled.
+    private final Path directory;
+    // The size of each segment file.
+    private final int segmentSize;
+    // The interval (in milliseconds) of the batched "force()".
+    private final int flushInterval;
+    // Encode and decode the journaled "PDU" PDUs.
+    private final SubmitMultiTranscoder transcoder = new SubmitMultiTranscoder();
+    // Compute the "CRC-32" of each record; guarded by the lock of the journal.
+    private final CRC32 crc = new CRC32();
+    // The segments, oldest first; the last one is appended to. Guarded by the lock of the journal.
+    private final ArrayDeque<Segment> segments = new ArrayDeque<>();
+    // The segments indexed by number, so that a resolved request finds the segment it is journaled in.
+    private final Map<Long, Segment> segmentsByNumber = new LinkedHashMap<>();
+    // Run the batched "force()".
+    private ScheduledExecutorService flusher;
+    // Set once records have been appended after the last "force()".
+    private volatile boolean dirty;
+    // The highest internal message reference found in the journal.
+    private long lastReference;
+
+    /**
+     * Constructor.
+     *
+     * @param properties All the external properties we need.
+     */
+    public OutboundJournal( SmppClientProperties properties ) {
+        String journalDirectory = properties.getAsync().getJournalDirectory();
+        this.directory = journalDirectory == null || journalDirectory.trim().isEmpty() ? null : Paths.get( journalDirectory );
+        this.segmentSize = properties.getAsync().getJournalSegmentSize();
+        this.flushInterval = properties.getAsync().getJournalFlushInterval();
+    }
+
+    /**
+     * Check if the journal is enabled, i.e. a "journal-directory" is set.
+     *
+     * @return "true" in case where the journal is enabled, else "false".
+     */
+    public boolean isEnabled() {
+        return directory != null;
+    }
+
+    /**
+     * Recover the journal: read the existing segments, rewrite the requests without a response into a new segment
+     * (i.e. compact the journal), delete the old segments and start the batched "force()".
+     *
+     * @return The requests without a response, in the order they were journaled.
+     * @throws IllegalStateException In case where the journal cannot be read or written.
+     */
+    public synchronized List<Entry> open() {
+        List<Entry> entries = new ArrayList<>();
+        if ( !isEnabled() ) {
+            return entries;
+        }
+        try {
+            Files.createDirectories( directory );
+            List<Path> oldSegments;
+            try ( Stream<Path> files = Files.list( directory ) ) {
+                oldSegments = files.filter( path -> path.getFileName().toString().startsWith( SEGMENT_PREFIX )
+                        && path.getFileName().toString().endsWith( SEGMENT_SUFFIX ) ).sorted().collect( Collectors.toList() );
+            }
+            // The requests without a response, by reference; a later "SUCCESS" or "FAILURE" record removes them.
+            Map<Long, byte[]> unresolved = new LinkedHashMap<>();
+            long lastSegment = 0;
+            for ( Path path : oldSegments ) {
+                lastSegment = Math.max( lastSegment, segmentNumber( path ) );
+                read( path, unresolved );
+            }
+
+            // Rewrite the requests without a response into a new segment, so that the old ones can be deleted.
+            roll( lastSegment + 1 );
+            for ( Map.Entry<Long, byte[]> record : unresolved.entrySet() ) {
+                Segment segment = append( ENQUEUE, record.getKey(), record.getValue() );
+                segment.unresolved++;
+                entries.add( new Entry( record.getKey(), segment.number, decode( record.getValue() ) ) );
+            }
+            for ( Segment segment : segments ) {
+                segment.buffer.force();
+            }
+            for ( Path path : oldSegments ) {
+                Files.delete( path );
+            }
+        } catch ( IOException | RecoverablePduException | UnrecoverablePduException e ) {
+            throw new IllegalStateException( "Cannot recover the outbound journal " + directory, e );
+        }
+        if ( !entries.isEmpty() ) {
+            log.info( "Recovered {} requests without a response from the outbound journal", entries.size() );
+        }
+
+        // Batch the "force()" of the appended records.
+        flusher = Executors.newSingleThreadScheduledExecutor( runnable -> {
+            Thread thread = new Thread( runnable, "smpp.journal" );
+            thread.setDaemon( true );
+            return thread;
+        } );
+        flusher.scheduleWithFixedDelay( this::flush, flushInterval, flushInterval, TimeUnit.MILLISECONDS );
+        return entries;
+    }
+
+    /**
+     * Get the highest internal message reference found in the journal on recovery, so that new requests do not reuse
+     * the references of the recovered ones.
+     *
+     * @return The highest message reference, or "0".
+     */
+    public synchronized long getLastReference() {
+        return lastReference;
+    }
+
+    /**
+     * Journal a request before it is written to the session.
+     *
+     * @param reference The internal message reference of the request.
+     * @param submit The "submit_sm" (or "submit_multi") PDU.
+     * @return The segment the request is journaled in, or "-1" in case where the journal is disabled.
+     * @throws IllegalStateException In case where the request cannot be encoded or journaled.
+     */
+    public long enqueue( long reference, BaseSm<?> submit ) {
+        if ( !isEnabled() ) {
+            return -1;
+        }
+        // Encode the "PDU" outside of the lock.
+        byte[] payload;
+        try {
+            ChannelBuffer buffer = transcoder.encode( submit );
+            payload = new byte[ buffer.readableBytes() ];
+            buffer.readBytes( payload );
+        } catch ( RecoverablePduException | UnrecoverablePduException e ) {
+            throw new IllegalStateException( e );
+        }
+        synchronized ( this ) {
+            Segment segment = append( ENQUEUE, reference, payload );
+            segment.unresolved++;
+            return segment.number;
+        }
+    }
+
+    /**
+     * Resolve a journaled request once its response has been received, so that it is not replayed.
+     *
+     * @param reference The internal message reference of the request.
+     * @param segment The segment the request is journaled in.
+     * @param success "true" in case where the request succeeded, else "false".
+     */
+    public synchronized void resolve( long reference, long segment, boolean success ) {
+        if ( !isEnabled() || segment < 0 ) {
+            return;
+        }
+        append( success ? SUCCESS : FAILURE, reference, null );
+        Segment journaled = segmentsByNumber.get( segment );
+        if ( journaled != null ) {
+            journaled.unresolved--;
+        }
+        // Delete the oldest sealed segments once all their requests have been resolved; in order, since their
+        // records may resolve the requests of the segments before them.
+        while ( segments.size() > 1 && segments.peekFirst().unresolved == 0 ) {
+            Segment sealed = segments.pollFirst();
+            segmentsByNumber.remove( sealed.number );
+            try {
+                Files.deleteIfExists( sealed.path );
+            } catch ( IOException e ) {
+                log.warn( "Cannot delete journal segment {}", sealed.path, e );
+            }
+        }
+    }
+
+    /**
+     * Force the appended records to the storage device, stop the batched "force()" and keep the segment files, so
+     * that the requests without a response are replayed on the next startup.
+     */
+    public void close() {
+        if ( flusher != null ) {
+            flusher.shutdown();
+        }
+        synchronized ( this ) {
+            if ( !segments.isEmpty() ) {
+                segments.peekLast().buffer.force();
+            }
+        }
+    }
+
+    /**
+     * Force the appended records of the current segment to the storage device; called by the background thread.
+     */
+    private void flush() {
+        if ( !dirty ) {
+            return;
+        }
+        dirty = false;
+        MappedByteBuffer buffer;
+        synchronized ( this ) {
+            buffer = segments.peekLast().buffer;
+        }
+        // Outside of the lock, so that the appends are not blocked by the "msync".
+        buffer.force();
+    }
+
+    /**
+     * Append a record to the current segment, rolling over to a new segment in case where it is full. Called with the
+     * lock of the journal held.
+     *
+     * @param type The record type.
+     * @param reference The internal message reference.
+     * @param payload The encoded "PDU", or "null".
+     * @return The segment the record was appended to.
+     */
+    private Segment append( byte type, long reference, byte[] payload ) {
+        int length = payload == null ? 0 : payload.length;
+        if ( RECORD_OVERHEAD + length > segmentSize - 4 ) {
+            throw new IllegalStateException( "Journal record of " + length + " bytes exceeds the segment size" );
+        }
+        Segment segment = segments.peekLast();
+        // Keep room for the zero length marking the end of the segment.
+        if ( segment.buffer.remaining() < RECORD_OVERHEAD + length + 4 ) {
+            segment.buffer.force();
+            segment = roll( segment.number + 1 );
+        }
+        crc.reset();
+        crc.update( type );
+        for ( int shift = 56; shift >= 0; shift -= 8 ) {
+            crc.update( ( int ) ( reference >>> shift ) );
+        }
+        if ( payload != null ) {
+            crc.update( payload, 0, length );
+        }
+        MappedByteBuffer buffer = segment.buffer;
+        int start = buffer.position();
+        // Write the length last, so that a torn record is never mistaken for a complete one.
+        buffer.position( start + 4 );
+        buffer.put( type );
+        buffer.putLong( reference );
+        if ( payload != null ) {
+            buffer.put( payload );
+        }
+        buffer.putInt( ( int ) crc.getValue() );
+        buffer.putInt( start, length + 1 );
+        dirty = true;
+        return segment;
+    }
+
+    /**
+     * Create and map a new segment file. Called with the lock of the journal held.
+     *
+     * @param number The number of the new segment.
+     * @return The new segment.
+     */
+    private Segment roll( long number ) {
+        Path path = directory.resolve( String.format( "%s%016d%s", SEGMENT_PREFIX, number, SEGMENT_SUFFIX ) );
+        try ( FileChannel channel = FileChannel.open( path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                StandardOpenOption.WRITE ) ) {
+            // The mapping remains valid after the channel is closed.
+            Segment segment = new Segment( number, path, channel.map( FileChannel.MapMode.READ_WRITE, 0, segmentSize ) );
+            segments.addLast( segment );
+            segmentsByNumber.put( number, segment );
+            return segment;
+        } catch ( IOException e ) {
+            throw new IllegalStateException( "Cannot create journal segment " + path, e );
+        }
+    }
+
+    /**
+     * Read the records of a segment file.
+     *
+     * @param path The path of the segment file.
+     * @param unresolved The requests without a response, by reference; updated in place.
+     * @throws IOException In case where the segment cannot be read.
+     */
+    private void read( Path path, Map<Long, byte[]> unresolved ) throws IOException {
+        try ( FileChannel channel = FileChannel.open( path, StandardOpenOption.READ ) ) {
+            MappedByteBuffer buffer = channel.map( FileChannel.MapMode.READ_ONLY, 0, channel.size() );
+            while ( buffer.remaining() >= RECORD_OVERHEAD ) {
+                int length = buffer.getInt() - 1;
+                // The end of the segment, or a record whose length was never written.
+                if ( length < 0 || length > buffer.remaining() - ( RECORD_OVERHEAD - 4 ) ) {
+                    break;
+                }
+                byte type = buffer.get();
+                long reference = buffer.getLong();
+                byte[] payload = new byte[ length ];
+                buffer.get( payload );
+                crc.reset();
+                crc.update( type );
+                for ( int shift = 56; shift >= 0; shift -= 8 ) {
+                    crc.update( ( int ) ( reference >>> shift ) );
+                }
+                crc.update( payload, 0, length );
+                // A torn write of the last record before a crash.
+                if ( buffer.getInt() != ( int ) crc.getValue() ) {
+                    log.warn( "Ignoring corrupt record at the end of journal segment {}", path );
+                    break;
+                }
+                lastReference = Math.max( lastReference, reference );
+                if ( type == ENQUEUE ) {
+                    unresolved.put( reference, payload );
+                } else {
+                    unresolved.remove( reference );
+                }
+            }
+        }
+    }
+
+    /**
+     * Decode a journaled "submit_sm" (or "submit_multi") PDU.
+     *
+     * @param payload The encoded "PDU".
+     * @return The "submit_sm" (or "submit_multi") PDU, without a sequence number, so that a new one is assigned once
+     * it is sent again.
+     * @throws RecoverablePduException In case of a recoverable decoding error.
+     * @throws UnrecoverablePduException In case of an unrecoverable decoding error.
+     */
+    private BaseSm<?> decode( byte[] payload ) throws RecoverablePduException, UnrecoverablePduException {
+        Pdu pdu = transcoder.decode( ChannelBuffers.wrappedBuffer( payload ) );
+        pdu.removeSequenceNumber();
+        return ( BaseSm<?> ) pdu;
+    }
+
+    /**
+     * Get the number of a segment from its file name.
+     *
+     * @param path The path of the segment file.
+     * @return The segment number.
+     */
+    private static long segmentNumber( Path path ) {
+        String name = path.getFileName().toString();
+        return Long.parseLong( name.substring( SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length() ) );
+    }
+}
@@ -0,0 +1,102 @@
+package com.smpp.client;
+
+// "submit_sm_resp" SMPP PDU.
+import com.cloudhopper.smpp.pdu.SubmitSmResp;
+
+// Resizable-array implementation of the "List" interface.
+import java.util.ArrayList;
+// This class consists exclusively of static methods that operate on or return collections.
+import java.util.Collections;
+// A "Future" that may be explicitly completed (setting its value and status), and may be used as a "CompletionStage".
+import java.util.concurrent.CompletableFuture;
+// An ordered collection (also known as a sequence).
+import java.util.List;
+
+/**
+ * A "submit_multi" request that has been handed over to the "AsyncSubmitter" and is waiting for its
+ * "submit_multi_resp".
+ *
+ * Along with the handle of the request itself, each destination has its own completion handle, in the order of the
+ * destination addresses of the "PDU"; each one is completed once the "SMSC" accepted the destination, or failed
+ * permanently for it. The destinations that failed with a transient error are split into a new request, which takes
+ * their handles over.
+ *
+ * @author  Aristotelis Metsinis ( aristotelis.metsinis@gmail.com )
+ * @version 1.0
+ * @since   January 2022
+ */
+public class PendingMulti extends PendingSubmit {
+    // The completion handle of each destination.
+    private final List<CompletableFuture<SubmitSmResp>> destinations;
+
+    /**
+     * Constructor, e.g. of a request recovered from the outbound journal; no one waits for its destinations.
+     *
+     * @param submit The "submit_multi" PDU sent to the "SMSC".
+     * @param reference Our internal message reference.
+     * @param journalSegment The segment of the outbound journal the request is journaled in, or "-1".
+     */
+    public PendingMulti( SubmitMulti submit, long reference, long journalSegment ) {
+        this( submit, reference, journalSegment, newFutures( submit.getDestAddresses().size() ), 0 );
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param submit The "submit_multi" PDU sent to the "SMSC".
+     * @param reference Our internal message reference.
+     * @param journalSegment The segment of the outbound journal the request is journaled in, or "-1".
+     * @param destinations The completion handle of each destination, in the order of the destination addresses.
+     * @param attempts The number of attempts already made, e.g. by the request the destinations were split from.
+     */
+    public PendingMulti( SubmitMulti submit, long reference, long journalSegment,
+                         List<CompletableFuture<SubmitSmResp>> destinations, int attempts ) {
+        super( submit, reference, journalSegment, attempts );
+        this.destinations = destinations;
+    }
+
+    /**
+     * Create a completion handle per destination.
+     *
+     * @param count The number of destinations.
+     * @return The completion handles.
+     */
+    static List<CompletableFuture<SubmitSmResp>> newFutures( int count ) {
+        List<CompletableFuture<SubmitSmResp>> futures = new ArrayList<>( count );
+        for ( int i = 0; i < count; i++ ) {
+            futures.add( new CompletableFuture<>() );
+        }
+        return futures;
+    }
+
+    /**
+     * Get the "submit_multi" PDU sent to the "SMSC".
+     *
+     * @return The "submit_multi" PDU.
+     */
+    public SubmitMulti getMulti() {
+        return ( SubmitMulti ) getSubmit();
+    }
+
+    /**
+     * Get the completion handle of each destination.
+     *
+     * @return The completion handles, in the order of the destination addresses.
+     */
+    public List<CompletableFuture<SubmitSmResp>> getDestinations() {
+        return Collections.unmodifiableList( destinations );
+    }
+
+    /**
+     * Complete the handle of this request, along with the handle of each destination, exceptionally.
+     *
+     * @param error The error.
+     */
+    @Override
+    public void completeExceptionally( Throwable error ) {
+        super.completeExceptionally( error );
+        for ( CompletableFuture<SubmitSmResp> destination : destinations ) {
+            destination.completeExceptionally( error );
+        }
+    }
+}
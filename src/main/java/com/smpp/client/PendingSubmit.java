@@ -0,0 +1,156 @@
+package com.smpp.client;
+
+// Base class of the "submit_sm" and "submit_multi" SMPP PDUs.
+import com.cloudhopper.smpp.pdu.BaseSm;
+// "submit_sm_resp" SMPP PDU.
+import com.cloudhopper.smpp.pdu.SubmitSmResp;
+
+// A "Future" that may be explicitly completed (setting its value and status), and may be used as a "CompletionStage".
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A "submit_sm" (or "submit_multi", see "PendingMulti") request that has been handed over to the "AsyncSubmitter" and
+ * is waiting for its "submit_sm_resp".
+ *
+ * An instance of this class is attached to the "submit_sm" PDU as its "reference object", so that the response
+ * received asynchronously by the session handler can be correlated back to the completion handle returned to the
+ * caller.
+ *
+ * @author  Aristotelis Metsinis ( aristotelis.metsinis@gmail.com )
+ * @version 1.0
+ * @since   January 2022
+ */
+public class PendingSubmit {
+    // The "submit_sm" (or "submit_multi") PDU sent to the "SMSC".
+    private final BaseSm<?> submit;
+    // Our internal message reference, correlating the "delivery receipt" with the request.
+    private final long reference;
+    // The segment of the outbound journal the request is journaled in, or "-1".
+    private final long journalSegment;
+    // The completion handle returned to the caller; completed once the "submit_sm_resp" has been received.
+    private final CompletableFuture<SubmitSmResp> future = new CompletableFuture<>();
+    // The time ("System.nanoTime()") the "submit_sm" PDU was written to the session.
+    private volatile long sendTime;
+    // The number of times the "submit_sm" PDU was sent, i.e. the first attempt plus the retries.
+    private volatile int attempts;
+    // The adaptive "window" of the bind the request is in flight on; "null" once its slot has been freed, or in case
+    // where the "window" size is static.
+    private WindowController window;
+
+    /**
+     * Constructor.
+     *
+     * @param submit The "submit_sm" PDU sent to the "SMSC".
+     * @param reference Our internal message reference.
+     * @param journalSegment The segment of the outbound journal the request is journaled in, or "-1".
+     */
+    public PendingSubmit( BaseSm<?> submit, long reference, long journalSegment ) {
+        this( submit, reference, journalSegment, 0 );
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param submit The "submit_sm" (or "submit_multi") PDU sent to the "SMSC".
+     * @param reference Our internal message reference.
+     * @param journalSegment The segment of the outbound journal the request is journaled in, or "-1".
+     * @param attempts The number of attempts already made, e.g. by the request the destinations were split from.
+     */
+    protected PendingSubmit( BaseSm<?> submit, long reference, long journalSegment, int attempts ) {
+        this.submit = submit;
+        this.reference = reference;
+        this.journalSegment = journalSegment;
+        this.attempts = attempts;
+    }
+
+    /**
+     * Get the "submit_sm" (or "submit_multi") PDU sent to the "SMSC".
+     *
+     * @return The "submit_sm" PDU.
+     */
+    public BaseSm<?> getSubmit() {
+        return submit;
+    }
+
+    /**
+     * Get our internal message reference.
+     *
+     * @return The message reference.
+     */
+    public long getReference() {
+        return reference;
+    }
+
+    /**
+     * Get the segment of the outbound journal the request is journaled in.
+     *
+     * @return The segment number, or "-1" in case where the journal is disabled.
+     */
+    public long getJournalSegment() {
+        return journalSegment;
+    }
+
+    /**
+     * Get the completion handle of this request.
+     *
+     * @return The completion handle, completed with the "submit_sm_resp" PDU.
+     */
+    public CompletableFuture<SubmitSmResp> getFuture() {
+        return future;
+    }
+
+    /**
+     * Complete the handle of this request exceptionally, i.e. in case of a permanent error or once the retries are
+     * exhausted.
+     *
+     * @param error The error.
+     */
+    public void completeExceptionally( Throwable error ) {
+        future.completeExceptionally( error );
+    }
+
+    /**
+     * Get the time ("System.nanoTime()") the "submit_sm" PDU was written to the session.
+     *
+     * @return The send time in nanoseconds.
+     */
+    public long getSendTime() {
+        return sendTime;
+    }
+
+    /**
+     * Get the number of times the "submit_sm" PDU was sent.
+     *
+     * @return The number of attempts.
+     */
+    public int getAttempts() {
+        return attempts;
+    }
+
+    /**
+     * Record the time the "submit_sm" PDU is written to the session, and count the attempt. A request is sent by one
+     * thread at a time.
+     *
+     * @param window The adaptive "window" the request took a slot of, or "null" in case where the "window" size is
+     *               static.
+     */
+    public void markSent( WindowController window ) {
+        this.sendTime = System.nanoTime();
+        this.attempts++;
+        synchronized ( this ) {
+            this.window = window;
+        }
+    }
+
+    /**
+     * Take the adaptive "window" the request took a slot of, so that the slot is freed exactly once, i.e. either on
+     * the response, the expiry, or the failure of the attempt.
+     *
+     * @return The "window", or "null" in case where the slot was already freed, or the "window" size is static.
+     */
+    public synchronized WindowController takeWindow() {
+        WindowController taken = window;
+        window = null;
+        return taken;
+    }
+}
@@ -0,0 +1,221 @@
+package com.smpp.client;
+
+// Defines a common interface for either a Client (ESME) or Server (SMSC) "SMPP" session.
+import com.cloudhopper.smpp.SmppSession;
+// Default implementation of either an "ESME" or "SMSC" "SMPP" session.
+import com.cloudhopper.smpp.impl.DefaultSmppSession;
+
+// A "boolean" value that may be updated atomically.
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A slot of the "SmppSessionPool", i.e. a single bind to the "SMSC".
+ *
+ * The slot outlives the "SMPP" session it holds: when the session drops, the slot leaves the rotation and a new
+ * session is bound into the same slot.
+ *
+ * @author  Aristotelis Metsinis ( aristotelis.metsinis@gmail.com )
+ * @version 1.0
+ * @since   January 2022
+ */
+public class PooledSession {
+    // The pool this slot belongs to.
+    private final SmppSessionPool pool;
+    // The index of this slot within the pool.
+    private final int index;
+    // The session currently bound into this slot; "null" while (re)binding.
+    private volatile SmppSession session;
+    // Shape the submit rate of this bind; "null" in case where the rate is unlimited.
+    private final RateLimiter rateLimiter;
+    // Tune the "window" of this bind; "null" in case where the "window" size is static.
+    private final WindowController windowController;
+    // "true" while a bind of this slot is scheduled or in progress.
+    private final AtomicBoolean rebinding = new AtomicBoolean();
+    // The number of consecutive failed binds of this slot; drives the backoff of the next bind. Only updated by the
+    // single bind in progress (see "rebinding"), but read by other threads.
+    private volatile int bindFailures;
+    // The time (in "System.nanoTime" units) the last "PDU" was received on the session of this slot.
+    private volatile long lastActivity = System.nanoTime();
+
+    /**
+     * Constructor.
+     *
+     * @param pool The pool this slot belongs to.
+     * @param index The index of this slot within the pool.
+     * @param rateLimiter Shape the submit rate of this bind; "null" in case where the rate is unlimited.
+     * @param windowController Tune the "window" of this bind; "null" in case where the "window" size is static.
+     */
+    PooledSession( SmppSessionPool pool, int index, RateLimiter rateLimiter, WindowController windowController ) {
+        this.pool = pool;
+        this.index = index;
+        this.rateLimiter = rateLimiter;
+        this.windowController = windowController;
+    }
+
+    /**
+     * Get the pool this slot belongs to.
+     *
+     * @return The pool this slot belongs to.
+     */
+    public SmppSessionPool getPool() {
+        return pool;
+    }
+
+    /**
+     * Get the index of this slot within the pool.
+     *
+     * @return The index of this slot.
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * Get the rate limiter of this bind.
+     *
+     * @return The rate limiter, or "null" in case where the rate is unlimited.
+     */
+    public RateLimiter getRateLimiter() {
+        return rateLimiter;
+    }
+
+    /**
+     * Get the controller of the adaptive "window" of this bind.
+     *
+     * @return The controller, or "null" in case where the "window" size is static.
+     */
+    public WindowController getWindowController() {
+        return windowController;
+    }
+
+    /**
+     * Get the session currently bound into this slot.
+     *
+     * @return The session, or "null" while (re)binding.
+     */
+    public SmppSession getSession() {
+        return session;
+    }
+
+    /**
+     * Set the session bound into this slot.
+     *
+     * @param session The session, or "null" while (re)binding.
+     */
+    synchronized void setSession( SmppSession session ) {
+        this.session = session;
+        // A new bind counts as activity.
+        touch();
+    }
+
+    /**
+     * Record that a "PDU" was received on the session of this slot. Called on the "Netty" I/O thread.
+     */
+    void touch() {
+        lastActivity = System.nanoTime();
+    }
+
+    /**
+     * Get the time the last "PDU" was received on the session of this slot.
+     *
+     * @return The time in "System.nanoTime" units.
+     */
+    long getLastActivity() {
+        return lastActivity;
+    }
+
+    /**
+     * Take the given session out of this slot, in case where it is still the current one.
+     *
+     * @param expected The session to be taken out.
+     * @return "true" if the session was taken out, else "false" in case where it was already replaced.
+     */
+    synchronized boolean clearSession( SmppSession expected ) {
+        if ( session != expected ) {
+            return false;
+        }
+        session = null;
+        return true;
+    }
+
+    /**
+     * Mark a bind of this slot as scheduled.
+     *
+     * @return "true" if marked, else "false" in case where a bind is already scheduled or in progress.
+     */
+    boolean startRebind() {
+        return rebinding.compareAndSet( false, true );
+    }
+
+    /**
+     * Mark the scheduled bind of this slot as completed, either successfully or not.
+     */
+    void endRebind() {
+        rebinding.set( false );
+    }
+
+    /**
+     * Get the number of consecutive failed binds of this slot.
+     *
+     * @return The number of failed binds.
+     */
+    int getBindFailures() {
+        return bindFailures;
+    }
+
+    /**
+     * Set the number of consecutive failed binds of this slot.
+     *
+     * @param bindFailures The number of failed binds.
+     */
+    void setBindFailures( int bindFailures ) {
+        this.bindFailures = bindFailures;
+    }
+
+    /**
+     * Check if the slot is in the rotation, i.e. it holds a session in the "BOUND" state.
+     *
+     * @return "true" if the slot can process requests, else "false".
+     */
+    public boolean isAvailable() {
+        return isAlive( session );
+    }
+
+    /**
+     * Check if a session is alive, i.e. it is in the "BOUND" state and its socket/channel is still connected. Note
+     * that a session whose channel was unexpectedly closed keeps its "BOUND" state.
+     *
+     * @param session The session.
+     * @return "true" if the session can process requests, else "false".
+     */
+    static boolean isAlive( SmppSession session ) {
+        if ( session == null || !session.isBound() ) {
+            return false;
+        }
+        return !( session instanceof DefaultSmppSession ) || ( ( DefaultSmppSession ) session ).getChannel().isConnected();
+    }
+
+    /**
+     * Get the number of requests currently in flight, i.e. the occupied slots of the "window" of the session.
+     *
+     * @return The number of outstanding requests, or "Integer.MAX_VALUE" if the slot is not available.
+     */
+    public int getOutstanding() {
+        SmppSession current = session;
+        return isAlive( current ) ? current.getSendWindow().getSize() : Integer.MAX_VALUE;
+    }
+
+    /**
+     * Get the load of the slot, i.e. the number of requests in flight, less the limit of an adaptive "window", so that
+     * the binds with a larger limit take more requests.
+     *
+     * @return The load, or "Integer.MAX_VALUE" if the slot is not available.
+     */
+    public int getLoad() {
+        int outstanding = getOutstanding();
+        if ( outstanding == Integer.MAX_VALUE || windowController == null ) {
+            return outstanding;
+        }
+        return outstanding - windowController.getLimit();
+    }
+}
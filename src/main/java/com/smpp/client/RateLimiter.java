@@ -0,0 +1,89 @@
+package com.smpp.client;
+
+// A "long" value that may be updated atomically.
+import java.util.concurrent.atomic.AtomicLong;
+// Basic thread blocking primitives for creating locks and other synchronization classes.
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Lock-free token bucket, implemented as a "Generic Cell Rate Algorithm" (GCRA).
+ *
+ * Instead of a token count refilled by a timer, the bucket keeps a single "theoretical arrival time" (TAT): each
+ * permit moves the TAT one "emission interval" (1 / rate) forward, and a caller may proceed once the TAT is no more
+ * than "burst - 1" intervals ahead of the current time. The TAT is updated with a single compare-and-set, so callers
+ * never block each other; a caller that has to wait parks until its own reserved time, i.e. there is no busy-spinning,
+ * and concurrent callers are spread evenly over time instead of bursting together when a token is refilled.
+ *
+ * @author  Aristotelis Metsinis ( aristotelis.metsinis@gmail.com )
+ * @version 1.0
+ * @since   January 2022
+ */
+public class RateLimiter {
+    // The time (in nanoseconds) between two permits at the configured rate.
+    private final long interval;
+    // How far (in nanoseconds) the "theoretical arrival time" may run ahead of the current time, i.e. the burst.
+    private final long tolerance;
+    // The "theoretical arrival time" (in "System.nanoTime()" nanoseconds) of the next permit.
+    private final AtomicLong theoreticalArrivalTime;
+
+    /**
+     * Constructor.
+     *
+     * @param permitsPerSecond The sustained rate, e.g. the contracted "TPS" of the "SMSC".
+     * @param burst The max number of permits granted back-to-back after an idle period; at least "1".
+     * @throws IllegalArgumentException In case of a non-positive rate or burst.
+     */
+    public RateLimiter( int permitsPerSecond, int burst ) {
+        if ( permitsPerSecond <= 0 || burst <= 0 ) {
+            throw new IllegalArgumentException( "Invalid rate " + permitsPerSecond + "/s with burst " + burst );
+        }
+        this.interval = 1_000_000_000L / permitsPerSecond;
+        this.tolerance = interval * ( burst - 1 );
+        this.theoreticalArrivalTime = new AtomicLong( System.nanoTime() );
+    }
+
+    /**
+     * Create a limiter for the given rate, or "null" in case where the rate is unlimited.
+     *
+     * @param permitsPerSecond The sustained rate; "0" (or negative) for unlimited.
+     * @param burst The max number of permits granted back-to-back.
+     * @return The limiter, or "null".
+     */
+    public static RateLimiter create( int permitsPerSecond, int burst ) {
+        return permitsPerSecond > 0 ? new RateLimiter( permitsPerSecond, Math.max( burst, 1 ) ) : null;
+    }
+
+    /**
+     * Reserve a permit and park the calling thread until the permit is due.
+     *
+     * @throws InterruptedException In case where the calling thread is interrupted while waiting; the permit is
+     * consumed regardless.
+     */
+    public void acquire() throws InterruptedException {
+        long due = reserve();
+        long wait;
+        while ( ( wait = due - System.nanoTime() ) > 0 ) {
+            LockSupport.parkNanos( this, wait );
+            if ( Thread.interrupted() ) {
+                throw new InterruptedException();
+            }
+        }
+    }
+
+    /**
+     * Atomically reserve a permit.
+     *
+     * @return The time (in "System.nanoTime()" nanoseconds) the permit is due.
+     */
+    private long reserve() {
+        while ( true ) {
+            long now = System.nanoTime();
+            long current = theoreticalArrivalTime.get();
+            // An idle bucket does not accumulate more than "burst" permits.
+            long start = current - now < 0 ? now : current;
+            if ( theoreticalArrivalTime.compareAndSet( current, start + interval ) ) {
+                return start - tolerance;
+            }
+        }
+    }
+}
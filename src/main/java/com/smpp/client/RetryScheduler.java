@@ -0,0 +1,172 @@
+package com.smpp.client;
+
+// All constants defined for the "SMPP" protocol.
+import com.cloudhopper.smpp.SmppConstants;
+
+// A "Timer" optimized for approximated I/O timeout scheduling, i.e. a hashed timing wheel.
+import org.jboss.netty.util.HashedWheelTimer;
+// A handle associated with a "TimerTask" that is returned by a "Timer".
+import org.jboss.netty.util.Timeout;
+// A task which is executed after the delay specified with "Timer.newTimeout".
+import org.jboss.netty.util.TimerTask;
+
+// Resizable-array implementation of the "List" interface.
+import java.util.ArrayList;
+// An ordered collection (also known as a sequence).
+import java.util.List;
+// A random number generator isolated to the current thread.
+import java.util.concurrent.ThreadLocalRandom;
+// A "TimeUnit" represents time durations at a given unit of granularity.
+import java.util.concurrent.TimeUnit;
+// Represents an operation that accepts a single input argument and returns no result.
+import java.util.function.Consumer;
+
+/**
+ * Schedule the retries of the "submit_sm" requests that failed with a transient error.
+ *
+ * The command statuses are classified as transient (e.g. "ESME_RTHROTTLED", "ESME_RMSGQFUL", or a request that
+ * expired without a response) or permanent (e.g. "ESME_RINVDSTADR"); a transient failure is retried up to
+ * "retry-max-attempts" times after a jittered exponential backoff, i.e. a random delay between half and the whole of
+ * "retry-initial-delay * 2 ^ ( attempt - 1 )", capped at "retry-max-delay", so that the retries of a burst of
+ * failures do not hit the "SMSC" again all at once.
+ *
+ * The delays are kept in a hashed timing wheel ("HashedWheelTimer"): scheduling a retry and each tick of the wheel
+ * cost O(1) regardless of the number of pending retries, at the expense of a resolution of one tick. Once due, a
+ * retry is handed over to the given consumer, which sends it again ahead of the new traffic.
+ *
+ * @author  Aristotelis Metsinis ( aristotelis.metsinis@gmail.com )
+ * @version 1.0
+ * @since   January 2022
+ */
+public class RetryScheduler {
+    // The number of buckets of the timing wheel.
+    private static final int TICKS_PER_WHEEL = 512;
+
+    // The max number of attempts of a request, i.e. the first one plus the retries.
+    private final int maxAttempts;
+    // The delay (in milliseconds) before the first retry, doubled on each further retry.
+    private final long initialDelay;
+    // The max delay (in milliseconds) before a retry.
+    private final long maxDelay;
+    // The hashed timing wheel keeping the delays.
+    private final HashedWheelTimer timer;
+
+    /**
+     * Constructor.
+     *
+     * @param properties All the external properties we need.
+     */
+    public RetryScheduler( SmppClientProperties properties ) {
+        this.maxAttempts = properties.getAsync().getRetryMaxAttempts();
+        this.initialDelay = properties.getAsync().getRetryInitialDelay();
+        this.maxDelay = properties.getAsync().getRetryMaxDelay();
+        this.timer = new HashedWheelTimer( runnable -> {
+            Thread thread = new Thread( runnable, "smpp.retry.timer" );
+            thread.setDaemon( true );
+            return thread;
+        }, properties.getAsync().getRetryTickDuration(), TimeUnit.MILLISECONDS, TICKS_PER_WHEEL );
+    }
+
+    /**
+     * Check if a command status is transient, i.e. the same request may succeed later.
+     *
+     * @param commandStatus The command status of the response.
+     * @return "true" in case of a transient, else "false" in case of a permanent error.
+     */
+    public static boolean isTransient( int commandStatus ) {
+        switch ( commandStatus ) {
+            // "Throttling error" ("ESME_RTHROTTLED"), i.e. the "TPS" of the "SMSC" was exceeded.
+            case SmppConstants.STATUS_THROTTLED:
+            // "Message queue full" ("ESME_RMSGQFUL").
+            case SmppConstants.STATUS_MSGQFUL:
+            // "System error" ("ESME_RSYSERR").
+            case SmppConstants.STATUS_SYSERR:
+            // "Submit failed" ("ESME_RSUBMITFAIL").
+            case SmppConstants.STATUS_SUBMITFAIL:
+            // Temporary application error ("ESME_RX_T_APPN").
+            case SmppConstants.STATUS_X_T_APPN:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Schedule the retry of a request, in case where it has attempts left.
+     *
+     * @param pending The failed request.
+     * @param onDue Called on the thread of the timing wheel once the retry is due.
+     * @return "true" in case where the retry was scheduled, else "false" in case where the attempts are exhausted.
+     */
+    public boolean schedule( PendingSubmit pending, Consumer<PendingSubmit> onDue ) {
+        if ( pending.getAttempts() >= maxAttempts ) {
+            return false;
+        }
+        long delay = backoff( pending.getAttempts() );
+        try {
+            timer.newTimeout( new RetryTask( pending, onDue ), delay, TimeUnit.MILLISECONDS );
+        }
+        // The timer has been stopped, i.e. the application shuts down.
+        catch ( IllegalStateException e ) {
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Stop the timing wheel.
+     *
+     * @return The requests whose retry was still pending.
+     */
+    public List<PendingSubmit> stop() {
+        List<PendingSubmit> cancelled = new ArrayList<>();
+        for ( Timeout timeout : timer.stop() ) {
+            cancelled.add( ( ( RetryTask ) timeout.getTask() ).pending );
+        }
+        return cancelled;
+    }
+
+    /**
+     * Compute the jittered exponential backoff of a retry.
+     *
+     * @param attempts The number of attempts made so far.
+     * @return The delay in milliseconds.
+     */
+    private long backoff( int attempts ) {
+        long delay = initialDelay << Math.min( Math.max( attempts - 1, 0 ), 30 );
+        delay = Math.min( delay, maxDelay );
+        // "Equal jitter", i.e. a random delay between half and the whole of the exponential delay.
+        return delay / 2 + ThreadLocalRandom.current().nextLong( delay / 2 + 1 );
+    }
+
+    /**
+     * The task of the timing wheel handing a due retry over.
+     */
+    private static final class RetryTask implements TimerTask {
+        // The request to be sent again.
+        private final PendingSubmit pending;
+        // Called once the retry is due.
+        private final Consumer<PendingSubmit> onDue;
+
+        /**
+         * Constructor.
+         *
+         * @param pending The request to be sent again.
+         * @param onDue Called once the retry is due.
+         */
+        private RetryTask( PendingSubmit pending, Consumer<PendingSubmit> onDue ) {
+            this.pending = pending;
+            this.onDue = onDue;
+        }
+
+        /**
+         * Hand the due retry over.
+         *
+         * @param timeout The handle of this task.
+         */
+        @Override
+        public void run( Timeout timeout ) {
+            onDue.accept( pending );
+        }
+    }
+}
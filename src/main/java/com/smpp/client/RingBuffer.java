@@ -0,0 +1,111 @@
+package com.smpp.client;
+
+// A "long" value that may be updated atomically.
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded, lock-free, single-producer / single-consumer ring buffer.
+ *
+ * The elements are kept in a pre-allocated array whose size is a power of two, so that a position is mapped to an
+ * index with a mask. The producer only ever writes the "tail" and the consumer only ever writes the "head", hence
+ * neither side needs a lock or a compare-and-set; the producer caches the last "head" it has seen, so that it only
+ * reads the consumer's counter when the buffer looks full. An element is published by writing the "tail" after the
+ * array slot, which makes the element visible to the consumer that reads the "tail" first.
+ *
+ * Exactly one thread may call "offer" and exactly one thread may call "poll" at any time.
+ *
+ * @param <E> The type of the elements.
+ *
+ * @author  Aristotelis Metsinis ( aristotelis.metsinis@gmail.com )
+ * @version 1.0
+ * @since   January 2022
+ */
+public class RingBuffer<E> {
+    // The pre-allocated elements.
+    private final Object[] buffer;
+    // Map a position to an index of the array.
+    private final int mask;
+    // The position of the next element to be written; written by the producer only.
+    private final AtomicLong tail = new AtomicLong();
+    // The position of the next element to be read; written by the consumer only.
+    private final AtomicLong head = new AtomicLong();
+    // The last "head" seen by the producer.
+    private long cachedHead;
+
+    /**
+     * Constructor.
+     *
+     * @param capacity The min number of elements the buffer holds; rounded up to a power of two.
+     * @throws IllegalArgumentException In case of a non-positive capacity.
+     */
+    public RingBuffer( int capacity ) {
+        if ( capacity <= 0 || capacity > ( 1 << 30 ) ) {
+            throw new IllegalArgumentException( "Invalid ring buffer capacity " + capacity );
+        }
+        int size = Integer.highestOneBit( capacity );
+        if ( size < capacity ) {
+            size <<= 1;
+        }
+        this.buffer = new Object[ size ];
+        this.mask = size - 1;
+    }
+
+    /**
+     * Append an element; never blocks. Called by the producer only.
+     *
+     * @param element The element.
+     * @return "true" in case where the element was appended, else "false" in case where the buffer is full.
+     */
+    public boolean offer( E element ) {
+        long position = tail.get();
+        // Read the "head" of the consumer only when the buffer looks full.
+        if ( position - cachedHead >= buffer.length ) {
+            cachedHead = head.get();
+            if ( position - cachedHead >= buffer.length ) {
+                return false;
+            }
+        }
+        buffer[ ( int ) position & mask ] = element;
+        // Publish the element; a volatile write, so that a consumer going to sleep after checking the buffer cannot
+        // miss it.
+        tail.set( position + 1 );
+        return true;
+    }
+
+    /**
+     * Remove the oldest element; never blocks. Called by the consumer only.
+     *
+     * @return The element, or "null" in case where the buffer is empty.
+     */
+    @SuppressWarnings( "unchecked" )
+    public E poll() {
+        long position = head.get();
+        if ( position >= tail.get() ) {
+            return null;
+        }
+        int index = ( int ) position & mask;
+        E element = ( E ) buffer[ index ];
+        // Release the slot for the garbage collector, then hand the slot back to the producer.
+        buffer[ index ] = null;
+        head.lazySet( position + 1 );
+        return element;
+    }
+
+    /**
+     * Check if the buffer is empty.
+     *
+     * @return "true" in case where there is no element to read, else "false".
+     */
+    public boolean isEmpty() {
+        return head.get() >= tail.get();
+    }
+
+    /**
+     * Get the number of elements the buffer holds.
+     *
+     * @return The capacity.
+     */
+    public int capacity() {
+        return buffer.length;
+    }
+}
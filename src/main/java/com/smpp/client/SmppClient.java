@@ -1,25 +1,17 @@
 package com.smpp.client;
 
-// Utility class for encoding and decoding between "Strings" and byte arrays.
-import com.cloudhopper.commons.charset.CharsetUtil;
-// Utility class for encoding or decoding objects to a hexadecimal format.
-import com.cloudhopper.commons.util.HexUtil;
-// Utility methods for working with "GSM" mobile technologies.
-import com.cloudhopper.commons.gsm.GsmUtil;
 // Enumeration of all "SMPP" session types.
 import com.cloudhopper.smpp.SmppBindType;
 // All constants defined for the "SMPP" protocol.
 import com.cloudhopper.smpp.SmppConstants;
-// Defines a common interface for either a Client (ESME) or Server (SMSC) "SMPP" session.
-import com.cloudhopper.smpp.SmppSession;
 // Configuration to bind an "SmppSession" as an "ESME" to an "SMSC".
 import com.cloudhopper.smpp.SmppSessionConfiguration;
+// Handler of the "PDUs" and events of an "SmppSession".
+import com.cloudhopper.smpp.SmppSessionHandler;
 // Default implementation to "bootstrap" client "SMPP" sessions (create & bind).
 import com.cloudhopper.smpp.impl.DefaultSmppClient;
-// "enquire_link" SMPP PDU.
-import com.cloudhopper.smpp.pdu.EnquireLink;
-// "enquire_link_resp" SMPP PDU.
-import com.cloudhopper.smpp.pdu.EnquireLinkResp;
+// Default implementation of an "SmppSession".
+import com.cloudhopper.smpp.impl.DefaultSmppSession;
 // "submit_sm" SMPP PDU.
 import com.cloudhopper.smpp.pdu.SubmitSm;
 // "submit_sm_resp" SMPP PDU.
@@ -30,22 +22,14 @@ import com.cloudhopper.smpp.tlv.Tlv;
 // a "TCP/IP" connection (Channel) for an "SmppSession", several "SMPP PDU" related "exception" classes, etc.
 import com.cloudhopper.smpp.type.*;
 
-// Copyright (c) 2000-2002 Empower Interactive Group Ltd.
-// Gateway client functionality - represents a message, and all associated attributes.
-import eigroup.sms.gateway.Message;
-// Represents a "WapPush" message of content type "Service Indication".
-import eigroup.sms.wappush.ServiceIndication;
-// Represents a "WapPush" message of content type "Service Loading".
-import eigroup.sms.wappush.ServiceLoading;
-// A generic exception for this package. Objects of this class can also encapsulate another "Throwable" object.
-import eigroup.sms.wappush.WapPushException;
-
-// "SMS" User Data.
-import org.marre.sms.SmsUserData;
-// "MMS" Constants.
-import org.marre.wap.mms.MmsConstants;
-// Create an "MMS" notification "WAP push" message with "SMS" as bearer.
-import org.marre.wap.push.SmsMmsNotificationMessage;
+// The default clock of "Micrometer", i.e. "System.currentTimeMillis" and "System.nanoTime".
+import io.micrometer.core.instrument.Clock;
+// Creates and manages the meters of an application.
+import io.micrometer.core.instrument.MeterRegistry;
+// The configuration of the "JMX" registry.
+import io.micrometer.jmx.JmxConfig;
+// Publish the meters as "JMX" MBeans.
+import io.micrometer.jmx.JmxMeterRegistry;
 
 // Provides a simple "API" for presenting, processing and validating a "Command Line Interface".
 import org.apache.commons.cli.*;
@@ -57,6 +41,8 @@ import org.slf4j.LoggerFactory;
 
 // Marks a constructor, field, setter method or config method as to be autowired by Spring's dependency injection facilities.
 import org.springframework.beans.factory.annotation.Autowired;
+// Qualify which bean to inject in case where more than one bean of the same type exists.
+import org.springframework.beans.factory.annotation.Qualifier;
 // Class that can be used to bootstrap and launch a "Spring" application from a Java main method.
 import org.springframework.boot.SpringApplication;
 // Indicates a configuration class that declares one or more "@Bean" methods and also triggers autoconfiguration and
@@ -73,28 +59,43 @@ import org.springframework.scheduling.annotation.EnableScheduling;
 // Annotation that marks a method to be scheduled.
 import org.springframework.scheduling.annotation.Scheduled;
 
+// A nexus to a network socket, i.e. the channel of a session.
+import org.jboss.netty.channel.Channel;
+
 // The "PreDestroy" annotation is used on methods as a callback notification to signal that the instance is in the process
 // of being removed by the container.
 import javax.annotation.PreDestroy;
 
+// Signals that an I/O exception of some sort has occurred.
+import java.io.IOException;
 // Thrown to indicate that a malformed "URL" has occurred.
 import java.net.MalformedURLException;
 // Checked exception thrown to indicate that a string could not be parsed as a "URI" reference.
 import java.net.URISyntaxException;
 // Class "URL" represents a "Uniform Resource Locator", a pointer to a "resource" on the "World Wide Web".
 import java.net.URL;
+// This class consists exclusively of static methods that return a "Path" by converting a path string or "URI".
+import java.nio.file.Paths;
 
+// Resizable-array implementation of the "List" interface.
+import java.util.ArrayList;
+// This class consists exclusively of static methods that operate on or return collections.
+import java.util.Collections;
 // Hash table based implementation of the "Map" interface.
 import java.util.HashMap;
+// An ordered collection (also known as a sequence).
+import java.util.List;
 // An object that maps keys to values.
 import java.util.Map;
-// This class consists of static utility methods for operating on objects.
-import java.util.Objects;
-// An instance of this class is used to generate a stream of pseudorandom numbers.
-import java.util.Random;
+// A "Future" that may be explicitly completed (setting its value and status), and may be used as a "CompletionStage".
+import java.util.concurrent.CompletableFuture;
 // Factory and utility methods for "Executor", "ExecutorService", "ScheduledExecutorService", "ThreadFactory", and "Callable"
 // classes defined in this package.
 import java.util.concurrent.Executors;
+// A random number generator isolated to the current thread.
+import java.util.concurrent.ThreadLocalRandom;
+// Represents a supplier of "int"-valued results.
+import java.util.function.IntSupplier;
 
 /**
  * Short Message Peer-to-Peer (SMPP) using "Spring Boot" and "CloudHopper". This is a demo application that sends
@@ -143,10 +144,29 @@ public class SmppClient {
     // is sent to the mobile phone by means of an "SMS".
     private static final String WAP_M_NOTIFICATION_IND = "mms";
 
+    // The last precompiled "WAP Push SI" and "SL" messages; reused as long as the "href" (and the text) stay the same,
+    // e.g. throughout a bulk campaign.
+    private static volatile WapPushEncoder serviceIndication;
+    private static volatile WapPushEncoder serviceLoading;
+    // The last precompiled "MMS" notification; reused as long as the originator and the subject stay the same.
+    private static volatile MmsNotificationEncoder mmsNotification;
+    // The expiry of the "MMS" of the notifications, i.e. 3 days (in seconds).
+    private static final long MMS_EXPIRY = 3 * 24 * 60 * 60;
+
+    // Mark a constructor, field, setter method or config method as to be autowired by Spring's dependency injection facilities.
+    @Autowired
+    // The pool of "SMPP" sessions (binds).
+    @Qualifier( "sessionPool" )
+    private SmppSessionPool sessionPool;
+    // Mark a constructor, field, setter method or config method as to be autowired by Spring's dependency injection facilities.
+    @Autowired
+    // The pool of dedicated "RECEIVER" sessions (binds).
+    @Qualifier( "receiverSessionPool" )
+    private SmppSessionPool receiverSessionPool;
     // Mark a constructor, field, setter method or config method as to be autowired by Spring's dependency injection facilities.
     @Autowired
-    // Define a common interface for either a Client (ESME) or Server (SMSC) "SMPP" session.
-    private SmppSession session;
+    // The index correlating the "delivery receipts" with the "submit_sm" requests.
+    private CorrelationStore correlationStore;
     // Mark a constructor, field, setter method or config method as to be autowired by Spring's dependency injection facilities.
     @Autowired
     // Αll the external properties we need.
@@ -165,8 +185,88 @@ public class SmppClient {
         // and user supplied arguments. Return the running "ApplicationContext".
         ConfigurableApplicationContext ctx = SpringApplication.run( SmppClient.class, args );
 
-        // Return the "bean" instance that uniquely matches the given object type.
-        SmppSession session = ctx.getBean( SmppSession.class );
+        // Bulk campaign mode: send a message to every destination of the recipients file, over the already bound
+        // sessions.
+        if ( arguments.get( "recipientsFile" ) != null ) {
+            try {
+                campaign( ctx, arguments ).run( Paths.get( arguments.get( "recipientsFile" ) ) );
+            } catch ( IOException | InterruptedException e ) {
+                throw new IllegalStateException( e );
+            }
+            return;
+        }
+
+        // The completion handles of all the "submit_sm" requests; the requests are kept in flight concurrently
+        // (up to the "window" size) and we only wait for all the responses at the end.
+        List<CompletableFuture<SubmitSmResp>> submissions = submitMessage( ctx.getBean( AsyncSubmitter.class ),
+                ctx.getBean( SmppClientProperties.class ), ctx.getBean( ConcatenationReferences.class ),
+                ctx.getBean( TemplateCache.class ), arguments,
+                Collections.singletonList( arguments.get( "destinationAddress" ) ), arguments.get( "message" ) ).get( 0 );
+
+        // Wait for all the "submit_sm_resp" PDUs; throw exception in case where any of the requests failed.
+        CompletableFuture.allOf( submissions.toArray( new CompletableFuture[ 0 ] ) ).join();
+    }
+
+    /**
+     * Create the bulk campaign of the recipients file, sending the message of each row through the asynchronous
+     * "submit_sm" pipeline of a running application. The rows without text are sent with the "message-text" option
+     * value; consecutive rows with the same text are sent together, in "submit_multi" requests in case where enabled.
+     *
+     * @param ctx The running application context.
+     * @param arguments The "command line arguments".
+     * @return The bulk campaign.
+     */
+    public static CampaignRunner campaign( ConfigurableApplicationContext ctx, Map<String,String> arguments ) {
+        // Return the asynchronous "submit_sm" pipeline "bean" instance.
+        AsyncSubmitter submitter = ctx.getBean( AsyncSubmitter.class );
+        // Return the "properties" bean instance.
+        SmppClientProperties properties = ctx.getBean( SmppClientProperties.class );
+        // Return the allocator of the reference numbers of the concatenated messages, shared by all the threads.
+        ConcatenationReferences references = ctx.getBean( ConcatenationReferences.class );
+        // Return the cache of the precompiled message templates.
+        TemplateCache templates = ctx.getBean( TemplateCache.class );
+        return new CampaignRunner( properties,
+                ( destinationAddresses, text ) -> submitMessage( submitter, properties, references, templates,
+                        arguments, destinationAddresses, text != null ? text : arguments.get( "message" ) ) );
+    }
+
+    /**
+     * Send a message of the type given by the "message-type" option to one or more destinations; the message is
+     * created once, and sent to all of the destinations in "submit_multi" requests in case where enabled.
+     *
+     * @param submitter The asynchronous "submit_sm" pipeline.
+     * @param properties All the external properties we need.
+     * @param references The allocator of the reference numbers of the concatenated messages.
+     * @param templates The cache of the precompiled message templates.
+     * @param arguments The "command line arguments".
+     * @param destinationAddresses The destination addresses (MSISDN) of the message.
+     * @param message The text of the message (or the comma separated values of the "message-template" slots, see
+     *                "MessageTemplate.split"), or "null" in case where the message type needs no text.
+     * @return The completion handle of each request (part) of the message, per destination.
+     * @throws IllegalStateException In case where the message cannot be created.
+     */
+    private static List<List<CompletableFuture<SubmitSmResp>>> submitMessage( AsyncSubmitter submitter,
+                                                                              SmppClientProperties properties,
+                                                                              ConcatenationReferences references,
+                                                                              TemplateCache templates,
+                                                                              Map<String,String> arguments,
+                                                                              List<String> destinationAddresses,
+                                                                              String message ) {
+        // The "sms", "flash" and "wapSI" message types need a text, unless the "sms" and "flash" text is given by a
+        // template.
+        String messageType = arguments.get( "messageType" ).toLowerCase();
+        if ( message == null && arguments.get( "messageTemplate" ) == null && !messageType.equals( WAP_SL )
+                && !messageType.equals( WAP_M_NOTIFICATION_IND ) ) {
+            throw new IllegalStateException( "Missing message text for message type : \"" + arguments.get( "messageType" ) + "\"" );
+        }
+        // The completion handles of all the requests (parts) of the message, per destination.
+        List<List<CompletableFuture<SubmitSmResp>>> submissions = new ArrayList<>( destinationAddresses.size() );
+        for ( int i = 0; i < destinationAddresses.size(); i++ ) {
+            submissions.add( new ArrayList<>() );
+        }
+        // The message is the same for all of the destinations, so is the "CSMS" reference number of a "concatenated"
+        // message, which is allocated for the first destination.
+        String destinationAddress = destinationAddresses.get( 0 );
 
         // Check the type of the message we like to send.
         switch ( arguments.get( "messageType" ).toLowerCase() ) {
@@ -179,46 +279,41 @@ public class SmppClient {
                 // Encodings : SMPP ENCODING DEFAULT | SMPP ENCODING ISO88591 | SMPP ENCODING ISO10646
                 //             7bit length GSM       | 8bit length iso-8859-1 | UCS2 length utf-16-be
                 //             SMSC Default          | Latin 1                | UCS2 ( ISO/IEC-10646 )
-                // Encode the input text message to the "Latin-1/ISO-8859-1" alphabet.
-                byte[] text_message = CharsetUtil.encode( arguments.get( "message" ), CharsetUtil.CHARSET_ISO_8859_1 );
-
-                // Generate new "CSMS" reference number - it should be used in case of a "concatenated" message.
-                // Each "SMS" part shall have the same reference number.
-                byte[] referenceNumber = new byte[ 1 ];
-                // Create a new random number generator and generate random bytes and place them into the supplied byte array.
-                new Random().nextBytes( referenceNumber );
-                // Create multiple short messages (that include a "User Data Header") by splitting the "text_message" data
-                // into 134 byte parts. If the "text_message" does not need to be concatenated (less than or equal to 140 bytes),
-                // this method will return NULL.
-                // WARNING: This method only works on binary short messages that use 8-bit bytes. Short messages using 7-bit data
-                // or packed 7-bit data will not be correctly handled by this method.
+                // Encode the input text message into the fewest parts: the "GSM" 7-bit default alphabet (160 characters,
+                // or 153 per part of a "concatenated" message) in case where the text fits it, or the national language
+                // tables of the enabled languages in case where they need fewer parts than "UCS-2", else "UCS-2" (70
+                // characters, or 67 per part). Each part of a "concatenated" message includes its "UDH", along with the
+                // "CSMS" reference number allocated for the destination - each "SMS" part shall have the same reference
+                // number.
                 // Ref : http://en.wikipedia.org/wiki/Concatenated_SMS
-                byte[][] concatenated_sms = GsmUtil.createConcatenatedBinaryShortMessages( text_message, ( byte ) referenceNumber[ 0 ] );
-
-                // The "text_message" is a "concatenated" message.
-                if ( !Objects.isNull( concatenated_sms ) ) {
-                    // Call the method to send a "text" or "Flash" SMS for all elements of the array of byte arrays representing
-                    // each chunk (including "UDH").
-                    for ( byte[] sms : concatenated_sms ) {
-                        new SmppClient().sendTextMessage( session,
-                                arguments.get( "sourceAddress" ),
-                                arguments.get( "destinationAddress" ),
-                                sms,
-                                true,
-                                Boolean.parseBoolean( arguments.get( "deliveryReceipt" ) ),
-                                arguments.get( "messageType" ).toLowerCase().equals( FLASH ) );
-                    }
+                GsmEncoder.Encoded text_message;
+                // The text is given by a template: only the values are encoded per message, and spliced with the static
+                // fragments of the template, which are encoded once.
+                if ( arguments.get( "messageTemplate" ) != null ) {
+                    MessageTemplate template = templates.register( arguments.get( "messageTemplate" ) );
+                    // The comma separated values of the slots ("\," escapes a comma); the last slot takes the rest of the
+                    // text.
+                    String[] values = message == null ? new String[ 0 ] : template.split( message );
+                    text_message = template.encode( values,
+                            () -> references.next( destinationAddress ), references.isSixteenBit(),
+                            properties.getSmpp().isGsmPacked(), properties.getSmpp().getNationalLanguages() );
                 }
-                // The "text_message" is not a "concatenated" message.
                 else {
-                    // Call the method to send a "text" or "Flash" SMS.
-                    new SmppClient().sendTextMessage( session,
+                    text_message = GsmEncoder.encode( message,
+                            () -> references.next( destinationAddress ), references.isSixteenBit(),
+                            properties.getSmpp().isGsmPacked(), properties.getSmpp().getNationalLanguages() );
+                }
+
+                // Call the method to send a "text" or "Flash" SMS for each part of the message.
+                for ( byte[] sms : text_message.getParts() ) {
+                    addPart( submissions, sendTextMessage( submitter,
                             arguments.get( "sourceAddress" ),
-                            arguments.get( "destinationAddress" ),
-                            text_message,
-                            false,
+                            destinationAddresses,
+                            sms,
+                            text_message.hasUserDataHeader(),
+                            text_message.isUcs2(),
                             Boolean.parseBoolean( arguments.get( "deliveryReceipt" ) ),
-                            arguments.get( "messageType" ).toLowerCase().equals( FLASH ) );
+                            arguments.get( "messageType" ).toLowerCase().equals( FLASH ) ) );
                 }
 
                 // Break out of the "switch" block.
@@ -227,21 +322,20 @@ public class SmppClient {
                 // Call the method to send a WAP Push "Service Indication" message or throw exception in case of error.
                 try {
                     // Generate the "WAP Push SI" (Service Indication) message.
-                    Message[] messages = generateWapPushSI( arguments.get( "destinationAddress" ),
-                            arguments.get( "wapPushHref" ),
-                            arguments.get( "message" ) );
+                    List<byte[]> messages = generateWapPushSI( arguments.get( "wapPushHref" ), message,
+                            () -> references.next( destinationAddress ) );
 
                     // "Concatenated messages" are also supported.
-                    for ( Message msg : messages ) {
+                    for ( byte[] msg : messages ) {
                         // Send the "WAP Push SI" (Service Indication) message (part).
-                        new SmppClient().sendWapPushMessage( session,
+                        addPart( submissions, sendWapPushMessage( submitter,
                                 arguments.get( "sourceAddress" ),
-                                arguments.get( "destinationAddress" ),
-                                // The complete (binary) "SMS" in "<UDH> + <BODY>" hex format.
-                                Utils.encodeHexString( msg.getUDH() ).concat( Utils.encodeHexString( msg.getBinaryMessageBody() ) ),
-                                Boolean.parseBoolean( arguments.get( "deliveryReceipt" ) ) );
+                                destinationAddresses,
+                                // The complete (binary) "SMS", i.e. "<UDH> + <BODY>".
+                                msg,
+                                Boolean.parseBoolean( arguments.get( "deliveryReceipt" ) ) ) );
                     }
-                } catch ( MalformedURLException | WapPushException e ) {
+                } catch ( MalformedURLException e ) {
                     throw new IllegalStateException( e );
                 }
                 // Break out of the "switch" block.
@@ -250,33 +344,37 @@ public class SmppClient {
                 // Call the method to send a WAP Push "Service Loading" message or throw exception in case of error.
                 try {
                     // Generate the "WAP Push SL" (Service Loading) message.
-                    Message[] messages = generateWapPushSL( arguments.get( "destinationAddress" ),
-                            arguments.get( "wapPushHref" ) );
+                    List<byte[]> messages = generateWapPushSL( arguments.get( "wapPushHref" ),
+                            () -> references.next( destinationAddress ) );
 
                     // Concatenated messages are also supported.
-                    for ( Message msg : messages ) {
+                    for ( byte[] msg : messages ) {
                         // Send the "WAP Push SL" (Service Loading) message (part).
-                        new SmppClient().sendWapPushMessage( session,
+                        addPart( submissions, sendWapPushMessage( submitter,
                                 arguments.get( "sourceAddress" ),
-                                arguments.get( "destinationAddress" ),
-                                // The complete (binary) "SMS" in "<UDH> + <BODY>" hex format.
-                                Utils.encodeHexString( msg.getUDH() ).concat( Utils.encodeHexString( msg.getBinaryMessageBody() ) ),
-                                Boolean.parseBoolean( arguments.get( "deliveryReceipt" ) ) );
+                                destinationAddresses,
+                                // The complete (binary) "SMS", i.e. "<UDH> + <BODY>".
+                                msg,
+                                Boolean.parseBoolean( arguments.get( "deliveryReceipt" ) ) ) );
                     }
-                } catch ( MalformedURLException | WapPushException e ) {
+                } catch ( MalformedURLException e ) {
                     throw new IllegalStateException( e );
                 }
                 // Break out of the "switch" block.
                 break;
             case WAP_M_NOTIFICATION_IND :
                 // Call the method to send an "MMS" notification "WAP Push" message with "SMS" as bearer.
-                // Generate the "Multimedia Message Notification", i.e. "m-notification.ind".
-                Map<String,Object> msg = generateWapPush_M_NOTIFICATION_IND( arguments.get( "sourceAddress" ),
-                        arguments.get( "wapPushHref" ), arguments.get( "mmSubject" ), Long.parseLong( arguments.get( "mmSize" ) ) );
-
-                // "WAP_M_NOTIFICATION_IND" messages with length more than 254 octets are also supported by making use of
-                // the "message_payload" (0x0424) optional parameter. Specifically, according to the "SMPP v3.4" protocol,
-                // the maximum message length which can be specified in "sm_length" field (section 5.2.21) is 254 octets.
+                // Generate the "Multimedia Message Notification", i.e. "m-notification.ind"; cut into "WDP" segments
+                // in case where it is longer than a single short message, unless the segmentation is disabled.
+                MmsNotificationEncoder.Notification notification = generateWapPush_M_NOTIFICATION_IND(
+                        arguments.get( "sourceAddress" ), arguments.get( "wapPushHref" ), arguments.get( "mmSubject" ),
+                        Long.parseLong( arguments.get( "mmSize" ) ), () -> references.next( destinationAddress ),
+                        properties.getSmpp().isMmsSegmentation() );
+
+                // Without segmentation, "WAP_M_NOTIFICATION_IND" messages with length more than 254 octets are also
+                // supported by making use of the "message_payload" (0x0424) optional parameter. Specifically, according
+                // to the "SMPP v3.4" protocol, the maximum message length which can be specified in "sm_length" field
+                // (section 5.2.21) is 254 octets.
                 // If an "ESME" wishes to submit a message of length greater than 254 octets, the "sm_length" field, which
                 // specifies the length of the "short_message" parameter in octets, must be set to NULL (set to zero) and
                 // the "message_payload" (0x0424) optional parameter must be populated with the message length value and
@@ -284,12 +382,30 @@ public class SmppClient {
                 // "message_payload" fields. Both fields must not be used simultaneously. At the same time, the application
                 // sets the "UDHI" flag in the "esm_class" field since short message contains GSM User Data Header information
                 // encoded in the "message_payload" parameter.
-                // Send the "WAP Push" message.
-                new SmppClient().sendWapPushMessage( session,
-                        arguments.get( "sourceAddress" ),
-                        arguments.get( "destinationAddress" ),
-                        ( ( String ) msg.get( "UDH" ) ).concat( Utils.encodeHexString( ( ( SmsUserData ) msg.get( "BinaryMessageBody" ) ).getData() ) ),
-                        Boolean.parseBoolean( arguments.get( "deliveryReceipt" ) ) );
+                for ( byte[] msg : notification.getParts() ) {
+                    // Send the "WAP Push" message (part), i.e. "<UDH> + <BODY>".
+                    addPart( submissions, sendWapPushMessage( submitter,
+                            arguments.get( "sourceAddress" ),
+                            destinationAddresses,
+                            msg,
+                            Boolean.parseBoolean( arguments.get( "deliveryReceipt" ) ) ) );
+                }
+        }
+
+        // Return the completion handles.
+        return submissions;
+    }
+
+    /**
+     * Add the completion handle of a part of a message to the completion handles of each destination.
+     *
+     * @param submissions The completion handles of the parts, per destination.
+     * @param part The completion handle of the part, per destination.
+     */
+    private static void addPart( List<List<CompletableFuture<SubmitSmResp>>> submissions,
+                                 List<CompletableFuture<SubmitSmResp>> part ) {
+        for ( int i = 0; i < part.size(); i++ ) {
+            submissions.get( i ).add( part.get( i ) );
         }
     }
 
@@ -309,8 +425,8 @@ public class SmppClient {
         sessionConfig.setName( "smpp.session" );
         // Set the version of the "SMPP" protocol.
         sessionConfig.setInterfaceVersion( SmppConstants.VERSION_3_4 );
-        // Set the bind type.
-        sessionConfig.setType( SmppBindType.TRANSMITTER );
+        // Set the bind type; "TRANSCEIVER" in case where the "delivery receipts" are received on the same sessions.
+        sessionConfig.setType( properties.getSmpp().getBindType() );
         // Set the "SMSC" IP address.
         sessionConfig.setHost( properties.getSmpp().getHost() );
         // Set the "SMSC" port number.
@@ -321,6 +437,16 @@ public class SmppClient {
         sessionConfig.setPassword( properties.getSmpp().getPassword() );
         // Categorize the type of "ESME" that is binding to the "SMSC" (optional).
         sessionConfig.setSystemType( null );
+        // Set the max number of requests kept in flight, i.e. the "window" size; in case of an adaptive "window", the
+        // requests in flight are bounded by its current limit, up to the max "window" size.
+        sessionConfig.setWindowSize( properties.getAsync().isAdaptiveWindow()
+                ? Math.max( properties.getAsync().getMaxWindowSize(), 1 ) : properties.getAsync().getWindowSize() );
+        // Set how long to wait for a free "window" slot as well as how long a request may wait for its response
+        // before it expires.
+        sessionConfig.setWindowWaitTimeout( properties.getAsync().getTimeout() );
+        sessionConfig.setRequestExpiryTimeout( properties.getAsync().getTimeout() );
+        // Set how often the "window" is checked for expired requests.
+        sessionConfig.setWindowMonitorInterval( properties.getAsync().getWindowMonitorInterval() );
         sessionConfig.getLoggingOptions().setLogBytes( false );
         sessionConfig.getLoggingOptions().setLogPdu( true );
 
@@ -329,407 +455,510 @@ public class SmppClient {
     }
 
     /**
-     * Establish an "SMPP" session.
+     * Create the pool of "SMPP" sessions (binds). The sessions are bound once the asynchronous "submit_sm" pipeline
+     * has been created, since their session handlers pass the "submit_sm_resp" PDUs back to it.
      *
      * @param properties All the external properties we need.
-     * @return The common interface for either a Client (ESME) or Server (SMSC) "SMPP" session.
-     * @throws SmppBindException Thrown only in the case where the "bind" request was successfully sent to the remote
-     * system, and we actually got back a "bind" response that rejected the bind attempt.
-     * @throws SmppTimeoutException Thrown if either the underlying "TCP/IP" connection cannot connect within the
-     * "connectTimeout" or we can connect but don't receive a response back to the bind request within the "bindTimeout".
-     * @throws SmppChannelException Thrown if there is an error with the underlying "TCP/IP" connection such as a bad
-     * host name or the remote server's port is not accepting connections.
-     * @throws UnrecoverablePduException Thrown in the case where we were able to connect and send our "bind" request,
-     * but we got back data that was not failed parsing into a "PDU".
-     * @throws InterruptedException Thrown if the calling thread is interrupted while we are attempting the bind.
+     * @param client The "SmppClient" shared by all the binds.
+     * @param metrics The metrics the "window" occupancy of each bind is published through.
+     * @return The pool of "SMPP" sessions.
      */
     // Set the "destroyMethod" attribute of the "@Bean" annotation. Note that if we have a public method named "close()"
     // or "shutdown()" in our bean, then it is automatically triggered with a destruction callback by default. However,
     // if we do not wish this behavior, we can disable it by setting destroyMethod="".
     @Bean( destroyMethod = "" )
-    public SmppSession session( SmppClientProperties properties ) throws SmppBindException, SmppTimeoutException,
-            SmppChannelException, UnrecoverablePduException, InterruptedException {
+    public SmppSessionPool sessionPool( SmppClientProperties properties, com.cloudhopper.smpp.SmppClient client,
+                                        SmppMetrics metrics ) {
         // To bind a session, we need a "SmppSessionConfiguration" and "SmppClient". The "SmppSessionConfiguration"
         // class contains the configurable aspects of the "SmppSession". The following method uses the externalized
-        // configuration.
-        SmppSessionConfiguration config = sessionConfiguration( properties );
-        // Create the "SmppClient" and bind the client to a remote "SMPP" endpoint by opening the socket, sending
-        // a bind request, and waiting for a bind response. Provide the client session configuration and the session
-        // handler as input parameters. If the bind is successful get the new session.
-        // Register handler to take advantage of the "delivery receipt" handling.
-        // "delivery receipts" printed in the console.
-        SmppSession session = clientBootstrap( properties ).bind( config, new ClientSmppSessionHandler( properties ) );
-
-        // Return the common interface for either a Client (ESME) or Server (SMSC) "SMPP" session.
-        return session;
+        // configuration; each bind gets its own name.
+        // A single "SmppClient" is shared by all the binds.
+        SmppSessionPool pool = new SmppSessionPool( properties, client, properties.getAsync().getSmppSessionSize(),
+                index -> {
+                    SmppSessionConfiguration config = sessionConfiguration( properties );
+                    config.setName( "smpp.session." + index );
+                    return config;
+                } );
+        metrics.bindWindows( pool );
+        return pool;
+    }
+
+    /**
+     * Create the registry publishing the metrics as "JMX" MBeans, under the "smpp.client" domain.
+     *
+     * @return The meter registry.
+     */
+    @Bean( destroyMethod = "close" )
+    public MeterRegistry meterRegistry() {
+        JmxConfig config = new JmxConfig() {
+            @Override
+            public String get( String key ) {
+                // Use the defaults of all the other settings.
+                return null;
+            }
+
+            @Override
+            public String domain() {
+                return "smpp.client";
+            }
+        };
+        return new JmxMeterRegistry( config, Clock.SYSTEM );
+    }
+
+    /**
+     * Create the latency and throughput metrics of the "submit_sm" and "deliver_sm" paths.
+     *
+     * @param registry The registry the metrics are published through.
+     * @return The metrics.
+     */
+    @Bean
+    public SmppMetrics smppMetrics( MeterRegistry registry ) {
+        return new SmppMetrics( registry );
+    }
+
+    /**
+     * Create the asynchronous "submit_sm" pipeline and bind the sessions of the pool.
+     *
+     * @param properties All the external properties we need.
+     * @param sessionPool The pool of "SMPP" sessions.
+     * @param deliveryDispatcher The worker threads processing the "deliver_sm" PDUs.
+     * @param correlationStore Correlate the "delivery receipts" with the requests.
+     * @param journal The write-ahead journal of the requests.
+     * @param metrics The metrics of the "submit_sm" path.
+     * @return The asynchronous "submit_sm" pipeline.
+     */
+    // Bind the sessions through the "start()" method, once the pipeline has been created; register a handler per bind
+    // to take advantage of the "delivery receipt" handling.
+    @Bean( initMethod = "start", destroyMethod = "shutdown" )
+    public AsyncSubmitter asyncSubmitter( SmppClientProperties properties,
+                                          @Qualifier( "sessionPool" ) SmppSessionPool sessionPool,
+                                          DeliveryDispatcher deliveryDispatcher, CorrelationStore correlationStore,
+                                          OutboundJournal journal, SmppMetrics metrics ) {
+        return new AsyncSubmitter( properties, sessionPool, deliveryDispatcher, correlationStore, journal, metrics );
+    }
+
+    /**
+     * Create the write-ahead journal of the outbound requests; recovered once the "submit_sm" pipeline starts.
+     *
+     * @param properties All the external properties we need.
+     * @return The outbound journal.
+     */
+    // Force the journal through the "close()" method; the requests without a response are replayed on the next startup.
+    @Bean( destroyMethod = "close" )
+    public OutboundJournal outboundJournal( SmppClientProperties properties ) {
+        return new OutboundJournal( properties );
+    }
+
+    /**
+     * Create the index correlating the "delivery receipts" with the "submit_sm" requests.
+     *
+     * @param properties All the external properties we need.
+     * @return The correlation store.
+     */
+    @Bean
+    public CorrelationStore correlationStore( SmppClientProperties properties ) {
+        // Log the internal message reference and the final state of each correlated message.
+        return new CorrelationStore( properties, ( reference, messageId, state ) ->
+                log.info( "Message reference {} with message-id {} reached state {}", reference, messageId,
+                        DeliveryReceipt.toStateText( state ) ) );
+    }
+
+    /**
+     * Create the cache of the precompiled message templates, and publish its metrics.
+     *
+     * @param properties All the external properties we need.
+     * @param metrics The metrics of the client.
+     * @return The template cache.
+     */
+    @Bean
+    public TemplateCache templateCache( SmppClientProperties properties, SmppMetrics metrics ) {
+        TemplateCache cache = new TemplateCache( properties.getAsync().getTemplateCacheSize() );
+        metrics.bindTemplateCache( cache );
+        return cache;
+    }
+
+    /**
+     * Create the allocator of the reference numbers of the concatenated messages.
+     *
+     * @param properties All the external properties we need.
+     * @return The reference allocator.
+     */
+    @Bean
+    public ConcatenationReferences concatenationReferences( SmppClientProperties properties ) {
+        return new ConcatenationReferences( properties.getSmpp().getConcatenationReferenceBits() );
+    }
+
+    /**
+     * Create the worker threads processing the "deliver_sm" PDUs off the "Netty" I/O threads.
+     *
+     * @param properties All the external properties we need.
+     * @param correlationStore Correlate the "delivery receipts" with the "submit_sm" requests.
+     * @param metrics The metrics of the "deliver_sm" path.
+     * @return The "deliver_sm" dispatcher.
+     */
+    // Stop the workers through the "shutdown()" method, once the PDUs already received have been processed.
+    @Bean( destroyMethod = "shutdown" )
+    public DeliveryDispatcher deliveryDispatcher( SmppClientProperties properties, CorrelationStore correlationStore,
+                                                  SmppMetrics metrics ) {
+        return new DeliveryDispatcher( properties, correlationStore, metrics );
+    }
+
+    /**
+     * Create and bind the pool of dedicated "RECEIVER" sessions, handling the inbound traffic (e.g. "delivery receipts"),
+     * so that bursts of "deliver_sm" PDUs never compete with the "submit_sm" traffic for the same socket and "window".
+     * The pool is left empty in case where "receiver-session-size" is "0", i.e. the inbound traffic is received by the
+     * "TRANSCEIVER" sessions.
+     *
+     * @param properties All the external properties we need.
+     * @param client The "SmppClient" shared by all the binds.
+     * @param submitter The asynchronous "submit_sm" pipeline.
+     * @param deliveryDispatcher The worker threads processing the "deliver_sm" PDUs.
+     * @param metrics The metrics the "window" occupancy of each bind is published through.
+     * @return The pool of "RECEIVER" sessions.
+     */
+    @Bean( destroyMethod = "" )
+    public SmppSessionPool receiverSessionPool( SmppClientProperties properties, com.cloudhopper.smpp.SmppClient client,
+                                                AsyncSubmitter submitter, DeliveryDispatcher deliveryDispatcher,
+                                                SmppMetrics metrics ) {
+        SmppSessionPool receiverPool = new SmppSessionPool( properties, client,
+                properties.getAsync().getReceiverSessionSize(),
+                index -> {
+                    SmppSessionConfiguration config = sessionConfiguration( properties );
+                    config.setName( "smpp.receiver." + index );
+                    config.setType( SmppBindType.RECEIVER );
+                    return config;
+                } );
+        // Register a handler per bind to take advantage of the "delivery receipt" handling.
+        if ( !receiverPool.getSlots().isEmpty() ) {
+            receiverPool.bind( slot -> new ClientSmppSessionHandler( submitter, deliveryDispatcher, slot ) );
+        }
+        metrics.bindWindows( receiverPool );
+        return receiverPool;
+    }
+
+    /**
+     * Create the monitor keeping the idle sessions of both pools alive, and detecting the dead links.
+     *
+     * @param properties All the external properties we need.
+     * @param sessionPool The pool of "SMPP" sessions sending the "submit_sm" requests.
+     * @param receiverSessionPool The pool of dedicated "RECEIVER" sessions.
+     * @return The keepalive monitor.
+     */
+    @Bean( initMethod = "start", destroyMethod = "stop" )
+    public KeepaliveMonitor keepaliveMonitor( SmppClientProperties properties,
+                                              @Qualifier( "sessionPool" ) SmppSessionPool sessionPool,
+                                              @Qualifier( "receiverSessionPool" ) SmppSessionPool receiverSessionPool ) {
+        return new KeepaliveMonitor( properties, sessionPool, receiverSessionPool );
     }
 
     /**
      * Shutdown callback using "@PreDestroy" annotation.
      * Method will be executed before destroying - catch the "SIGTERM" signal and invoke the "PreDestroy" method.
-     * Then, "unbind" the established session, close the underlying socket/channel, and finally
+     * Then, "unbind" the established sessions, close the underlying sockets/channels, and finally
      * clean up all resources, while the application shuts down "graceful".
      *
      * @throws Exception In case of error.
      */
     @PreDestroy
     public void tearDown() throws Exception {
-        // Check if the session is currently in the "BOUND" state, i.e. the session is bound and ready to process requests.
-        if ( session.isBound() ) {
-            // Attempt to "unbind" the session, waiting up to the specified period of
-            // milliseconds for an "unbind" response from the remote endpoint. Regardless of whether
-            // a proper unbind response was received, the socket/channel is closed.
-            session.unbind( 10000 );
-        }
-        // Immediately close the session by closing the underlying socket/channel.
-        // This method will not attempt to "unbind" first, rather just immediately
-        // close the channel. Once closed, this session is not usable. It is
-        // always recommended a proper "unbind" is attempted first, rather than just
-        // closing the socket.
-        session.close();
-        // Destroy a session by ensuring the socket is closed and all
-        // resources are cleaned up. This method should the last method called
-        // before discarding or losing a reference to a session. Since this method
-        // cleans up all resources, make sure that any data you need to access is
-        // accessed before calling this method. After calling this method
-        // it is not guaranteed that any other method will correctly work.
-        session.destroy();
+        // "unbind" all the sessions of the pools, close the underlying sockets/channels and clean up all resources.
+        sessionPool.close();
+        receiverSessionPool.close();
     }
 
     /**
      * Create the "SmppClient".
      * The "DefaultSmppClient" constructor takes an "ExecutorService" and expected number of sessions.
-     * In this case, we are creating a "CachedThreadPoolExecutor" and assigning the desired number of concurrent sessions.
+     * In this case, we are creating a "CachedThreadPoolExecutor" and assigning the desired number of concurrent sessions,
+     * i.e. the "TRANSMITTER" / "TRANSCEIVER" sessions plus the dedicated "RECEIVER" sessions.
+     * A "ScheduledExecutorService" is also provided, which is used to monitor the "window" of each session for
+     * requests that expired without a response.
+     * The "PDU" decoder of each session is extended with the "submit_multi" and "submit_multi_resp" PDUs, which
+     * "Cloudhopper" does not provide.
      *
      * @param properties All the external properties we need.
      * @return The "SmppClient".
      */
+    @Bean( destroyMethod = "" )
     public com.cloudhopper.smpp.SmppClient clientBootstrap( SmppClientProperties properties ) {
         // Create a new default "SmppClient" by providing the "executor" that IO workers will be executed with - a thread
         // pool that creates new threads as needed, but will reuse previously constructed threads when they are available,
         // and the max number of concurrent sessions expected to be active at any time - the max number of worker threads
         // that the underlying "Netty" library will use.
-        return new DefaultSmppClient( Executors.newCachedThreadPool(), properties.getAsync().getSmppSessionSize() );
+        return new DefaultSmppClient( Executors.newCachedThreadPool(),
+                properties.getAsync().getSmppSessionSize() + properties.getAsync().getReceiverSessionSize(),
+                Executors.newSingleThreadScheduledExecutor() ) {
+            @Override
+            protected DefaultSmppSession createSession( Channel channel, SmppSessionConfiguration config,
+                                                        SmppSessionHandler sessionHandler )
+                    throws SmppTimeoutException, SmppChannelException, InterruptedException {
+                DefaultSmppSession session = super.createSession( channel, config, sessionHandler );
+                // Replace the "PDU" decoder of the session, before the session is bound.
+                SubmitMultiTranscoder.install( channel );
+                return session;
+            }
+        };
     }
 
     /**
      * Send a "Text" or "Flash" MT SMS on application startup.
      *
-     * @param session The established "SMPP" session.
+     * @param submitter The asynchronous "submit_sm" pipeline.
      * @param sourceAddress The source address (short code) of the "MT SMS".
-     * @param destinationAddress The destination address (MSISDN) of the "MT SMS".
+     * @param destinationAddresses The destination addresses (MSISDN) of the "MT SMS".
      * @param text The text message of the "MT SMS".
-     * @param concatenated "true" in case of a concatenated "MT SMS", else "false".
+     * @param userDataHeader "true" in case where the text message starts with a "User Data Header" (i.e. a
+     *                       concatenated "MT SMS", or a national language table), else "false".
+     * @param ucs2 "true" in case where the text message is encoded in "UCS-2", else "false" in case of the "GSM" 7-bit
+     *             default alphabet.
      * @param delivery_receipt "true" in case where we request a "delivery receipt" (DLR), else "false".
      * @param isFlash "true" in case of a "Flash MT SMS", else "false".
+     * @return The completion handle of the request, per destination.
      */
-    private void sendTextMessage( SmppSession session, String sourceAddress, String destinationAddress, byte[] text,
-                                  boolean concatenated, boolean delivery_receipt, boolean isFlash ) {
-        // Check if the session is currently in the "BOUND" state, i.e. the session is bound and ready to process requests.
-        if ( session.isBound() ) {
-            try {
-                // Construct a "submit_sm" SMPP PDU.
-                SubmitSm submit = new SubmitSm();
-
-                // DCS : SMPP ENCODING DEFAULT = 0x00 - SMSC Default.
-                //       SMPP ENCODING IA5 = 0x01 - IA5 ( CCITT T.50 ) / ASCII ( ANSI X3.4 ).
-                //       SMPP ENCODING BINARY = 0x02 - Octet unspecified ( 8-bit binary ).
-                //       SMPP ENCODING ISO88591 = 0x03 - Latin 1 ( ISO-8859-1 ).
-                //       SMPP ENCODING BINARY2 = 0x04 - Octet unspecified ( 8-bit binary ).
-                //       SMPP ENCODING JIS = 0x05 - JIS ( X 0208-1990 ).
-                //       SMPP ENCODING ISO88595 = 0x06 - Cyrillic ( ISO-8859-5 ).
-                //       SMPP ENCODING ISO88598 = 0x07 - Latin/Hebrew ( ISO-8859-8 ).
-                //       SMPP ENCODING ISO10646 = 0x08 - UCS2 ( ISO/IEC-10646 ).
-                //       SMPP ENCODING PICTOGRAM = 0x09 - Pictogram Encoding.
-                //       SMPP ENCODING ISO2022JP = 0x0A - ISO-2022-JP ( Music Codes ).
-                //       SMPP ENCODING EXTJIS = 0x0D - Extended Kanji JIS ( X 0212-1990 ).
-                //       SMPP ENCODING KSC5601 = 0x0E - KS C 5601
-                // Set "data coding scheme" (DCS) for sending "Flash" SMS - SMS DATA CODING = 240 (0XF0).
-                if ( isFlash ) {
-                    submit.setDataCoding( (byte) 0XF0 );
-                }
-                // Set "data coding scheme" (DCS) for sending "Text" SMS - SMS DATA CODING = 0 (0X00).
-                else{
-                    submit.setDataCoding( SmppConstants.DATA_CODING_DEFAULT );
-                }
-
-                // ESM : SMPP MSGMODE DEFAULT = 0x00 - Default SMSC mode ( e.g. Store and Forward ).
-                //       SMPP MSGMODE DATAGRAM = 0x01 - Datagram mode.
-                //       SMPP MSGMODE FORWARD = 0x02 - Forward ( i.e. Transaction ) mode.
-                //       SMPP MSGMODE STOREFORWARD = 0x03 - Explicit Store and Forward mode.
-                //       SMPP MSGTYPE DEFAULT = 0x00 - Default message type ( i.e. normal message ).
-                //       SMPP MSGTYPE DELIVERYACK = 0x08 - Message contains ESME Delivery acknowledgement.
-                //       SMPP MSGTYPE USERACK = 0x10 - Message contains ESME Manual / User acknowledgement.
-                //       SMPP GSMFEAT NONE = 0x00 - No specific features selected.
-                //       SMPP GSMFEAT UDHI = 0x40 - UDHI Indicator ( only relevant for MT msgs ).
-                //       SMPP GSMFEAT REPLYPATH = 0x80 - Set Reply Path ( only relevant for GSM net ).
-                //       SMPP GSMFEAT UDHIREPLYPATH = 0xC0 - Set UDHI and Reply Path ( for GSM net ).
-                // In case of a "concatenated" SMS set ESM CLASS = 64 (0x40), i.e. set "UDHI" Indicator.
-                if ( concatenated ) {
-                    submit.setEsmClass( (byte) 0x40 );
-                }
+    private static List<CompletableFuture<SubmitSmResp>> sendTextMessage( AsyncSubmitter submitter,
+                                                                         String sourceAddress,
+                                                                         List<String> destinationAddresses,
+                                                                         byte[] text, boolean userDataHeader,
+                                                                         boolean ucs2, boolean delivery_receipt,
+                                                                         boolean isFlash ) {
+        // Construct a "submit_sm" SMPP PDU.
+        SubmitSm submit = new SubmitSm();
+
+        // DCS : SMPP ENCODING DEFAULT = 0x00 - SMSC Default.
+        //       SMPP ENCODING IA5 = 0x01 - IA5 ( CCITT T.50 ) / ASCII ( ANSI X3.4 ).
+        //       SMPP ENCODING BINARY = 0x02 - Octet unspecified ( 8-bit binary ).
+        //       SMPP ENCODING ISO88591 = 0x03 - Latin 1 ( ISO-8859-1 ).
+        //       SMPP ENCODING BINARY2 = 0x04 - Octet unspecified ( 8-bit binary ).
+        //       SMPP ENCODING JIS = 0x05 - JIS ( X 0208-1990 ).
+        //       SMPP ENCODING ISO88595 = 0x06 - Cyrillic ( ISO-8859-5 ).
+        //       SMPP ENCODING ISO88598 = 0x07 - Latin/Hebrew ( ISO-8859-8 ).
+        //       SMPP ENCODING ISO10646 = 0x08 - UCS2 ( ISO/IEC-10646 ).
+        //       SMPP ENCODING PICTOGRAM = 0x09 - Pictogram Encoding.
+        //       SMPP ENCODING ISO2022JP = 0x0A - ISO-2022-JP ( Music Codes ).
+        //       SMPP ENCODING EXTJIS = 0x0D - Extended Kanji JIS ( X 0212-1990 ).
+        //       SMPP ENCODING KSC5601 = 0x0E - KS C 5601
+        // Set "data coding scheme" (DCS) for sending "Flash" SMS - message class 0 : SMS DATA CODING = 240 (0XF0) in
+        // the "GSM" 7-bit default alphabet, or SMS DATA CODING = 24 (0X18) in "UCS-2".
+        if ( isFlash ) {
+            submit.setDataCoding( ucs2 ? (byte) 0X18 : (byte) 0XF0 );
+        }
+        // Set "data coding scheme" (DCS) for sending "Text" SMS - SMS DATA CODING = 0 (0X00) in the "GSM" 7-bit default
+        // alphabet, or SMS DATA CODING = 8 (0X08) in "UCS-2".
+        else{
+            submit.setDataCoding( ucs2 ? SmppConstants.DATA_CODING_UCS2 : SmppConstants.DATA_CODING_DEFAULT );
+        }
 
-                // In case we also request a "delivery receipt" (DLR).
-                if ( delivery_receipt ) {
-                    submit.setRegisteredDelivery( SmppConstants.REGISTERED_DELIVERY_SMSC_RECEIPT_REQUESTED );
-                }
+        // ESM : SMPP MSGMODE DEFAULT = 0x00 - Default SMSC mode ( e.g. Store and Forward ).
+        //       SMPP MSGMODE DATAGRAM = 0x01 - Datagram mode.
+        //       SMPP MSGMODE FORWARD = 0x02 - Forward ( i.e. Transaction ) mode.
+        //       SMPP MSGMODE STOREFORWARD = 0x03 - Explicit Store and Forward mode.
+        //       SMPP MSGTYPE DEFAULT = 0x00 - Default message type ( i.e. normal message ).
+        //       SMPP MSGTYPE DELIVERYACK = 0x08 - Message contains ESME Delivery acknowledgement.
+        //       SMPP MSGTYPE USERACK = 0x10 - Message contains ESME Manual / User acknowledgement.
+        //       SMPP GSMFEAT NONE = 0x00 - No specific features selected.
+        //       SMPP GSMFEAT UDHI = 0x40 - UDHI Indicator ( only relevant for MT msgs ).
+        //       SMPP GSMFEAT REPLYPATH = 0x80 - Set Reply Path ( only relevant for GSM net ).
+        //       SMPP GSMFEAT UDHIREPLYPATH = 0xC0 - Set UDHI and Reply Path ( for GSM net ).
+        // In case of a "concatenated" SMS (or a national language table) set ESM CLASS = 64 (0x40), i.e. set "UDHI"
+        // Indicator.
+        if ( userDataHeader ) {
+            submit.setEsmClass( (byte) 0x40 );
+        }
 
-                // According to paragraph "5.2.22 short_message" of the protocol specification document, the "short_message" parameter
-                // contains the user data. A maximum of 254 octets can be sent. ESME’s should use the optional "message_payload"
-                // parameter in "submit_sm" to send larger user data sizes. That is, the "message_payload" parameter contains
-                // the user data. Its function is to provide an alternative means of carrying text lengths above the 255
-                // octet limit of the "short_message" field. Applications, which need to send messages longer than 255 octets,
-                // should use the "message_payload" TLV populated with the message length value and user data. When used
-                // in the context of a "submit_sm" PDU, the "sm_length" field should be set to zero (NULL). On the other hand,
-                // if we try to push a longer message, which is more than 255 characters length, we will get the below
-                // error message from "cloudhopper" :
-                //       com.cloudhopper.smpp.type.SmppInvalidArgumentException: A short message in a PDU can only be a max of
-                //       255 bytes [actual=" + value.length + "]; use optional parameter message_payload as an alternative
-                if ( text != null && text.length > 255 ) {
-                    // Add an optional parameter to this "PDU". Does not check if the "TLV" has already been added (allows duplicates).
-                    submit.addOptionalParameter( new Tlv( SmppConstants.TAG_MESSAGE_PAYLOAD, text, "message_payload" ) );
-                } else {
-                    // Else set the "short_message" SMPP parameter with the user data.
-                    submit.setShortMessage( text );
-                }
+        // In case we also request a "delivery receipt" (DLR).
+        if ( delivery_receipt ) {
+            submit.setRegisteredDelivery( SmppConstants.REGISTERED_DELIVERY_SMSC_RECEIPT_REQUESTED );
+        }
 
-                // TON : SMPP TON UNK = 0x00    | SMPP TON INTL = 0x01  | SMPP TON NATNL = 0x02
-                //       SMPP TON NWSPEC = 0x03 | SMPP TON SBSCR = 0x04 | SMPP TON ALNUM = 0x05
-                //       SMPP TON ABBREV = 0x06
-                // NPI : SMPP NPI UNK = 0x00 - Unknown                  | SMPP NPI ISDN = 0x01 - ISDN ( E163/E164 )
-                //       SMPP NPI DATA = 0x03 - Data ( X.121 )          | SMPP NPI TELEX = 0x04 - Telex ( F.69 )
-                //       SMPP NPI LNDMBL = 0x06 - Land Mobile ( E.212 ) | SMPP NPI NATNL = 0x08 - National
-                //       SMPP NPI PRVT = 0x09 - Private                 | SMPP NPI ERMES = 0x0A - ERMES
-                //       SMPP NPI IP = 0x0E - IPv4                      | SMPP NPI WAP = 0x12 - WAP
-                // Set source address ton:npi = 0:1
-                submit.setSourceAddress( new Address( SmppConstants.TON_UNKNOWN, SmppConstants.NPI_E164, sourceAddress ) );
-                // Set destination address ton:npi = 1:1
-                submit.setDestAddress( new Address( SmppConstants.TON_INTERNATIONAL, SmppConstants.NPI_E164, destinationAddress ) );
-
-                // Set a relative "validity period" of 8 hours. According to paragraph "5.2.16 validity_period" of the
-                // protocol specification document,	the "validity_period" SMPP parameter indicates the "SMSC" expiration
-                // time, after which the message should be discarded if not delivered to the destination. It can be
-                // defined in absolute time format or relative time format (Section 7.1.1.). A "Relative Time Format" example :
-                // "020610233429000R" would be interpreted as a relative period of 2 years, 6 months, 10 days, 23 hours, 34
-                // minutes and 29 seconds from the current "SMSC" time.
-                submit.setValidityPeriod( "000000080000000R" );
-
-                // Submit message to "SMSC" for delivery with a timeout of 10000ms. Synchronously send a "submit" request
-                // to the remote endpoint and wait for up to a specified number of milliseconds for a response. The
-                // timeout value includes both waiting for a "window" slot, the time it takes to transmit the actual bytes
-                // on the socket, and for the remote endpoint to send a response back. Get a valid response to the request.
-                SubmitSmResp submitResponse = session.submit( submit, 10000 );
-                // Check if the status of the submitted "SMPP" command is success, else throw exception.
-                if ( submitResponse.getCommandStatus() == SmppConstants.STATUS_OK ) {
-                    log.info( "SMS submitted, message id {}", submitResponse.getMessageId() );
-                } else {
-                    throw new IllegalStateException( submitResponse.getResultMessage() );
-                }
-            }
-            // In case of error throw exception, i.e.
-            // * when a recoverable "PDU" error occurs. A recoverable PDU error includes the partially decoded PDU in
-            // order to generate a negative acknowledgement (NACK) response.
-            // * when an unrecoverable "PDU" error occurs. This indicates a serious error occurred and usually indicates
-            // the session should be immediately terminated.
-            // * when a timeout occurs while waiting for a response from the remote endpoint.  A timeout can either occur
-            // with an unresponsive remote endpoint or the bytes were not written in time.
-            // * when the underlying socket/channel was unable to write the request.
-            // * when the calling thread was interrupted while waiting to acquire a lock or write/read the bytes from the
-            // socket/channel.
-            catch ( RecoverablePduException | UnrecoverablePduException | SmppTimeoutException | SmppChannelException
-                    | InterruptedException e ) {
+        // According to paragraph "5.2.22 short_message" of the protocol specification document, the "short_message" parameter
+        // contains the user data. A maximum of 254 octets can be sent. ESME’s should use the optional "message_payload"
+        // parameter in "submit_sm" to send larger user data sizes. That is, the "message_payload" parameter contains
+        // the user data. Its function is to provide an alternative means of carrying text lengths above the 255
+        // octet limit of the "short_message" field. Applications, which need to send messages longer than 255 octets,
+        // should use the "message_payload" TLV populated with the message length value and user data. When used
+        // in the context of a "submit_sm" PDU, the "sm_length" field should be set to zero (NULL). On the other hand,
+        // if we try to push a longer message, which is more than 255 characters length, we will get the below
+        // error message from "cloudhopper" :
+        //       com.cloudhopper.smpp.type.SmppInvalidArgumentException: A short message in a PDU can only be a max of
+        //       255 bytes [actual=" + value.length + "]; use optional parameter message_payload as an alternative
+        if ( text != null && text.length > 255 ) {
+            // Add an optional parameter to this "PDU". Does not check if the "TLV" has already been added (allows duplicates).
+            submit.addOptionalParameter( new Tlv( SmppConstants.TAG_MESSAGE_PAYLOAD, text, "message_payload" ) );
+        } else {
+            // Else set the "short_message" SMPP parameter with the user data or throw exception in case where the
+            // user data is longer than 255 octets.
+            try {
+                submit.setShortMessage( text );
+            } catch ( SmppInvalidArgumentException e ) {
                 throw new IllegalStateException( e );
             }
-            return;
         }
-        // Else throw exception in case where the session is not currently in the "BOUND" state.
-        throw new IllegalStateException( "SMPP session is not connected" );
+
+        // TON : SMPP TON UNK = 0x00    | SMPP TON INTL = 0x01  | SMPP TON NATNL = 0x02
+        //       SMPP TON NWSPEC = 0x03 | SMPP TON SBSCR = 0x04 | SMPP TON ALNUM = 0x05
+        //       SMPP TON ABBREV = 0x06
+        // NPI : SMPP NPI UNK = 0x00 - Unknown                  | SMPP NPI ISDN = 0x01 - ISDN ( E163/E164 )
+        //       SMPP NPI DATA = 0x03 - Data ( X.121 )          | SMPP NPI TELEX = 0x04 - Telex ( F.69 )
+        //       SMPP NPI LNDMBL = 0x06 - Land Mobile ( E.212 ) | SMPP NPI NATNL = 0x08 - National
+        //       SMPP NPI PRVT = 0x09 - Private                 | SMPP NPI ERMES = 0x0A - ERMES
+        //       SMPP NPI IP = 0x0E - IPv4                      | SMPP NPI WAP = 0x12 - WAP
+        // Set source address ton:npi = 0:1
+        submit.setSourceAddress( new Address( SmppConstants.TON_UNKNOWN, SmppConstants.NPI_E164, sourceAddress ) );
+        // Set destination addresses ton:npi = 1:1
+        List<Address> destinations = new ArrayList<>( destinationAddresses.size() );
+        for ( String destinationAddress : destinationAddresses ) {
+            destinations.add( new Address( SmppConstants.TON_INTERNATIONAL, SmppConstants.NPI_E164, destinationAddress ) );
+        }
+
+        // Set a relative "validity period" of 8 hours. According to paragraph "5.2.16 validity_period" of the
+        // protocol specification document,	the "validity_period" SMPP parameter indicates the "SMSC" expiration
+        // time, after which the message should be discarded if not delivered to the destination. It can be
+        // defined in absolute time format or relative time format (Section 7.1.1.). A "Relative Time Format" example :
+        // "020610233429000R" would be interpreted as a relative period of 2 years, 6 months, 10 days, 23 hours, 34
+        // minutes and 29 seconds from the current "SMSC" time.
+        submit.setValidityPeriod( "000000080000000R" );
+
+        // Asynchronously submit message to "SMSC" for delivery, i.e. a "submit_sm" request per destination, or a
+        // "submit_multi" request per "submit-multi-size" destinations. The requests are kept in flight (up to the
+        // "window" size) while the caller carries on; the handle of each destination is completed once the response
+        // has been received.
+        List<CompletableFuture<SubmitSmResp>> futures = submitter.submit( submit, destinations );
+        // Log the message id of the submitted "SMPP" command in case of success.
+        futures.forEach( future -> future.thenAccept(
+                submitResponse -> log.info( "SMS submitted, message id {}", submitResponse.getMessageId() ) ) );
+
+        // Return the completion handle of each destination.
+        return futures;
     }
 
     /**
      * Send a "WAP Push" message on application startup.
      *
-     * @param session The established "SMPP" session.
+     * @param submitter The asynchronous "submit_sm" pipeline.
      * @param sourceAddress The source address (short code) of the "WAP Push" message.
-     * @param destinationAddress The destination address (MSISDN) of the "WAP Push" message.
-     * @param message The message of the "WAP Push".
+     * @param destinationAddresses The destination addresses (MSISDN) of the "WAP Push" message.
+     * @param msgBytes The user data of the "WAP Push", i.e. the "User Data Header" followed by the binary message body.
      * @param delivery_receipt "true" in case where we request a "delivery receipt" (DLR), else "false".
+     * @return The completion handle of the request, per destination.
      */
-    private void sendWapPushMessage( SmppSession session, String sourceAddress, String destinationAddress, String message, boolean delivery_receipt ) {
-        // Check if the session is currently in the "BOUND" state, i.e. the session is bound and ready to process requests.
-        if ( session.isBound() ) {
-            try {
-                // Construct a "submit_sm" SMPP PDU.
-                SubmitSm submit = new SubmitSm();
-
-                // Create a byte array from the input message "CharSequence" containing only valid hexadecimal formatted characters.
-                byte[] msgBytes = HexUtil.toByteArray( message );
-
-                // DCS : SMPP ENCODING DEFAULT = 0x00 - SMSC Default.
-                //       SMPP ENCODING IA5 = 0x01 - IA5 ( CCITT T.50 ) / ASCII ( ANSI X3.4 ).
-                //       SMPP ENCODING BINARY = 0x02 - Octet unspecified ( 8-bit binary ).
-                //       SMPP ENCODING ISO88591 = 0x03 - Latin 1 ( ISO-8859-1 ).
-                //       SMPP ENCODING BINARY2 = 0x04 - Octet unspecified ( 8-bit binary ).
-                //       SMPP ENCODING JIS = 0x05 - JIS ( X 0208-1990 ).
-                //       SMPP ENCODING ISO88595 = 0x06 - Cyrillic ( ISO-8859-5 ).
-                //       SMPP ENCODING ISO88598 = 0x07 - Latin/Hebrew ( ISO-8859-8 ).
-                //       SMPP ENCODING ISO10646 = 0x08 - UCS2 ( ISO/IEC-10646 ).
-                //       SMPP ENCODING PICTOGRAM = 0x09 - Pictogram Encoding.
-                //       SMPP ENCODING ISO2022JP = 0x0A - ISO-2022-JP ( Music Codes ).
-                //       SMPP ENCODING EXTJIS = 0x0D - Extended Kanji JIS ( X 0212-1990 ).
-                //       SMPP ENCODING KSC5601 = 0x0E - KS C 5601
-                // Set "data coding scheme" (DCS) for sending "WAP Push" message - SMS DATA CODING = 245 (0XF5).
-                submit.setDataCoding( (byte) 0XF5 );
-
-                // In case we also request a "delivery receipt" (DLR).
-                if ( delivery_receipt ) {
-                    submit.setRegisteredDelivery( SmppConstants.REGISTERED_DELIVERY_SMSC_RECEIPT_REQUESTED );
-                }
-
-                // According to paragraph "5.2.22 short_message" of the protocol specification document, the "short_message" parameter
-                // contains the user data. A maximum of 254 octets can be sent. ESME’s should use the optional "message_payload"
-                // parameter in "submit_sm" to send larger user data sizes. That is, the "message_payload" parameter contains
-                // the user data. Its function is to provide an alternative means of carrying text lengths above the 255
-                // octet limit of the "short_message" field. Applications, which need to send messages longer than 255 octets,
-                // should use the "message_payload" TLV populated with the message length value and user data. When used
-                // in the context of a "submit_sm" PDU, the "sm_length" field should be set to zero (NULL). On the other hand,
-                // if we try to push a longer message, which is more than 255 characters length, we will get the below
-                // error message from "cloudhopper" :
-                //       com.cloudhopper.smpp.type.SmppInvalidArgumentException: A short message in a PDU can only be a max of
-                //       255 bytes [actual=" + value.length + "]; use optional parameter message_payload as an alternative
-                if ( msgBytes != null && msgBytes.length > 255 ) {
-                    // Add an optional parameter to this "PDU". Does not check if the "TLV" has already been added (allows duplicates).
-                    submit.addOptionalParameter(
-                            new Tlv( SmppConstants.TAG_MESSAGE_PAYLOAD, msgBytes, "message_payload" ) );
-                } else {
-                    // Else set the "short_message" SMPP parameter with the user data.
-                    submit.setShortMessage( msgBytes );
-                }
+    private static List<CompletableFuture<SubmitSmResp>> sendWapPushMessage( AsyncSubmitter submitter,
+                                                                            String sourceAddress,
+                                                                            List<String> destinationAddresses,
+                                                                            byte[] msgBytes, boolean delivery_receipt ) {
+        // Construct a "submit_sm" SMPP PDU.
+        SubmitSm submit = new SubmitSm();
+
+        // DCS : SMPP ENCODING DEFAULT = 0x00 - SMSC Default.
+        //       SMPP ENCODING IA5 = 0x01 - IA5 ( CCITT T.50 ) / ASCII ( ANSI X3.4 ).
+        //       SMPP ENCODING BINARY = 0x02 - Octet unspecified ( 8-bit binary ).
+        //       SMPP ENCODING ISO88591 = 0x03 - Latin 1 ( ISO-8859-1 ).
+        //       SMPP ENCODING BINARY2 = 0x04 - Octet unspecified ( 8-bit binary ).
+        //       SMPP ENCODING JIS = 0x05 - JIS ( X 0208-1990 ).
+        //       SMPP ENCODING ISO88595 = 0x06 - Cyrillic ( ISO-8859-5 ).
+        //       SMPP ENCODING ISO88598 = 0x07 - Latin/Hebrew ( ISO-8859-8 ).
+        //       SMPP ENCODING ISO10646 = 0x08 - UCS2 ( ISO/IEC-10646 ).
+        //       SMPP ENCODING PICTOGRAM = 0x09 - Pictogram Encoding.
+        //       SMPP ENCODING ISO2022JP = 0x0A - ISO-2022-JP ( Music Codes ).
+        //       SMPP ENCODING EXTJIS = 0x0D - Extended Kanji JIS ( X 0212-1990 ).
+        //       SMPP ENCODING KSC5601 = 0x0E - KS C 5601
+        // Set "data coding scheme" (DCS) for sending "WAP Push" message - SMS DATA CODING = 245 (0XF5).
+        submit.setDataCoding( (byte) 0XF5 );
+
+        // In case we also request a "delivery receipt" (DLR).
+        if ( delivery_receipt ) {
+            submit.setRegisteredDelivery( SmppConstants.REGISTERED_DELIVERY_SMSC_RECEIPT_REQUESTED );
+        }
 
-                // TON : SMPP TON UNK = 0x00    | SMPP_TON INTL = 0x01  | SMPP TON NATNL = 0x02
-                //       SMPP TON NWSPEC = 0x03 | SMPP_TON SBSCR = 0x04 | SMPP TON ALNUM = 0x05
-                //       SMPP TON ABBREV = 0x06
-                // NPI : SMPP NPI UNK = 0x00 - Unknown                  | SMPP NPI ISDN = 0x01 - ISDN ( E163/E164 )
-                //       SMPP NPI DATA = 0x03 - Data ( X.121 )          | SMPP NPI TELEX = 0x04 - Telex ( F.69 )
-                //       SMPP NPI LNDMBL = 0x06 - Land Mobile ( E.212 ) | SMPP NPI NATNL = 0x08 - National
-                //       SMPP NPI PRVT = 0x09 - Private                 | SMPP NPI ERMES = 0x0A - ERMES
-                //       SMPP NPI IP = 0x0E - IPv4                      | SMPP NPI WAP = 0x12 - WAP
-                // Set source address ton:npi = 0:1
-                submit.setSourceAddress( new Address( SmppConstants.TON_UNKNOWN, SmppConstants.NPI_E164, sourceAddress ) );
-                // Set destination address ton:npi = 1:1
-                submit.setDestAddress( new Address( SmppConstants.TON_INTERNATIONAL, SmppConstants.NPI_E164, destinationAddress ) );
-
-                // ESM : SMPP MSGMODE DEFAULT = 0x00 - Default SMSC mode ( e.g. Store and Forward ).
-                //       SMPP MSGMODE DATAGRAM = 0x01 - Datagram mode.
-                //       SMPP MSGMODE FORWARD = 0x02 - Forward ( i.e. Transaction ) mode.
-                //       SMPP MSGMODE STOREFORWARD = 0x03 - Explicit Store and Forward mode.
-                //       SMPP MSGTYPE DEFAULT = 0x00 - Default message type ( i.e. normal message ).
-                //       SMPP MSGTYPE DELIVERYACK = 0x08 - Message contains ESME Delivery acknowledgement.
-                //       SMPP MSGTYPE USERACK = 0x10 - Message contains ESME Manual / User acknowledgement.
-                //       SMPP GSMFEAT NONE = 0x00 - No specific features selected.
-                //       SMPP GSMFEAT UDHI = 0x40 - UDHI Indicator ( only relevant for MT msgs ).
-                //       SMPP GSMFEAT REPLYPATH = 0x80 - Set Reply Path ( only relevant for GSM net ).
-                //       SMPP GSMFEAT UDHIREPLYPATH = 0xC0 - Set UDHI and Reply Path ( for GSM net ).
-                // Set "ESM Class" for sending "WAP Push" message - ESM CLASS = 64 (0x40), i.e. set "UDHI" Indicator.
-                submit.setEsmClass( (byte) 0x40 );
-
-                // Set a relative "validity period" of 8 hours. According to paragraph "5.2.16 validity_period" of the
-                // protocol specification document,	the "validity_period" SMPP parameter indicates the "SMSC" expiration
-                // time, after which the message should be discarded if not delivered to the destination. It can be
-                // defined in absolute time format or relative time format (Section 7.1.1.). A "Relative Time Format" example :
-                // "020610233429000R" would be interpreted as a relative period of 2 years, 6 months, 10 days, 23 hours, 34
-                // minutes and 29 seconds from the current "SMSC" time.
-                submit.setValidityPeriod( "000000080000000R" );
-
-                // According to paragraph "5.2.11 service_type" of the protocol specification document,	the "service_type"
-                // SMPP parameter can be used to indicate the "SMS" Application service associated with the message.
-                // Set the generic "service_type" - "WAP" Wireless Application Protocol.
-                submit.setServiceType( "WAP" );
-
-                // Submit message to "SMSC" for delivery with a timeout of 10000ms. Synchronously send a "submit" request
-                // to the remote endpoint and wait for up to a specified number of milliseconds for a response. The
-                // timeout value includes both waiting for a "window" slot, the time it takes to transmit the actual bytes
-                // on the socket, and for the remote endpoint to send a response back. Get a valid response to the request.
-                SubmitSmResp submitResponse = session.submit( submit, 10000 );
-                // Check if the status of the submitted "SMPP" command is success, else throw exception.
-                if ( submitResponse.getCommandStatus() == SmppConstants.STATUS_OK ) {
-                    log.info( "SMS submitted, message id {}", submitResponse.getMessageId() );
-                } else {
-                    throw new IllegalStateException( submitResponse.getResultMessage() );
-                }
-            }
-            // In case of error throw exception, i.e.
-            // * when a recoverable "PDU" error occurs. A recoverable PDU error includes the partially decoded PDU in
-            // order to generate a negative acknowledgement (NACK) response.
-            // * when an unrecoverable "PDU" error occurs. This indicates a serious error occurred and usually indicates
-            // the session should be immediately terminated.
-            // * when a timeout occurs while waiting for a response from the remote endpoint.  A timeout can either occur
-            // with an unresponsive remote endpoint or the bytes were not written in time.
-            // * when the underlying socket/channel was unable to write the request.
-            // * when the calling thread was interrupted while waiting to acquire a lock or write/read the bytes from the
-            // socket/channel.
-            catch ( RecoverablePduException | UnrecoverablePduException | SmppTimeoutException | SmppChannelException
-                    | InterruptedException e ) {
+        // According to paragraph "5.2.22 short_message" of the protocol specification document, the "short_message" parameter
+        // contains the user data. A maximum of 254 octets can be sent. ESME’s should use the optional "message_payload"
+        // parameter in "submit_sm" to send larger user data sizes. That is, the "message_payload" parameter contains
+        // the user data. Its function is to provide an alternative means of carrying text lengths above the 255
+        // octet limit of the "short_message" field. Applications, which need to send messages longer than 255 octets,
+        // should use the "message_payload" TLV populated with the message length value and user data. When used
+        // in the context of a "submit_sm" PDU, the "sm_length" field should be set to zero (NULL). On the other hand,
+        // if we try to push a longer message, which is more than 255 characters length, we will get the below
+        // error message from "cloudhopper" :
+        //       com.cloudhopper.smpp.type.SmppInvalidArgumentException: A short message in a PDU can only be a max of
+        //       255 bytes [actual=" + value.length + "]; use optional parameter message_payload as an alternative
+        if ( msgBytes.length > 255 ) {
+            // Add an optional parameter to this "PDU". Does not check if the "TLV" has already been added (allows duplicates).
+            submit.addOptionalParameter(
+                    new Tlv( SmppConstants.TAG_MESSAGE_PAYLOAD, msgBytes, "message_payload" ) );
+        } else {
+            // Else set the "short_message" SMPP parameter with the user data or throw exception in case where the
+            // user data is longer than 255 octets.
+            try {
+                submit.setShortMessage( msgBytes );
+            } catch ( SmppInvalidArgumentException e ) {
                 throw new IllegalStateException( e );
             }
-            return;
         }
-        // Else throw exception in case where the session is not currently in the "BOUND" state.
-        throw new IllegalStateException( "SMPP session is not connected" );
+
+        // TON : SMPP TON UNK = 0x00    | SMPP_TON INTL = 0x01  | SMPP TON NATNL = 0x02
+        //       SMPP TON NWSPEC = 0x03 | SMPP_TON SBSCR = 0x04 | SMPP TON ALNUM = 0x05
+        //       SMPP TON ABBREV = 0x06
+        // NPI : SMPP NPI UNK = 0x00 - Unknown                  | SMPP NPI ISDN = 0x01 - ISDN ( E163/E164 )
+        //       SMPP NPI DATA = 0x03 - Data ( X.121 )          | SMPP NPI TELEX = 0x04 - Telex ( F.69 )
+        //       SMPP NPI LNDMBL = 0x06 - Land Mobile ( E.212 ) | SMPP NPI NATNL = 0x08 - National
+        //       SMPP NPI PRVT = 0x09 - Private                 | SMPP NPI ERMES = 0x0A - ERMES
+        //       SMPP NPI IP = 0x0E - IPv4                      | SMPP NPI WAP = 0x12 - WAP
+        // Set source address ton:npi = 0:1
+        submit.setSourceAddress( new Address( SmppConstants.TON_UNKNOWN, SmppConstants.NPI_E164, sourceAddress ) );
+        // Set destination addresses ton:npi = 1:1
+        List<Address> destinations = new ArrayList<>( destinationAddresses.size() );
+        for ( String destinationAddress : destinationAddresses ) {
+            destinations.add( new Address( SmppConstants.TON_INTERNATIONAL, SmppConstants.NPI_E164, destinationAddress ) );
+        }
+
+        // ESM : SMPP MSGMODE DEFAULT = 0x00 - Default SMSC mode ( e.g. Store and Forward ).
+        //       SMPP MSGMODE DATAGRAM = 0x01 - Datagram mode.
+        //       SMPP MSGMODE FORWARD = 0x02 - Forward ( i.e. Transaction ) mode.
+        //       SMPP MSGMODE STOREFORWARD = 0x03 - Explicit Store and Forward mode.
+        //       SMPP MSGTYPE DEFAULT = 0x00 - Default message type ( i.e. normal message ).
+        //       SMPP MSGTYPE DELIVERYACK = 0x08 - Message contains ESME Delivery acknowledgement.
+        //       SMPP MSGTYPE USERACK = 0x10 - Message contains ESME Manual / User acknowledgement.
+        //       SMPP GSMFEAT NONE = 0x00 - No specific features selected.
+        //       SMPP GSMFEAT UDHI = 0x40 - UDHI Indicator ( only relevant for MT msgs ).
+        //       SMPP GSMFEAT REPLYPATH = 0x80 - Set Reply Path ( only relevant for GSM net ).
+        //       SMPP GSMFEAT UDHIREPLYPATH = 0xC0 - Set UDHI and Reply Path ( for GSM net ).
+        // Set "ESM Class" for sending "WAP Push" message - ESM CLASS = 64 (0x40), i.e. set "UDHI" Indicator.
+        submit.setEsmClass( (byte) 0x40 );
+
+        // Set a relative "validity period" of 8 hours. According to paragraph "5.2.16 validity_period" of the
+        // protocol specification document,	the "validity_period" SMPP parameter indicates the "SMSC" expiration
+        // time, after which the message should be discarded if not delivered to the destination. It can be
+        // defined in absolute time format or relative time format (Section 7.1.1.). A "Relative Time Format" example :
+        // "020610233429000R" would be interpreted as a relative period of 2 years, 6 months, 10 days, 23 hours, 34
+        // minutes and 29 seconds from the current "SMSC" time.
+        submit.setValidityPeriod( "000000080000000R" );
+
+        // According to paragraph "5.2.11 service_type" of the protocol specification document,	the "service_type"
+        // SMPP parameter can be used to indicate the "SMS" Application service associated with the message.
+        // Set the generic "service_type" - "WAP" Wireless Application Protocol.
+        submit.setServiceType( "WAP" );
+
+        // Asynchronously submit message to "SMSC" for delivery, i.e. a "submit_sm" request per destination, or a
+        // "submit_multi" request per "submit-multi-size" destinations. The requests are kept in flight (up to the
+        // "window" size) while the caller carries on; the handle of each destination is completed once the response
+        // has been received.
+        List<CompletableFuture<SubmitSmResp>> futures = submitter.submit( submit, destinations );
+        // Log the message id of the submitted "SMPP" command in case of success.
+        futures.forEach( future -> future.thenAccept(
+                submitResponse -> log.info( "SMS submitted, message id {}", submitResponse.getMessageId() ) ) );
+
+        // Return the completion handle of each destination.
+        return futures;
     }
 
     /**
-     * "SMPP" Sessions are short-lived; given a scenario where a mobile device is switched off, the "SMS" will be delivered only
-     * when the device is switched back on. In this same scenario, the "SMPP" Session may be closed when the delivery is
-     * received, leading to lost "delivery receipts". To overcome this limitation, the application periodically refreshes
-     * the session before it un-binds. The following method periodically extends the "SMPP" session.
-     *
-     * The "fixedDelayString" value ${sms.async.initial-delay} is set in the "application.yaml" file. This will cause the
-     * application to enquire link every x seconds.
+     * Remove the expired entries of the correlation store, i.e. the messages whose "delivery receipt" never arrived.
      *
-     * Note : when internet connectivity is lost on the server running the application, this will not work.
-     * Also, when the "SMPP" Session unexpectedly unbinds this solution will not work.
+     * The "fixedDelayString" value ${sms.async.correlation-sweep-interval} is set in the "application.yaml" file.
      */
-    // Mark the method to be scheduled with a specific number of units of time to delay before the first execution and
-    // a fixed period between the end of the last invocation and the start of the next.
-    @Scheduled( initialDelayString = "${sms.async.initial-delay}", fixedDelayString = "${sms.async.initial-delay}" )
-    void enquireLinkJob() {
-        // Check if the session is currently in the "BOUND" state, i.e. the session is bound and ready to process requests.
-        if ( session.isBound() ) {
-            try {
-                log.info( "sending enquire_link" );
-                // Synchronously send an "enquire_link" request to the remote endpoint and
-                // wait for up to a specified number of milliseconds for a response. The
-                // timeout value includes both waiting for a "window" slot, the time it
-                // takes to transmit the actual bytes on the socket, and for the remote
-                // endpoint to send a response back. Get a valid response to the request.
-                EnquireLinkResp enquireLinkResp = session.enquireLink( new EnquireLink(),
-                        properties.getAsync().getTimeout() );
-                log.info( "enquire_link_resp: {}", enquireLinkResp );
-            }
-            // Throw exception in case where a timeout occurred while waiting for a response from the remote endpoint.
-            // A timeout can either occur with an unresponsive remote endpoint or the bytes were not written in time.
-            catch ( SmppTimeoutException e ) {
-                log.info( "Enquire link failed, executing reconnect; " + e );
-                log.error( "", e );
-            }
-            // Throw exception in case where the underlying socket/channel was unable to write the request.
-            catch ( SmppChannelException e ) {
-                log.info( "Enquire link failed, executing reconnect; " + e );
-                log.warn( "", e );
-            }
-            // Throw exception in case where the calling thread was interrupted while waiting to acquire a lock or
-            // write/read the bytes from the socket/channel.
-            catch ( InterruptedException e ) {
-                log.info( "Enquire link interrupted, probably killed by reconnecting" );
-            }
-            // Throw exception in any other case.
-            catch ( Exception e ) {
-                log.error( "Enquire link failed, executing reconnect", e );
-            }
-        } else {
-            log.error( "enquire link running while session is not connected" );
-        }
+    @Scheduled( initialDelayString = "${sms.async.correlation-sweep-interval}",
+                fixedDelayString = "${sms.async.correlation-sweep-interval}" )
+    void correlationExpiryJob() {
+        correlationStore.expire();
     }
 
     /**
@@ -818,38 +1047,36 @@ public class SmppClient {
      * \x01                                      | </SI>
      *-------------------------------------------------------------------------------
      *
-     * @param destinationAddress The destination address (MSISDN) of the "WAP Push" message.
+     * The body is encoded once per "href" and text, i.e. the last precompiled message is reused (e.g. throughout a
+     * bulk campaign); only the "si-id" is written per message.
+     *
      * @param href The "WAP Push SI" href "URL".
      * @param indicationText The text for "WAP Push SI" element.
-     * @return The set of messages representing this "WAP Push WDP" datagram.
+     * @param referenceNumbers The allocator of the reference number of a "concatenated" message.
+     * @return The user data ("UDH" followed by the body) of each message representing this "WAP Push WDP" datagram.
      * @throws MalformedURLException Indicate that a malformed "URL" has occurred. Either no legal protocol could be found
      * in a specification string or the string could not be parsed.
-     * @throws WapPushException A generic exception for "WAP Push".
      */
-    public static Message[] generateWapPushSI( String destinationAddress, String href, String indicationText ) throws MalformedURLException, WapPushException {
-        // Create a "WAP Push" message of content type "Service Indication".
-        // It seems that the "destinationAddress" is a mandatory parameter - in theory is the destination address
-        // for the generated messages. However, in practice, the submission of the generated "SMS" messages will be
-        // handled by a different method of this application.
-        ServiceIndication serviceIndication = new ServiceIndication( destinationAddress );
-        // Set "SI" action with action type "SIGNAL_HIGH".
-        serviceIndication.setAction( ServiceIndication.ACTION_SIGNAL_HIGH );
-        // Set "SI" href "URL".
-        serviceIndication.setHref( href );
-        // Set "SI" id - generate a random integer value within a "static" pre-defined range.
-        serviceIndication.setId( String.valueOf( (int)( Math.random() * ( ( 9999 - 1000 ) + 1 ) ) + 1000 ) );
-        // Set text for "SI indication" element.
-        serviceIndication.setIndicationText( indicationText );
+    public static List<byte[]> generateWapPushSI( String href, String indicationText, IntSupplier referenceNumbers ) throws MalformedURLException {
+        // Get the precompiled "WAP Push" message of content type "Service Indication", with action type "SIGNAL_HIGH";
+        // compiled again in case where the "href" or the text changed.
+        WapPushEncoder encoder = serviceIndication;
+        if ( encoder == null || !encoder.isCompiledFrom( href, indicationText ) ) {
+            encoder = WapPushEncoder.serviceIndication( href, indicationText );
+            serviceIndication = encoder;
+        }
 
-        // Generate a set of messages representing this "WAP Push WDP" datagram.
-        Message[] msgs = serviceIndication.generateMessages();
-
-        // Loop through the array of messages - just for DEBUGing purposes.
-        for ( Message msg : msgs ) {
-            // Get the byte array of user data headers and print it as hexadecimal string.
-            log.info( "Wap Push SI UDH  : " + Utils.encodeHexString( msg.getUDH() ) );
-            // Get the byte array of message payload and print it as hexadecimal string.
-            log.info( "Wap Push SI Body : " + Utils.encodeHexString( msg.getBinaryMessageBody() ) );
+        // Generate a set of messages representing this "WAP Push WDP" datagram, with an "SI" id - a random integer value
+        // within a "static" pre-defined range.
+        List<byte[]> msgs = encoder.encode( ThreadLocalRandom.current().nextInt( 1000, 10000 ), referenceNumbers );
+
+        // Loop through the array of messages - just for DEBUGing purposes; the hex strings are built only in case
+        // where they are logged.
+        if ( log.isInfoEnabled() ) {
+            for ( byte[] msg : msgs ) {
+                // Print the user data ("UDH" followed by the message payload) as hexadecimal string.
+                log.info( "Wap Push SI : " + Utils.encodeHexString( msg ) );
+            }
         }
 
         // Return the set of messages representing this "WAP Push WDP" datagram.
@@ -860,31 +1087,31 @@ public class SmppClient {
      * Create a WAP Push "Service Loading" message.
      * Have a look also at the "generateWapPushSI" method description comments.
      *
-     * @param destinationAddress The destination address (MSISDN) of the "WAP Push" message.
      * @param href The "WAP Push SL" href "URL".
-     * @return The set of messages representing this "WAP Push WDP" datagram.
+     * @param referenceNumbers The allocator of the reference number of a "concatenated" message.
+     * @return The user data ("UDH" followed by the body) of each message representing this "WAP Push WDP" datagram.
      * @throws MalformedURLException Indicate that a malformed "URL" has occurred. Either no legal protocol could be found
      * in a specification string or the string could not be parsed.
-     * @throws WapPushException A generic exception for "WAP Push".
      */
-    public static Message[] generateWapPushSL( String destinationAddress, String href ) throws MalformedURLException, WapPushException {
-        // Create a "WAP Push" message of content type "Service Loading".
-        // It seems that the "destinationAddress" is a mandatory parameter - in theory is the destination address
-        // for the generated messages. However, in practice, the submission of the generated "SMS" messages will be
-        // handled by a different method of this application.
-        ServiceLoading serviceLoading = new ServiceLoading( destinationAddress, href );
-        // Set "SL" action with action type "EXECUTE_HIGH".
-        serviceLoading.setAction( ServiceLoading.ACTION_EXECUTE_HIGH );
+    public static List<byte[]> generateWapPushSL( String href, IntSupplier referenceNumbers ) throws MalformedURLException {
+        // Get the precompiled "WAP Push" message of content type "Service Loading", with action type "EXECUTE_HIGH";
+        // compiled again in case where the "href" changed.
+        WapPushEncoder encoder = serviceLoading;
+        if ( encoder == null || !encoder.isCompiledFrom( href, null ) ) {
+            encoder = WapPushEncoder.serviceLoading( href );
+            serviceLoading = encoder;
+        }
 
         // Generate a set of messages representing this "WAP Push WDP" datagram.
-        Message[] msgs = serviceLoading.generateMessages();
-
-        // Loop through the array of messages - just for DEBUGing purposes.
-        for ( Message msg : msgs ) {
-            // Get the byte array of user data headers and print it as hexadecimal string.
-            log.info( "Wap Push SL UDH  : " + Utils.encodeHexString( msg.getUDH() ) );
-            // Get the byte array of message payload and print it as hexadecimal string.
-            log.info( "Wap Push SL Body : " + Utils.encodeHexString( msg.getBinaryMessageBody() ) );
+        List<byte[]> msgs = encoder.encode( 0, referenceNumbers );
+
+        // Loop through the array of messages - just for DEBUGing purposes; the hex strings are built only in case
+        // where they are logged.
+        if ( log.isInfoEnabled() ) {
+            for ( byte[] msg : msgs ) {
+                // Print the user data ("UDH" followed by the message payload) as hexadecimal string.
+                log.info( "Wap Push SL : " + Utils.encodeHexString( msg ) );
+            }
         }
 
         // Return the set of messages representing this "WAP Push WDP" datagram.
@@ -898,48 +1125,41 @@ public class SmppClient {
      * @param theContentLocation The "URL" of the "MMS" content location.
      * @param subject The subject of the notification message.
      * @param size The size of the "MMS" content - approximate calculation in bytes.
-     * @return A "HashMap" consisting of the "User Data Header" and the "User Data" of the "MMS" notification "WAP push" message.
+     * @param referenceNumbers The allocator of the reference number of a segmented notification.
+     * @param segmented "true" to cut a notification longer than a single short message into "WDP" segments, else
+     *                  "false" to keep it in a single message.
+     * @return The notification, i.e. the user data ("UDH" followed by the body) of each of its messages.
+     * @throws IllegalArgumentException In case where the notification needs more than 255 segments.
      */
-    public static Map<String,Object> generateWapPush_M_NOTIFICATION_IND( String sourceAddress, String theContentLocation, String subject, long size ) {
-        // WAP Push UDH
-        // 06   : read the following 6 bytes.
-        // 05   : the format for numbers, in this case hexadecimal numbers.
-        // 04   : tell the "UDH" that each port is represented using 4 character.
-        // 0B84 : the destination port, "2948" (decimal representation) or "0B84" (hexadecimal representation).
-        // 23F0 : the source port, "9200" (decimal representation) or "23F0" (hexadecimal representation).
-        final String UDH = "0605040b8423f0";
-
-        // Create an "MMS" notification "WAP push" message with "SMS" as bearer (X-Mms-Message-Type: m-notification-ind).
-        SmsMmsNotificationMessage smsMmsNotificationMessage = new SmsMmsNotificationMessage( theContentLocation, size );
-        // Set "MMS" expiration in 3 days (X-Mms-Expiry).
-        smsMmsNotificationMessage.setExpiry( 3 * 24 * 60 * 60 );
-        // Set message originator (From).
-        smsMmsNotificationMessage.setFrom( sourceAddress );
-        // Set message class to "Personal" (X-Mms-Message-Class).
-        smsMmsNotificationMessage.setMessageClass( MmsConstants.X_MMS_MESSAGE_CLASS_ID_PERSONAL );
-        // Set message subject.
-        smsMmsNotificationMessage.setSubject( subject );
-        // Set message transaction-Id - generate a random integer value between a specified range (X-Mms-Transaction-ID).
-        smsMmsNotificationMessage.setTransactionId( String.valueOf( (int)( Math.random()*( ( 99999 - 10000 ) + 1 ) ) + 10000) );
-
-        // Return the whole "User Data".
-        SmsUserData smsUserData = smsMmsNotificationMessage.getUserData();
-
-        // Just for DEBUGing purposes.
-        // Get the user data header and print it as hexadecimal string.
-        log.info( "Wap Push M-NOTIFICATION-IND UDH  : " + UDH );
-        // Get the byte array of message payload and print it as hexadecimal string.
-        log.info( "Wap Push M-NOTIFICATION-IND Body : " + Utils.encodeHexString( smsUserData.getData() ) );
-
-        // Construct an empty "HashMap" for the message.
-        Map<String,Object> msg = new HashMap<>();
-        // Associate the "User Data Header" value with the "UDH" key in this map.
-        msg.put( "UDH", UDH );
-        // Associate the "User Data" with the "message body" key in this map.
-        msg.put( "BinaryMessageBody", smsUserData );
-
-        // Return the "HashMap" consisting of the "User Data Header" and the "User Data" of the "MMS" notification "WAP push" message.
-        return msg;
+    public static MmsNotificationEncoder.Notification generateWapPush_M_NOTIFICATION_IND( String sourceAddress,
+                                                                                         String theContentLocation,
+                                                                                         String subject, long size,
+                                                                                         IntSupplier referenceNumbers,
+                                                                                         boolean segmented ) {
+        // Get the precompiled headers of the notification, i.e. "WSP" push header, "X-Mms-Message-Type" (m-notification-ind),
+        // "From", "Subject", "X-Mms-Message-Class" (Personal) and "X-Mms-Expiry" (3 days); compiled again in case where
+        // the originator or the subject changed.
+        MmsNotificationEncoder encoder = mmsNotification;
+        if ( encoder == null || !encoder.isCompiledFrom( sourceAddress, subject, MMS_EXPIRY ) ) {
+            encoder = MmsNotificationEncoder.compile( sourceAddress, subject, MMS_EXPIRY );
+            mmsNotification = encoder;
+        }
+
+        // Encode the notification with a random "X-Mms-Transaction-ID" between 10000 and 99999, the "X-Mms-Message-Size"
+        // and the "X-Mms-Content-Location".
+        MmsNotificationEncoder.Notification notification = encoder.encode(
+                ThreadLocalRandom.current().nextInt( 10000, 100000 ), theContentLocation, size, referenceNumbers, segmented );
+
+        // Just for DEBUGing purposes; the hex strings are built only in case where they are logged.
+        if ( log.isInfoEnabled() ) {
+            for ( byte[] msg : notification.getParts() ) {
+                // Print the user data ("UDH" followed by the message payload) as hexadecimal string.
+                log.info( "Wap Push M-NOTIFICATION-IND : " + Utils.encodeHexString( msg ) );
+            }
+        }
+
+        // Return the notification.
+        return notification;
     }
 
     /**
@@ -947,9 +1167,10 @@ public class SmppClient {
      * Parse and retrieve the "command line arguments".
      *
      * @param arguments The "command line arguments".
-     * @return A "HashMap" object consisting of the "command line arguments".
+     * @return A "HashMap" object consisting of the "command line arguments"; the application exits in case where
+     *         they are not valid.
      */
-    private static Map<String,String> getCLI( String[] arguments ) {
+    public static Map<String,String> getCLI( String[] arguments ) {
         // Create "Options" object. "Options" represents a collection of "Option" objects, which describe the possible
         // options for a command-line.
         Options options = new Options();
@@ -974,7 +1195,19 @@ public class SmppClient {
                 .desc( "msg destination address, e.g. 306944000000" )
                 .hasArg()
                 .argName( "dst-addr" )
-                .required( true )
+                .required( false )
+                .build() );
+        // Return an "Option.Builder" to create an "Option" using descriptive methods. Then set the long name of the "Option",
+        // the description for this "Option", indicate that the "Option" will require an argument, and set the display name
+        // for the argument value, mark this "Option" as optional and construct the "Option" with the values declared
+        // by this "Option.Builder". Finally, add the "Option" instance.
+        options.addOption( Option.builder("f" )
+                .longOpt( "recipients-file" )
+                .desc( "bulk campaign recipients file, i.e. CSV rows \"destination[,text]\" or NDJSON (.ndjson|.jsonl) rows " +
+                        "{\"destination\":\"...\",\"text\":\"...\"}; the text of a row overrides the message text" )
+                .hasArg()
+                .argName( "file" )
+                .required( false )
                 .build() );
         // Return an "Option.Builder" to create an "Option" using descriptive methods. Then set the long name of the "Option",
         // the description for this "Option", indicate that the "Option" will require an argument, and set the display name
@@ -1034,6 +1267,19 @@ public class SmppClient {
         // the description for this "Option", indicate that the "Option" will require an argument, and set the display name
         // for the argument value, mark this "Option" as optional and construct the "Option" with the values declared
         // by this "Option.Builder". Finally, add the "Option" instance.
+        options.addOption( Option.builder()
+                .longOpt( "message-template" )
+                .desc( "sms|flash msg template with numbered slots, e.g. \"Your code is {0}\"; the slots are filled " +
+                        "with the comma separated values of the message text (or of the text of each row); a comma " +
+                        "within a value is escaped as \\, and a backslash as \\\\" )
+                .hasArg()
+                .argName( "template" )
+                .required( false )
+                .build() );
+        // Return an "Option.Builder" to create an "Option" using descriptive methods without a short name. Then set the long name of the "Option",
+        // the description for this "Option", indicate that the "Option" will require an argument, and set the display name
+        // for the argument value, mark this "Option" as optional and construct the "Option" with the values declared
+        // by this "Option.Builder". Finally, add the "Option" instance.
         options.addOption( Option.builder()
                 .longOpt( "mm-subject" )
                 .desc( "multimedia subject, e.g. 'hello world'" )
@@ -1049,25 +1295,36 @@ public class SmppClient {
             // by the "Options" and shall return an instance of "CommandLine".
             CommandLine line = parser.parse( options, arguments );
 
+            // Either a single "destination-addr" or a "recipients-file" is required.
+            if ( line.hasOption( "d" ) == line.hasOption( "f" ) ) {
+                throw new ParseException( "Exactly one of the options \"d\" and \"f\" is required" );
+            }
+            // In campaign mode the text may be given per row, so the "message-text" option is optional.
+            boolean textRequired = !line.hasOption( "f" );
+            // The "sms" and "flash" text may be given by a template instead.
+            boolean templated = line.hasOption( "message-template" );
+
             // Retrieve the "message-type" option value.
             switch ( line.getOptionValue( "t" ).toLowerCase() ) {
                 case SMS :
-                    // If "message-type" is "sms" but "message-text" option is missing then throw exception.
-                    if ( line.getOptionValue( "m" ) == null ) {
+                    // If "message-type" is "sms" but both "message-text" and "message-template" options are missing then
+                    // throw exception.
+                    if ( textRequired && !templated && line.getOptionValue( "m" ) == null ) {
                         throw new ParseException( "Missing message text for message type : \"" + line.getOptionValue( "t" ) + "\"" );
                     }
                     // Break out of the "switch" block.
                     break;
                 case FLASH :
-                    // If "message-type" is "flash" but "message-text" option is missing then throw exception.
-                    if ( line.getOptionValue( "m" ) == null ) {
+                    // If "message-type" is "flash" but both "message-text" and "message-template" options are missing then
+                    // throw exception.
+                    if ( textRequired && !templated && line.getOptionValue( "m" ) == null ) {
                         throw new ParseException( "Missing message text for message type : \"" + line.getOptionValue( "t" ) + "\"" );
                     }
                     // Break out of the "switch" block.
                     break;
                 case WAP_SI :
                     // If "message-type" is "wapSI" but "message-text" option is missing then throw exception.
-                    if ( line.getOptionValue( "m" ) == null ) {
+                    if ( textRequired && line.getOptionValue( "m" ) == null ) {
                         throw new ParseException( "Missing message text for message type : \"" + line.getOptionValue( "t" ) + "\"" );
                     }
                     // If "message-type" is "wapSI" but "wappush-href" option is missing then throw exception.
@@ -1103,6 +1360,12 @@ public class SmppClient {
                     throw new ParseException( "Invalid value \"" + line.getOptionValue( "t" ) + "\" for option \"t\". Expected values : sms|flash|mms|wapSI|wapSL" );
             }
 
+            // A template is only supported by the "sms" and "flash" message types.
+            if ( templated && !line.getOptionValue( "t" ).equalsIgnoreCase( SMS )
+                    && !line.getOptionValue( "t" ).equalsIgnoreCase( FLASH ) ) {
+                throw new ParseException( "Option \"message-template\" not supported for message type : \"" + line.getOptionValue( "t" ) + "\"" );
+            }
+
             // Validate "wappush-href" option value if any.
             if ( line.hasOption( "h" ) ) {
                 // Initially construct an object of the "URL" class passing "URL" in "String" format.
@@ -1131,6 +1394,10 @@ public class SmppClient {
             args.put( "deliveryReceipt", line.hasOption( "D" ) ? "true" : "false" );
             // Associate the "mm-subject" option value with the "MMS subject" key in this map.
             args.put( "mmSubject", line.getOptionValue( "mm-subject" ) );
+            // Associate the "recipients-file" option value with the "recipients file" key in this map.
+            args.put( "recipientsFile", line.getOptionValue( "f" ) );
+            // Associate the "message-template" option value with the "message template" key in this map.
+            args.put( "messageTemplate", line.getOptionValue( "message-template" ) );
 
             // Return the "HashMap" object consisting of the "command line arguments".
             return args;
@@ -5,6 +5,14 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
 // Indicates that a field in a "@ConfigurationProperties" object should be treated as if it were a nested type.
 import org.springframework.boot.context.properties.NestedConfigurationProperty;
 
+// Enumeration of all "SMPP" session types.
+import com.cloudhopper.smpp.SmppBindType;
+
+// Resizable-array implementation of the "List" interface.
+import java.util.ArrayList;
+// An ordered collection (also known as a sequence).
+import java.util.List;
+
 /**
  * Class, which contains all the external properties we need.
  */
@@ -47,8 +55,72 @@ public class SmppClientProperties {
         private int corePoolSize = 5;
         private int maxPoolSize = 50;
         private int queueCapacity = 10000;
-        private int initialDelay = 1000;
         private int timeout = 10000;
+        // How long (in milliseconds) a session may receive nothing before it is probed with an "enquire_link".
+        private int keepaliveIdleTime = 30000;
+        // How long (in milliseconds) to wait for any "PDU" after a probe, before the link is declared dead.
+        private int keepaliveTimeout = 10000;
+        // The max number of requests (e.g. "submit_sm") kept in flight per bind, i.e. the "window" size; the initial
+        // "window" size in case where the "window" is adaptive.
+        private int windowSize = 10;
+        // "true" in case where the "window" of each bind is tuned at runtime (AIMD), within the min and max "window"
+        // size, from the latency of the responses against the latency target (in milliseconds); the "request expiry
+        // timeout" is then derived from the p99 latency, within the min timeout (in milliseconds) and the timeout.
+        private boolean adaptiveWindow = true;
+        private int minWindowSize = 1;
+        private int maxWindowSize = 100;
+        private int windowLatencyTarget = 500;
+        private int minTimeout = 2000;
+        // How often (in milliseconds) the "window" is checked for requests that did not receive a response in time.
+        private int windowMonitorInterval = 1000;
+        // How long (in milliseconds) to wait before binding again a session that failed to bind or dropped.
+        private int reconnectDelay = 5000;
+        // The max delay (in milliseconds) before binding again a session; the delay is doubled (with jitter) on each
+        // consecutive failed bind, up to this value.
+        private int reconnectMaxDelay = 60000;
+        // How often (in milliseconds) the sessions are checked for a bind that was lost, i.e. a session that is no
+        // longer "BOUND" or whose socket/channel was closed.
+        private int supervisorInterval = 1000;
+        // How long (in milliseconds) a request waits for a session to be bound (again), before it is failed (or retried).
+        private int reconnectHoldTimeout = 30000;
+        // The number of dedicated "RECEIVER" sessions (binds) handling the inbound traffic (e.g. "delivery receipts");
+        // "0" in case where the inbound traffic is received by the "TRANSCEIVER" sessions of the pool.
+        private int receiverSessionSize = 0;
+        // The max number of recipients of a bulk campaign waiting for their responses at any time.
+        private int campaignMaxInFlight = 1000;
+        // The max number of destinations of a "submit_multi" (up to 254) sending the same message to many
+        // destinations; "0" (or "1") to send a "submit_sm" per destination.
+        private int submitMultiSize = 0;
+        // The max number of precompiled message templates; the least recently used template is evicted first.
+        private int templateCacheSize = 256;
+        // The max number of "submit_sm" requests per second across all the binds, i.e. the contracted "TPS" of the
+        // "SMSC"; "0" for unlimited.
+        private int maxTps = 0;
+        // The max number of "submit_sm" requests per second per bind; "0" for unlimited.
+        private int maxSessionTps = 0;
+        // The max number of "submit_sm" requests sent back-to-back after an idle period.
+        private int tpsBurst = 1;
+        // The number of worker threads processing the received "deliver_sm" PDUs, and the capacity of the ring buffer
+        // of each bind.
+        private int deliveryWorkerSize = 2;
+        private int deliveryQueueCapacity = 1024;
+        // The radix ("16" or "10") of the message ids of the "submit_sm_resp" and "delivery receipt" PDUs.
+        private int submitMessageIdRadix = 16;
+        private int dlrMessageIdRadix = 16;
+        // The time (in milliseconds) a message waits for its "delivery receipt", and the interval of the expiry job.
+        private int correlationTtl = 86400000;
+        private int correlationSweepInterval = 60000;
+        // The directory of the outbound journal ("" to disable it), the size of each segment file, and the interval
+        // (in milliseconds) of the batched "force()".
+        private String journalDirectory = "journal";
+        private int journalSegmentSize = 64 * 1024 * 1024;
+        private int journalFlushInterval = 10;
+        // The max number of attempts of a request failing with a transient error, the delay (in milliseconds) before
+        // the first retry and the max delay, and the tick (in milliseconds) of the timing wheel of the retries.
+        private int retryMaxAttempts = 5;
+        private int retryInitialDelay = 1000;
+        private int retryMaxDelay = 60000;
+        private int retryTickDuration = 100;
 
         /**
          * Get the smpp session size.
@@ -123,21 +195,39 @@ public class SmppClientProperties {
         }
 
         /**
-         * Get the initial delay.
+         * Get the keepalive idle time.
+         *
+         * @return The keepalive idle time in milliseconds.
+         */
+        public int getKeepaliveIdleTime() {
+            return keepaliveIdleTime;
+        }
+
+        /**
+         * Set the keepalive idle time.
+         *
+         * @param keepaliveIdleTime The keepalive idle time in milliseconds.
+         */
+        public void setKeepaliveIdleTime( int keepaliveIdleTime ) {
+            this.keepaliveIdleTime = keepaliveIdleTime;
+        }
+
+        /**
+         * Get the keepalive timeout.
          *
-         * @return The initial delay.
+         * @return The keepalive timeout in milliseconds.
          */
-        public int getInitialDelay() {
-            return initialDelay;
+        public int getKeepaliveTimeout() {
+            return keepaliveTimeout;
         }
 
         /**
-         * Set the initial delay.
+         * Set the keepalive timeout.
          *
-         * @param initialDelay The initial delay.
+         * @param keepaliveTimeout The keepalive timeout in milliseconds.
          */
-        public void setInitialDelay( int initialDelay ) {
-            this.initialDelay = initialDelay;
+        public void setKeepaliveTimeout( int keepaliveTimeout ) {
+            this.keepaliveTimeout = keepaliveTimeout;
         }
 
         /**
@@ -157,6 +247,564 @@ public class SmppClientProperties {
         public void setTimeout( int timeout ) {
             this.timeout = timeout;
         }
+
+        /**
+         * Get the "window" size, i.e. the max number of requests kept in flight per bind.
+         *
+         * @return The "window" size.
+         */
+        public int getWindowSize() {
+            return windowSize;
+        }
+
+        /**
+         * Set the "window" size, i.e. the max number of requests kept in flight per bind.
+         *
+         * @param windowSize The "window" size.
+         */
+        public void setWindowSize( int windowSize ) {
+            this.windowSize = windowSize;
+        }
+
+        /**
+         * Check if the "window" of each bind is tuned at runtime.
+         *
+         * @return "true" in case of an adaptive "window", else "false" in case of a static "window" size.
+         */
+        public boolean isAdaptiveWindow() {
+            return adaptiveWindow;
+        }
+
+        /**
+         * Set if the "window" of each bind is tuned at runtime.
+         *
+         * @param adaptiveWindow "true" for an adaptive "window", else "false" for a static "window" size.
+         */
+        public void setAdaptiveWindow( boolean adaptiveWindow ) {
+            this.adaptiveWindow = adaptiveWindow;
+        }
+
+        /**
+         * Get the min "window" size of an adaptive "window".
+         *
+         * @return The min "window" size.
+         */
+        public int getMinWindowSize() {
+            return minWindowSize;
+        }
+
+        /**
+         * Set the min "window" size of an adaptive "window".
+         *
+         * @param minWindowSize The min "window" size.
+         */
+        public void setMinWindowSize( int minWindowSize ) {
+            this.minWindowSize = minWindowSize;
+        }
+
+        /**
+         * Get the max "window" size of an adaptive "window".
+         *
+         * @return The max "window" size.
+         */
+        public int getMaxWindowSize() {
+            return maxWindowSize;
+        }
+
+        /**
+         * Set the max "window" size of an adaptive "window".
+         *
+         * @param maxWindowSize The max "window" size.
+         */
+        public void setMaxWindowSize( int maxWindowSize ) {
+            this.maxWindowSize = maxWindowSize;
+        }
+
+        /**
+         * Get the latency target of an adaptive "window", i.e. the "window" grows while the responses arrive within it.
+         *
+         * @return The latency target in milliseconds.
+         */
+        public int getWindowLatencyTarget() {
+            return windowLatencyTarget;
+        }
+
+        /**
+         * Set the latency target of an adaptive "window".
+         *
+         * @param windowLatencyTarget The latency target in milliseconds.
+         */
+        public void setWindowLatencyTarget( int windowLatencyTarget ) {
+            this.windowLatencyTarget = windowLatencyTarget;
+        }
+
+        /**
+         * Get the min "request expiry timeout" derived from the p99 latency of an adaptive "window".
+         *
+         * @return The min timeout in milliseconds.
+         */
+        public int getMinTimeout() {
+            return minTimeout;
+        }
+
+        /**
+         * Set the min "request expiry timeout" derived from the p99 latency of an adaptive "window".
+         *
+         * @param minTimeout The min timeout in milliseconds.
+         */
+        public void setMinTimeout( int minTimeout ) {
+            this.minTimeout = minTimeout;
+        }
+
+        /**
+         * Get the "window" monitor interval.
+         *
+         * @return The "window" monitor interval in milliseconds.
+         */
+        public int getWindowMonitorInterval() {
+            return windowMonitorInterval;
+        }
+
+        /**
+         * Set the "window" monitor interval.
+         *
+         * @param windowMonitorInterval The "window" monitor interval in milliseconds.
+         */
+        public void setWindowMonitorInterval( int windowMonitorInterval ) {
+            this.windowMonitorInterval = windowMonitorInterval;
+        }
+
+        /**
+         * Get the reconnect delay.
+         *
+         * @return The reconnect delay in milliseconds.
+         */
+        public int getReconnectDelay() {
+            return reconnectDelay;
+        }
+
+        /**
+         * Set the reconnect delay.
+         *
+         * @param reconnectDelay The reconnect delay in milliseconds.
+         */
+        public void setReconnectDelay( int reconnectDelay ) {
+            this.reconnectDelay = reconnectDelay;
+        }
+
+        /**
+         * Get the reconnect max delay.
+         *
+         * @return The reconnect max delay in milliseconds.
+         */
+        public int getReconnectMaxDelay() {
+            return reconnectMaxDelay;
+        }
+
+        /**
+         * Set the reconnect max delay.
+         *
+         * @param reconnectMaxDelay The reconnect max delay in milliseconds.
+         */
+        public void setReconnectMaxDelay( int reconnectMaxDelay ) {
+            this.reconnectMaxDelay = reconnectMaxDelay;
+        }
+
+        /**
+         * Get the supervisor interval.
+         *
+         * @return The supervisor interval in milliseconds.
+         */
+        public int getSupervisorInterval() {
+            return supervisorInterval;
+        }
+
+        /**
+         * Set the supervisor interval.
+         *
+         * @param supervisorInterval The supervisor interval in milliseconds.
+         */
+        public void setSupervisorInterval( int supervisorInterval ) {
+            this.supervisorInterval = supervisorInterval;
+        }
+
+        /**
+         * Get the reconnect hold timeout.
+         *
+         * @return The reconnect hold timeout in milliseconds.
+         */
+        public int getReconnectHoldTimeout() {
+            return reconnectHoldTimeout;
+        }
+
+        /**
+         * Set the reconnect hold timeout.
+         *
+         * @param reconnectHoldTimeout The reconnect hold timeout in milliseconds.
+         */
+        public void setReconnectHoldTimeout( int reconnectHoldTimeout ) {
+            this.reconnectHoldTimeout = reconnectHoldTimeout;
+        }
+
+        /**
+         * Get the receiver session size.
+         *
+         * @return The number of dedicated "RECEIVER" sessions.
+         */
+        public int getReceiverSessionSize() {
+            return receiverSessionSize;
+        }
+
+        /**
+         * Set the receiver session size.
+         *
+         * @param receiverSessionSize The number of dedicated "RECEIVER" sessions.
+         */
+        public void setReceiverSessionSize( int receiverSessionSize ) {
+            this.receiverSessionSize = receiverSessionSize;
+        }
+
+        /**
+         * Get the max number of recipients of a bulk campaign in flight.
+         *
+         * @return The max number of recipients in flight.
+         */
+        public int getCampaignMaxInFlight() {
+            return campaignMaxInFlight;
+        }
+
+        /**
+         * Set the max number of recipients of a bulk campaign in flight.
+         *
+         * @param campaignMaxInFlight The max number of recipients in flight.
+         */
+        public void setCampaignMaxInFlight( int campaignMaxInFlight ) {
+            this.campaignMaxInFlight = campaignMaxInFlight;
+        }
+
+        /**
+         * Get the max number of destinations of a "submit_multi".
+         *
+         * @return The max number of destinations; "0" in case where "submit_multi" is disabled.
+         */
+        public int getSubmitMultiSize() {
+            return submitMultiSize;
+        }
+
+        /**
+         * Set the max number of destinations of a "submit_multi".
+         *
+         * @param submitMultiSize The max number of destinations; "0" to disable "submit_multi".
+         */
+        public void setSubmitMultiSize( int submitMultiSize ) {
+            this.submitMultiSize = submitMultiSize;
+        }
+
+        /**
+         * Get the max number of precompiled message templates.
+         *
+         * @return The max number of templates.
+         */
+        public int getTemplateCacheSize() {
+            return templateCacheSize;
+        }
+
+        /**
+         * Set the max number of precompiled message templates.
+         *
+         * @param templateCacheSize The max number of templates.
+         */
+        public void setTemplateCacheSize( int templateCacheSize ) {
+            this.templateCacheSize = templateCacheSize;
+        }
+
+        /**
+         * Get the max number of "submit_sm" requests per second across all the binds.
+         *
+         * @return The max "TPS", or "0" for unlimited.
+         */
+        public int getMaxTps() {
+            return maxTps;
+        }
+
+        /**
+         * Set the max number of "submit_sm" requests per second across all the binds.
+         *
+         * @param maxTps The max "TPS", or "0" for unlimited.
+         */
+        public void setMaxTps( int maxTps ) {
+            this.maxTps = maxTps;
+        }
+
+        /**
+         * Get the max number of "submit_sm" requests per second per bind.
+         *
+         * @return The max "TPS" per bind, or "0" for unlimited.
+         */
+        public int getMaxSessionTps() {
+            return maxSessionTps;
+        }
+
+        /**
+         * Set the max number of "submit_sm" requests per second per bind.
+         *
+         * @param maxSessionTps The max "TPS" per bind, or "0" for unlimited.
+         */
+        public void setMaxSessionTps( int maxSessionTps ) {
+            this.maxSessionTps = maxSessionTps;
+        }
+
+        /**
+         * Get the max number of "submit_sm" requests sent back-to-back after an idle period.
+         *
+         * @return The burst size.
+         */
+        public int getTpsBurst() {
+            return tpsBurst;
+        }
+
+        /**
+         * Set the max number of "submit_sm" requests sent back-to-back after an idle period.
+         *
+         * @param tpsBurst The burst size.
+         */
+        public void setTpsBurst( int tpsBurst ) {
+            this.tpsBurst = tpsBurst;
+        }
+
+        /**
+         * Get the number of worker threads processing the received "deliver_sm" PDUs.
+         *
+         * @return The number of worker threads.
+         */
+        public int getDeliveryWorkerSize() {
+            return deliveryWorkerSize;
+        }
+
+        /**
+         * Set the number of worker threads processing the received "deliver_sm" PDUs.
+         *
+         * @param deliveryWorkerSize The number of worker threads.
+         */
+        public void setDeliveryWorkerSize( int deliveryWorkerSize ) {
+            this.deliveryWorkerSize = deliveryWorkerSize;
+        }
+
+        /**
+         * Get the capacity of the "deliver_sm" ring buffer of each bind.
+         *
+         * @return The capacity; rounded up to a power of two.
+         */
+        public int getDeliveryQueueCapacity() {
+            return deliveryQueueCapacity;
+        }
+
+        /**
+         * Set the capacity of the "deliver_sm" ring buffer of each bind.
+         *
+         * @param deliveryQueueCapacity The capacity; rounded up to a power of two.
+         */
+        public void setDeliveryQueueCapacity( int deliveryQueueCapacity ) {
+            this.deliveryQueueCapacity = deliveryQueueCapacity;
+        }
+
+        /**
+         * Get the radix of the message ids of the "submit_sm_resp" PDUs.
+         *
+         * @return "16" for hexadecimal, or "10" for decimal message ids.
+         */
+        public int getSubmitMessageIdRadix() {
+            return submitMessageIdRadix;
+        }
+
+        /**
+         * Set the radix of the message ids of the "submit_sm_resp" PDUs.
+         *
+         * @param submitMessageIdRadix "16" for hexadecimal, or "10" for decimal message ids.
+         */
+        public void setSubmitMessageIdRadix( int submitMessageIdRadix ) {
+            this.submitMessageIdRadix = submitMessageIdRadix;
+        }
+
+        /**
+         * Get the radix of the message ids of the "delivery receipts".
+         *
+         * @return "16" for hexadecimal, or "10" for decimal message ids.
+         */
+        public int getDlrMessageIdRadix() {
+            return dlrMessageIdRadix;
+        }
+
+        /**
+         * Set the radix of the message ids of the "delivery receipts".
+         *
+         * @param dlrMessageIdRadix "16" for hexadecimal, or "10" for decimal message ids.
+         */
+        public void setDlrMessageIdRadix( int dlrMessageIdRadix ) {
+            this.dlrMessageIdRadix = dlrMessageIdRadix;
+        }
+
+        /**
+         * Get the time (in milliseconds) a message waits for its "delivery receipt".
+         *
+         * @return The correlation time-to-live.
+         */
+        public int getCorrelationTtl() {
+            return correlationTtl;
+        }
+
+        /**
+         * Set the time (in milliseconds) a message waits for its "delivery receipt".
+         *
+         * @param correlationTtl The correlation time-to-live.
+         */
+        public void setCorrelationTtl( int correlationTtl ) {
+            this.correlationTtl = correlationTtl;
+        }
+
+        /**
+         * Get the interval (in milliseconds) of the job removing the expired correlations.
+         *
+         * @return The sweep interval.
+         */
+        public int getCorrelationSweepInterval() {
+            return correlationSweepInterval;
+        }
+
+        /**
+         * Set the interval (in milliseconds) of the job removing the expired correlations.
+         *
+         * @param correlationSweepInterval The sweep interval.
+         */
+        public void setCorrelationSweepInterval( int correlationSweepInterval ) {
+            this.correlationSweepInterval = correlationSweepInterval;
+        }
+
+        /**
+         * Get the directory of the outbound journal.
+         *
+         * @return The journal directory, or an empty value in case where the journal is disabled.
+         */
+        public String getJournalDirectory() {
+            return journalDirectory;
+        }
+
+        /**
+         * Set the directory of the outbound journal.
+         *
+         * @param journalDirectory The journal directory, or an empty value to disable the journal.
+         */
+        public void setJournalDirectory( String journalDirectory ) {
+            this.journalDirectory = journalDirectory;
+        }
+
+        /**
+         * Get the size (in bytes) of each segment file of the outbound journal.
+         *
+         * @return The segment size.
+         */
+        public int getJournalSegmentSize() {
+            return journalSegmentSize;
+        }
+
+        /**
+         * Set the size (in bytes) of each segment file of the outbound journal.
+         *
+         * @param journalSegmentSize The segment size.
+         */
+        public void setJournalSegmentSize( int journalSegmentSize ) {
+            this.journalSegmentSize = journalSegmentSize;
+        }
+
+        /**
+         * Get the interval (in milliseconds) of the batched "force()" of the outbound journal.
+         *
+         * @return The flush interval.
+         */
+        public int getJournalFlushInterval() {
+            return journalFlushInterval;
+        }
+
+        /**
+         * Set the interval (in milliseconds) of the batched "force()" of the outbound journal.
+         *
+         * @param journalFlushInterval The flush interval.
+         */
+        public void setJournalFlushInterval( int journalFlushInterval ) {
+            this.journalFlushInterval = journalFlushInterval;
+        }
+
+        /**
+         * Get the max number of attempts of a request failing with a transient error.
+         *
+         * @return The max number of attempts, i.e. the first one plus the retries.
+         */
+        public int getRetryMaxAttempts() {
+            return retryMaxAttempts;
+        }
+
+        /**
+         * Set the max number of attempts of a request failing with a transient error.
+         *
+         * @param retryMaxAttempts The max number of attempts, i.e. the first one plus the retries.
+         */
+        public void setRetryMaxAttempts( int retryMaxAttempts ) {
+            this.retryMaxAttempts = retryMaxAttempts;
+        }
+
+        /**
+         * Get the delay (in milliseconds) before the first retry.
+         *
+         * @return The initial retry delay.
+         */
+        public int getRetryInitialDelay() {
+            return retryInitialDelay;
+        }
+
+        /**
+         * Set the delay (in milliseconds) before the first retry.
+         *
+         * @param retryInitialDelay The initial retry delay.
+         */
+        public void setRetryInitialDelay( int retryInitialDelay ) {
+            this.retryInitialDelay = retryInitialDelay;
+        }
+
+        /**
+         * Get the max delay (in milliseconds) before a retry.
+         *
+         * @return The max retry delay.
+         */
+        public int getRetryMaxDelay() {
+            return retryMaxDelay;
+        }
+
+        /**
+         * Set the max delay (in milliseconds) before a retry.
+         *
+         * @param retryMaxDelay The max retry delay.
+         */
+        public void setRetryMaxDelay( int retryMaxDelay ) {
+            this.retryMaxDelay = retryMaxDelay;
+        }
+
+        /**
+         * Get the tick (in milliseconds) of the timing wheel of the retries.
+         *
+         * @return The tick duration.
+         */
+        public int getRetryTickDuration() {
+            return retryTickDuration;
+        }
+
+        /**
+         * Set the tick (in milliseconds) of the timing wheel of the retries.
+         *
+         * @param retryTickDuration The tick duration.
+         */
+        public void setRetryTickDuration( int retryTickDuration ) {
+            this.retryTickDuration = retryTickDuration;
+        }
     }
 
     /**
@@ -175,6 +823,21 @@ public class SmppClientProperties {
         private String password;
         // "true" if we would like to detect "DLR" by the "Optional Parameters" of the "SMPP" PDU, else "false".
         private boolean detectDlrByOpts = false;
+        // The bind type of the sessions sending the "submit_sm" requests; either "TRANSCEIVER" in case where the
+        // "delivery receipts" are received on the same sessions, or "TRANSMITTER" together with dedicated "RECEIVER"
+        // sessions.
+        private SmppBindType bindType = SmppBindType.TRANSCEIVER;
+        // "true" in case where the "SMSC" expects the septets of the "GSM" 7-bit default alphabet packed (8 septets per
+        // 7 octets), else "false" in case where it expects one septet per octet.
+        private boolean gsmPacked = false;
+        // The national languages whose "3GPP TS 23.038" locking / single shift tables may be used to keep a text in
+        // 7-bit septets, in case where they need fewer parts.
+        private List<GsmEncoder.NationalLanguage> nationalLanguages = new ArrayList<>();
+        // The size (in bits) of the reference numbers of the concatenated messages; either "16" or "8".
+        private int concatenationReferenceBits = 16;
+        // "true" to cut an "MMS" notification longer than a single short message into concatenated "WDP" segments,
+        // else "false" to send it in a single (long) message, i.e. in the "message_payload" beyond 254 octets.
+        private boolean mmsSegmentation = true;
 
         /**
          * Get the "SMSC" IP address.
@@ -266,5 +929,98 @@ public class SmppClientProperties {
         public void setDetectDlrByOpts( boolean detectDlrByOpts ) {
             this.detectDlrByOpts = detectDlrByOpts;
         }
+
+        /**
+         * Get the bind type of the sessions sending the "submit_sm" requests.
+         *
+         * @return The bind type.
+         */
+        public SmppBindType getBindType() {
+            return bindType;
+        }
+
+        /**
+         * Set the bind type of the sessions sending the "submit_sm" requests.
+         *
+         * @param bindType The bind type.
+         */
+        public void setBindType( SmppBindType bindType ) {
+            this.bindType = bindType;
+        }
+
+        /**
+         * "true" in case where the "SMSC" expects the septets of the "GSM" 7-bit default alphabet packed, else "false".
+         *
+         * @return "true" in case where the septets are packed (8 septets per 7 octets), else "false" (one septet per
+         *         octet).
+         */
+        public boolean isGsmPacked() {
+            return gsmPacked;
+        }
+
+        /**
+         * Set "true" in case where the "SMSC" expects the septets of the "GSM" 7-bit default alphabet packed, else
+         * "false".
+         *
+         * @param gsmPacked "true" in case where the septets are packed (8 septets per 7 octets), else "false" (one
+         *                  septet per octet).
+         */
+        public void setGsmPacked( boolean gsmPacked ) {
+            this.gsmPacked = gsmPacked;
+        }
+
+        /**
+         * Get the national languages whose locking / single shift tables may be used.
+         *
+         * @return The national languages.
+         */
+        public List<GsmEncoder.NationalLanguage> getNationalLanguages() {
+            return nationalLanguages;
+        }
+
+        /**
+         * Set the national languages whose locking / single shift tables may be used.
+         *
+         * @param nationalLanguages The national languages.
+         */
+        public void setNationalLanguages( List<GsmEncoder.NationalLanguage> nationalLanguages ) {
+            this.nationalLanguages = nationalLanguages;
+        }
+
+        /**
+         * Get the size (in bits) of the reference numbers of the concatenated messages.
+         *
+         * @return Either "16" or "8".
+         */
+        public int getConcatenationReferenceBits() {
+            return concatenationReferenceBits;
+        }
+
+        /**
+         * Set the size (in bits) of the reference numbers of the concatenated messages.
+         *
+         * @param concatenationReferenceBits Either "16" or "8".
+         */
+        public void setConcatenationReferenceBits( int concatenationReferenceBits ) {
+            this.concatenationReferenceBits = concatenationReferenceBits;
+        }
+
+        /**
+         * Check if the "MMS" notifications longer than a single short message are cut into "WDP" segments.
+         *
+         * @return "true" in case of segmentation, else "false" in case of a single (long) message.
+         */
+        public boolean isMmsSegmentation() {
+            return mmsSegmentation;
+        }
+
+        /**
+         * Set whether the "MMS" notifications longer than a single short message are cut into "WDP" segments.
+         *
+         * @param mmsSegmentation "true" in case of segmentation, else "false" in case of a single (long) message.
+         */
+        public void setMmsSegmentation( boolean mmsSegmentation ) {
+            this.mmsSegmentation = mmsSegmentation;
+        }
     }
 }
@@ -0,0 +1,241 @@
+package com.smpp.client;
+
+// An instantaneous point on the time-line.
+import java.time.Instant;
+// A date-time without a time-zone in the "ISO-8601" calendar system, such as "2007-12-03T10:15:30".
+import java.time.LocalDateTime;
+// A time-zone "ID", such as "Europe/Paris".
+import java.time.ZoneId;
+// A time-zone offset from "Greenwich/UTC", such as "+02:00".
+import java.time.ZoneOffset;
+// The rules defining how the zone offset varies for a single time-zone.
+import java.time.zone.ZoneRules;
+
+/**
+ * Decoder of the fixed-width timestamps of the "submit date" and "done date" fields of "delivery receipts", i.e.
+ * "YYMMDDhhmm" (10 digits), "YYMMDDhhmmss" (12 digits) and "YYYYMMDDhhmmss" (14 digits).
+ *
+ * The digits are decoded directly into epoch milliseconds, without a "DateTimeFormatter" and without creating any
+ * intermediate objects (apart from the "LocalDateTime" needed to look up the offset of a time-zone with daylight
+ * saving time). The result is the same as "ZonedDateTime.parse" with the corresponding "DateTimeFormatter" in its
+ * default ("SMART") resolver style, e.g. a day-of-month past the end of the month is adjusted to the last day of the
+ * month; the values the fast path does not cover (e.g. invalid values, or "24:00") are reported as "NOT_DECODED", so
+ * that the caller falls back to the "DateTimeFormatter", which either resolves them or throws the same exception as
+ * before.
+ *
+ * @author  Aristotelis Metsinis ( aristotelis.metsinis@gmail.com )
+ * @version 1.0
+ * @since   January 2022
+ */
+public class SmppDateDecoder {
+    // Returned in case where the value is not covered by the fast path.
+    public static final long NOT_DECODED = Long.MIN_VALUE;
+
+    // The number of days from "0000-01-01" to "1970-01-01".
+    private static final long DAYS_0000_TO_1970 = ( 146097 * 5L ) - ( 30L * 365L + 7L );
+    // The number of seconds per day.
+    private static final long SECONDS_PER_DAY = 24L * 60L * 60L;
+
+    /**
+     * Private constructor; a class of "static" methods.
+     */
+    private SmppDateDecoder() {
+    }
+
+    /**
+     * Decode a timestamp given as bytes (e.g. the raw bytes of the short message of a "delivery receipt").
+     *
+     * @param text The bytes.
+     * @param from The start of the timestamp (inclusive).
+     * @param to The end of the timestamp (exclusive).
+     * @param zone The time-zone "ID" of the timestamp.
+     * @return The epoch milliseconds, or "NOT_DECODED".
+     */
+    public static long decode( byte[] text, int from, int to, ZoneId zone ) {
+        int length = to - from;
+        if ( length != 10 && length != 12 && length != 14 ) {
+            return NOT_DECODED;
+        }
+        // Decode the digits in pairs, i.e. "YY" ( "YY" ) "MM" "DD" "hh" "mm" ( "ss" ).
+        int offset = from;
+        int year;
+        if ( length == 14 ) {
+            int century = twoDigits( text[ offset ], text[ offset + 1 ] );
+            int yearOfCentury = twoDigits( text[ offset + 2 ], text[ offset + 3 ] );
+            if ( century < 0 || yearOfCentury < 0 ) {
+                return NOT_DECODED;
+            }
+            year = century * 100 + yearOfCentury;
+            offset += 4;
+        } else {
+            int yearOfCentury = twoDigits( text[ offset ], text[ offset + 1 ] );
+            if ( yearOfCentury < 0 ) {
+                return NOT_DECODED;
+            }
+            // The two-digit year is relative to "2000", as with the "yy" pattern.
+            year = 2000 + yearOfCentury;
+            offset += 2;
+        }
+        int month = twoDigits( text[ offset ], text[ offset + 1 ] );
+        int day = twoDigits( text[ offset + 2 ], text[ offset + 3 ] );
+        int hour = twoDigits( text[ offset + 4 ], text[ offset + 5 ] );
+        int minute = twoDigits( text[ offset + 6 ], text[ offset + 7 ] );
+        int second = length == 10 ? 0 : twoDigits( text[ offset + 8 ], text[ offset + 9 ] );
+        return toEpochMillis( year, month, day, hour, minute, second, zone );
+    }
+
+    /**
+     * Decode a timestamp given as a "String".
+     *
+     * @param value The timestamp.
+     * @param zone The time-zone "ID" of the timestamp.
+     * @return The epoch milliseconds, or "NOT_DECODED".
+     */
+    public static long decode( String value, ZoneId zone ) {
+        int length = value.length();
+        if ( length != 10 && length != 12 && length != 14 ) {
+            return NOT_DECODED;
+        }
+        int offset = 0;
+        int year;
+        if ( length == 14 ) {
+            int century = twoDigits( value.charAt( 0 ), value.charAt( 1 ) );
+            int yearOfCentury = twoDigits( value.charAt( 2 ), value.charAt( 3 ) );
+            if ( century < 0 || yearOfCentury < 0 ) {
+                return NOT_DECODED;
+            }
+            year = century * 100 + yearOfCentury;
+            offset = 4;
+        } else {
+            int yearOfCentury = twoDigits( value.charAt( 0 ), value.charAt( 1 ) );
+            if ( yearOfCentury < 0 ) {
+                return NOT_DECODED;
+            }
+            year = 2000 + yearOfCentury;
+            offset = 2;
+        }
+        int month = twoDigits( value.charAt( offset ), value.charAt( offset + 1 ) );
+        int day = twoDigits( value.charAt( offset + 2 ), value.charAt( offset + 3 ) );
+        int hour = twoDigits( value.charAt( offset + 4 ), value.charAt( offset + 5 ) );
+        int minute = twoDigits( value.charAt( offset + 6 ), value.charAt( offset + 7 ) );
+        int second = length == 10 ? 0 : twoDigits( value.charAt( offset + 8 ), value.charAt( offset + 9 ) );
+        return toEpochMillis( year, month, day, hour, minute, second, zone );
+    }
+
+    /**
+     * Decode two decimal digits.
+     *
+     * @param tens The tens digit.
+     * @param units The units digit.
+     * @return The value, or "-1" in case where either is not a digit.
+     */
+    private static int twoDigits( int tens, int units ) {
+        if ( tens < '0' || tens > '9' || units < '0' || units > '9' ) {
+            return -1;
+        }
+        return ( tens - '0' ) * 10 + ( units - '0' );
+    }
+
+    /**
+     * Convert the fields of a local date-time to epoch milliseconds.
+     *
+     * @param year The year.
+     * @param month The month-of-year.
+     * @param day The day-of-month.
+     * @param hour The hour-of-day.
+     * @param minute The minute-of-hour.
+     * @param second The second-of-minute.
+     * @param zone The time-zone "ID".
+     * @return The epoch milliseconds, or "NOT_DECODED" in case where a field is out of range.
+     */
+    private static long toEpochMillis( int year, int month, int day, int hour, int minute, int second, ZoneId zone ) {
+        // Out of range, or not a digit; "24:00" is left to the "DateTimeFormatter" as well.
+        if ( year < 1 || month < 1 || month > 12 || day < 1 || day > 31 || hour < 0 || hour > 23
+                || minute < 0 || minute > 59 || second < 0 || second > 59 ) {
+            return NOT_DECODED;
+        }
+        // A day-of-month past the end of the month is adjusted to the last day of the month, as in "SMART" mode.
+        day = Math.min( day, lengthOfMonth( year, month ) );
+
+        long localSeconds = toEpochDay( year, month, day ) * SECONDS_PER_DAY + hour * 3600 + minute * 60 + second;
+        return ( localSeconds - offsetSeconds( zone, year, month, day, hour, minute, second ) ) * 1000L;
+    }
+
+    /**
+     * Get the offset of a time-zone at a local date-time. In a gap the offset before the transition is used, and in
+     * an overlap the earlier offset, as "ZonedDateTime.ofLocal" does.
+     *
+     * @param zone The time-zone "ID".
+     * @param year The year.
+     * @param month The month-of-year.
+     * @param day The day-of-month.
+     * @param hour The hour-of-day.
+     * @param minute The minute-of-hour.
+     * @param second The second-of-minute.
+     * @return The offset in seconds.
+     */
+    private static int offsetSeconds( ZoneId zone, int year, int month, int day, int hour, int minute, int second ) {
+        // A fixed offset, e.g. "UTC".
+        if ( zone instanceof ZoneOffset ) {
+            return ( ( ZoneOffset ) zone ).getTotalSeconds();
+        }
+        ZoneRules rules = zone.getRules();
+        if ( rules.isFixedOffset() ) {
+            return rules.getOffset( Instant.EPOCH ).getTotalSeconds();
+        }
+        return rules.getOffset( LocalDateTime.of( year, month, day, hour, minute, second ) ).getTotalSeconds();
+    }
+
+    /**
+     * Count the days from "1970-01-01" to the given date.
+     *
+     * @param year The year.
+     * @param month The month-of-year.
+     * @param day The day-of-month.
+     * @return The epoch day.
+     */
+    private static long toEpochDay( int year, int month, int day ) {
+        long total = 365L * year;
+        total += ( year + 3 ) / 4 - ( year + 99 ) / 100 + ( year + 399 ) / 400;
+        total += ( 367 * month - 362 ) / 12;
+        total += day - 1;
+        if ( month > 2 ) {
+            total--;
+            if ( !isLeapYear( year ) ) {
+                total--;
+            }
+        }
+        return total - DAYS_0000_TO_1970;
+    }
+
+    /**
+     * Get the length of a month.
+     *
+     * @param year The year.
+     * @param month The month-of-year.
+     * @return The number of days of the month.
+     */
+    private static int lengthOfMonth( int year, int month ) {
+        switch ( month ) {
+            case 2:
+                return isLeapYear( year ) ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    /**
+     * Check if a year is a leap year in the "ISO" proleptic calendar system.
+     *
+     * @param year The year.
+     * @return "true" in case of a leap year, else "false".
+     */
+    private static boolean isLeapYear( int year ) {
+        return ( year & 3 ) == 0 && ( year % 100 != 0 || year % 400 == 0 );
+    }
+}
@@ -0,0 +1,277 @@
+package com.smpp.client;
+
+// A counter whose value is read from a function of an object, e.g. a monotonically increasing field.
+import io.micrometer.core.instrument.FunctionCounter;
+// A timer whose count and total time are read from functions of an object.
+import io.micrometer.core.instrument.FunctionTimer;
+// A gauge tracks a value that may go up or down.
+import io.micrometer.core.instrument.Gauge;
+// Creates and manages the meters of an application.
+import io.micrometer.core.instrument.MeterRegistry;
+
+// A histogram of values with a fixed number of significant digits.
+import org.HdrHistogram.Histogram;
+// Records values into interval histograms; recording is wait-free.
+import org.HdrHistogram.Recorder;
+
+// Defines a common interface for either a Client (ESME) or Server (SMSC) "SMPP" session.
+import com.cloudhopper.smpp.SmppSession;
+
+// A hash table supporting full concurrency of retrievals and high expected concurrency for updates.
+import java.util.concurrent.ConcurrentHashMap;
+// A "TimeUnit" represents time durations at a given unit of granularity.
+import java.util.concurrent.TimeUnit;
+// One or more variables that together maintain an initially zero "long" sum.
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The latency and throughput metrics of the "submit_sm" and "deliver_sm" paths, published through "Micrometer" (e.g.
+ * as "JMX" MBeans):
+ *
+ * * "smpp.submit.latency" : the round-trip time of a "submit_sm", i.e. from writing the "PDU" to receiving its
+ *   response (p50 / p99 / p999).
+ * * "smpp.submit.responses" : the number of responses per "command status" (tag "status"); the rate per second is
+ *   derived by the registry.
+ * * "smpp.window.occupancy" : the number of requests in flight per bind (tag "session").
+ * * "smpp.window.limit" and "smpp.request.expiry" : the current limit and "request expiry timeout" (in milliseconds)
+ *   of the adaptive "window" of each bind (tag "session").
+ * * "smpp.dlr.lag" : the lag of a "delivery receipt", i.e. from its "done date" to its receipt (p50 / p99 / p999).
+ * * "smpp.deliver.handler" : the time spent processing a "deliver_sm" on a delivery worker (p50 / p99 / p999).
+ * * "smpp.template.cache" : the number of template lookups per result (tag "result": "hit", "miss" or "eviction"),
+ *   along with "smpp.template.cache.hit.ratio" and "smpp.template.cache.size".
+ *
+ * Each latency is published as a timer ("count" and "total time") along with a "<name>.percentile" gauge per
+ * percentile (tag "phi"), all in milliseconds.
+ *
+ * Recording never takes a lock: the counts and totals are striped ("LongAdder") and the latencies are recorded into
+ * "HdrHistogram" recorders, whose writers are wait-free. The registry only reads them; the percentiles are taken from
+ * a snapshot of the latencies recorded since the previous one, swapped at most once every "SNAPSHOT_INTERVAL". The
+ * meters of the registry (e.g. the "Dropwizard" timers behind "JMX", with their locked reservoirs) are never
+ * recorded into.
+ *
+ * @author  Aristotelis Metsinis ( aristotelis.metsinis@gmail.com )
+ * @version 1.0
+ * @since   January 2022
+ */
+public class SmppMetrics {
+    // The percentiles published per latency.
+    private static final double[] PERCENTILES = { 0.5, 0.99, 0.999 };
+    // The minimum time between two snapshots of the recorded latencies, in nanoseconds.
+    private static final long SNAPSHOT_INTERVAL = TimeUnit.SECONDS.toNanos( 10 );
+
+    // The registry the meters are published through.
+    private final MeterRegistry registry;
+    // The "submit_sm" round-trip latency, in nanoseconds.
+    private final Latency submitLatency;
+    // The lag of the "delivery receipts", in milliseconds.
+    private final Latency dlrLag;
+    // The processing time of the "deliver_sm" PDUs, in nanoseconds.
+    private final Latency deliverHandler;
+    // The number of responses per "command status"; published on first use.
+    private final ConcurrentHashMap<Integer, LongAdder> responses = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor.
+     *
+     * @param registry The registry the meters are published through.
+     */
+    public SmppMetrics( MeterRegistry registry ) {
+        this.registry = registry;
+        this.submitLatency = register( "smpp.submit.latency", "Round-trip time of the submit_sm requests",
+                TimeUnit.NANOSECONDS );
+        this.dlrLag = register( "smpp.dlr.lag", "Time from the done date of a delivery receipt to its receipt",
+                TimeUnit.MILLISECONDS );
+        this.deliverHandler = register( "smpp.deliver.handler", "Processing time of the deliver_sm PDUs",
+                TimeUnit.NANOSECONDS );
+    }
+
+    /**
+     * Publish the "window" occupancy of each bind of a pool.
+     *
+     * @param pool The pool of "SMPP" sessions.
+     */
+    public void bindWindows( SmppSessionPool pool ) {
+        for ( PooledSession slot : pool.getSlots() ) {
+            Gauge.builder( "smpp.window.occupancy", slot, SmppMetrics::windowSize )
+                    .description( "Requests in flight per bind" )
+                    .tag( "session", pool.getName( slot ) )
+                    .register( registry );
+            WindowController controller = slot.getWindowController();
+            if ( controller == null ) {
+                continue;
+            }
+            Gauge.builder( "smpp.window.limit", controller, WindowController::getLimit )
+                    .description( "Limit of the adaptive window per bind" )
+                    .tag( "session", pool.getName( slot ) )
+                    .register( registry );
+            Gauge.builder( "smpp.request.expiry", controller, WindowController::getRequestExpiry )
+                    .description( "Request expiry timeout of the adaptive window per bind, in milliseconds" )
+                    .tag( "session", pool.getName( slot ) )
+                    .register( registry );
+        }
+    }
+
+    /**
+     * Publish the counters of the cache of the message templates.
+     *
+     * @param cache The cache of the message templates.
+     */
+    public void bindTemplateCache( TemplateCache cache ) {
+        FunctionCounter.builder( "smpp.template.cache", cache, TemplateCache::getHits )
+                .description( "Template lookups per result" )
+                .tag( "result", "hit" )
+                .register( registry );
+        FunctionCounter.builder( "smpp.template.cache", cache, TemplateCache::getMisses )
+                .description( "Template lookups per result" )
+                .tag( "result", "miss" )
+                .register( registry );
+        FunctionCounter.builder( "smpp.template.cache", cache, TemplateCache::getEvictions )
+                .description( "Template lookups per result" )
+                .tag( "result", "eviction" )
+                .register( registry );
+        Gauge.builder( "smpp.template.cache.hit.ratio", cache, TemplateCache::getHitRatio )
+                .description( "Ratio of the template lookups finding a precompiled template" )
+                .register( registry );
+        Gauge.builder( "smpp.template.cache.size", cache, TemplateCache::size )
+                .description( "Precompiled templates" )
+                .register( registry );
+    }
+
+    /**
+     * Record the response of a "submit_sm" request.
+     *
+     * @param commandStatus The "command status" of the response.
+     * @param latencyNanos The round-trip time in nanoseconds.
+     */
+    public void recordSubmit( int commandStatus, long latencyNanos ) {
+        submitLatency.record( latencyNanos );
+        LongAdder counter = responses.get( commandStatus );
+        if ( counter == null ) {
+            counter = responses.computeIfAbsent( commandStatus, status -> {
+                LongAdder adder = new LongAdder();
+                FunctionCounter.builder( "smpp.submit.responses", adder, LongAdder::sum )
+                        .description( "Responses of the submit_sm requests per command status" )
+                        .tag( "status", String.format( "0x%08X", status ) )
+                        .register( registry );
+                return adder;
+            } );
+        }
+        counter.increment();
+    }
+
+    /**
+     * Record the lag of a "delivery receipt".
+     *
+     * @param doneDateMillis The "done date" of the receipt in epoch milliseconds.
+     */
+    public void recordDlrLag( long doneDateMillis ) {
+        long lag = System.currentTimeMillis() - doneDateMillis;
+        // A "done date" in the future, i.e. the clocks of the "SMSC" and this host differ; not recorded.
+        if ( lag >= 0 ) {
+            dlrLag.record( lag );
+        }
+    }
+
+    /**
+     * Record the processing time of a "deliver_sm" PDU.
+     *
+     * @param nanos The processing time in nanoseconds.
+     */
+    public void recordDeliverHandler( long nanos ) {
+        deliverHandler.record( nanos );
+    }
+
+    /**
+     * Get the number of requests in flight on the session of a slot.
+     *
+     * @param slot The slot.
+     * @return The size of the "window", or "0" while (re)binding.
+     */
+    private static double windowSize( PooledSession slot ) {
+        SmppSession session = slot.getSession();
+        return session == null ? 0 : session.getSendWindow().getSize();
+    }
+
+    /**
+     * Register a latency as a timer along with a gauge per percentile.
+     *
+     * @param name The name of the meters.
+     * @param description The description of the meters.
+     * @param unit The unit the latency is recorded in.
+     * @return The latency.
+     */
+    private Latency register( String name, String description, TimeUnit unit ) {
+        Latency latency = new Latency( unit );
+        FunctionTimer.builder( name, latency, Latency::getCount, Latency::getTotal, unit )
+                .description( description )
+                .register( registry );
+        for ( double percentile : PERCENTILES ) {
+            Gauge.builder( name + ".percentile", latency, value -> value.getPercentile( percentile ) )
+                    .description( description )
+                    .tag( "phi", String.valueOf( percentile ) )
+                    .baseUnit( "milliseconds" )
+                    .register( registry );
+        }
+        return latency;
+    }
+
+    /**
+     * A latency: the count and total of the recorded values and a recorder of their distribution.
+     */
+    private static final class Latency {
+        // The unit the values are recorded in.
+        private final TimeUnit unit;
+        // The distribution of the values recorded since the last snapshot; 3 significant digits.
+        private final Recorder recorder = new Recorder( 3 );
+        // The number of recorded values.
+        private final LongAdder count = new LongAdder();
+        // The sum of the recorded values.
+        private final LongAdder total = new LongAdder();
+        // The last snapshot of the recorder, i.e. the values recorded between the two last snapshots.
+        private Histogram snapshot;
+        // The time the last snapshot was taken, in nanoseconds.
+        private long snapshotTime;
+
+        Latency( TimeUnit unit ) {
+            this.unit = unit;
+        }
+
+        /**
+         * Record a value; wait-free.
+         *
+         * @param value The value, in the unit of the latency.
+         */
+        void record( long value ) {
+            recorder.recordValue( value );
+            count.increment();
+            total.add( value );
+        }
+
+        long getCount() {
+            return count.sum();
+        }
+
+        double getTotal() {
+            return total.sum();
+        }
+
+        /**
+         * Get a percentile of the last snapshot, taking a new snapshot if the last one is older than
+         * "SNAPSHOT_INTERVAL". Only the readers synchronize, so that the gauges of the percentiles of a poll read
+         * the same snapshot.
+         *
+         * @param percentile The percentile, between "0" and "1".
+         * @return The value at the percentile in milliseconds, or "0" if no value was recorded.
+         */
+        synchronized double getPercentile( double percentile ) {
+            long now = System.nanoTime();
+            if ( snapshot == null || now - snapshotTime >= SNAPSHOT_INTERVAL ) {
+                // Hand the previous snapshot back to the recorder to be reused.
+                snapshot = recorder.getIntervalHistogram( snapshot );
+                snapshotTime = now;
+            }
+            long perMillisecond = unit.convert( 1, TimeUnit.MILLISECONDS );
+            return ( double ) snapshot.getValueAtPercentile( percentile * 100 ) / perMillisecond;
+        }
+    }
+}
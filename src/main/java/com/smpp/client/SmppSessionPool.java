@@ -0,0 +1,409 @@
+package com.smpp.client;
+
+// Defines a common interface for either a Client (ESME) or Server (SMSC) "SMPP" session.
+import com.cloudhopper.smpp.SmppSession;
+// Interface for handling the events of an "SMPP" session.
+import com.cloudhopper.smpp.SmppSessionHandler;
+// Configuration to bind an "SmppSession" as an "ESME" to an "SMSC".
+import com.cloudhopper.smpp.SmppSessionConfiguration;
+// Base class for all "SMPP" request PDUs.
+import com.cloudhopper.smpp.pdu.PduRequest;
+// Base class for all "SMPP" response PDUs.
+import com.cloudhopper.smpp.pdu.PduResponse;
+// A future of a request waiting for its response within the "window" of a session.
+import com.cloudhopper.commons.util.windowing.WindowFuture;
+
+// Main user entry point of "SLF4J" API; logging takes place through concrete implementations of this interface.
+import org.slf4j.Logger;
+// Utility class producing "Loggers" for various logging APIs, most notably for "log4j", "logback" and "JDK 1.4" logging.
+import org.slf4j.LoggerFactory;
+
+// Resizable-array implementation of the "List" interface.
+import java.util.ArrayList;
+// This class consists exclusively of static methods that operate on or return collections.
+import java.util.Collections;
+// An ordered collection (also known as a sequence).
+import java.util.List;
+// A "Future" that may be explicitly completed (setting its value and status), and may be used as a "CompletionStage".
+import java.util.concurrent.CompletableFuture;
+// An "Executor" that provides methods to manage termination.
+import java.util.concurrent.ExecutorService;
+// Exception thrown by an "Executor" when a task cannot be accepted for execution.
+import java.util.concurrent.RejectedExecutionException;
+// An "ExecutorService" that can schedule commands to run after a given delay, or to execute periodically.
+import java.util.concurrent.ScheduledExecutorService;
+// A random number generator isolated to the current thread.
+import java.util.concurrent.ThreadLocalRandom;
+// Factory and utility methods for "Executor", "ExecutorService", "ScheduledExecutorService", "ThreadFactory", and "Callable"
+// classes defined in this package.
+import java.util.concurrent.Executors;
+// A "TimeUnit" represents time durations at a given unit of granularity.
+import java.util.concurrent.TimeUnit;
+// An "int" value that may be updated atomically.
+import java.util.concurrent.atomic.AtomicInteger;
+// Represents an operation that accepts a single input argument and returns no result.
+import java.util.function.Consumer;
+// Represents a function that accepts one argument and produces a result.
+import java.util.function.Function;
+// Represents a function that accepts an int-valued argument and produces a result.
+import java.util.function.IntFunction;
+
+/**
+ * A pool of "SMPP" sessions (binds) to the same "SMSC".
+ *
+ * The "SMSC" usually caps the throughput per bind, so scaling out across binds is the only way to reach the contracted
+ * aggregate rate. All the sessions are bound in parallel at startup. Each request goes to the bound session with the
+ * fewest outstanding "window" slots; a session that drops leaves the rotation until it has been bound again.
+ *
+ * A supervisor periodically checks the sessions for a lost bind, i.e. a session that is no longer "BOUND" or whose
+ * socket/channel was closed, and binds the slot again after a jittered exponential backoff. The requests still
+ * waiting for a response in the "window" of the dead session are handed over to the "in-flight handler", so that
+ * they are sent again through a live bind, and the callers of "select" are held until a session is bound again.
+ *
+ * @author  Aristotelis Metsinis ( aristotelis.metsinis@gmail.com )
+ * @version 1.0
+ * @since   January 2022
+ */
+public class SmppSessionPool {
+    // Return a logger named corresponding to the class passed as parameter, using the statically bound "ILoggerFactory" instance.
+    private static final Logger log = LoggerFactory.getLogger( SmppSessionPool.class );
+
+    // All the external properties we need.
+    private final SmppClientProperties properties;
+    // The "Cloudhopper" client used to bind the sessions.
+    private final com.cloudhopper.smpp.SmppClient client;
+    // Create the session configuration of a slot, given the index of the slot.
+    private final IntFunction<SmppSessionConfiguration> configurationFactory;
+    // The slots of the pool.
+    private final List<PooledSession> slots;
+    // Used as starting point of each "least outstanding" scan, so that ties are spread across the sessions.
+    private final AtomicInteger nextSlot = new AtomicInteger();
+    // The executor that rebinds dropped sessions.
+    private final ScheduledExecutorService rebindExecutor = Executors.newSingleThreadScheduledExecutor();
+    // The handler of each slot; created once per slot and reused when the slot is bound again.
+    private final List<SmppSessionHandler> handlers = new ArrayList<>();
+    // "true" once the pool has been closed.
+    private volatile boolean closed;
+    // Notified whenever a session is bound; the callers of "select" wait on it while none of the sessions is bound.
+    private final Object boundMonitor = new Object();
+    // Receive the requests left in the "window" of a dead session; "null" in case where they are simply dropped.
+    private volatile Consumer<PduRequest> inFlightHandler;
+
+    /**
+     * Constructor.
+     *
+     * @param properties All the external properties we need.
+     * @param client The "Cloudhopper" client used to bind the sessions.
+     * @param size The number of sessions (binds) of the pool.
+     * @param configurationFactory Create the session configuration of a slot, given the index of the slot.
+     */
+    public SmppSessionPool( SmppClientProperties properties, com.cloudhopper.smpp.SmppClient client, int size,
+                            IntFunction<SmppSessionConfiguration> configurationFactory ) {
+        this.properties = properties;
+        this.client = client;
+        this.configurationFactory = configurationFactory;
+        List<PooledSession> list = new ArrayList<>( size );
+        for ( int i = 0; i < size; i++ ) {
+            // Each bind gets its own rate limiter, shaping the submit rate to the "max-session-tps" of the "SMSC", and
+            // its own adaptive "window".
+            list.add( new PooledSession( this, i, RateLimiter.create( properties.getAsync().getMaxSessionTps(),
+                    properties.getAsync().getTpsBurst() ), WindowController.create( properties ) ) );
+        }
+        this.slots = Collections.unmodifiableList( list );
+    }
+
+    /**
+     * Bind all the sessions of the pool in parallel. A session that fails to bind is retried in the background;
+     * the method only fails in case where none of the sessions could be bound.
+     *
+     * @param handlerFactory Create the session handler of a slot.
+     * @throws IllegalStateException In case where none of the sessions could be bound.
+     */
+    public void bind( Function<PooledSession, SmppSessionHandler> handlerFactory ) {
+        for ( PooledSession slot : slots ) {
+            handlers.add( handlerFactory.apply( slot ) );
+        }
+
+        // Bind each slot on its own thread and wait for all the binds to complete.
+        ExecutorService bindExecutor = Executors.newFixedThreadPool( slots.size() );
+        List<CompletableFuture<Boolean>> binds = new ArrayList<>();
+        for ( PooledSession slot : slots ) {
+            binds.add( CompletableFuture.supplyAsync( () -> bindSlot( slot ), bindExecutor ) );
+        }
+        long bound = binds.stream().map( CompletableFuture::join ).filter( Boolean::booleanValue ).count();
+        bindExecutor.shutdown();
+
+        log.info( "{} of {} SMPP sessions bound", bound, slots.size() );
+        if ( bound == 0 ) {
+            throw new IllegalStateException( "Unable to bind any SMPP session" );
+        }
+
+        // Start the supervisor of the binds.
+        int interval = properties.getAsync().getSupervisorInterval();
+        rebindExecutor.scheduleWithFixedDelay( this::supervise, interval, interval, TimeUnit.MILLISECONDS );
+    }
+
+    /**
+     * Set the handler of the requests left in the "window" of a dead session, e.g. to send them again.
+     *
+     * @param inFlightHandler Receive each request; called on the thread of the supervisor.
+     */
+    public void setInFlightHandler( Consumer<PduRequest> inFlightHandler ) {
+        this.inFlightHandler = inFlightHandler;
+    }
+
+    /**
+     * Bind a single slot; schedule a new attempt in case of error.
+     *
+     * @param slot The slot to bind.
+     * @return "true" if the slot was bound, else "false".
+     */
+    private boolean bindSlot( PooledSession slot ) {
+        if ( closed ) {
+            return false;
+        }
+        try {
+            // Bind the client to the remote "SMPP" endpoint by opening the socket, sending a bind request, and waiting
+            // for a bind response.
+            slot.setSession( client.bind( configurationFactory.apply( slot.getIndex() ), handlers.get( slot.getIndex() ) ) );
+            slot.setBindFailures( 0 );
+            slot.endRebind();
+            log.info( "SMPP session {} bound", slot.getIndex() );
+            // Release the callers waiting for a bound session.
+            synchronized ( boundMonitor ) {
+                boundMonitor.notifyAll();
+            }
+            return true;
+        }
+        // In case of error, i.e. the bind was rejected, timed out, the channel could not be opened or the response
+        // could not be parsed, schedule a new attempt.
+        catch ( Exception e ) {
+            slot.setBindFailures( slot.getBindFailures() + 1 );
+            slot.endRebind();
+            log.warn( "Unable to bind SMPP session {} ({} consecutive failures)", slot.getIndex(),
+                    slot.getBindFailures(), e );
+            scheduleRebind( slot );
+            return false;
+        }
+    }
+
+    /**
+     * Schedule a new bind of a slot after a jittered exponential backoff, unless a bind of the slot is already
+     * scheduled or in progress.
+     *
+     * @param slot The slot to bind.
+     */
+    private void scheduleRebind( PooledSession slot ) {
+        if ( closed || !slot.startRebind() ) {
+            return;
+        }
+        long delay = backoff( slot.getBindFailures() );
+        log.info( "Binding SMPP session {} in {} ms", slot.getIndex(), delay );
+        try {
+            rebindExecutor.schedule( () -> bindSlot( slot ), delay, TimeUnit.MILLISECONDS );
+        }
+        // The pool has been closed in the meantime.
+        catch ( RejectedExecutionException e ) {
+            slot.endRebind();
+        }
+    }
+
+    /**
+     * Compute the jittered exponential backoff of a bind, i.e. a random delay between half and the whole of
+     * "reconnect-delay * 2 ^ failures", capped at "reconnect-max-delay", so that the binds of a fleet of clients
+     * do not hit the "SMSC" all at once after a network outage.
+     *
+     * @param failures The number of consecutive failed binds.
+     * @return The delay in milliseconds.
+     */
+    private long backoff( int failures ) {
+        long delay = ( long ) properties.getAsync().getReconnectDelay() << Math.min( failures, 30 );
+        delay = Math.min( delay, properties.getAsync().getReconnectMaxDelay() );
+        // "Equal jitter".
+        return delay / 2 + ThreadLocalRandom.current().nextLong( delay / 2 + 1 );
+    }
+
+    /**
+     * Check each slot for a lost bind, and tune the "request expiry timeout" of the live sessions with an adaptive
+     * "window". Called periodically on the thread of the supervisor.
+     */
+    private void supervise() {
+        for ( PooledSession slot : slots ) {
+            SmppSession session = slot.getSession();
+            // A slot without a session that is not being bound, e.g. a bind that was rejected by the executor.
+            if ( session == null ) {
+                scheduleRebind( slot );
+            }
+            // A session that was unbound by the remote endpoint, or whose socket/channel was closed.
+            else if ( !PooledSession.isAlive( session ) ) {
+                log.warn( "SMPP session {} is no longer bound ({})", slot.getIndex(),
+                        session.isBound() ? "channel closed" : session.getStateName() );
+                reconnect( slot );
+            }
+            // Derive the "request expiry timeout" of a live session from its p99 latency. Best effort only: the
+            // timeout is a plain field of the session configuration, read by the sending threads on each request
+            // without synchronization, so a new value may be picked up late; each value is within "min-timeout"
+            // and "timeout", and a request that is already in flight keeps the expiry it was sent with.
+            else if ( slot.getWindowController() != null ) {
+                session.getConfiguration().setRequestExpiryTimeout( slot.getWindowController().updateRequestExpiry() );
+            }
+        }
+    }
+
+    /**
+     * Called by the session handler in case where the session of a slot was unexpectedly closed. The slot leaves
+     * the rotation and is bound again in the background.
+     *
+     * @param slot The slot whose session was closed.
+     */
+    public void onSessionClosed( PooledSession slot ) {
+        log.warn( "SMPP session {} closed unexpectedly", slot.getIndex() );
+        reconnect( slot );
+    }
+
+    /**
+     * Take the session of a slot out of the rotation, e.g. in case where it does not answer an "enquire_link", close
+     * it, hand the requests left in its "window" over to the "in-flight handler", and bind the slot again.
+     *
+     * @param slot The slot to reconnect.
+     */
+    public void reconnect( PooledSession slot ) {
+        SmppSession session = slot.getSession();
+        // Another thread took the session out in the meantime, or the slot is being bound.
+        if ( session == null || !slot.clearSession( session ) ) {
+            return;
+        }
+        try {
+            // Never tear the session down on the "Netty" I/O thread delivering the event.
+            rebindExecutor.execute( () -> {
+                teardown( slot, session );
+                scheduleRebind( slot );
+            } );
+        }
+        // The pool has been closed in the meantime.
+        catch ( RejectedExecutionException e ) {
+            session.destroy();
+        }
+    }
+
+    /**
+     * Close a dead session and hand the requests left in its "window" over to the "in-flight handler".
+     *
+     * @param slot The slot of the session.
+     * @param session The dead session.
+     */
+    private void teardown( PooledSession slot, SmppSession session ) {
+        // Immediately close the session by closing the underlying socket/channel; any late response is ignored.
+        session.close();
+        // Cancel the requests still waiting for a response; they would otherwise only fail once they expire.
+        List<WindowFuture<Integer, PduRequest, PduResponse>> inFlight = session.getSendWindow().cancelAll();
+        // Clean up all the resources of the dead session.
+        session.destroy();
+        Consumer<PduRequest> handler = inFlightHandler;
+        if ( handler == null || inFlight.isEmpty() ) {
+            return;
+        }
+        log.info( "Re-driving {} in-flight requests of SMPP session {}", inFlight.size(), slot.getIndex() );
+        for ( WindowFuture<Integer, PduRequest, PduResponse> future : inFlight ) {
+            handler.accept( future.getRequest() );
+        }
+    }
+
+    /**
+     * Select the bound session with the fewest outstanding "window" slots. In case where none of the sessions is
+     * currently bound, e.g. during a network outage, wait up to "reconnect-hold-timeout" for a session to be bound
+     * again.
+     *
+     * @return The selected slot.
+     * @throws IllegalStateException In case where none of the sessions was bound in time.
+     * @throws InterruptedException In case where the calling thread was interrupted while waiting.
+     */
+    public PooledSession select() throws InterruptedException {
+        PooledSession selected = selectBound();
+        if ( selected != null ) {
+            return selected;
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos( properties.getAsync().getReconnectHoldTimeout() );
+        synchronized ( boundMonitor ) {
+            while ( ( selected = selectBound() ) == null ) {
+                long remaining = deadline - System.nanoTime();
+                if ( remaining <= 0 || closed ) {
+                    throw new IllegalStateException( "SMPP session is not connected" );
+                }
+                TimeUnit.NANOSECONDS.timedWait( boundMonitor, remaining );
+            }
+        }
+        return selected;
+    }
+
+    /**
+     * Select the bound session with the fewest outstanding "window" slots, i.e. with the most free slots in case of
+     * an adaptive "window".
+     *
+     * @return The selected slot, or "null" in case where none of the sessions is currently bound.
+     */
+    private PooledSession selectBound() {
+        int size = slots.size();
+        // Start the scan from a rotating index, so that ties are spread across the sessions.
+        int start = Math.floorMod( nextSlot.getAndIncrement(), size );
+        PooledSession selected = null;
+        int fewest = Integer.MAX_VALUE;
+        for ( int i = 0; i < size; i++ ) {
+            PooledSession slot = slots.get( ( start + i ) % size );
+            int outstanding = slot.getLoad();
+            if ( outstanding < fewest ) {
+                selected = slot;
+                fewest = outstanding;
+            }
+        }
+        return selected;
+    }
+
+    /**
+     * Get the slots of the pool.
+     *
+     * @return The (unmodifiable) list of slots.
+     */
+    public List<PooledSession> getSlots() {
+        return slots;
+    }
+
+    /**
+     * Get the name of the session of a slot, as set in its session configuration.
+     *
+     * @param slot The slot.
+     * @return The session name, e.g. "smpp.session.0".
+     */
+    public String getName( PooledSession slot ) {
+        return configurationFactory.apply( slot.getIndex() ).getName();
+    }
+
+    /**
+     * "Unbind" all the sessions, close the underlying sockets/channels, and finally clean up all resources.
+     */
+    public void close() {
+        closed = true;
+        rebindExecutor.shutdownNow();
+        // Release the callers waiting for a bound session.
+        synchronized ( boundMonitor ) {
+            boundMonitor.notifyAll();
+        }
+        for ( PooledSession slot : slots ) {
+            SmppSession session = slot.getSession();
+            if ( session == null ) {
+                continue;
+            }
+            // Check if the session is currently in the "BOUND" state, i.e. the session is bound and ready to process requests.
+            if ( session.isBound() ) {
+                // Attempt to "unbind" the session, waiting up to the specified period of
+                // milliseconds for an "unbind" response from the remote endpoint. Regardless of whether
+                // a proper unbind response was received, the socket/channel is closed.
+                session.unbind( 10000 );
+            }
+            // Immediately close the session by closing the underlying socket/channel.
+            session.close();
+            // Destroy a session by ensuring the socket is closed and all resources are cleaned up.
+            session.destroy();
+        }
+    }
+}
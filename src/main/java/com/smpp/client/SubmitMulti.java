@@ -0,0 +1,259 @@
+package com.smpp.client;
+
+// All constants defined for the "SMPP" protocol.
+import com.cloudhopper.smpp.SmppConstants;
+// Base class of the "submit_sm", "deliver_sm" and "data_sm" SMPP PDUs.
+import com.cloudhopper.smpp.pdu.BaseSm;
+// "submit_sm" SMPP PDU.
+import com.cloudhopper.smpp.pdu.SubmitSm;
+// "Tag-Length-Value" (TLV) optional parameter in "SMPP".
+import com.cloudhopper.smpp.tlv.Tlv;
+// A simple representation of an "Address" in "SMPP".
+import com.cloudhopper.smpp.type.Address;
+// Several "SMPP PDU" related "exception" classes.
+import com.cloudhopper.smpp.type.RecoverablePduException;
+import com.cloudhopper.smpp.type.UnrecoverablePduException;
+// Read and write the "C-Octet String" and "Address" fields of a "PDU".
+import com.cloudhopper.smpp.util.ChannelBufferUtil;
+// Calculate the size of the "C-Octet String" and "Address" fields of a "PDU".
+import com.cloudhopper.smpp.util.PduUtil;
+
+// Utility class for encoding and decoding hexadecimal strings.
+import com.cloudhopper.commons.util.HexUtil;
+
+// A random-access sequence of zero or more bytes, used by "Netty".
+import org.jboss.netty.buffer.ChannelBuffer;
+
+// Resizable-array implementation of the "List" interface.
+import java.util.ArrayList;
+// This class consists exclusively of static methods that operate on or return collections.
+import java.util.Collections;
+// An ordered collection (also known as a sequence).
+import java.util.List;
+
+/**
+ * "submit_multi" SMPP PDU (SMPP v3.4, section 4.5), i.e. a "submit_sm" carrying the same short message to up to 254
+ * destination addresses, which "Cloudhopper" does not provide.
+ *
+ * The destinations are "SME" addresses (destination flag "1"); distribution lists (destination flag "2") are
+ * recognised when decoding, and kept as addresses with the list name. The "PDU" is encoded by the default
+ * "Cloudhopper" transcoder, and decoded by the "SubmitMultiTranscoder".
+ *
+ * @author  Aristotelis Metsinis ( aristotelis.metsinis@gmail.com )
+ * @version 1.0
+ * @since   January 2022
+ */
+public class SubmitMulti extends BaseSm<SubmitMultiResp> {
+    // The max number of destinations of a "submit_multi".
+    public static final int MAX_DESTINATIONS = 254;
+    // The destination flag of an "SME" address and of a distribution list name.
+    private static final byte SME_ADDRESS = 0x01;
+    private static final byte DISTRIBUTION_LIST = 0x02;
+
+    // The destination addresses.
+    private final List<Address> destAddresses = new ArrayList<>();
+
+    /**
+     * Constructor.
+     */
+    public SubmitMulti() {
+        super( SmppConstants.CMD_ID_SUBMIT_MULTI, "submit_multi" );
+    }
+
+    /**
+     * Create a "submit_multi" carrying the message of a "submit_sm" to the given destinations; the destination address
+     * of the "submit_sm" itself is ignored.
+     *
+     * @param submit The "submit_sm" PDU, i.e. the source address, the message and its parameters.
+     * @param destinations The destination addresses.
+     * @return The "submit_multi" PDU.
+     * @throws IllegalArgumentException In case where there are no destinations or more than 254.
+     */
+    public static SubmitMulti of( BaseSm<?> submit, List<Address> destinations ) {
+        if ( destinations.isEmpty() || destinations.size() > MAX_DESTINATIONS ) {
+            throw new IllegalArgumentException( "Invalid number of destinations " + destinations.size() );
+        }
+        SubmitMulti multi = new SubmitMulti();
+        copy( submit, multi );
+        multi.destAddresses.addAll( destinations );
+        return multi;
+    }
+
+    /**
+     * Create a "submit_sm" carrying the message of a "submit_sm" (or "submit_multi") to a single destination.
+     *
+     * @param message The "submit_sm" (or "submit_multi") PDU, i.e. the source address, the message and its parameters.
+     * @param destination The destination address.
+     * @return The "submit_sm" PDU.
+     */
+    public static SubmitSm toSubmitSm( BaseSm<?> message, Address destination ) {
+        SubmitSm submit = new SubmitSm();
+        copy( message, submit );
+        submit.setDestAddress( destination );
+        return submit;
+    }
+
+    /**
+     * Get the destination addresses.
+     *
+     * @return The destination addresses.
+     */
+    public List<Address> getDestAddresses() {
+        return Collections.unmodifiableList( destAddresses );
+    }
+
+    /**
+     * Create the response "PDU", with the sequence number of this request.
+     *
+     * @return The "submit_multi_resp" PDU.
+     */
+    @Override
+    public SubmitMultiResp createResponse() {
+        SubmitMultiResp response = new SubmitMultiResp();
+        response.setSequenceNumber( this.getSequenceNumber() );
+        return response;
+    }
+
+    /**
+     * Get the class of the response "PDU".
+     *
+     * @return The "submit_multi_resp" class.
+     */
+    @Override
+    public Class<SubmitMultiResp> getResponseClass() {
+        return SubmitMultiResp.class;
+    }
+
+    /**
+     * Read the body of the "PDU", i.e. the fields of a "submit_sm" with the list of destinations in place of the
+     * destination address.
+     *
+     * @param buffer The buffer.
+     * @throws UnrecoverablePduException In case of a malformed field.
+     * @throws RecoverablePduException In case of a malformed field.
+     */
+    @Override
+    public void readBody( ChannelBuffer buffer ) throws UnrecoverablePduException, RecoverablePduException {
+        this.serviceType = ChannelBufferUtil.readNullTerminatedString( buffer );
+        this.sourceAddress = ChannelBufferUtil.readAddress( buffer );
+        int count = buffer.readUnsignedByte();
+        for ( int i = 0; i < count; i++ ) {
+            byte flag = buffer.readByte();
+            if ( flag == SME_ADDRESS ) {
+                destAddresses.add( ChannelBufferUtil.readAddress( buffer ) );
+            } else if ( flag == DISTRIBUTION_LIST ) {
+                destAddresses.add( new Address( ( byte ) 0, ( byte ) 0,
+                        ChannelBufferUtil.readNullTerminatedString( buffer ) ) );
+            } else {
+                throw new RecoverablePduException( this, "Invalid destination flag [0x" + HexUtil.toHexString( flag ) + "]" );
+            }
+        }
+        this.esmClass = buffer.readByte();
+        setProtocolId( buffer.readByte() );
+        setPriority( buffer.readByte() );
+        setScheduleDeliveryTime( ChannelBufferUtil.readNullTerminatedString( buffer ) );
+        setValidityPeriod( ChannelBufferUtil.readNullTerminatedString( buffer ) );
+        this.registeredDelivery = buffer.readByte();
+        setReplaceIfPresent( buffer.readByte() );
+        this.dataCoding = buffer.readByte();
+        setDefaultMsgId( buffer.readByte() );
+        byte[] shortMessage = new byte[ buffer.readUnsignedByte() ];
+        buffer.readBytes( shortMessage );
+        setShortMessage( shortMessage );
+    }
+
+    /**
+     * Calculate the size of the body of the "PDU".
+     *
+     * @return The size in bytes.
+     */
+    @Override
+    public int calculateByteSizeOfBody() {
+        int size = PduUtil.calculateByteSizeOfNullTerminatedString( this.serviceType )
+                + PduUtil.calculateByteSizeOfAddress( this.sourceAddress ) + 1;
+        for ( Address destination : destAddresses ) {
+            size += 1 + PduUtil.calculateByteSizeOfAddress( destination );
+        }
+        return size + 3 + PduUtil.calculateByteSizeOfNullTerminatedString( getScheduleDeliveryTime() )
+                + PduUtil.calculateByteSizeOfNullTerminatedString( getValidityPeriod() ) + 5 + getShortMessageLength();
+    }
+
+    /**
+     * Write the body of the "PDU".
+     *
+     * @param buffer The buffer.
+     * @throws UnrecoverablePduException In case of an invalid field.
+     * @throws RecoverablePduException In case of an invalid field.
+     */
+    @Override
+    public void writeBody( ChannelBuffer buffer ) throws UnrecoverablePduException, RecoverablePduException {
+        ChannelBufferUtil.writeNullTerminatedString( buffer, this.serviceType );
+        ChannelBufferUtil.writeAddress( buffer, this.sourceAddress );
+        buffer.writeByte( destAddresses.size() );
+        for ( Address destination : destAddresses ) {
+            buffer.writeByte( SME_ADDRESS );
+            ChannelBufferUtil.writeAddress( buffer, destination );
+        }
+        buffer.writeByte( this.esmClass );
+        buffer.writeByte( getProtocolId() );
+        buffer.writeByte( getPriority() );
+        ChannelBufferUtil.writeNullTerminatedString( buffer, getScheduleDeliveryTime() );
+        ChannelBufferUtil.writeNullTerminatedString( buffer, getValidityPeriod() );
+        buffer.writeByte( this.registeredDelivery );
+        buffer.writeByte( getReplaceIfPresent() );
+        buffer.writeByte( this.dataCoding );
+        buffer.writeByte( getDefaultMsgId() );
+        buffer.writeByte( getShortMessageLength() );
+        if ( getShortMessage() != null ) {
+            buffer.writeBytes( getShortMessage() );
+        }
+    }
+
+    /**
+     * Append the body of the "PDU" to its string representation.
+     *
+     * @param buffer The string representation.
+     */
+    @Override
+    public void appendBodyToString( StringBuilder buffer ) {
+        buffer.append( "(serviceType [" ).append( this.serviceType )
+                .append( "] sourceAddr [" ).append( this.sourceAddress )
+                .append( "] destAddrs " ).append( destAddresses )
+                .append( " esmCls [0x" ).append( HexUtil.toHexString( this.esmClass ) )
+                .append( "] regDlvry [0x" ).append( HexUtil.toHexString( this.registeredDelivery ) )
+                .append( "] dcs [0x" ).append( HexUtil.toHexString( this.dataCoding ) )
+                .append( "] message [" ).append( HexUtil.toHexString( getShortMessage() ) )
+                .append( "])" );
+    }
+
+    /**
+     * Copy the fields of a message, other than the destination, along with its optional parameters.
+     *
+     * @param from The message to copy from.
+     * @param to The message to copy to.
+     */
+    private static void copy( BaseSm<?> from, BaseSm<?> to ) {
+        to.setServiceType( from.getServiceType() );
+        to.setSourceAddress( from.getSourceAddress() );
+        to.setEsmClass( from.getEsmClass() );
+        to.setProtocolId( from.getProtocolId() );
+        to.setPriority( from.getPriority() );
+        to.setScheduleDeliveryTime( from.getScheduleDeliveryTime() );
+        to.setValidityPeriod( from.getValidityPeriod() );
+        to.setRegisteredDelivery( from.getRegisteredDelivery() );
+        to.setReplaceIfPresent( from.getReplaceIfPresent() );
+        to.setDataCoding( from.getDataCoding() );
+        to.setDefaultMsgId( from.getDefaultMsgId() );
+        try {
+            to.setShortMessage( from.getShortMessage() );
+        } catch ( RecoverablePduException e ) {
+            // Never; the message is already within the bounds of a short message.
+            throw new IllegalStateException( e );
+        }
+        if ( from.getOptionalParameters() != null ) {
+            for ( Tlv tlv : from.getOptionalParameters() ) {
+                to.addOptionalParameter( tlv );
+            }
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.smpp.client;
+
+// All constants defined for the "SMPP" protocol.
+import com.cloudhopper.smpp.SmppConstants;
+// Base class of the "submit_sm_resp", "deliver_sm_resp" and "data_sm_resp" SMPP PDUs.
+import com.cloudhopper.smpp.pdu.BaseSmResp;
+// A simple representation of an "Address" in "SMPP".
+import com.cloudhopper.smpp.type.Address;
+// Several "SMPP PDU" related "exception" classes.
+import com.cloudhopper.smpp.type.RecoverablePduException;
+import com.cloudhopper.smpp.type.UnrecoverablePduException;
+// Read and write the "C-Octet String" and "Address" fields of a "PDU".
+import com.cloudhopper.smpp.util.ChannelBufferUtil;
+// Calculate the size of the "C-Octet String" and "Address" fields of a "PDU".
+import com.cloudhopper.smpp.util.PduUtil;
+
+// Utility class for encoding and decoding hexadecimal strings.
+import com.cloudhopper.commons.util.HexUtil;
+
+// A random-access sequence of zero or more bytes, used by "Netty".
+import org.jboss.netty.buffer.ChannelBuffer;
+
+// Resizable-array implementation of the "List" interface.
+import java.util.ArrayList;
+// This class consists exclusively of static methods that operate on or return collections.
+import java.util.Collections;
+// An ordered collection (also known as a sequence).
+import java.util.List;
+
+/**
+ * "submit_multi_resp" SMPP PDU (SMPP v3.4, section 4.5.2), i.e. the message id of a "submit_multi", along with the
+ * destinations the "SMSC" did not accept ("unsuccess_sme") and the error of each one.
+ *
+ * @author  Aristotelis Metsinis ( aristotelis.metsinis@gmail.com )
+ * @version 1.0
+ * @since   January 2022
+ */
+public class SubmitMultiResp extends BaseSmResp {
+    // The destinations that were not accepted.
+    private final List<UnsuccessSme> unsuccessSmes = new ArrayList<>();
+
+    /**
+     * A destination of a "submit_multi" that was not accepted.
+     */
+    public static final class UnsuccessSme {
+        // The destination address.
+        private final Address address;
+        // The "command status" of the destination.
+        private final int errorStatusCode;
+
+        /**
+         * Constructor.
+         *
+         * @param address The destination address.
+         * @param errorStatusCode The "command status" of the destination, e.g. "ESME_RTHROTTLED".
+         */
+        public UnsuccessSme( Address address, int errorStatusCode ) {
+            this.address = address;
+            this.errorStatusCode = errorStatusCode;
+        }
+
+        /**
+         * Get the destination address.
+         *
+         * @return The destination address.
+         */
+        public Address getAddress() {
+            return address;
+        }
+
+        /**
+         * Get the "command status" of the destination.
+         *
+         * @return The error status code.
+         */
+        public int getErrorStatusCode() {
+            return errorStatusCode;
+        }
+
+        /**
+         * Get the string representation of the destination.
+         *
+         * @return The address and the error status code.
+         */
+        @Override
+        public String toString() {
+            return address + " 0x" + HexUtil.toHexString( errorStatusCode );
+        }
+    }
+
+    /**
+     * Constructor.
+     */
+    public SubmitMultiResp() {
+        super( SmppConstants.CMD_ID_SUBMIT_MULTI_RESP, "submit_multi_resp" );
+    }
+
+    /**
+     * Get the destinations that were not accepted.
+     *
+     * @return The destinations and their error status codes; empty in case where all of them were accepted.
+     */
+    public List<UnsuccessSme> getUnsuccessSmes() {
+        return Collections.unmodifiableList( unsuccessSmes );
+    }
+
+    /**
+     * Add a destination that was not accepted.
+     *
+     * @param unsuccessSme The destination and its error status code.
+     */
+    public void addUnsuccessSme( UnsuccessSme unsuccessSme ) {
+        unsuccessSmes.add( unsuccessSme );
+    }
+
+    /**
+     * Read the body of the "PDU"; the list of the destinations is missing from the body of a failed request.
+     *
+     * @param buffer The buffer.
+     * @throws UnrecoverablePduException In case of a malformed field.
+     * @throws RecoverablePduException In case of a malformed field.
+     */
+    @Override
+    public void readBody( ChannelBuffer buffer ) throws UnrecoverablePduException, RecoverablePduException {
+        super.readBody( buffer );
+        if ( !buffer.readable() ) {
+            return;
+        }
+        int count = buffer.readUnsignedByte();
+        for ( int i = 0; i < count; i++ ) {
+            Address address = ChannelBufferUtil.readAddress( buffer );
+            unsuccessSmes.add( new UnsuccessSme( address, buffer.readInt() ) );
+        }
+    }
+
+    /**
+     * Calculate the size of the body of the "PDU".
+     *
+     * @return The size in bytes.
+     */
+    @Override
+    public int calculateByteSizeOfBody() {
+        int size = super.calculateByteSizeOfBody() + 1;
+        for ( UnsuccessSme unsuccessSme : unsuccessSmes ) {
+            size += PduUtil.calculateByteSizeOfAddress( unsuccessSme.getAddress() ) + 4;
+        }
+        return size;
+    }
+
+    /**
+     * Write the body of the "PDU".
+     *
+     * @param buffer The buffer.
+     * @throws UnrecoverablePduException In case of an invalid field.
+     * @throws RecoverablePduException In case of an invalid field.
+     */
+    @Override
+    public void writeBody( ChannelBuffer buffer ) throws UnrecoverablePduException, RecoverablePduException {
+        super.writeBody( buffer );
+        buffer.writeByte( unsuccessSmes.size() );
+        for ( UnsuccessSme unsuccessSme : unsuccessSmes ) {
+            ChannelBufferUtil.writeAddress( buffer, unsuccessSme.getAddress() );
+            buffer.writeInt( unsuccessSme.getErrorStatusCode() );
+        }
+    }
+
+    /**
+     * Append the body of the "PDU" to its string representation.
+     *
+     * @param buffer The string representation.
+     */
+    @Override
+    public void appendBodyToString( StringBuilder buffer ) {
+        buffer.append( "(messageId [" ).append( getMessageId() )
+                .append( "] unsuccessSmes " ).append( unsuccessSmes ).append( ")" );
+    }
+}
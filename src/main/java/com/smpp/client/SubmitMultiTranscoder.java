@@ -0,0 +1,104 @@
+package com.smpp.client;
+
+// All constants defined for the "SMPP" protocol.
+import com.cloudhopper.smpp.SmppConstants;
+// The names of the handlers of the "Netty" pipeline of a session.
+import com.cloudhopper.smpp.channel.SmppChannelConstants;
+// Decode the "PDU" frames read from the channel of a session.
+import com.cloudhopper.smpp.channel.SmppSessionPduDecoder;
+// Defines a common interface for "SMPP" PDUs.
+import com.cloudhopper.smpp.pdu.Pdu;
+// Abstract class that extends "Pdu".
+import com.cloudhopper.smpp.pdu.PduResponse;
+// The default "PDU" encoder/decoder.
+import com.cloudhopper.smpp.transcoder.DefaultPduTranscoder;
+// The default context of the "PDU" encoder/decoder.
+import com.cloudhopper.smpp.transcoder.DefaultPduTranscoderContext;
+// The context of the "PDU" encoder/decoder, e.g. the result messages of the "command status" values.
+import com.cloudhopper.smpp.transcoder.PduTranscoderContext;
+// Several "SMPP PDU" related "exception" classes.
+import com.cloudhopper.smpp.type.RecoverablePduException;
+import com.cloudhopper.smpp.type.UnrecoverablePduException;
+
+// A random-access sequence of zero or more bytes, used by "Netty".
+import org.jboss.netty.buffer.ChannelBuffer;
+// A nexus to a network socket, i.e. the channel of a session.
+import org.jboss.netty.channel.Channel;
+
+/**
+ * The default "PDU" encoder/decoder, extended with the "submit_multi" and "submit_multi_resp" PDUs, which the default
+ * one rejects as unknown commands; the other PDUs are decoded as before. The encoding of any "PDU" is generic, so the
+ * session keeps encoding with its own transcoder.
+ *
+ * @author  Aristotelis Metsinis ( aristotelis.metsinis@gmail.com )
+ * @version 1.0
+ * @since   January 2022
+ */
+public class SubmitMultiTranscoder extends DefaultPduTranscoder {
+    // The context of the transcoder, i.e. the result messages of the "command status" values.
+    private final PduTranscoderContext context;
+
+    /**
+     * Constructor.
+     */
+    public SubmitMultiTranscoder() {
+        this( new DefaultPduTranscoderContext() );
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param context The context of the transcoder.
+     */
+    private SubmitMultiTranscoder( PduTranscoderContext context ) {
+        super( context );
+        this.context = context;
+    }
+
+    /**
+     * Replace the "PDU" decoder of the channel of a session, so that the session also receives the "submit_multi" and
+     * "submit_multi_resp" PDUs.
+     *
+     * @param channel The channel of the session.
+     */
+    public static void install( Channel channel ) {
+        channel.getPipeline().replace( SmppChannelConstants.PIPELINE_SESSION_PDU_DECODER_NAME,
+                SmppChannelConstants.PIPELINE_SESSION_PDU_DECODER_NAME,
+                new SmppSessionPduDecoder( new SubmitMultiTranscoder() ) );
+    }
+
+    /**
+     * Decode a complete "PDU" frame.
+     *
+     * @param commandLength The length of the frame.
+     * @param buffer The frame.
+     * @return The "PDU".
+     * @throws UnrecoverablePduException In case of an unrecoverable decoding error.
+     * @throws RecoverablePduException In case of a recoverable decoding error, e.g. an unknown command.
+     */
+    @Override
+    protected Pdu doDecode( int commandLength, ChannelBuffer buffer )
+            throws UnrecoverablePduException, RecoverablePduException {
+        int commandId = buffer.getInt( buffer.readerIndex() + 4 );
+        Pdu pdu;
+        if ( commandId == SmppConstants.CMD_ID_SUBMIT_MULTI ) {
+            pdu = new SubmitMulti();
+        } else if ( commandId == SmppConstants.CMD_ID_SUBMIT_MULTI_RESP ) {
+            pdu = new SubmitMultiResp();
+        } else {
+            return super.doDecode( commandLength, buffer );
+        }
+
+        // The header : the length, the command id (already known), the status and the sequence number.
+        buffer.skipBytes( 8 );
+        pdu.setCommandLength( commandLength );
+        pdu.setCommandStatus( buffer.readInt() );
+        pdu.setSequenceNumber( buffer.readInt() );
+        if ( pdu instanceof PduResponse ) {
+            ( ( PduResponse ) pdu ).setResultMessage( context.lookupResultMessage( pdu.getCommandStatus() ) );
+        }
+        pdu.readBody( buffer );
+        pdu.readOptionalParameters( buffer, context );
+        return pdu;
+    }
+}
@@ -0,0 +1,118 @@
+package com.smpp.client;
+
+// Hash table and linked list implementation of the "Map" interface, with predictable iteration order.
+import java.util.LinkedHashMap;
+// A map entry (key-value pair).
+import java.util.Map;
+// One or more variables that together maintain an initially zero "long" sum.
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The registry of the precompiled message templates, bounded to "template-cache-size" templates; the least recently
+ * used template is evicted first, and is compiled again in case where it is needed again.
+ *
+ * The hits, the misses (i.e. compilations) and the evictions are counted, and published as metrics (see
+ * "SmppMetrics").
+ *
+ * @author  Aristotelis Metsinis ( aristotelis.metsinis@gmail.com )
+ * @version 1.0
+ * @since   January 2022
+ */
+public class TemplateCache {
+    // The max number of templates.
+    private final int maxSize;
+    // The templates by text, in access order; guarded by "this".
+    private final LinkedHashMap<String, MessageTemplate> templates;
+    // Counters of the cache.
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Constructor.
+     *
+     * @param maxSize The max number of templates.
+     * @throws IllegalArgumentException In case of a non-positive size.
+     */
+    public TemplateCache( int maxSize ) {
+        if ( maxSize <= 0 ) {
+            throw new IllegalArgumentException( "Invalid template cache size " + maxSize );
+        }
+        this.maxSize = maxSize;
+        this.templates = new LinkedHashMap<String, MessageTemplate>( 16, 0.75f, true ) {
+            @Override
+            protected boolean removeEldestEntry( Map.Entry<String, MessageTemplate> eldest ) {
+                if ( size() > TemplateCache.this.maxSize ) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Register a template, i.e. get its precompiled form; the template is compiled on its first use only.
+     *
+     * @param pattern The text of the template.
+     * @return The precompiled template.
+     */
+    public synchronized MessageTemplate register( String pattern ) {
+        MessageTemplate template = templates.get( pattern );
+        if ( template != null ) {
+            hits.increment();
+            return template;
+        }
+        misses.increment();
+        template = MessageTemplate.compile( pattern );
+        templates.put( pattern, template );
+        return template;
+    }
+
+    /**
+     * Get the number of templates.
+     *
+     * @return The number of templates.
+     */
+    public synchronized int size() {
+        return templates.size();
+    }
+
+    /**
+     * Get the number of lookups finding a precompiled template.
+     *
+     * @return The number of hits.
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Get the number of lookups compiling a template.
+     *
+     * @return The number of misses.
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Get the number of templates evicted.
+     *
+     * @return The number of evictions.
+     */
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * Get the ratio of the lookups finding a precompiled template.
+     *
+     * @return The hit ratio, from "0" to "1"; "0" in case where there was no lookup.
+     */
+    public double getHitRatio() {
+        long hit = hits.sum();
+        long total = hit + misses.sum();
+        return total == 0 ? 0 : ( double ) hit / total;
+    }
+}
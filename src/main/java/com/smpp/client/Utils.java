@@ -1,9 +1,17 @@
 package com.smpp.client;
 
+// This class contains various methods for manipulating arrays.
+import java.util.Arrays;
+
 /**
  * A class that consists of a set of utility "static" methods, which perform "byte-to-hex" and "hex-to-byte"
  * transformations as well as encoding and decoding of a "hex" string.
  *
+ * The conversions are table-driven, i.e. each nibble is looked up in a digits table and each character in a values
+ * table, instead of calling "Character.forDigit" / "Character.digit" per character. "encodeHex" and "decodeHex" write
+ * into caller-supplied buffers and allocate nothing; "encodeHexString" and "decodeHexString" allocate their result
+ * only.
+ *
  * Tested with Java version "1.8.0_281"
  *
  * @author  Aristotelis Metsinis ( aristotelis.metsinis@gmail.com )
@@ -11,6 +19,22 @@ package com.smpp.client;
  * @since   January 2022
  */
 public class Utils {
+    // The lowercase "hex" digit of each nibble value.
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+    // The value of each "ASCII" character as a "hex" digit, or "-1" in case where it is not a "hex" digit.
+    private static final byte[] HEX_VALUES = new byte[ 128 ];
+
+    static {
+        Arrays.fill( HEX_VALUES, ( byte ) -1 );
+        for ( int i = 0; i < 10; i++ ) {
+            HEX_VALUES[ '0' + i ] = ( byte ) i;
+        }
+        for ( int i = 0; i < 6; i++ ) {
+            HEX_VALUES[ 'a' + i ] = ( byte ) ( 10 + i );
+            HEX_VALUES[ 'A' + i ] = ( byte ) ( 10 + i );
+        }
+    }
+
     /**
      * "Byte to Hexadecimal" helper method.
      * The bytes are 8-bit signed integers in Java. Therefore, we need to convert each 4-bit segment to
@@ -21,16 +45,10 @@ public class Utils {
      * @return The "byte" as a "hex" string.
      */
     public static String byteToHex( byte num ) {
-        // Create a char array of length 2 to store the output.
-        char[] hexDigits = new char[ 2 ];
         // Isolate higher order bits by right shifting 4 bits. And then, apply a mask to isolate lower
         // order 4 bits. Masking is required because negative numbers are internally represented as two's
         // complement of the positive number.
-        hexDigits[ 0 ] = Character.forDigit( ( num >> 4 ) & 0xF, 16 );
-        // Convert the remaining 4 bits to hexadecimal.
-        hexDigits[ 1 ] = Character.forDigit( ( num & 0xF ), 16 );
-        // Create a "String" object from the char array. And then, return this object as converted hexadecimal array.
-        return new String( hexDigits );
+        return new String( new char[] { HEX_DIGITS[ ( num >> 4 ) & 0xF ], HEX_DIGITS[ num & 0xF ] } );
     }
 
     /**
@@ -41,14 +59,12 @@ public class Utils {
      *
      * @param hexString This "hex" string will be converted to "byte".
      * @return The "hex" string as a "byte".
+     * @throws IllegalArgumentException On invalid "hex" character.
      */
-    public static byte hexToByte( String hexString ) {
-        // Convert hexadecimal characters into integers.
-        int firstDigit = toDigit( hexString.charAt( 0 ) );
-        int secondDigit = toDigit( hexString.charAt( 1 ) );
+    public static byte hexToByte( String hexString ) throws IllegalArgumentException {
         // Left shift most significant digit by 4 bits. Consequently, the binary representation has zeros at four
         // least significant bits. Add the least significant digit to it.
-        return (byte) ( ( firstDigit << 4 ) + secondDigit );
+        return ( byte ) ( ( toDigit( hexString.charAt( 0 ) ) << 4 ) | toDigit( hexString.charAt( 1 ) ) );
     }
 
     /**
@@ -59,9 +75,8 @@ public class Utils {
      * @throws IllegalArgumentException On invalid "hex" character.
      */
     private static int toDigit( char hexChar ) throws IllegalArgumentException {
-        // Use the "Character.digit()" method for conversion. If the character value passed to this method is not a
-        // valid digit in the specified radix, -1 is returned.
-        int digit = Character.digit( hexChar, 16 );
+        // Look the character up; any character out of the table is not a valid digit either.
+        int digit = hexChar < HEX_VALUES.length ? HEX_VALUES[ hexChar ] : -1;
         // Validate the return value and throw an exception if an invalid value was passed.
         if( digit == -1 ) {
             throw new IllegalArgumentException( "Invalid Hexadecimal Character : " + hexChar );
@@ -69,6 +84,63 @@ public class Utils {
         return digit;
     }
 
+    /**
+     * Encode a range of a "byte" array as lowercase "hex" characters into a caller-supplied buffer; allocates nothing.
+     *
+     * @param bytes The "byte" array.
+     * @param offset The index of the first byte to be encoded.
+     * @param length The number of bytes to be encoded.
+     * @param out The buffer, of at least "outOffset + 2 * length" characters.
+     * @param outOffset The index of the buffer the first character is written at.
+     * @return The index of the buffer following the last written character.
+     */
+    public static int encodeHex( byte[] bytes, int offset, int length, char[] out, int outOffset ) {
+        int position = outOffset;
+        for ( int i = offset; i < offset + length; i++ ) {
+            out[ position++ ] = HEX_DIGITS[ ( bytes[ i ] >> 4 ) & 0xF ];
+            out[ position++ ] = HEX_DIGITS[ bytes[ i ] & 0xF ];
+        }
+        return position;
+    }
+
+    /**
+     * Append a "byte" array as lowercase "hex" characters to a "StringBuilder", e.g. one reused across log lines.
+     *
+     * @param bytes The "byte" array.
+     * @param out The "StringBuilder".
+     * @return The "StringBuilder".
+     */
+    public static StringBuilder appendHex( byte[] bytes, StringBuilder out ) {
+        out.ensureCapacity( out.length() + 2 * bytes.length );
+        for ( byte value : bytes ) {
+            out.append( HEX_DIGITS[ ( value >> 4 ) & 0xF ] ).append( HEX_DIGITS[ value & 0xF ] );
+        }
+        return out;
+    }
+
+    /**
+     * Decode a range of "hex" characters into a caller-supplied buffer; allocates nothing.
+     *
+     * @param hex The "hex" characters.
+     * @param from The index of the first character to be decoded.
+     * @param to The index following the last character to be decoded; "to - from" must be even.
+     * @param out The buffer, of at least "outOffset + ( to - from ) / 2" bytes.
+     * @param outOffset The index of the buffer the first byte is written at.
+     * @return The index of the buffer following the last written byte.
+     * @throws IllegalArgumentException On invalid "hex" string.
+     */
+    public static int decodeHex( CharSequence hex, int from, int to, byte[] out, int outOffset )
+            throws IllegalArgumentException {
+        if ( ( to - from ) % 2 != 0 ) {
+            throw new IllegalArgumentException( "Invalid hexadecimal String supplied" );
+        }
+        int position = outOffset;
+        for ( int i = from; i < to; i += 2 ) {
+            out[ position++ ] = ( byte ) ( ( toDigit( hex.charAt( i ) ) << 4 ) | toDigit( hex.charAt( i + 1 ) ) );
+        }
+        return position;
+    }
+
     /**
      * "Byte Array to Hexadecimal String" helper method.
      * We loop through the array and generate hexadecimal pair for each byte.
@@ -78,11 +150,9 @@ public class Utils {
      * @return The "byte" array as a "hex" string.
      */
     public static String encodeHexString( byte[] byteArray ) {
-        StringBuffer hexStringBuffer = new StringBuffer();
-        for ( int i = 0; i < byteArray.length; i++ ) {
-            hexStringBuffer.append( byteToHex( byteArray[ i ] ) + "" );
-        }
-        return hexStringBuffer.toString();
+        char[] hex = new char[ 2 * byteArray.length ];
+        encodeHex( byteArray, 0, byteArray.length, hex, 0 );
+        return new String( hex );
     }
 
     /**
@@ -101,9 +171,7 @@ public class Utils {
         }
 
         byte[] bytes = new byte[ hexString.length() / 2 ];
-        for ( int i = 0; i < hexString.length(); i += 2 ) {
-            bytes[ i / 2 ] = hexToByte( hexString.substring( i, i + 2 ) );
-        }
+        decodeHex( hexString, 0, hexString.length(), bytes, 0 );
         return bytes;
     }
 }
@@ -0,0 +1,398 @@
+package com.smpp.client;
+
+// Thrown to indicate that a malformed "URL" has occurred.
+import java.net.MalformedURLException;
+// Represents a Uniform Resource Locator, a pointer to a "resource" on the World Wide Web.
+import java.net.URL;
+// Constant definitions for the standard "Charsets".
+import java.nio.charset.StandardCharsets;
+// Resizable-array implementation of the "List" interface.
+import java.util.ArrayList;
+// This class contains various methods for manipulating arrays (such as sorting and searching).
+import java.util.Arrays;
+// This class consists exclusively of static methods that operate on or return collections.
+import java.util.Collections;
+// An ordered collection (also known as a sequence).
+import java.util.List;
+// This class consists of "static" utility methods for operating on objects.
+import java.util.Objects;
+// Represents a supplier of "int"-valued results.
+import java.util.function.IntSupplier;
+
+/**
+ * A precompiled "WAP Push" message of content type "Service Indication" ("SI") or "Service Loading" ("SL"), i.e. the
+ * "WSP" push header followed by the "WBXML" encoded content, carried over "WDP" in one or more short messages.
+ *
+ * The body of a message is encoded once per "href" (and indication text); the only part which differs per message,
+ * i.e. the "si-id" of an "SI", is written per message between the encoded prefix and suffix. A body which fits a
+ * single short message is written straight into the user data of that message; a longer one is written into a
+ * pooled (per thread) buffer, and cut into segments of 127 octets, each one carried with the "WDP" port addressing
+ * and "SAR" (16-bit reference number) information elements.
+ *
+ * The encoding is byte-identical to the former "eigroup" ("ServiceIndication" / "ServiceLoading") messages of the
+ * "tcp_smpp_traces" samples ("wap_si.txt", "wap_sl.txt"): "href" prefix tokens ("http://", "http://www.",
+ * "https://", "https://www.") and a single domain token (".com/", ".edu/", ".net/", ".org/"), action "signal-high"
+ * ("SI") or "execute-high" ("SL"); see "SmppClient.generateWapPushSI" for a walk through the encoding.
+ *
+ * @author  Aristotelis Metsinis ( aristotelis.metsinis@gmail.com )
+ * @version 1.0
+ * @since   January 2022
+ */
+public final class WapPushEncoder {
+    // The max number of octets of user data per short message.
+    private static final int MAX_USER_DATA = 140;
+    // The max number of segments of a message, i.e. the range of the "SAR" octets.
+    private static final int MAX_SEGMENTS = 255;
+    // The "UDH" of a single short message: "WDP" port addressing, destination port "2948" (0x0B84), source port
+    // "9200" (0x23F0).
+    private static final byte[] UDH = { 0x06, 0x05, 0x04, 0x0B, ( byte ) 0x84, 0x23, ( byte ) 0xF0 };
+    // The "UDH" of a segment: the port addressing, followed by the "SAR" information element (0x08) with a 16-bit
+    // reference number, the number of segments and the sequence number, filled per segment.
+    private static final byte[] SAR_UDH = { 0x0C, 0x05, 0x04, 0x0B, ( byte ) 0x84, 0x23, ( byte ) 0xF0, 0x08, 0x04 };
+    // The max number of octets of the body of a single short message.
+    static final int SINGLE_CAPACITY = MAX_USER_DATA - UDH.length;
+    // The max number of octets of the body per segment.
+    private static final int SEGMENT_SIZE = MAX_USER_DATA - SAR_UDH.length - 4;
+    // The initial size of the pooled buffer of each thread.
+    private static final int BUFFER_SIZE = 1024;
+    // The pooled buffer of the body of each thread; grown as needed.
+    private static final ThreadLocal<byte[]> BUFFER = ThreadLocal.withInitial( () -> new byte[ BUFFER_SIZE ] );
+
+    // "WSP" : transaction id, "PDU" type "Push", headers length.
+    private static final int WSP_TRANSACTION_ID = 0x00;
+    private static final int WSP_PUSH = 0x06;
+    private static final int WSP_HEADERS_LENGTH = 0x01;
+    // "WSP" well-known content types "application/vnd.wap.sic" and "application/vnd.wap.slc".
+    private static final int CONTENT_TYPE_SI = 0xAE;
+    private static final int CONTENT_TYPE_SL = 0xB0;
+
+    // "WBXML" : version 1.2, public identifiers of "SI 1.0" and "SL 1.0", charset "UTF-8" (MIBenum 106).
+    private static final int WBXML_VERSION = 0x02;
+    private static final int PUBLIC_ID_SI = 0x05;
+    private static final int PUBLIC_ID_SL = 0x06;
+    private static final int CHARSET_UTF_8 = 0x6A;
+    // "WBXML" global tokens.
+    private static final int END = 0x01;
+    private static final int STR_I = 0x03;
+    // "SI" tag tokens : "si" with content, "indication" with attributes and content.
+    private static final int SI = 0x45;
+    private static final int INDICATION = 0xC6;
+    // "SI" attribute tokens : "href" without prefix, "http://", "http://www.", "https://", "https://www.".
+    private static final int SI_HREF = 0x0B;
+    // "SI" attribute tokens : "si-id", "action=signal-high".
+    private static final int SI_ID = 0x11;
+    private static final int SI_ACTION_SIGNAL_HIGH = 0x08;
+    // "SL" tag token : "sl" with attributes.
+    private static final int SL = 0x85;
+    // "SL" attribute tokens : "href" without prefix, "http://", "http://www.", "https://", "https://www.".
+    private static final int SL_HREF = 0x08;
+    // "SL" attribute token : "action=execute-high".
+    private static final int SL_ACTION_EXECUTE_HIGH = 0x06;
+    // The "href" prefixes, in the order of their tokens (following the token of "href" without prefix); the longest
+    // prefix of each scheme comes first while matching.
+    private static final String[] HREF_PREFIXES = { "http://", "http://www.", "https://", "https://www." };
+    // The "href" domains, in the order of their attribute value tokens (0x85 ".com/" ... 0x88 ".org/").
+    private static final String[] DOMAINS = { ".com", ".edu", ".net", ".org" };
+    private static final int DOMAIN_TOKEN = 0x85;
+
+    // The "href" of the message.
+    private final String href;
+    // The indication text of an "SI", or "null" in case of an "SL".
+    private final String indicationText;
+    // The encoded body up to the "si-id" value (or the whole body of an "SL"), and the encoded body after it.
+    private final byte[] prefix;
+    private final byte[] suffix;
+
+    /**
+     * Constructor.
+     *
+     * @param href The "href" of the message.
+     * @param indicationText The indication text of an "SI", or "null" in case of an "SL".
+     * @param prefix The encoded body up to the "si-id" value, or the whole body of an "SL".
+     * @param suffix The encoded body after the "si-id" value, or "null" in case of an "SL".
+     */
+    private WapPushEncoder( String href, String indicationText, byte[] prefix, byte[] suffix ) {
+        this.href = href;
+        this.indicationText = indicationText;
+        this.prefix = prefix;
+        this.suffix = suffix;
+    }
+
+    /**
+     * Compile a "Service Indication" message, with action "signal-high".
+     *
+     * @param href The "href" of the message.
+     * @param indicationText The text of the "indication" element; not encoded in case where it is blank.
+     * @return The precompiled message.
+     * @throws MalformedURLException In case where the "href" is not a legal "URL".
+     */
+    public static WapPushEncoder serviceIndication( String href, String indicationText ) throws MalformedURLException {
+        Body body = new Body();
+        body.write( WSP_TRANSACTION_ID ).write( WSP_PUSH ).write( WSP_HEADERS_LENGTH ).write( CONTENT_TYPE_SI );
+        body.write( WBXML_VERSION ).write( PUBLIC_ID_SI ).write( CHARSET_UTF_8 ).write( 0x00 );
+        body.write( SI ).write( INDICATION );
+        writeHref( body, href, SI_HREF );
+        // The "si-id" value is written per message.
+        body.write( SI_ID ).write( STR_I );
+        byte[] prefix = body.toByteArray();
+
+        body = new Body();
+        body.write( 0x00 );
+        body.write( SI_ACTION_SIGNAL_HIGH ).write( END );
+        if ( indicationText != null && indicationText.trim().length() > 0 ) {
+            body.write( STR_I ).write( indicationText ).write( 0x00 );
+        }
+        body.write( END ).write( END );
+        return new WapPushEncoder( href, indicationText, prefix, body.toByteArray() );
+    }
+
+    /**
+     * Compile a "Service Loading" message, with action "execute-high".
+     *
+     * @param href The "href" of the message.
+     * @return The precompiled message.
+     * @throws MalformedURLException In case where the "href" is not a legal "URL".
+     */
+    public static WapPushEncoder serviceLoading( String href ) throws MalformedURLException {
+        Body body = new Body();
+        body.write( WSP_TRANSACTION_ID ).write( WSP_PUSH ).write( WSP_HEADERS_LENGTH ).write( CONTENT_TYPE_SL );
+        body.write( WBXML_VERSION ).write( PUBLIC_ID_SL ).write( CHARSET_UTF_8 ).write( 0x00 );
+        body.write( SL );
+        writeHref( body, href, SL_HREF );
+        body.write( SL_ACTION_EXECUTE_HIGH ).write( END );
+        return new WapPushEncoder( href, null, body.toByteArray(), null );
+    }
+
+    /**
+     * Check if the message was compiled out of the given "href" and indication text, i.e. may be reused for them.
+     *
+     * @param href The "href" of the message.
+     * @param indicationText The indication text of an "SI", or "null" in case of an "SL".
+     * @return "true" in case where the message may be reused, else "false".
+     */
+    public boolean isCompiledFrom( String href, String indicationText ) {
+        return this.href.equals( href ) && Objects.equals( this.indicationText, indicationText );
+    }
+
+    /**
+     * Encode the short messages (user data, i.e. "UDH" followed by the body) of a message.
+     *
+     * @param id The "si-id" of an "SI", i.e. a non-negative number; ignored in case of an "SL".
+     * @param referenceNumbers The allocator of the "SAR" reference number, in case of a message of more than one
+     *                         segment.
+     * @return The user data of each short message.
+     * @throws IllegalArgumentException In case where the message needs more than 255 segments.
+     */
+    public List<byte[]> encode( int id, IntSupplier referenceNumbers ) {
+        int digits = suffix == null ? 0 : digits( id );
+        int length = prefix.length + digits + ( suffix == null ? 0 : suffix.length );
+
+        // A single short message; the body is written straight after the "UDH".
+        if ( length <= SINGLE_CAPACITY ) {
+            byte[] userData = userData( length );
+            writeBody( userData, UDH.length, id, digits );
+            return Collections.singletonList( userData );
+        }
+
+        // The body is written into the pooled buffer, and cut into segments.
+        byte[] buffer = buffer( length );
+        writeBody( buffer, 0, id, digits );
+        return segment( buffer, length, referenceNumbers );
+    }
+
+    /**
+     * Create the user data of a single short message, i.e. the "WDP" port addressing "UDH" followed by room for the
+     * body.
+     *
+     * @param length The length of the body.
+     * @return The user data, whose body is to be written at the offset of the length of the "UDH".
+     */
+    static byte[] userData( int length ) {
+        return Arrays.copyOf( UDH, UDH.length + length );
+    }
+
+    /**
+     * Get the pooled buffer of the current thread, to write the body of a message to be segmented.
+     *
+     * @param length The length of the body.
+     * @return The buffer, of at least the given length.
+     */
+    static byte[] buffer( int length ) {
+        byte[] buffer = BUFFER.get();
+        if ( buffer.length < length ) {
+            buffer = new byte[ Math.max( length, buffer.length * 2 ) ];
+            BUFFER.set( buffer );
+        }
+        return buffer;
+    }
+
+    /**
+     * Cut the body of a message into "WDP" segments, each one carried with the port addressing and "SAR" information
+     * elements.
+     *
+     * @param body The body.
+     * @param length The length of the body.
+     * @param referenceNumbers The allocator of the "SAR" reference number.
+     * @return The user data of each segment.
+     * @throws IllegalArgumentException In case where the message needs more than 255 segments.
+     */
+    static List<byte[]> segment( byte[] body, int length, IntSupplier referenceNumbers ) {
+        int count = ( length + SEGMENT_SIZE - 1 ) / SEGMENT_SIZE;
+        if ( count > MAX_SEGMENTS ) {
+            throw new IllegalArgumentException( "WAP Push message of " + length + " octets exceeds " + MAX_SEGMENTS
+                    + " segments" );
+        }
+        int reference = referenceNumbers.getAsInt();
+        List<byte[]> segments = new ArrayList<>( count );
+        for ( int sequence = 1, offset = 0; offset < length; sequence++, offset += SEGMENT_SIZE ) {
+            int size = Math.min( SEGMENT_SIZE, length - offset );
+            byte[] userData = Arrays.copyOf( SAR_UDH, SAR_UDH.length + 4 + size );
+            userData[ SAR_UDH.length ] = ( byte ) ( reference >>> 8 );
+            userData[ SAR_UDH.length + 1 ] = ( byte ) reference;
+            userData[ SAR_UDH.length + 2 ] = ( byte ) count;
+            userData[ SAR_UDH.length + 3 ] = ( byte ) sequence;
+            System.arraycopy( body, offset, userData, SAR_UDH.length + 4, size );
+            segments.add( userData );
+        }
+        return segments;
+    }
+
+    /**
+     * Write the body of a message, i.e. the encoded prefix, the "si-id" digits and the encoded suffix.
+     *
+     * @param out The array to write to.
+     * @param offset The offset to start writing at.
+     * @param id The "si-id" of an "SI"; ignored in case of an "SL".
+     * @param digits The number of decimal digits of the "si-id", or "0" in case of an "SL".
+     */
+    private void writeBody( byte[] out, int offset, int id, int digits ) {
+        System.arraycopy( prefix, 0, out, offset, prefix.length );
+        if ( suffix != null ) {
+            // The decimal digits of the "si-id", from the last one.
+            int position = offset + prefix.length + digits;
+            do {
+                out[ --position ] = ( byte ) ( '0' + id % 10 );
+                id /= 10;
+            } while ( id > 0 );
+            System.arraycopy( suffix, 0, out, offset + prefix.length + digits, suffix.length );
+        }
+    }
+
+    /**
+     * Get the number of decimal digits of a number.
+     *
+     * @param id The number.
+     * @return The number of digits.
+     * @throws IllegalArgumentException In case of a negative number.
+     */
+    private static int digits( int id ) {
+        if ( id < 0 ) {
+            throw new IllegalArgumentException( "Invalid si-id " + id );
+        }
+        int digits = 1;
+        while ( id >= 10 ) {
+            id /= 10;
+            digits++;
+        }
+        return digits;
+    }
+
+    /**
+     * Write the "href" attribute, i.e. the token of its prefix, followed by its host and path as inline strings around
+     * the token of its domain.
+     *
+     * @param body The body to write to.
+     * @param href The "href".
+     * @param hrefToken The token of "href" without prefix; the prefix tokens follow it.
+     * @throws MalformedURLException In case where the "href" is not a legal "URL".
+     */
+    private static void writeHref( Body body, String href, int hrefToken ) throws MalformedURLException {
+        if ( href == null ) {
+            throw new MalformedURLException( "Missing href" );
+        }
+        String url = new URL( href ).toString();
+        String lower = url.toLowerCase();
+
+        // The token of the longest matching prefix.
+        int start = 0;
+        int token = hrefToken;
+        for ( int i = 0; i < HREF_PREFIXES.length; i++ ) {
+            if ( lower.startsWith( HREF_PREFIXES[ i ] ) && HREF_PREFIXES[ i ].length() > start ) {
+                start = HREF_PREFIXES[ i ].length();
+                token = hrefToken + 1 + i;
+            }
+        }
+        body.write( token );
+
+        // The first domain the "href" ends with, or followed by a "/"; the token stands for the domain and the "/".
+        for ( int i = 0; i < DOMAINS.length; i++ ) {
+            int index = lower.endsWith( DOMAINS[ i ] ) ? -1 : lower.indexOf( DOMAINS[ i ] + "/" );
+            if ( index >= 0 || lower.endsWith( DOMAINS[ i ] ) ) {
+                int end = index < 0 ? url.length() - DOMAINS[ i ].length() : index;
+                // The host, i.e. the part between the prefix and the domain; written in case where anything follows the
+                // prefix but the domain itself (e.g. not for "http://www.com/").
+                boolean host = url.length() - DOMAINS[ i ].length() > start;
+                // The domain overlaps the prefix, e.g. "https://www.org"; the "href" is written as is.
+                if ( url.length() - DOMAINS[ i ].length() < start || ( host && end < start ) ) {
+                    break;
+                }
+                if ( host ) {
+                    body.write( STR_I ).write( url.substring( start, end ) ).write( 0x00 );
+                }
+                body.write( DOMAIN_TOKEN + i );
+                // The path, i.e. the rest after the domain and the "/".
+                if ( index >= 0 ) {
+                    body.write( STR_I ).write( url.substring( index + DOMAINS[ i ].length() + 1 ) ).write( 0x00 );
+                }
+                return;
+            }
+        }
+        body.write( STR_I ).write( url.substring( start ) ).write( 0x00 );
+    }
+
+    /**
+     * A growable array of octets, used while compiling a message.
+     */
+    private static final class Body {
+        // The octets.
+        private byte[] octets = new byte[ 64 ];
+        // The number of octets.
+        private int length;
+
+        /**
+         * Write an octet.
+         *
+         * @param octet The octet.
+         * @return This body.
+         */
+        private Body write( int octet ) {
+            if ( length == octets.length ) {
+                octets = Arrays.copyOf( octets, length * 2 );
+            }
+            octets[ length++ ] = ( byte ) octet;
+            return this;
+        }
+
+        /**
+         * Write the "UTF-8" octets of a text.
+         *
+         * @param text The text.
+         * @return This body.
+         */
+        private Body write( String text ) {
+            for ( byte octet : text.getBytes( StandardCharsets.UTF_8 ) ) {
+                write( octet );
+            }
+            return this;
+        }
+
+        /**
+         * Get the octets.
+         *
+         * @return A copy of the octets.
+         */
+        private byte[] toByteArray() {
+            return Arrays.copyOf( octets, length );
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package com.smpp.client;
+
+// All constants defined for the "SMPP" protocol.
+import com.cloudhopper.smpp.SmppConstants;
+
+// A "TimeUnit" represents time durations at a given unit of granularity.
+import java.util.concurrent.TimeUnit;
+// A "long" array in which elements may be updated atomically.
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Adaptive "window" of a single bind, i.e. the number of requests the bind may keep in flight, tuned at runtime by
+ * "Additive Increase / Multiplicative Decrease" (AIMD) from the measured "submit_sm_resp" latency.
+ *
+ * While the responses arrive within "window-latency-target" and the window is fully used, the limit grows by one
+ * request per round trip; on a timeout, a throttling status ("ESME_RTHROTTLED", "ESME_RMSGQFUL") or a latency spike
+ * (above 4 times the target) it is halved, at most once per round trip, so that a burst of failures of the requests
+ * already in flight is taken as a single congestion signal. The limit stays within "min-window-size" and
+ * "max-window-size"; the "Cloudhopper" window of the session is sized to the latter.
+ *
+ * The "request expiry timeout" of the bind is derived from the observed p99 latency (3 times the p99, within
+ * "min-timeout" and "timeout"), so that a request that is lost is retried after a few round trips instead of a fixed
+ * period. The derived timeout is applied to the configuration of the live session, which "Cloudhopper" reads without
+ * synchronization; it is therefore only adapted on a best effort basis, and may take effect late.
+ *
+ * @author  Aristotelis Metsinis ( aristotelis.metsinis@gmail.com )
+ * @version 1.0
+ * @since   January 2022
+ */
+public class WindowController {
+    // The factor the limit is multiplied by on a congestion signal.
+    private static final double DECREASE_FACTOR = 0.5;
+    // A latency above this multiple of the target is a congestion signal.
+    private static final int SPIKE_FACTOR = 4;
+    // The "request expiry timeout" is this multiple of the p99 latency.
+    private static final int EXPIRY_FACTOR = 3;
+    // The min number of responses the p99 latency is derived from.
+    private static final int MIN_SAMPLES = 100;
+
+    // The bounds of the limit.
+    private final int minLimit;
+    private final int maxLimit;
+    // The latency target and the latency spike (in nanoseconds).
+    private final long latencyTarget;
+    private final long latencySpike;
+    // The bounds of the "request expiry timeout" (in milliseconds).
+    private final long minTimeout;
+    private final long maxTimeout;
+    // Latency histogram of the responses since the p99 was last derived, with a resolution of 1 millisecond; the
+    // last bucket holds the slower responses.
+    private final AtomicLongArray latencies;
+
+    // The current limit; fractional, so that it grows by one request per round trip. Guarded by "this".
+    private double limit;
+    // The number of requests in flight. Guarded by "this".
+    private int inFlight;
+    // The smoothed round-trip time (in nanoseconds). Guarded by "this".
+    private long smoothedLatency;
+    // The time ("System.nanoTime()") of the last decrease. Guarded by "this".
+    private long lastDecrease = System.nanoTime();
+    // The current "request expiry timeout" (in milliseconds).
+    private volatile long requestExpiry;
+
+    /**
+     * Constructor.
+     *
+     * @param properties All the external properties we need.
+     */
+    public WindowController( SmppClientProperties properties ) {
+        this.minLimit = Math.max( properties.getAsync().getMinWindowSize(), 1 );
+        this.maxLimit = Math.max( properties.getAsync().getMaxWindowSize(), minLimit );
+        this.latencyTarget = TimeUnit.MILLISECONDS.toNanos( properties.getAsync().getWindowLatencyTarget() );
+        this.latencySpike = SPIKE_FACTOR * latencyTarget;
+        this.maxTimeout = properties.getAsync().getTimeout();
+        this.minTimeout = Math.min( properties.getAsync().getMinTimeout(), maxTimeout );
+        this.latencies = new AtomicLongArray( ( int ) maxTimeout + 1 );
+        // Start with the static "window" size.
+        this.limit = Math.min( Math.max( properties.getAsync().getWindowSize(), minLimit ), maxLimit );
+        this.smoothedLatency = latencyTarget;
+        this.requestExpiry = maxTimeout;
+    }
+
+    /**
+     * Create the controller of a bind, or "null" in case where the "window" is not adaptive.
+     *
+     * @param properties All the external properties we need.
+     * @return The controller, or "null".
+     */
+    public static WindowController create( SmppClientProperties properties ) {
+        return properties.getAsync().isAdaptiveWindow() ? new WindowController( properties ) : null;
+    }
+
+    /**
+     * Take a slot of the window, waiting while the requests in flight reach the limit.
+     *
+     * @param timeoutMillis How long to wait for a free slot (in milliseconds).
+     * @return "true" if a slot was taken, else "false" in case where none was freed in time.
+     * @throws InterruptedException In case where the calling thread is interrupted while waiting.
+     */
+    public synchronized boolean acquire( long timeoutMillis ) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos( timeoutMillis );
+        while ( inFlight >= ( int ) limit ) {
+            long remaining = deadline - System.nanoTime();
+            if ( remaining <= 0 ) {
+                return false;
+            }
+            TimeUnit.NANOSECONDS.timedWait( this, remaining );
+        }
+        inFlight++;
+        return true;
+    }
+
+    /**
+     * Free the slot of a request without a response, e.g. the request could not be written, or its session dropped.
+     */
+    public synchronized void release() {
+        inFlight--;
+        notifyAll();
+    }
+
+    /**
+     * Free the slot of a request that received its response, and adapt the limit to the latency and the
+     * "command status" of the response. Called on the "Netty" I/O thread.
+     *
+     * @param commandStatus The "command status" of the response.
+     * @param latencyNanos The round-trip time in nanoseconds.
+     */
+    public void complete( int commandStatus, long latencyNanos ) {
+        long millis = TimeUnit.NANOSECONDS.toMillis( latencyNanos );
+        latencies.incrementAndGet( ( int ) Math.min( millis, latencies.length() - 1 ) );
+
+        synchronized ( this ) {
+            // The window was fully used, i.e. the limit (rather than the offered traffic) bounded the requests in
+            // flight; an idle bind never grows its limit.
+            boolean limited = inFlight >= ( int ) limit;
+            inFlight--;
+            smoothedLatency += ( latencyNanos - smoothedLatency ) / 8;
+            if ( commandStatus == SmppConstants.STATUS_THROTTLED || commandStatus == SmppConstants.STATUS_MSGQFUL
+                    || latencyNanos > latencySpike ) {
+                decrease();
+            } else if ( latencyNanos <= latencyTarget && limited ) {
+                limit = Math.min( limit + 1 / limit, maxLimit );
+            }
+            notifyAll();
+        }
+    }
+
+    /**
+     * Free the slot of a request that expired without a response, and cut the limit. Called by the "window" monitor
+     * of the session.
+     */
+    public synchronized void expire() {
+        inFlight--;
+        decrease();
+        notifyAll();
+    }
+
+    /**
+     * Cut the limit, unless it was already cut within the last round trip.
+     */
+    private void decrease() {
+        long now = System.nanoTime();
+        if ( now - lastDecrease < smoothedLatency ) {
+            return;
+        }
+        lastDecrease = now;
+        limit = Math.max( limit * DECREASE_FACTOR, minLimit );
+    }
+
+    /**
+     * Derive the "request expiry timeout" from the p99 latency of the responses received since it was last derived,
+     * in case where enough of them were received. Called periodically.
+     *
+     * @return The "request expiry timeout" in milliseconds.
+     */
+    public long updateRequestExpiry() {
+        long total = 0;
+        for ( int i = 0; i < latencies.length(); i++ ) {
+            total += latencies.get( i );
+        }
+        if ( total < MIN_SAMPLES ) {
+            return requestExpiry;
+        }
+        long rank = ( long ) Math.ceil( 0.99 * total );
+        long count = 0;
+        int p99 = -1;
+        // Reset the histogram while scanning it, so that the next p99 only reflects the new responses.
+        for ( int i = 0; i < latencies.length(); i++ ) {
+            count += latencies.getAndSet( i, 0 );
+            if ( count >= rank && p99 < 0 ) {
+                p99 = i;
+            }
+        }
+        requestExpiry = Math.min( Math.max( ( long ) EXPIRY_FACTOR * ( p99 + 1 ), minTimeout ), maxTimeout );
+        return requestExpiry;
+    }
+
+    /**
+     * Get the current limit.
+     *
+     * @return The max number of requests in flight.
+     */
+    public synchronized int getLimit() {
+        return ( int ) limit;
+    }
+
+    /**
+     * Get the number of requests in flight.
+     *
+     * @return The number of requests in flight.
+     */
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    /**
+     * Get the current "request expiry timeout".
+     *
+     * @return The timeout in milliseconds.
+     */
+    public long getRequestExpiry() {
+        return requestExpiry;
+    }
+}
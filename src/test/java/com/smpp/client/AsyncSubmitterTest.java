@@ -0,0 +1,279 @@
+package com.smpp.client;
+
+// All constants defined for the "SMPP" protocol.
+import com.cloudhopper.smpp.SmppConstants;
+// Defines a common interface for either a Client (ESME) or Server (SMSC) "SMPP" session.
+import com.cloudhopper.smpp.SmppSession;
+// A response "PDU" received asynchronously, i.e. matched against a request sent with "sendRequestPdu".
+import com.cloudhopper.smpp.PduAsyncResponse;
+// "generic_nack" SMPP PDU.
+import com.cloudhopper.smpp.pdu.GenericNack;
+// Abstract class that extends "Pdu".
+import com.cloudhopper.smpp.pdu.PduRequest;
+// Abstract class that extends "Pdu".
+import com.cloudhopper.smpp.pdu.PduResponse;
+// "submit_sm" SMPP PDU.
+import com.cloudhopper.smpp.pdu.SubmitSm;
+// "submit_sm_resp" SMPP PDU.
+import com.cloudhopper.smpp.pdu.SubmitSmResp;
+// "SMPP" Address.
+import com.cloudhopper.smpp.type.Address;
+
+// A registry keeping the meters in memory.
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+// "JUnit Jupiter" test annotations and assertions.
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Stub the session pool and the sessions.
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Character sets.
+import java.nio.charset.StandardCharsets;
+// File system paths.
+import java.nio.file.Path;
+// Utility methods of collections.
+import java.util.Arrays;
+// An ordered collection.
+import java.util.List;
+// A "Future" that may be explicitly completed.
+import java.util.concurrent.CompletableFuture;
+// Thrown when retrieving the result of a task that completed exceptionally.
+import java.util.concurrent.ExecutionException;
+// An unbounded blocking queue based on linked nodes.
+import java.util.concurrent.LinkedBlockingQueue;
+// A "TimeUnit" represents time durations at a given unit of granularity.
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Check how the responses of the "submit_multi" requests complete the handles of their destinations: the partial
+ * retry of the destinations reported in "unsuccess_sme", and the fallback to "submit_sm" requests in case where the
+ * "SMSC" does not support "submit_multi".
+ *
+ * @author  Aristotelis Metsinis ( aristotelis.metsinis@gmail.com )
+ * @version 1.0
+ * @since   January 2022
+ */
+class AsyncSubmitterTest {
+    // The max time to wait for a request to be sent or a handle to be completed, in seconds.
+    private static final int TIMEOUT = 5;
+
+    // The directory of the outbound journal; a new one per test.
+    @TempDir
+    Path directory;
+
+    // The requests written to the session, in order.
+    private final LinkedBlockingQueue<PduRequest> sent = new LinkedBlockingQueue<>();
+    // The name of the thread each request was written on, in order.
+    private final LinkedBlockingQueue<String> threads = new LinkedBlockingQueue<>();
+    private OutboundJournal journal;
+    private AsyncSubmitter submitter;
+
+    @BeforeEach
+    void start() throws Exception {
+        SmppClientProperties properties = new SmppClientProperties();
+        properties.getAsync().setSubmitMultiSize( 10 );
+        properties.getAsync().setRetryInitialDelay( 1 );
+        properties.getAsync().setRetryTickDuration( 1 );
+        properties.getAsync().setJournalDirectory( directory.toString() );
+        properties.getAsync().setJournalFlushInterval( 10 );
+
+        // A single bound session, without a rate limiter or an adaptive "window", recording the requests written to it.
+        SmppSession session = mock( SmppSession.class );
+        when( session.isBound() ).thenReturn( true );
+        doAnswer( invocation -> {
+            threads.add( Thread.currentThread().getName() );
+            sent.add( invocation.getArgument( 0 ) );
+            return null;
+        } )
+                .when( session ).sendRequestPdu( any(), anyLong(), anyBoolean() );
+        PooledSession slot = mock( PooledSession.class );
+        when( slot.getSession() ).thenReturn( session );
+        SmppSessionPool pool = mock( SmppSessionPool.class );
+        when( pool.select() ).thenReturn( slot );
+
+        journal = new OutboundJournal( properties );
+        journal.open();
+        submitter = new AsyncSubmitter( properties, pool, mock( DeliveryDispatcher.class ),
+                mock( CorrelationStore.class ), journal, new SmppMetrics( new SimpleMeterRegistry() ) );
+    }
+
+    @AfterEach
+    void stop() {
+        submitter.shutdown();
+        journal.close();
+    }
+
+    @Test
+    void retryOnlyTheUnsuccessfulDestinations() throws Exception {
+        List<CompletableFuture<SubmitSmResp>> futures = submitter.submit( template(),
+                addresses( "306900000001", "306900000002", "306900000003", "306900000004" ) );
+        SubmitMulti multi = ( SubmitMulti ) next();
+        assertEquals( 4, multi.getDestAddresses().size() );
+
+        // The first destination is accepted, the second and fourth are throttled and the third is invalid.
+        SubmitMultiResp response = multi.createResponse();
+        response.setMessageId( "m1" );
+        response.addUnsuccessSme( new SubmitMultiResp.UnsuccessSme( address( "306900000002" ),
+                SmppConstants.STATUS_THROTTLED ) );
+        response.addUnsuccessSme( new SubmitMultiResp.UnsuccessSme( address( "306900000003" ),
+                SmppConstants.STATUS_INVDSTADR ) );
+        response.addUnsuccessSme( new SubmitMultiResp.UnsuccessSme( address( "306900000004" ),
+                SmppConstants.STATUS_THROTTLED ) );
+        submitter.onResponse( asyncResponse( multi, response ) );
+
+        assertEquals( "m1", get( futures.get( 0 ) ).getMessageId() );
+        ExecutionException invalid = assertThrows( ExecutionException.class, () -> get( futures.get( 2 ) ) );
+        assertTrue( invalid.getCause().getMessage().contains( "306900000003" ) );
+
+        // Only the throttled destinations are sent again, in a new "submit_multi" taking their handles over.
+        SubmitMulti retry = ( SubmitMulti ) next();
+        assertEquals( Arrays.asList( "306900000002", "306900000004" ), destinations( retry ) );
+        PendingMulti pending = ( PendingMulti ) retry.getReferenceObject();
+        assertEquals( 2, pending.getDestinations().size() );
+        assertEquals( 2, pending.getAttempts() );
+        assertTrue( pending.getReference() > ( ( PendingSubmit ) multi.getReferenceObject() ).getReference() );
+        assertTrue( !futures.get( 1 ).isDone() && !futures.get( 3 ).isDone() );
+
+        SubmitMultiResp retryResponse = retry.createResponse();
+        retryResponse.setMessageId( "m2" );
+        submitter.onResponse( asyncResponse( retry, retryResponse ) );
+        assertEquals( "m2", get( futures.get( 1 ) ).getMessageId() );
+        assertEquals( "m2", get( futures.get( 3 ) ).getMessageId() );
+    }
+
+    @Test
+    void fallBackToSubmitSmOnInvalidCommandId() throws Exception {
+        List<CompletableFuture<SubmitSmResp>> futures = submitter.submit( template(),
+                addresses( "306900000001", "306900000002", "306900000003" ) );
+        SubmitMulti multi = ( SubmitMulti ) next();
+
+        // The "SMSC" does not know the "submit_multi" command.
+        GenericNack nack = new GenericNack();
+        nack.setCommandStatus( SmppConstants.STATUS_INVCMDID );
+        threads.clear();
+        submitter.onResponse( asyncResponse( multi, nack ) );
+
+        // Each destination is sent in a "submit_sm" of its own, completing the handle of the destination; sent by the
+        // thread of the retries, never by the "callback" thread handling the response.
+        for ( int i = 0; i < 3; i++ ) {
+            SubmitSm submit = ( SubmitSm ) next();
+            assertEquals( "smpp.retry", threads.poll() );
+            String destination = submit.getDestAddress().getAddress();
+            assertArrayEquals( multi.getShortMessage(), submit.getShortMessage() );
+            SubmitSmResp response = submit.createResponse();
+            response.setMessageId( "id-" + destination );
+            submitter.onResponse( asyncResponse( submit, response ) );
+        }
+        assertEquals( "id-306900000001", get( futures.get( 0 ) ).getMessageId() );
+        assertEquals( "id-306900000002", get( futures.get( 1 ) ).getMessageId() );
+        assertEquals( "id-306900000003", get( futures.get( 2 ) ).getMessageId() );
+
+        // From then on, the destinations are sent as "submit_sm" requests right away.
+        submitter.submit( template(), addresses( "306900000004", "306900000005" ) );
+        assertEquals( "306900000004", ( ( SubmitSm ) next() ).getDestAddress().getAddress() );
+        assertEquals( "306900000005", ( ( SubmitSm ) next() ).getDestAddress().getAddress() );
+    }
+
+    /**
+     * Wait for the next request written to the session.
+     *
+     * @return The request.
+     * @throws InterruptedException In case where the test thread is interrupted.
+     */
+    private PduRequest next() throws InterruptedException {
+        PduRequest request = sent.poll( TIMEOUT, TimeUnit.SECONDS );
+        assertNotNull( request, "No request was sent" );
+        return request;
+    }
+
+    /**
+     * Wait for a handle to be completed.
+     *
+     * @param future The handle.
+     * @return The response.
+     * @throws Exception In case where the handle was completed exceptionally, or not in time.
+     */
+    private static SubmitSmResp get( CompletableFuture<SubmitSmResp> future ) throws Exception {
+        return future.get( TIMEOUT, TimeUnit.SECONDS );
+    }
+
+    /**
+     * Create the message sent to the destinations.
+     *
+     * @return The "submit_sm" PDU.
+     * @throws Exception Never; the message is short enough.
+     */
+    private static SubmitSm template() throws Exception {
+        SubmitSm submit = new SubmitSm();
+        submit.setSourceAddress( new Address( ( byte ) 0x05, ( byte ) 0x00, "560" ) );
+        submit.setShortMessage( "Hello".getBytes( StandardCharsets.ISO_8859_1 ) );
+        return submit;
+    }
+
+    private static Address address( String number ) {
+        return new Address( ( byte ) 0x01, ( byte ) 0x01, number );
+    }
+
+    private static List<Address> addresses( String... numbers ) {
+        return Arrays.asList( Arrays.stream( numbers ).map( AsyncSubmitterTest::address ).toArray( Address[]::new ) );
+    }
+
+    private static List<String> destinations( SubmitMulti multi ) {
+        return Arrays.asList( multi.getDestAddresses().stream().map( Address::getAddress ).toArray( String[]::new ) );
+    }
+
+    /**
+     * Match a response against its request, as the session does before passing it to the session handler.
+     *
+     * @param request The request.
+     * @param response The response.
+     * @return The request and its response.
+     */
+    private static PduAsyncResponse asyncResponse( PduRequest request, PduResponse response ) {
+        return new PduAsyncResponse() {
+            @Override
+            public PduRequest getRequest() {
+                return request;
+            }
+
+            @Override
+            public PduResponse getResponse() {
+                return response;
+            }
+
+            @Override
+            public int getWindowSize() {
+                return 0;
+            }
+
+            @Override
+            public long getWindowWaitTime() {
+                return 0;
+            }
+
+            @Override
+            public long getResponseTime() {
+                return 0;
+            }
+
+            @Override
+            public long getEstimatedProcessingTime() {
+                return 0;
+            }
+        };
+    }
+}
@@ -0,0 +1,219 @@
+package com.smpp.client;
+
+// The exception thrown in case where the short message of a "delivery receipt" cannot be parsed.
+import com.cloudhopper.smpp.util.DeliveryReceiptException;
+
+// "JUnit Jupiter" test annotations and assertions.
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+// Character sets.
+import java.nio.charset.StandardCharsets;
+// A time-zone "ID" and offset.
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+// A random number generator; seeded, so that a failure can be reproduced.
+import java.util.Random;
+
+/**
+ * Check the single-pass byte parser of the "delivery receipts" against the "String" parser.
+ *
+ * @author  Aristotelis Metsinis ( aristotelis.metsinis@gmail.com )
+ * @version 1.0
+ * @since   January 2022
+ */
+class DeliveryReceiptTest {
+    // The number of generated short messages of the randomized comparison; a longer run may be asked for on the
+    // command line, e.g. "mvn test -Ddlr.samples=200000".
+    private static final int SAMPLES = Integer.getInteger( "dlr.samples", 20000 );
+    // The field labels, in any letter case.
+    private static final String[] LABELS = { "id:", "sub:", "dlvrd:", "submit date:", "done date:", "stat:", "err:",
+            "text:" };
+    // The states; valid and invalid ones.
+    private static final String[] STATES = { "DELIVRD", "EXPIRED", "DELETED", "UNDELIV", "ACCEPTD", "UNKNOWN",
+            "REJECTD", "ENROUTE", "delivrd", "Expired", "BOGUS", "" };
+    // The characters of the generated values.
+    private static final String CHARACTERS = "0123456789 :abcdefABCDEF-_.éü";
+
+    @Test
+    void parseStandardReceipt() throws DeliveryReceiptException {
+        byte[] shortMessage = ( "id:0123456789 sub:001 dlvrd:001 submit date:2201151200 done date:220115120130 "
+                + "stat:DELIVRD err:000 text:Hello world" ).getBytes( StandardCharsets.ISO_8859_1 );
+        DeliveryReceipt dlr = new DeliveryReceipt();
+        DeliveryReceipt.parseShortMessage( shortMessage, ZoneOffset.UTC, true, dlr );
+
+        assertEquals( "0123456789", dlr.getMessageId() );
+        assertEquals( 1, dlr.getSubmitCount() );
+        assertEquals( 1, dlr.getDeliveredCount() );
+        assertEquals( 1642248000000L, dlr.getSubmitDateMillis() );
+        assertEquals( 1642248090000L, dlr.getDoneDateMillis() );
+        assertEquals( DeliveryReceipt.toState( "DELIVRD" ), dlr.getState() );
+        assertEquals( "000", dlr.getRawErrorCode() );
+        assertEquals( 0, dlr.getErrorCode() );
+        assertEquals( "Hello world", dlr.getText() );
+    }
+
+    @Test
+    void rejectMissingFields() {
+        byte[] shortMessage = "id:1 stat:DELIVRD".getBytes( StandardCharsets.ISO_8859_1 );
+        assertThrows( DeliveryReceiptException.class,
+                () -> DeliveryReceipt.parseShortMessage( shortMessage, ZoneOffset.UTC, true, new DeliveryReceipt() ) );
+    }
+
+    @Test
+    void byteParserMatchesStringParser() {
+        Random random = new Random( 20220115L );
+        ZoneId zone = ZoneId.of( "Europe/Athens" );
+        // The receipt is reused, as by the session handler.
+        DeliveryReceipt dlr = new DeliveryReceipt();
+        for ( int i = 0; i < SAMPLES; i++ ) {
+            String text = generate( random );
+            boolean checkMissingFields = random.nextBoolean();
+
+            String expected;
+            try {
+                expected = describe( DeliveryReceipt.parseShortMessage( text, zone, checkMissingFields ) );
+            }
+            // The parse errors, including the ones of the "DateTimeFormatter" fallback, e.g. "DateTimeParseException".
+            catch ( DeliveryReceiptException | RuntimeException e ) {
+                expected = e.getClass().getName() + ": " + e.getMessage();
+            }
+            String actual;
+            try {
+                DeliveryReceipt.parseShortMessage( text.getBytes( StandardCharsets.ISO_8859_1 ), zone,
+                        checkMissingFields, dlr );
+                actual = describe( dlr );
+            } catch ( DeliveryReceiptException | RuntimeException e ) {
+                actual = e.getClass().getName() + ": " + e.getMessage();
+            }
+            assertEquals( expected, actual, "Short message [" + text + "]" );
+        }
+    }
+
+    /**
+     * Generate the short message of a "delivery receipt": the fields in a random order, some of them missing,
+     * repeated or with a malformed value, and the labels in a random letter case.
+     *
+     * @param random The random number generator.
+     * @return The short message.
+     */
+    private static String generate( Random random ) {
+        StringBuilder text = new StringBuilder();
+        int fields = random.nextInt( LABELS.length + 3 );
+        for ( int i = 0; i < fields; i++ ) {
+            if ( text.length() > 0 || random.nextInt( 4 ) == 0 ) {
+                text.append( random.nextInt( 8 ) == 0 ? "  " : " " );
+            }
+            int field = random.nextInt( LABELS.length );
+            text.append( randomCase( LABELS[ field ], random ) );
+            if ( random.nextInt( 10 ) == 0 ) {
+                text.append( ' ' );
+            }
+            // A malformed value, in one field out of 10.
+            if ( random.nextInt( 10 ) == 0 ) {
+                text.append( randomText( random, random.nextInt( 15 ) ) );
+                continue;
+            }
+            switch ( field ) {
+                case 0:
+                    text.append( random.nextBoolean() ? Long.toString( random.nextLong() & Long.MAX_VALUE )
+                            : Long.toHexString( random.nextLong() ) );
+                    break;
+                case 1:
+                case 2:
+                    text.append( String.format( "%03d", random.nextInt( 1000 ) ) );
+                    break;
+                case 3:
+                case 4:
+                    text.append( randomDate( random ) );
+                    break;
+                case 5:
+                    text.append( STATES[ random.nextInt( STATES.length ) ] );
+                    break;
+                case 6:
+                    text.append( random.nextBoolean() ? String.format( "%03d", random.nextInt( 1000 ) )
+                            : Integer.toString( random.nextInt( 10000 ) ) );
+                    break;
+                default:
+                    text.append( randomText( random, random.nextInt( 25 ) ) );
+            }
+        }
+        return text.toString();
+    }
+
+    /**
+     * Generate a date of 10, 12 or 14 digits, i.e. "yyMMddHHmm", "yyMMddHHmmss" or "yyyyMMddHHmmss", in one case out
+     * of 20 with a value out of range.
+     *
+     * @param random The random number generator.
+     * @return The date.
+     */
+    private static String randomDate( Random random ) {
+        int month = random.nextInt( 20 ) == 0 ? 13 : 1 + random.nextInt( 12 );
+        int day = random.nextInt( 20 ) == 0 ? 32 : 1 + random.nextInt( 28 );
+        String date = String.format( "%02d%02d%02d%02d", month, day, random.nextInt( 24 ), random.nextInt( 60 ) );
+        switch ( random.nextInt( 3 ) ) {
+            case 0:
+                return String.format( "%02d", random.nextInt( 100 ) ) + date;
+            case 1:
+                return String.format( "%02d", random.nextInt( 100 ) ) + date
+                        + String.format( "%02d", random.nextInt( 60 ) );
+            default:
+                return String.format( "%04d", 1970 + random.nextInt( 130 ) ) + date
+                        + String.format( "%02d", random.nextInt( 60 ) );
+        }
+    }
+
+    /**
+     * Generate a text of random characters.
+     *
+     * @param random The random number generator.
+     * @param length The length of the text.
+     * @return The text.
+     */
+    private static String randomText( Random random, int length ) {
+        StringBuilder text = new StringBuilder( length );
+        for ( int i = 0; i < length; i++ ) {
+            text.append( CHARACTERS.charAt( random.nextInt( CHARACTERS.length() ) ) );
+        }
+        return text.toString();
+    }
+
+    /**
+     * Change the letter case of a text at random.
+     *
+     * @param text The text.
+     * @param random The random number generator.
+     * @return The text.
+     */
+    private static String randomCase( String text, Random random ) {
+        switch ( random.nextInt( 3 ) ) {
+            case 0:
+                return text;
+            case 1:
+                return text.toUpperCase();
+            default:
+                StringBuilder mixed = new StringBuilder( text.length() );
+                for ( int i = 0; i < text.length(); i++ ) {
+                    char c = text.charAt( i );
+                    mixed.append( random.nextBoolean() ? Character.toUpperCase( c ) : c );
+                }
+                return mixed.toString();
+        }
+    }
+
+    /**
+     * Describe all the fields of a "delivery receipt", so that two receipts compare equal in case where all their
+     * fields are equal.
+     *
+     * @param dlr The "delivery receipt".
+     * @return The description.
+     */
+    private static String describe( DeliveryReceipt dlr ) {
+        return "id=" + dlr.getMessageId() + " sub=" + dlr.getSubmitCount() + " dlvrd=" + dlr.getDeliveredCount()
+                + " submitDate=" + dlr.getSubmitDateMillis() + " doneDate=" + dlr.getDoneDateMillis()
+                + " state=" + dlr.getState() + " err=" + dlr.getErrorCode() + " rawErr=" + dlr.getRawErrorCode()
+                + " text=" + dlr.getText();
+    }
+}
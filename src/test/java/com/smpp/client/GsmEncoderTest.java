@@ -0,0 +1,394 @@
+package com.smpp.client;
+
+// Utility class for converting between charsets; the reference "GSM" decoder of the tests.
+import com.cloudhopper.commons.charset.CharsetUtil;
+
+// "JUnit Jupiter" test annotations and assertions.
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Character sets.
+import java.nio.charset.StandardCharsets;
+// Utility methods of arrays.
+import java.util.Arrays;
+// An ordered collection.
+import java.util.List;
+// A specialized "Set" implementation for use with enum types.
+import java.util.EnumSet;
+// A random number generator; seeded, so that a failure can be reproduced.
+import java.util.Random;
+
+/**
+ * Check the "GSM" 7-bit / "UCS-2" encoding of the text messages: the part boundaries, that the parts decode back to
+ * the text, and the choice of the national language tables.
+ *
+ * @author  Aristotelis Metsinis ( aristotelis.metsinis@gmail.com )
+ * @version 1.0
+ * @since   January 2022
+ */
+class GsmEncoderTest {
+    // The number of generated texts of the randomized checks.
+    private static final int SAMPLES = 5000;
+    // The characters of the "GSM 03.38" default alphabet (but the escape) and of its extension table.
+    private static final String GSM_CHARACTERS = "@£$¥èéùìòÇ\nØø\r"
+            + "ÅåΔ_ΦΓΛΩΠΨΣΘΞÆæßÉ"
+            + " !\"#¤%&'()*+,-./0123456789:;<=>?¡ABCDEFGHIJKLMNOPQRSTUVWXYZÄÖÑÜ§"
+            + "¿abcdefghijklmnopqrstuvwxyzäöñüà" + "\f^{}\\[~]|€";
+    // Characters out of the "GSM" alphabets.
+    private static final String OTHER_CHARACTERS = "Жяα中âć";
+    // A character out of the Basic Multilingual Plane, i.e. a surrogate pair.
+    private static final String SURROGATE_PAIR = "😀";
+    // A fixed reference number.
+    private static final int REFERENCE = 0x1234;
+
+    @Test
+    void singleAndConcatenatedSeptetParts() {
+        GsmEncoder.Encoded single = encode( repeat( 'a', 160 ), false, false );
+        assertFalse( single.isUcs2() );
+        assertFalse( single.hasUserDataHeader() );
+        assertEquals( 1, single.getParts().size() );
+        assertEquals( 160, single.getParts().get( 0 ).length );
+
+        GsmEncoder.Encoded concatenated = encode( repeat( 'a', 161 ), false, false );
+        assertTrue( concatenated.isConcatenated() );
+        assertTrue( concatenated.hasUserDataHeader() );
+        assertEquals( 2, concatenated.getParts().size() );
+        // "UDHL", and the concatenation information element with an 8-bit reference number.
+        assertArrayEquals( new byte[] { 0x05, 0x00, 0x03, 0x34, 0x02, 0x01 },
+                Arrays.copyOf( concatenated.getParts().get( 0 ), 6 ) );
+        assertArrayEquals( new byte[] { 0x05, 0x00, 0x03, 0x34, 0x02, 0x02 },
+                Arrays.copyOf( concatenated.getParts().get( 1 ), 6 ) );
+        assertEquals( 6 + 153, concatenated.getParts().get( 0 ).length );
+        assertEquals( 6 + 8, concatenated.getParts().get( 1 ).length );
+
+        // Packed: 160 septets fill 140 octets.
+        assertEquals( 140, encode( repeat( 'a', 160 ), false, true ).getParts().get( 0 ).length );
+    }
+
+    @Test
+    void packedSinglePartMatchesCloudhopper() {
+        String text = "Hello world, {GSM} 7-bit € text";
+        byte[] packed = encode( text, false, true ).getParts().get( 0 );
+        assertArrayEquals( CharsetUtil.encode( text, CharsetUtil.CHARSET_GSM7 ), packed );
+    }
+
+    @Test
+    void escapeIsNeverSplitFromItsCode() {
+        // The escape of the Euro sign would be the last septet of the first part.
+        GsmEncoder.Encoded encoded = encode( repeat( 'a', 152 ) + "€" + repeat( 'b', 10 ), false, false );
+        assertEquals( 2, encoded.getParts().size() );
+        assertEquals( 6 + 152, encoded.getParts().get( 0 ).length );
+        assertEquals( 0x1B, encoded.getParts().get( 1 )[ 6 ] );
+    }
+
+    @Test
+    void singleAndConcatenatedUcs2Parts() {
+        GsmEncoder.Encoded single = encode( repeat( 'Ж', 70 ), false, false );
+        assertTrue( single.isUcs2() );
+        assertEquals( 1, single.getParts().size() );
+        assertEquals( 140, single.getParts().get( 0 ).length );
+
+        GsmEncoder.Encoded concatenated = encode( repeat( 'Ж', 71 ), true, false );
+        assertEquals( 2, concatenated.getParts().size() );
+        // "UDHL", and the concatenation information element with a 16-bit reference number.
+        assertArrayEquals( new byte[] { 0x06, 0x08, 0x04, 0x12, 0x34, 0x02, 0x01 },
+                Arrays.copyOf( concatenated.getParts().get( 0 ), 7 ) );
+        assertEquals( 7 + 2 * 66, concatenated.getParts().get( 0 ).length );
+
+        // The high surrogate would be the last code unit of the first part.
+        GsmEncoder.Encoded pair = encode( repeat( 'Ж', 66 ) + SURROGATE_PAIR + repeat( 'x', 10 ), false, false );
+        assertEquals( 2, pair.getParts().size() );
+        assertEquals( 6 + 2 * 66, pair.getParts().get( 0 ).length );
+    }
+
+    @Test
+    void rejectMoreThan255Parts() {
+        encode( repeat( 'a', 255 * 153 ), false, false );
+        assertThrows( IllegalArgumentException.class, () -> encode( repeat( 'a', 255 * 153 + 1 ), false, false ) );
+    }
+
+    @Test
+    void turkishLockingShift() {
+        // "ı" is in the Turkish locking shift table (0x07) and in its single shift table; 150 of them fit a single part
+        // through the locking shift table, whereas the escapes of the single shift table would need 3 parts.
+        GsmEncoder.Encoded encoded = encode( repeat( 'ı', 150 ), GsmEncoder.NationalLanguage.TURKISH );
+        assertFalse( encoded.isUcs2() );
+        assertEquals( 1, encoded.getParts().size() );
+        byte[] part = encoded.getParts().get( 0 );
+        // "UDHL", and the "National Language Locking Shift" information element (Turkish).
+        assertArrayEquals( new byte[] { 0x03, 0x25, 0x01, 0x01 }, Arrays.copyOf( part, 4 ) );
+        assertEquals( 4 + 150, part.length );
+        for ( int i = 4; i < part.length; i++ ) {
+            assertEquals( 0x07, part[ i ] );
+        }
+    }
+
+    @Test
+    void turkishSingleShiftWithReducedPartCapacity() {
+        // "è" is only in the default alphabet and "ş" only in the Turkish tables, i.e. the default alphabet along with
+        // the Turkish single shift table; 301 septets.
+        String text = "şè" + repeat( 'a', 298 );
+        GsmEncoder.Encoded encoded = encode( text, GsmEncoder.NationalLanguage.TURKISH );
+        assertFalse( encoded.isUcs2() );
+        // (140 - 6 - 3) * 8 / 7 = 149 septets per part, instead of 153.
+        assertEquals( 3, encoded.getParts().size() );
+        for ( int i = 0; i < 3; i++ ) {
+            // "UDHL", the concatenation information element, and the "National Language Single Shift" one (Turkish).
+            assertArrayEquals( new byte[] { 0x08, 0x00, 0x03, 0x34, 0x03, ( byte ) ( i + 1 ), 0x24, 0x01, 0x01 },
+                    Arrays.copyOf( encoded.getParts().get( i ), 9 ) );
+        }
+        assertEquals( 9 + 149, encoded.getParts().get( 0 ).length );
+        assertEquals( 9 + 149, encoded.getParts().get( 1 ).length );
+        assertEquals( 9 + 3, encoded.getParts().get( 2 ).length );
+        // The escape and the code of "ş" (0x73), then "è" (0x04) of the default alphabet.
+        assertArrayEquals( new byte[] { 0x1B, 0x73, 0x04, 0x61 }, Arrays.copyOfRange( encoded.getParts().get( 0 ), 9, 13 ) );
+    }
+
+    @Test
+    void portugueseLockingAndSingleShift() {
+        // "ª" is only in the Portuguese locking shift table (0x12), and "Ω" only in the default alphabet and the
+        // Portuguese single shift table (0x15), i.e. both Portuguese tables.
+        String text = "Ωª" + repeat( 'a', 98 );
+        GsmEncoder.Encoded encoded = encode( text, GsmEncoder.NationalLanguage.PORTUGUESE );
+        assertFalse( encoded.isUcs2() );
+        assertEquals( 1, encoded.getParts().size() );
+        byte[] part = encoded.getParts().get( 0 );
+        // "UDHL", the "Single Shift" and the "Locking Shift" information elements (Portuguese).
+        assertArrayEquals( new byte[] { 0x06, 0x24, 0x01, 0x03, 0x25, 0x01, 0x03, 0x1B, 0x15, 0x12, 0x61 },
+                Arrays.copyOf( part, 11 ) );
+        assertEquals( 7 + 101, part.length );
+
+        // Packed: the 7 octets of the "User Data Header" end on a septet boundary, i.e. without fill bits.
+        byte[] packed = GsmEncoder.encode( text, () -> REFERENCE, false, true,
+                EnumSet.of( GsmEncoder.NationalLanguage.PORTUGUESE ) ).getParts().get( 0 );
+        assertArrayEquals( pack( part, 7 ), packed );
+        assertEquals( 7 + ( 101 * 7 + 7 ) / 8, packed.length );
+    }
+
+    @Test
+    void spanishSingleShiftOnly() {
+        // "á" is in the Spanish single shift table (0x61); Spanish has no locking shift table.
+        String text = "Mañana á" + repeat( '.', 92 );
+        GsmEncoder.Encoded encoded = encode( text, GsmEncoder.NationalLanguage.SPANISH );
+        assertFalse( encoded.isUcs2() );
+        assertEquals( 1, encoded.getParts().size() );
+        byte[] part = encoded.getParts().get( 0 );
+        // "UDHL", and the "National Language Single Shift" information element (Spanish).
+        assertArrayEquals( new byte[] { 0x03, 0x24, 0x01, 0x02 }, Arrays.copyOf( part, 4 ) );
+        // "ñ" (0x7D) of the default alphabet, then the escape and the code of "á".
+        assertArrayEquals( new byte[] { 0x4D, 0x61, 0x7D, 0x61, 0x6E, 0x61, 0x20, 0x1B, 0x61 },
+                Arrays.copyOfRange( part, 4, 13 ) );
+        assertEquals( 4 + 101, part.length );
+
+        // A Turkish character is in none of the Spanish tables.
+        assertTrue( encode( "ş" + repeat( 'a', 99 ), GsmEncoder.NationalLanguage.SPANISH ).isUcs2() );
+    }
+
+    @Test
+    void preferFewerPartsThenFewerInformationElements() {
+        // The Euro sign takes two septets of the default alphabet (2 parts) and one of the Portuguese locking shift
+        // table (1 part).
+        GsmEncoder.Encoded euros = encode( repeat( '€', 100 ), GsmEncoder.NationalLanguage.PORTUGUESE );
+        assertEquals( 1, euros.getParts().size() );
+        assertArrayEquals( new byte[] { 0x03, 0x25, 0x01, 0x03 }, Arrays.copyOf( euros.getParts().get( 0 ), 4 ) );
+
+        // As many parts either way; the default alphabet and its extension table are kept.
+        GsmEncoder.Encoded euro = encode( "€" + repeat( 'a', 99 ), GsmEncoder.NationalLanguage.PORTUGUESE );
+        assertFalse( euro.hasUserDataHeader() );
+        assertArrayEquals( new byte[] { 0x1B, 0x65, 0x61 }, Arrays.copyOf( euro.getParts().get( 0 ), 3 ) );
+
+        // "ã" is in both Portuguese tables; a single table (one information element) is used rather than both.
+        GsmEncoder.Encoded single = encode( "ã" + repeat( 'a', 99 ), GsmEncoder.NationalLanguage.PORTUGUESE );
+        assertEquals( 1, single.getParts().size() );
+        assertEquals( 0x03, single.getParts().get( 0 )[ 0 ] );
+
+        // "á" is in the Spanish and Portuguese single shift tables, and in the Portuguese locking shift table; again
+        // a single table, the first of the enabled languages on a tie.
+        GsmEncoder.Encoded spanish = encode( "á" + repeat( 'a', 99 ), GsmEncoder.NationalLanguage.SPANISH,
+                GsmEncoder.NationalLanguage.PORTUGUESE );
+        assertArrayEquals( new byte[] { 0x03, 0x24, 0x01, 0x02, 0x1B, 0x61 },
+                Arrays.copyOf( spanish.getParts().get( 0 ), 6 ) );
+    }
+
+    @Test
+    void fallBackToUcs2() {
+        GsmEncoder.NationalLanguage[] all = GsmEncoder.NationalLanguage.values();
+        // None of the tables covers Cyrillic.
+        GsmEncoder.Encoded cyrillic = encode( "ş Ж" + repeat( 'a', 97 ), all );
+        assertTrue( cyrillic.isUcs2() );
+        assertEquals( 2, cyrillic.getParts().size() );
+
+        // The national language tables are used only in case where they need fewer parts than "UCS-2".
+        GsmEncoder.Encoded shortText = encode( "Iğdır", all );
+        assertTrue( shortText.isUcs2() );
+        assertFalse( shortText.hasUserDataHeader() );
+        assertEquals( "Iğdır", new String( shortText.getParts().get( 0 ), StandardCharsets.UTF_16BE ) );
+
+        // Without any enabled language.
+        assertTrue( encode( repeat( 'ı', 150 ) ).isUcs2() );
+    }
+
+    @Test
+    void randomTextsDecodeBackToTheText() {
+        Random random = new Random( 20220118L );
+        for ( int i = 0; i < SAMPLES; i++ ) {
+            boolean gsm = random.nextInt( 3 ) > 0;
+            String text = randomText( random, random.nextInt( 700 ), gsm );
+            boolean sixteenBitReference = random.nextBoolean();
+            GsmEncoder.Encoded encoded = encode( text, sixteenBitReference, false );
+
+            assertEquals( !gsm, encoded.isUcs2(), text );
+            assertEquals( encoded.isConcatenated(), encoded.hasUserDataHeader(), text );
+            assertEquals( text, decode( encoded ), text );
+
+            if ( gsm ) {
+                // The packed parts hold the same septets, 8 per 7 octets after the "User Data Header" and fill bits.
+                GsmEncoder.Encoded packed = encode( text, sixteenBitReference, true );
+                assertEquals( encoded.getParts().size(), packed.getParts().size(), text );
+                for ( int part = 0; part < packed.getParts().size(); part++ ) {
+                    byte[] unpacked = encoded.getParts().get( part );
+                    int headerLength = encoded.hasUserDataHeader() ? ( unpacked[ 0 ] & 0xFF ) + 1 : 0;
+                    assertArrayEquals( pack( unpacked, headerLength ), packed.getParts().get( part ), text );
+                    assertTrue( packed.getParts().get( part ).length <= 140, text );
+                }
+
+                // The split of the septets of a text, as by the precompiled templates, matches the encoding of the
+                // text.
+                byte[] septets = new byte[ text.length() * 2 ];
+                int length = GsmEncoder.toSeptets( text, septets, 0 );
+                assertEquals( GsmEncoder.countSeptets( text ), length, text );
+                GsmEncoder.Encoded split = GsmEncoder.encodeSeptets( septets, length, () -> REFERENCE,
+                        sixteenBitReference, false );
+                assertEquals( encoded.getParts().size(), split.getParts().size(), text );
+                for ( int part = 0; part < split.getParts().size(); part++ ) {
+                    assertArrayEquals( encoded.getParts().get( part ), split.getParts().get( part ), text );
+                }
+            } else {
+                assertEquals( -1, GsmEncoder.countSeptets( text ), text );
+                for ( byte[] part : encoded.getParts() ) {
+                    assertTrue( part.length <= 140, text );
+                }
+            }
+        }
+    }
+
+    /**
+     * Encode a text with the default alphabet, i.e. no national language, and a fixed reference number.
+     *
+     * @param text The text.
+     * @param sixteenBitReference "true" in case of a 16-bit reference number, else "false".
+     * @param packed "true" to pack the septets, else "false".
+     * @return The encoded parts.
+     */
+    private static GsmEncoder.Encoded encode( String text, boolean sixteenBitReference, boolean packed ) {
+        return GsmEncoder.encode( text, () -> REFERENCE, sixteenBitReference, packed, null );
+    }
+
+    /**
+     * Encode a text, one septet per octet, with the tables of the given national languages and an 8-bit reference
+     * number.
+     *
+     * @param text The text.
+     * @param languages The enabled national languages.
+     * @return The encoded parts.
+     */
+    private static GsmEncoder.Encoded encode( String text, GsmEncoder.NationalLanguage... languages ) {
+        return GsmEncoder.encode( text, () -> REFERENCE, false, false, Arrays.asList( languages ) );
+    }
+
+    /**
+     * Decode the parts of a text, with one septet per octet, with the "Cloudhopper" charsets.
+     *
+     * @param encoded The encoded parts.
+     * @return The text.
+     */
+    private static String decode( GsmEncoder.Encoded encoded ) {
+        StringBuilder text = new StringBuilder();
+        List<byte[]> parts = encoded.getParts();
+        for ( int i = 0; i < parts.size(); i++ ) {
+            byte[] part = parts.get( i );
+            int headerLength = encoded.hasUserDataHeader() ? ( part[ 0 ] & 0xFF ) + 1 : 0;
+            if ( encoded.hasUserDataHeader() ) {
+                // The total and sequence numbers are the last octets of the concatenation information element.
+                assertEquals( parts.size(), part[ headerLength - 2 ] & 0xFF );
+                assertEquals( i + 1, part[ headerLength - 1 ] & 0xFF );
+            }
+            if ( encoded.isUcs2() ) {
+                // A part never ends with a high surrogate.
+                assertFalse( part.length > headerLength
+                        && Character.isHighSurrogate( ( char ) ( ( part[ part.length - 2 ] & 0xFF ) << 8
+                        | ( part[ part.length - 1 ] & 0xFF ) ) ) );
+                text.append( new String( part, headerLength, part.length - headerLength, StandardCharsets.UTF_16BE ) );
+            } else {
+                // A part never ends with an escape.
+                assertFalse( part.length > headerLength && part[ part.length - 1 ] == 0x1B );
+                text.append( CharsetUtil.decode( Arrays.copyOfRange( part, headerLength, part.length ),
+                        CharsetUtil.CHARSET_GSM ) );
+            }
+        }
+        return text.toString();
+    }
+
+    /**
+     * Pack the septets of a part, following its "User Data Header" and the fill bits aligning the first septet to a
+     * septet boundary.
+     *
+     * @param part The user data of the part, one septet per octet.
+     * @param headerLength The number of octets of the "User Data Header".
+     * @return The packed user data.
+     */
+    private static byte[] pack( byte[] part, int headerLength ) {
+        int start = headerLength * 8 + ( 7 - headerLength * 8 % 7 ) % 7;
+        int count = part.length - headerLength;
+        byte[] packed = new byte[ ( start + count * 7 + 7 ) / 8 ];
+        System.arraycopy( part, 0, packed, 0, headerLength );
+        for ( int i = 0; i < count; i++ ) {
+            int position = start + i * 7;
+            for ( int bit = 0; bit < 7; bit++, position++ ) {
+                if ( ( part[ headerLength + i ] >> bit & 1 ) != 0 ) {
+                    packed[ position >> 3 ] |= ( byte ) ( 1 << ( position & 7 ) );
+                }
+            }
+        }
+        return packed;
+    }
+
+    /**
+     * Generate a random text.
+     *
+     * @param random The random number generator.
+     * @param length The number of characters.
+     * @param gsm "true" for a text of the "GSM" alphabets only, else "false" for a text with at least one other
+     *            character.
+     * @return The text.
+     */
+    private static String randomText( Random random, int length, boolean gsm ) {
+        StringBuilder text = new StringBuilder( length + 2 );
+        for ( int i = 0; i < length; i++ ) {
+            text.append( GSM_CHARACTERS.charAt( random.nextInt( GSM_CHARACTERS.length() ) ) );
+        }
+        if ( !gsm ) {
+            int position = random.nextInt( text.length() + 1 );
+            text.insert( position, random.nextBoolean() ? SURROGATE_PAIR
+                    : String.valueOf( OTHER_CHARACTERS.charAt( random.nextInt( OTHER_CHARACTERS.length() ) ) ) );
+        }
+        return text.toString();
+    }
+
+    /**
+     * Repeat a character.
+     *
+     * @param c The character.
+     * @param count The number of times.
+     * @return The text.
+     */
+    private static String repeat( char c, int count ) {
+        char[] text = new char[ count ];
+        Arrays.fill( text, c );
+        return new String( text );
+    }
+}
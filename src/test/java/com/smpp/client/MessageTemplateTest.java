@@ -0,0 +1,152 @@
+package com.smpp.client;
+
+// "JUnit Jupiter" test annotations and assertions.
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+// A specialized "Set" implementation for use with "enum" types.
+import java.util.EnumSet;
+// A random number generator; seeded, so that a failure can be reproduced.
+import java.util.Random;
+// A "Set" of the national languages.
+import java.util.Set;
+
+/**
+ * Check that a precompiled message template encodes a message exactly as the encoder does for the filled text.
+ *
+ * @author  Aristotelis Metsinis ( aristotelis.metsinis@gmail.com )
+ * @version 1.0
+ * @since   January 2022
+ */
+class MessageTemplateTest {
+    // The number of generated templates of the randomized comparison.
+    private static final int SAMPLES = 5000;
+    // The characters of the generated texts: the "GSM" default alphabet, its extension table (i.e. two septets each),
+    // characters of the national language tables, and characters out of any "GSM" alphabet.
+    private static final String COMMON_CHARACTERS = "abcdefghijklmnopqrstuvwxyz ABCXYZ0123456789.,!?@£$èé";
+    private static final String EXTENSION_CHARACTERS = "{}[]~|^\\€";
+    private static final String NATIONAL_CHARACTERS = "şğıİçãõáíóú";
+    private static final String OTHER_CHARACTERS = "Жя中😀";
+    // The national languages, all enabled.
+    private static final Set<GsmEncoder.NationalLanguage> LANGUAGES = EnumSet.allOf( GsmEncoder.NationalLanguage.class );
+
+    @Test
+    void compileAndFillSlots() {
+        MessageTemplate template = MessageTemplate.compile( "Dear {0}, your code is {1}; {x} {1234} {0}{" );
+        assertEquals( 2, template.getValueCount() );
+        assertEquals( "Dear Anna, your code is 42; {x} {1234} Anna{", template.fill( "Anna", "42" ) );
+
+        MessageTemplate plain = MessageTemplate.compile( "No slots at all" );
+        assertEquals( 0, plain.getValueCount() );
+        assertEquals( "No slots at all", plain.fill() );
+    }
+
+    @Test
+    void rejectMissingValues() {
+        MessageTemplate template = MessageTemplate.compile( "{0} and {2}" );
+        assertEquals( 3, template.getValueCount() );
+        assertThrows( IllegalArgumentException.class, () -> template.fill( "a", "b" ) );
+        assertThrows( IllegalArgumentException.class, () -> template.fill( "a", "b", null ) );
+    }
+
+    @Test
+    void splitCommaSeparatedValues() {
+        MessageTemplate template = MessageTemplate.compile( "Dear {0}, your code is {1}" );
+        assertArrayEquals( new String[] { "Anna", "42" }, template.split( "Anna,42" ) );
+        // An escaped comma within a value; the last value takes the rest of the text, commas included.
+        assertArrayEquals( new String[] { "Smith, John", "0000" }, template.split( "Smith\\, John,0000" ) );
+        assertArrayEquals( new String[] { "Anna", "1,2,3" }, template.split( "Anna,1,2,3" ) );
+        // An escaped backslash; any other backslash is kept as is.
+        assertArrayEquals( new String[] { "C:\\", "a\\b" }, template.split( "C:\\\\,a\\b" ) );
+        // Empty and missing values.
+        assertArrayEquals( new String[] { "", "" }, template.split( "," ) );
+        assertArrayEquals( new String[] { "Anna" }, template.split( "Anna" ) );
+        assertEquals( "Dear Smith, John, your code is 0000", template.fill( template.split( "Smith\\, John,0000" ) ) );
+
+        // A template without slots takes the whole text as a single value.
+        assertArrayEquals( new String[] { "a,b" }, MessageTemplate.compile( "No slots" ).split( "a,b" ) );
+
+        // Any values, escaped and joined, are split back.
+        Random random = new Random( 20220122L );
+        MessageTemplate three = MessageTemplate.compile( "{0} {1} {2}" );
+        for ( int i = 0; i < SAMPLES; i++ ) {
+            String[] values = new String[ 3 ];
+            StringBuilder text = new StringBuilder();
+            for ( int value = 0; value < values.length; value++ ) {
+                StringBuilder chars = new StringBuilder();
+                for ( int length = random.nextInt( 8 ); length > 0; length-- ) {
+                    chars.append( "ab,\\ ".charAt( random.nextInt( 5 ) ) );
+                }
+                values[ value ] = chars.toString();
+                text.append( value == 0 ? "" : "," )
+                        .append( values[ value ].replace( "\\", "\\\\" ).replace( ",", "\\," ) );
+            }
+            assertArrayEquals( values, three.split( text.toString() ), text.toString() );
+        }
+    }
+
+    @Test
+    void encodeMatchesEncoderOfFilledText() {
+        Random random = new Random( 20220121L );
+        for ( int i = 0; i < SAMPLES; i++ ) {
+            // A template of random static fragments and slots.
+            int slots = random.nextInt( 5 );
+            StringBuilder pattern = new StringBuilder( randomText( random, random.nextInt( 120 ) ) );
+            for ( int slot = 0; slot < slots; slot++ ) {
+                pattern.append( '{' ).append( random.nextInt( slots ) ).append( '}' )
+                        .append( randomText( random, random.nextInt( 120 ) ) );
+            }
+            MessageTemplate template = MessageTemplate.compile( pattern.toString() );
+            String[] values = new String[ template.getValueCount() ];
+            for ( int value = 0; value < values.length; value++ ) {
+                values[ value ] = randomText( random, random.nextInt( 40 ) );
+            }
+
+            boolean sixteenBitReference = random.nextBoolean();
+            boolean packed = random.nextBoolean();
+            Set<GsmEncoder.NationalLanguage> languages = random.nextBoolean() ? LANGUAGES : null;
+            GsmEncoder.Encoded expected = GsmEncoder.encode( template.fill( values ), () -> 0x1234,
+                    sixteenBitReference, packed, languages );
+            GsmEncoder.Encoded actual = template.encode( values, () -> 0x1234, sixteenBitReference, packed, languages );
+
+            String message = "Template [" + pattern + "]";
+            assertEquals( expected.isUcs2(), actual.isUcs2(), message );
+            assertEquals( expected.hasUserDataHeader(), actual.hasUserDataHeader(), message );
+            assertEquals( expected.getParts().size(), actual.getParts().size(), message );
+            for ( int part = 0; part < expected.getParts().size(); part++ ) {
+                assertArrayEquals( expected.getParts().get( part ), actual.getParts().get( part ), message );
+            }
+        }
+    }
+
+    /**
+     * Generate a random text; mostly of the "GSM" default alphabet, with a few characters of the other sets.
+     *
+     * @param random The random number generator.
+     * @param length The number of characters.
+     * @return The text.
+     */
+    private static String randomText( Random random, int length ) {
+        // The odds of a character out of the default alphabet vary per text, so that most of the texts are still
+        // encoded in 7-bit septets.
+        int odds = 20 + random.nextInt( 2000 );
+        StringBuilder text = new StringBuilder( length );
+        for ( int i = 0; i < length; i++ ) {
+            int draw = random.nextInt( odds );
+            String characters = draw == 0 ? OTHER_CHARACTERS : draw < 3 ? NATIONAL_CHARACTERS
+                    : draw < 8 ? EXTENSION_CHARACTERS : COMMON_CHARACTERS;
+            int index = random.nextInt( characters.length() );
+            // Never split a surrogate pair.
+            if ( Character.isLowSurrogate( characters.charAt( index ) ) ) {
+                index--;
+            }
+            text.append( characters.charAt( index ) );
+            if ( Character.isHighSurrogate( characters.charAt( index ) ) ) {
+                text.append( characters.charAt( index + 1 ) );
+            }
+        }
+        return text.toString();
+    }
+}
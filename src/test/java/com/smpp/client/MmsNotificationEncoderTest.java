@@ -0,0 +1,123 @@
+package com.smpp.client;
+
+// "JUnit Jupiter" test annotations and assertions.
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Utility methods of arrays.
+import java.util.Arrays;
+// An ordered collection.
+import java.util.List;
+
+/**
+ * Check the "MMS" notification ("m-notification.ind") encoding against the output of the former "smsj"
+ * ("SmsMmsNotificationMessage") notifications.
+ *
+ * @author  Aristotelis Metsinis ( aristotelis.metsinis@gmail.com )
+ * @version 1.0
+ * @since   January 2022
+ */
+class MmsNotificationEncoderTest {
+    // The expiry of the notifications, i.e. 3 days.
+    private static final long EXPIRY = 3 * 24 * 60 * 60;
+    // The "UDH" (port addressing 9200 -> 2948) and the "WSP" push header ("application/vnd.wap.mms-message",
+    // "X-Wap-Application-Id: x-wap-application:mms.ua"), common to all the notifications.
+    private static final String PUSH_HEADER = "0605040b8423f0" + "0006241f20"
+            + "6170706c69636174696f6e2f766e642e7761702e6d6d732d6d65737361676500" + "af84";
+
+    // Inputs ("From", "Subject", size, transaction id, content location) and the user data of the notifications, as
+    // encoded by "smsj": the inputs of the "m-notification-ind.txt" capture, empty "From" and "Subject" (left out),
+    // text values out of "ISO-8859-1" ("?") or starting above "0x7F" (quoted), and sizes of 0 to 5 octets.
+    private static final Object[][] SMSJ_NOTIFICATIONS = {
+            { "made by Aristotelis", "hello world", 1038694L, 37493, "http://127.0.0.1:8080/sample.mms?seed=77",
+                    "8c82983337343933008d908915806d6164652062792041726973746f74656c6973009668656c6c6f20776f726c6400"
+                    + "8a808e030fd9668805810303f48083687474703a2f2f3132372e302e302e313a383038302f73616d706c652e6d6d"
+                    + "733f736565643d373700" },
+            { "306900000000", "Ü subject", 0L, 0, "http://mmsc.example.com/m?id=0001",
+                    "8c829830008d90890e8033303639303030303030303000967fdc207375626a656374008a808e008805810303f48083"
+                    + "687474703a2f2f6d6d73632e6578616d706c652e636f6d2f6d3f69643d3030303100" },
+            { "", "", 127L, 99999, "http://x.org/a",
+                    "8c82983939393939008d908a808e017f8805810303f48083687474703a2f2f782e6f72672f6100" },
+            { "édition", "中", 1L << 40, 7, "http://h/€",
+                    "8c829837008d90890a807fe9646974696f6e00963f008a808e060100000000008805810303f48083687474703a2f2f"
+                    + "682f3f00" },
+    };
+
+    @Test
+    void notificationsMatchSmsj() {
+        // Not segmented, as the notification of the capture, i.e. a single message of up to 254 octets.
+        for ( Object[] notification : SMSJ_NOTIFICATIONS ) {
+            MmsNotificationEncoder encoder = MmsNotificationEncoder.compile( ( String ) notification[ 0 ],
+                    ( String ) notification[ 1 ], EXPIRY );
+            MmsNotificationEncoder.Notification encoded = encoder.encode( ( Integer ) notification[ 3 ],
+                    ( String ) notification[ 4 ], ( Long ) notification[ 2 ], () -> 0, false );
+            assertEquals( notification[ 3 ], encoded.getTransactionId() );
+            assertEquals( 1, encoded.getParts().size() );
+            assertEquals( PUSH_HEADER + notification[ 5 ],
+                    Utils.encodeHexString( encoded.getParts().get( 0 ) ).toLowerCase(), ( String ) notification[ 4 ] );
+        }
+    }
+
+    @Test
+    void longNotificationMatchesSmsj() {
+        // A content location longer than a single short message.
+        String contentLocation = "https://www.example.net/" + repeat( "p", 120 );
+        String expected = PUSH_HEADER + "8c82983130303030008d9089088053656e64657200964c6f6e6720636f6e74656e74206c6f"
+                + "636174696f6e008a808e04ffffffff8805810303f4808368747470733a2f2f7777772e6578616d706c652e6e65742f"
+                + repeat( "70", 120 ) + "00";
+        MmsNotificationEncoder encoder = MmsNotificationEncoder.compile( "Sender", "Long content location", EXPIRY );
+
+        // A single long message, e.g. to be sent in the "message_payload".
+        List<byte[]> single = encoder.encode( 10000, contentLocation, 4294967295L, () -> 0, false ).getParts();
+        assertEquals( 1, single.size() );
+        assertEquals( expected, Utils.encodeHexString( single.get( 0 ) ).toLowerCase() );
+
+        // "WDP" segments carrying the same body, with the port addressing and "SAR" information elements.
+        List<byte[]> segments = encoder.encode( 10000, contentLocation, 4294967295L, () -> 0xBEEF, true ).getParts();
+        assertEquals( 2, segments.size() );
+        StringBuilder body = new StringBuilder();
+        for ( int i = 0; i < segments.size(); i++ ) {
+            byte[] segment = segments.get( i );
+            assertTrue( segment.length <= 140 );
+            assertArrayEquals( new byte[] { 0x0C, 0x05, 0x04, 0x0B, ( byte ) 0x84, 0x23, ( byte ) 0xF0, 0x08, 0x04,
+                    ( byte ) 0xBE, ( byte ) 0xEF, 0x02, ( byte ) ( i + 1 ) }, Arrays.copyOf( segment, 13 ) );
+            body.append( Utils.encodeHexString( Arrays.copyOfRange( segment, 13, segment.length ) ).toLowerCase() );
+        }
+        assertEquals( expected.substring( 14 ), body.toString() );
+    }
+
+    @Test
+    void reuseCompiledNotification() {
+        MmsNotificationEncoder encoder = MmsNotificationEncoder.compile( "560", "Hello", EXPIRY );
+        assertTrue( encoder.isCompiledFrom( "560", "Hello", EXPIRY ) );
+        assertFalse( encoder.isCompiledFrom( "560", "Hello", EXPIRY + 1 ) );
+        assertFalse( encoder.isCompiledFrom( "561", "Hello", EXPIRY ) );
+        assertFalse( encoder.isCompiledFrom( "560", "Hi", EXPIRY ) );
+    }
+
+    @Test
+    void rejectNegativeTransactionId() {
+        MmsNotificationEncoder encoder = MmsNotificationEncoder.compile( "560", "Hello", EXPIRY );
+        assertThrows( IllegalArgumentException.class,
+                () -> encoder.encode( -1, "http://x.org/a", 1, () -> 0, true ) );
+    }
+
+    /**
+     * Repeat a text.
+     *
+     * @param text The text.
+     * @param count The number of times.
+     * @return The repeated text.
+     */
+    private static String repeat( String text, int count ) {
+        StringBuilder repeated = new StringBuilder( text.length() * count );
+        for ( int i = 0; i < count; i++ ) {
+            repeated.append( text );
+        }
+        return repeated.toString();
+    }
+}
@@ -0,0 +1,157 @@
+package com.smpp.client;
+
+// "SMPP" Address.
+import com.cloudhopper.smpp.type.Address;
+// "submit_sm" SMPP PDU.
+import com.cloudhopper.smpp.pdu.SubmitSm;
+// Exception thrown in case where the short message is too long.
+import com.cloudhopper.smpp.type.SmppInvalidArgumentException;
+
+// "JUnit Jupiter" test annotations and assertions.
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Character sets.
+import java.nio.charset.StandardCharsets;
+// File system paths and operations.
+import java.nio.file.Files;
+import java.nio.file.Path;
+// An ordered collection.
+import java.util.List;
+// Stream of file system paths.
+import java.util.stream.Stream;
+
+/**
+ * Check that the outbound journal replays the requests without a response once it is reopened.
+ *
+ * @author  Aristotelis Metsinis ( aristotelis.metsinis@gmail.com )
+ * @version 1.0
+ * @since   January 2022
+ */
+class OutboundJournalTest {
+    // The directory of the segment files; a new one per test.
+    @TempDir
+    Path directory;
+
+    @Test
+    void replayUnresolvedRequestsAfterReopen() throws SmppInvalidArgumentException {
+        OutboundJournal journal = open( 64 * 1024 );
+        assertTrue( journal.open().isEmpty() );
+        long first = journal.enqueue( 1, submit( "306900000001", "first" ) );
+        long second = journal.enqueue( 2, submit( "306900000002", "second" ) );
+        journal.enqueue( 3, submit( "306900000003", "third" ) );
+        journal.resolve( 1, first, true );
+        journal.resolve( 2, second, false );
+        journal.close();
+
+        // Only the request without a response is replayed, with its "PDU" intact.
+        OutboundJournal reopened = open( 64 * 1024 );
+        List<OutboundJournal.Entry> entries = reopened.open();
+        assertEquals( 1, entries.size() );
+        assertEquals( 3, entries.get( 0 ).getReference() );
+        SubmitSm replayed = ( SubmitSm ) entries.get( 0 ).getSubmit();
+        assertEquals( "306900000003", replayed.getDestAddress().getAddress() );
+        assertArrayEquals( "third".getBytes( StandardCharsets.ISO_8859_1 ), replayed.getShortMessage() );
+        assertEquals( 3, reopened.getLastReference() );
+        reopened.close();
+    }
+
+    @Test
+    void replayAcrossSegments() throws Exception {
+        // Small segments, so that the requests span many of them.
+        OutboundJournal journal = open( 1024 );
+        journal.open();
+        long[] segments = new long[ 100 ];
+        for ( int reference = 1; reference <= 100; reference++ ) {
+            segments[ reference - 1 ] = journal.enqueue( reference, submit( "3069" + reference, "message " + reference ) );
+        }
+        // Resolve all the requests but the multiples of 7.
+        for ( int reference = 1; reference <= 100; reference++ ) {
+            if ( reference % 7 != 0 ) {
+                journal.resolve( reference, segments[ reference - 1 ], true );
+            }
+        }
+        journal.close();
+
+        OutboundJournal reopened = open( 1024 );
+        List<OutboundJournal.Entry> entries = reopened.open();
+        assertEquals( 14, entries.size() );
+        for ( int i = 0; i < entries.size(); i++ ) {
+            long reference = 7L * ( i + 1 );
+            assertEquals( reference, entries.get( i ).getReference() );
+            assertArrayEquals( ( "message " + reference ).getBytes( StandardCharsets.ISO_8859_1 ),
+                    entries.get( i ).getSubmit().getShortMessage() );
+        }
+        assertEquals( 100, reopened.getLastReference() );
+        reopened.close();
+
+        // The recovery compacted the journal; a third startup replays the same requests.
+        try ( Stream<Path> files = Files.list( directory ) ) {
+            assertTrue( files.count() < 10 );
+        }
+        OutboundJournal again = open( 1024 );
+        assertEquals( 14, again.open().size() );
+        again.close();
+    }
+
+    @Test
+    void ignoreTornRecord() throws Exception {
+        OutboundJournal journal = open( 64 * 1024 );
+        journal.open();
+        journal.enqueue( 1, submit( "306900000001", "first" ) );
+        journal.enqueue( 2, submit( "306900000002", "second" ) );
+        journal.close();
+
+        // Corrupt the last byte of the "CRC-32" of the second record, as a torn write would.
+        Path segment;
+        try ( Stream<Path> files = Files.list( directory ) ) {
+            segment = files.sorted().reduce( ( a, b ) -> b ).get();
+        }
+        byte[] bytes = Files.readAllBytes( segment );
+        int end = bytes.length;
+        while ( bytes[ end - 1 ] == 0 ) {
+            end--;
+        }
+        bytes[ end - 1 ] ^= 0x5A;
+        Files.write( segment, bytes );
+
+        OutboundJournal reopened = open( 64 * 1024 );
+        List<OutboundJournal.Entry> entries = reopened.open();
+        assertEquals( 1, entries.size() );
+        assertEquals( 1, entries.get( 0 ).getReference() );
+        reopened.close();
+    }
+
+    /**
+     * Create a journal in the directory of the test.
+     *
+     * @param segmentSize The size of each segment file.
+     * @return The journal, not opened yet.
+     */
+    private OutboundJournal open( int segmentSize ) {
+        SmppClientProperties properties = new SmppClientProperties();
+        properties.getAsync().setJournalDirectory( directory.toString() );
+        properties.getAsync().setJournalSegmentSize( segmentSize );
+        properties.getAsync().setJournalFlushInterval( 10 );
+        return new OutboundJournal( properties );
+    }
+
+    /**
+     * Create a "submit_sm" request.
+     *
+     * @param destination The destination address.
+     * @param text The short message.
+     * @return The "submit_sm" PDU.
+     * @throws SmppInvalidArgumentException In case where the short message is too long.
+     */
+    private static SubmitSm submit( String destination, String text ) throws SmppInvalidArgumentException {
+        SubmitSm submit = new SubmitSm();
+        submit.setSourceAddress( new Address( ( byte ) 0x05, ( byte ) 0x00, "560" ) );
+        submit.setDestAddress( new Address( ( byte ) 0x01, ( byte ) 0x01, destination ) );
+        submit.setShortMessage( text.getBytes( StandardCharsets.ISO_8859_1 ) );
+        return submit;
+    }
+}
@@ -0,0 +1,222 @@
+package com.smpp.client;
+
+// All constants defined for the "SMPP" protocol.
+import com.cloudhopper.smpp.SmppConstants;
+// Abstract class that extends "Pdu".
+import com.cloudhopper.smpp.pdu.Pdu;
+// "submit_sm" SMPP PDU.
+import com.cloudhopper.smpp.pdu.SubmitSm;
+// Tag-Length-Value optional parameter.
+import com.cloudhopper.smpp.tlv.Tlv;
+// "SMPP" Address.
+import com.cloudhopper.smpp.type.Address;
+
+// Netty buffers.
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.buffer.ChannelBuffers;
+
+// "JUnit Jupiter" test annotations and assertions.
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Character sets.
+import java.nio.charset.StandardCharsets;
+// Utility methods of collections.
+import java.util.Arrays;
+import java.util.Collections;
+// An ordered collection.
+import java.util.List;
+
+/**
+ * Check the encoding and decoding of the "submit_multi" and "submit_multi_resp" PDUs through the
+ * "SubmitMultiTranscoder".
+ *
+ * @author  Aristotelis Metsinis ( aristotelis.metsinis@gmail.com )
+ * @version 1.0
+ * @since   January 2022
+ */
+class SubmitMultiTest {
+    // The transcoder of the sessions, decoding the "submit_multi" and "submit_multi_resp" PDUs.
+    private final SubmitMultiTranscoder transcoder = new SubmitMultiTranscoder();
+
+    @Test
+    void roundTripSmeDestinations() throws Exception {
+        SubmitSm template = new SubmitSm();
+        template.setServiceType( "CMT" );
+        template.setSourceAddress( new Address( ( byte ) 0x05, ( byte ) 0x00, "560" ) );
+        // Ignored; the destinations of the "submit_multi" are used instead.
+        template.setDestAddress( new Address( ( byte ) 0x01, ( byte ) 0x01, "306999999999" ) );
+        template.setRegisteredDelivery( SmppConstants.REGISTERED_DELIVERY_SMSC_RECEIPT_REQUESTED );
+        template.setDataCoding( SmppConstants.DATA_CODING_UCS2 );
+        template.setValidityPeriod( "000001000000000R" );
+        template.setShortMessage( "Καλημέρα".getBytes( StandardCharsets.UTF_16BE ) );
+        template.addOptionalParameter( new Tlv( SmppConstants.TAG_USER_MESSAGE_REFERENCE, new byte[] { 0x12, 0x34 } ) );
+        List<Address> destinations = Arrays.asList( new Address( ( byte ) 0x01, ( byte ) 0x01, "306900000001" ),
+                new Address( ( byte ) 0x01, ( byte ) 0x01, "306900000002" ),
+                new Address( ( byte ) 0x00, ( byte ) 0x00, "6900000003" ) );
+        SubmitMulti multi = SubmitMulti.of( template, destinations );
+        multi.setSequenceNumber( 7 );
+
+        byte[] encoded = bytes( transcoder.encode( multi ) );
+        // The number of destinations follows the service type and the source address; each one is flagged as an "SME"
+        // address.
+        int offset = 16 + "CMT".length() + 1 + 2 + "560".length() + 1;
+        assertEquals( 3, encoded[ offset ] );
+        assertEquals( 0x01, encoded[ offset + 1 ] );
+
+        SubmitMulti decoded = ( SubmitMulti ) transcoder.decode( ChannelBuffers.wrappedBuffer( encoded ) );
+        assertEquals( SmppConstants.CMD_ID_SUBMIT_MULTI, decoded.getCommandId() );
+        assertEquals( 7, decoded.getSequenceNumber() );
+        assertEquals( "CMT", decoded.getServiceType() );
+        assertEquals( "560", decoded.getSourceAddress().getAddress() );
+        assertEquals( destinations.size(), decoded.getDestAddresses().size() );
+        for ( int i = 0; i < destinations.size(); i++ ) {
+            assertAddress( destinations.get( i ), decoded.getDestAddresses().get( i ) );
+        }
+        assertEquals( SmppConstants.REGISTERED_DELIVERY_SMSC_RECEIPT_REQUESTED, decoded.getRegisteredDelivery() );
+        assertEquals( SmppConstants.DATA_CODING_UCS2, decoded.getDataCoding() );
+        assertEquals( "000001000000000R", decoded.getValidityPeriod() );
+        assertArrayEquals( template.getShortMessage(), decoded.getShortMessage() );
+        assertArrayEquals( new byte[] { 0x12, 0x34 },
+                decoded.getOptionalParameter( SmppConstants.TAG_USER_MESSAGE_REFERENCE ).getValue() );
+        // Encoding the decoded "PDU" gives back the same frame.
+        assertArrayEquals( encoded, bytes( transcoder.encode( decoded ) ) );
+    }
+
+    @Test
+    void decodeSmeAndDistributionListDestinations() throws Exception {
+        // An "SME" address ("dest_flag" 1, "TON", "NPI", address) and a distribution list ("dest_flag" 2, name).
+        byte[] frame = frame( SmppConstants.CMD_ID_SUBMIT_MULTI, 0, 3, "00" + "050035363000" + "02"
+                + "01" + "0101" + hex( "306900000001" ) + "00" + "02" + hex( "friends" ) + "00"
+                + "000000" + "00" + "00" + "01" + "00" + "00" + "00" + "02" + hex( "hi" ) );
+        SubmitMulti decoded = ( SubmitMulti ) transcoder.decode( ChannelBuffers.wrappedBuffer( frame ) );
+        assertEquals( 3, decoded.getSequenceNumber() );
+        assertEquals( 2, decoded.getDestAddresses().size() );
+        assertAddress( new Address( ( byte ) 0x01, ( byte ) 0x01, "306900000001" ), decoded.getDestAddresses().get( 0 ) );
+        // A distribution list is kept by its name, without a "TON" / "NPI".
+        assertAddress( new Address( ( byte ) 0x00, ( byte ) 0x00, "friends" ), decoded.getDestAddresses().get( 1 ) );
+        assertEquals( SmppConstants.REGISTERED_DELIVERY_SMSC_RECEIPT_REQUESTED, decoded.getRegisteredDelivery() );
+        assertArrayEquals( "hi".getBytes( StandardCharsets.ISO_8859_1 ), decoded.getShortMessage() );
+    }
+
+    @Test
+    void roundTripResponseWithUnsuccessSmes() throws Exception {
+        SubmitMultiResp response = new SubmitMultiResp();
+        response.setSequenceNumber( 11 );
+        response.setMessageId( "5f3a" );
+        response.addUnsuccessSme( new SubmitMultiResp.UnsuccessSme(
+                new Address( ( byte ) 0x01, ( byte ) 0x01, "306900000002" ), SmppConstants.STATUS_THROTTLED ) );
+        response.addUnsuccessSme( new SubmitMultiResp.UnsuccessSme(
+                new Address( ( byte ) 0x01, ( byte ) 0x01, "306900000003" ), SmppConstants.STATUS_INVDSTADR ) );
+
+        byte[] encoded = bytes( transcoder.encode( response ) );
+        SubmitMultiResp decoded = ( SubmitMultiResp ) transcoder.decode( ChannelBuffers.wrappedBuffer( encoded ) );
+        assertEquals( 11, decoded.getSequenceNumber() );
+        assertEquals( SmppConstants.STATUS_OK, decoded.getCommandStatus() );
+        assertEquals( "5f3a", decoded.getMessageId() );
+        assertEquals( 2, decoded.getUnsuccessSmes().size() );
+        assertAddress( response.getUnsuccessSmes().get( 0 ).getAddress(), decoded.getUnsuccessSmes().get( 0 ).getAddress() );
+        assertEquals( SmppConstants.STATUS_THROTTLED, decoded.getUnsuccessSmes().get( 0 ).getErrorStatusCode() );
+        assertAddress( response.getUnsuccessSmes().get( 1 ).getAddress(), decoded.getUnsuccessSmes().get( 1 ).getAddress() );
+        assertEquals( SmppConstants.STATUS_INVDSTADR, decoded.getUnsuccessSmes().get( 1 ).getErrorStatusCode() );
+        assertArrayEquals( encoded, bytes( transcoder.encode( decoded ) ) );
+
+        // All the destinations accepted; an empty list.
+        SubmitMultiResp accepted = new SubmitMultiResp();
+        accepted.setMessageId( "5f3b" );
+        SubmitMultiResp decodedAccepted = ( SubmitMultiResp ) transcoder.decode( transcoder.encode( accepted ) );
+        assertEquals( "5f3b", decodedAccepted.getMessageId() );
+        assertTrue( decodedAccepted.getUnsuccessSmes().isEmpty() );
+    }
+
+    @Test
+    void decodeErrorResponseWithoutBody() throws Exception {
+        // A failed request; the "SMSC" sends the header alone.
+        byte[] frame = frame( SmppConstants.CMD_ID_SUBMIT_MULTI_RESP, SmppConstants.STATUS_THROTTLED, 9, "" );
+        Pdu pdu = transcoder.decode( ChannelBuffers.wrappedBuffer( frame ) );
+        SubmitMultiResp decoded = ( SubmitMultiResp ) pdu;
+        assertEquals( SmppConstants.STATUS_THROTTLED, decoded.getCommandStatus() );
+        assertEquals( 9, decoded.getSequenceNumber() );
+        assertNotNull( decoded.getResultMessage() );
+        assertNull( decoded.getMessageId() );
+        assertTrue( decoded.getUnsuccessSmes().isEmpty() );
+    }
+
+    @Test
+    void copyTheMessageToEachDestination() throws Exception {
+        SubmitSm template = new SubmitSm();
+        template.setSourceAddress( new Address( ( byte ) 0x05, ( byte ) 0x00, "560" ) );
+        template.setEsmClass( SmppConstants.ESM_CLASS_UDHI_MASK );
+        template.setShortMessage( new byte[] { 0x05, 0x00, 0x03, 0x01, 0x02, 0x01, 0x41 } );
+        Address destination = new Address( ( byte ) 0x01, ( byte ) 0x01, "306900000001" );
+        SubmitSm submit = SubmitMulti.toSubmitSm( SubmitMulti.of( template, Collections.singletonList( destination ) ),
+                destination );
+        assertAddress( destination, submit.getDestAddress() );
+        assertEquals( "560", submit.getSourceAddress().getAddress() );
+        assertEquals( SmppConstants.ESM_CLASS_UDHI_MASK, submit.getEsmClass() );
+        assertArrayEquals( template.getShortMessage(), submit.getShortMessage() );
+        // The template itself is left untouched.
+        assertNull( template.getDestAddress() );
+
+        assertThrows( IllegalArgumentException.class, () -> SubmitMulti.of( template, Collections.emptyList() ) );
+        assertThrows( IllegalArgumentException.class, () -> SubmitMulti.of( template,
+                Collections.nCopies( SubmitMulti.MAX_DESTINATIONS + 1, destination ) ) );
+    }
+
+    /**
+     * Check that two addresses are the same.
+     *
+     * @param expected The expected address.
+     * @param actual The actual address.
+     */
+    private static void assertAddress( Address expected, Address actual ) {
+        assertEquals( expected.getTon(), actual.getTon() );
+        assertEquals( expected.getNpi(), actual.getNpi() );
+        assertEquals( expected.getAddress(), actual.getAddress() );
+    }
+
+    /**
+     * Build a "PDU" frame.
+     *
+     * @param commandId The command id.
+     * @param commandStatus The command status.
+     * @param sequenceNumber The sequence number.
+     * @param body The body in hexadecimal.
+     * @return The frame.
+     */
+    private static byte[] frame( int commandId, int commandStatus, int sequenceNumber, String body ) {
+        String header = String.format( "%08x%08x%08x", commandId, commandStatus, sequenceNumber );
+        return Utils.decodeHexString( String.format( "%08x", 16 + body.length() / 2 ) + header + body );
+    }
+
+    /**
+     * Get the hexadecimal representation of an "ASCII" string.
+     *
+     * @param text The string.
+     * @return The hexadecimal representation of its bytes.
+     */
+    private static String hex( String text ) {
+        StringBuilder hex = new StringBuilder();
+        for ( byte value : text.getBytes( StandardCharsets.US_ASCII ) ) {
+            hex.append( String.format( "%02x", value ) );
+        }
+        return hex.toString();
+    }
+
+    /**
+     * Get the readable bytes of a buffer.
+     *
+     * @param buffer The buffer.
+     * @return The bytes.
+     */
+    private static byte[] bytes( ChannelBuffer buffer ) {
+        byte[] bytes = new byte[ buffer.readableBytes() ];
+        buffer.getBytes( buffer.readerIndex(), bytes );
+        return bytes;
+    }
+}
@@ -0,0 +1,144 @@
+package com.smpp.client;
+
+// "JUnit Jupiter" test annotations and assertions.
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Thrown to indicate that a malformed "URL" has occurred.
+import java.net.MalformedURLException;
+// An ordered collection.
+import java.util.List;
+
+/**
+ * Check the "WAP Push" "SI" / "SL" encoding against the "tcp_smpp_traces" captures ("wap_si.txt", "wap_sl.txt") and
+ * against the output of the former "eigroup" ("ServiceIndication" / "ServiceLoading") messages.
+ *
+ * @author  Aristotelis Metsinis ( aristotelis.metsinis@gmail.com )
+ * @version 1.0
+ * @since   January 2022
+ */
+class WapPushEncoderTest {
+    // The "href" of the captures.
+    private static final String HREF = "http://aristotelis-metsinis.github.io/";
+
+    // Inputs ("href", indication text, "si-id") and the user data of the "SI" and "SL" messages, as encoded by the
+    // "eigroup" library: the "href" prefix tokens ("http://www.", "https://", "https://www.") and the domain tokens
+    // (".com/", ".edu/", ".net/", ".org/").
+    private static final String[][] EIGROUP_MESSAGES = {
+            { "http://www.example.com/news", "Breaking news", "1000",
+                    "0605040b8423f0000601ae02056a0045c60d036578616d706c650085036e657773001103313030300008010342726561"
+                    + "6b696e67206e657773000101",
+                    "0605040b8423f0000601b002066a00850a036578616d706c650085036e657773000601" },
+            { "https://shop.example.org/cart?id=42", "Your cart", "0",
+                    "0605040b8423f0000601ae02056a0045c60e0373686f702e6578616d706c65008803636172743f69643d343200110330"
+                    + "00080103596f75722063617274000101",
+                    "0605040b8423f0000601b002066a00850b0373686f702e6578616d706c65008803636172743f69643d3432000601" },
+            { "https://www.example.net/", "", "123456",
+                    "0605040b8423f0000601ae02056a0045c60f036578616d706c650087030011033132333435360008010101",
+                    "0605040b8423f0000601b002066a00850c036578616d706c65008703000601" },
+            { "http://example.edu/a/b.html", "Ünïcödé text", "77",
+                    "0605040b8423f0000601ae02056a0045c60c036578616d706c65008603612f622e68746d6c00110337370008010"
+                    + "3c39c6ec3af63c3b664c3a92074657874000101",
+                    "0605040b8423f0000601b002066a008509036578616d706c65008603612f622e68746d6c000601" },
+    };
+
+    @Test
+    void serviceIndicationMatchesCapture() throws MalformedURLException {
+        // "wap_si.txt": "UDH" (port addressing 9200 -> 2948), "WSP" push header ("application/vnd.wap.sic"), and the
+        // "WBXML" of <si><indication href="http://aristotelis-metsinis.github.io/" si-id="9875"
+        // action="signal-high">WAP_SI hello world</indication></si>; 82 octets.
+        byte[] expected = Utils.decodeHexString( "0605040b8423f0" + "000601ae" + "02056a00" + "45c60c03"
+                + "61726973746f74656c69732d6d657473696e69732e6769746875622e696f2f00" + "1103" + "3938373500" + "0801"
+                + "03" + "5741505f53492068656c6c6f20776f726c6400" + "0101" );
+        List<byte[]> messages = WapPushEncoder.serviceIndication( HREF, "WAP_SI hello world" ).encode( 9875, () -> 0 );
+        assertEquals( 1, messages.size() );
+        assertEquals( 82, messages.get( 0 ).length );
+        assertArrayEquals( expected, messages.get( 0 ) );
+    }
+
+    @Test
+    void serviceLoadingMatchesCapture() throws MalformedURLException {
+        // "wap_sl.txt": "UDH" (port addressing 9200 -> 2948), "WSP" push header ("application/vnd.wap.slc"), and the
+        // "WBXML" of <sl href="http://aristotelis-metsinis.github.io/" action="execute-high"/>; 52 octets.
+        byte[] expected = Utils.decodeHexString( "0605040b8423f0" + "000601b0" + "02066a00" + "850903"
+                + "61726973746f74656c69732d6d657473696e69732e6769746875622e696f2f00" + "0601" );
+        List<byte[]> messages = WapPushEncoder.serviceLoading( HREF ).encode( 0, () -> 0 );
+        assertEquals( 1, messages.size() );
+        assertEquals( 52, messages.get( 0 ).length );
+        assertArrayEquals( expected, messages.get( 0 ) );
+    }
+
+    @Test
+    void messagesMatchEigroup() throws MalformedURLException {
+        for ( String[] message : EIGROUP_MESSAGES ) {
+            List<byte[]> si = WapPushEncoder.serviceIndication( message[ 0 ], message[ 1 ] )
+                    .encode( Integer.parseInt( message[ 2 ] ), () -> 0 );
+            assertEquals( 1, si.size(), message[ 0 ] );
+            assertEquals( message[ 3 ], Utils.encodeHexString( si.get( 0 ) ).toLowerCase(), message[ 0 ] );
+
+            List<byte[]> sl = WapPushEncoder.serviceLoading( message[ 0 ] ).encode( 0, () -> 0 );
+            assertEquals( 1, sl.size(), message[ 0 ] );
+            assertEquals( message[ 4 ], Utils.encodeHexString( sl.get( 0 ) ).toLowerCase(), message[ 0 ] );
+        }
+    }
+
+    @Test
+    void segmentedMessagesMatchEigroup() throws MalformedURLException {
+        String href = HREF + repeat( "x", 150 );
+        // The "eigroup" messages, with the "SAR" reference numbers they were drawn with.
+        List<byte[]> si = WapPushEncoder.serviceIndication( href, "A long one" ).encode( 4321, () -> 0xA983 );
+        assertEquals( 2, si.size() );
+        assertEquals( "0c05040b8423f00804a9830201" + "000601ae02056a0045c60c03"
+                + "61726973746f74656c69732d6d657473696e69732e6769746875622e696f2f" + repeat( "78", 84 ),
+                Utils.encodeHexString( si.get( 0 ) ).toLowerCase() );
+        assertEquals( "0c05040b8423f00804a9830202" + repeat( "78", 66 )
+                + "001103343332310008010341206c6f6e67206f6e65000101",
+                Utils.encodeHexString( si.get( 1 ) ).toLowerCase() );
+
+        List<byte[]> sl = WapPushEncoder.serviceLoading( href ).encode( 0, () -> 0xE3E2 );
+        assertEquals( 2, sl.size() );
+        assertEquals( "0c05040b8423f00804e3e20201" + "000601b002066a00850903"
+                + "61726973746f74656c69732d6d657473696e69732e6769746875622e696f2f" + repeat( "78", 85 ),
+                Utils.encodeHexString( sl.get( 0 ) ).toLowerCase() );
+        assertEquals( "0c05040b8423f00804e3e20202" + repeat( "78", 65 ) + "000601",
+                Utils.encodeHexString( sl.get( 1 ) ).toLowerCase() );
+        for ( byte[] message : si ) {
+            assertTrue( message.length <= 140 );
+        }
+    }
+
+    @Test
+    void reuseCompiledMessage() throws MalformedURLException {
+        WapPushEncoder si = WapPushEncoder.serviceIndication( HREF, "text" );
+        assertTrue( si.isCompiledFrom( HREF, "text" ) );
+        assertFalse( si.isCompiledFrom( HREF, "other text" ) );
+        assertFalse( si.isCompiledFrom( HREF + "x", "text" ) );
+        // Only the "si-id" differs between two messages.
+        assertEquals( Utils.encodeHexString( si.encode( 9875, () -> 0 ).get( 0 ) ).replace( "39383735", "31323334" ),
+                Utils.encodeHexString( si.encode( 1234, () -> 0 ).get( 0 ) ) );
+    }
+
+    @Test
+    void rejectMalformedHref() {
+        assertThrows( MalformedURLException.class, () -> WapPushEncoder.serviceLoading( "not a url" ) );
+    }
+
+    /**
+     * Repeat a text.
+     *
+     * @param text The text.
+     * @param count The number of times.
+     * @return The repeated text.
+     */
+    private static String repeat( String text, int count ) {
+        StringBuilder repeated = new StringBuilder( text.length() * count );
+        for ( int i = 0; i < count; i++ ) {
+            repeated.append( text );
+        }
+        return repeated.toString();
+    }
+}